@@ -110,9 +110,7 @@ public class BalancingDataProcessor implements DataProcessor {
 	public Data process(Data data) {
 		//EnumeratedIntegerDistribution distribution; //from Apache Commons Math library
 		
-		InformationTableWithDecisionDistributions informationTableWithDistributions = data.getInformationTable() instanceof InformationTableWithDecisionDistributions ?
-				(InformationTableWithDecisionDistributions)data.getInformationTable() :
-				new InformationTableWithDecisionDistributions(data.getInformationTable()); 
+		InformationTableWithDecisionDistributions informationTableWithDistributions = data.getInformationTableWithDecisionDistributions();
 		
 		int totalNumberOfObjects = informationTableWithDistributions.getNumberOfObjects();
 		
@@ -29,7 +29,7 @@ public class BalancingDataProcessorProvider implements DataProcessorProvider {
 	
 	@Override
 	public String toString() {
-		return BalancingDataProcessor.serialize(balancingStrategy);
+		return BalancingDataProcessor.serialize(balancingStrategy, basicSeed); //seed distinguishes names of experiment setups, and thus their journaled results
 	}
 
 	@Override
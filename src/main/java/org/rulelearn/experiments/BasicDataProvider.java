@@ -243,6 +243,9 @@ public class BasicDataProvider implements DataProvider {
 	
 	InformationTableWithDecisionDistributions informationTable = null;
 	long informationTableTransformationTime = 0L;
+	DominanceCounter dominanceCounter = null; //constructed once per loaded information table, and shared by all provided data
+	boolean dominanceCounterConstructed = false; //tells if dominanceCounter has been constructed (it can be null, if dominance cones of ruleLearn have to be used)
+	String groupArtifactsKey = null; //calculated once per loaded information table, as it involves hashing all evaluations
 	Params params;
 	String dataName;
 	String dataGroup;
@@ -296,7 +299,10 @@ public class BasicDataProvider implements DataProvider {
 				}
 			}
 			
-			return new Data(informationTable, dataName, dataGroup, seeds[crossValidationNumber], informationTableTransformationTime);
+			Data data = new Data(informationTable, dataName, dataGroup, seeds[crossValidationNumber], informationTableTransformationTime);
+			data.groupArtifactsKey = getGroupArtifactsKey();
+			data.dominanceCounter = getDominanceCounter();
+			return data;
 		} else {
 			throw new UnsupportedOperationException("Data provider has already done his job.");
 		}
@@ -319,12 +325,36 @@ public class BasicDataProvider implements DataProvider {
 				}
 			}
 			
-			return new Data(informationTable, dataName, dataGroup, informationTableTransformationTime);
+			Data data = new Data(informationTable, dataName, dataGroup, informationTableTransformationTime);
+			data.groupArtifactsKey = getGroupArtifactsKey();
+			data.dominanceCounter = getDominanceCounter();
+			return data;
 		} else {
 			throw new UnsupportedOperationException("Data provider has already done his job.");
 		}
 	}
 	
+	/**
+	 * Gets {@link DominanceCounter dominance counter} of the loaded information table, constructed on the first call. The counter is shared by data provided
+	 * for all cross-validations, and by their folds (see {@link Data#getDominanceCounter()}), so objects are compared only once per data set.
+	 * 
+	 * @return dominance counter of the loaded information table, or {@code null} if dominance cones of ruleLearn have to be used
+	 */
+	DominanceCounter getDominanceCounter() {
+		if (!dominanceCounterConstructed) {
+			dominanceCounter = DominanceCounter.of(informationTable);
+			dominanceCounterConstructed = true;
+		}
+		return dominanceCounter;
+	}
+	
+	String getGroupArtifactsKey() { //artifacts of provided data are shared with other data sets of the same data group, if configured
+		if (groupArtifactsKey == null && BatchExperiment.shareGroupArtifacts && dataGroup != null) {
+			groupArtifactsKey = DataGroupArtifactStore.getArtifactsKey(dataGroup, informationTable);
+		}
+		return groupArtifactsKey;
+	}
+	
 	@Override
 	public Data previewOriginalData() { //returns Data but does not store information table neither calculates its decision distributions
 		InformationTable informationTable = null; //no decision distributions - loads faster!
@@ -377,6 +407,9 @@ public class BasicDataProvider implements DataProvider {
 	@Override
 	public void done() {
 		this.informationTable = null;
+		this.dominanceCounter = null;
+		this.dominanceCounterConstructed = false;
+		this.groupArtifactsKey = null;
 		//this.seeds = null;
 		this.params = null;
 		done = true;
@@ -385,6 +418,9 @@ public class BasicDataProvider implements DataProvider {
 	@Override
 	public void reset() {
 		this.informationTable = null;
+		this.dominanceCounter = null;
+		this.dominanceCounterConstructed = false;
+		this.groupArtifactsKey = null;
 	}
 
 }
@@ -3,23 +3,23 @@
  */
 package org.rulelearn.experiments;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-import org.rulelearn.approximations.Unions;
-import org.rulelearn.approximations.UnionsWithSingleLimitingDecision;
-import org.rulelearn.approximations.VCDominanceBasedRoughSetCalculator;
+import org.rulelearn.core.InvalidValueException;
 import org.rulelearn.data.Decision;
 import org.rulelearn.data.DecisionDistribution;
-import org.rulelearn.data.InformationTable;
-import org.rulelearn.data.InformationTableWithDecisionDistributions;
 import org.rulelearn.data.SimpleDecision;
 import org.rulelearn.experiments.BalancingDataProcessor.BalancingStrategy;
 import org.rulelearn.experiments.BatchExperimentResults.CVSelector;
@@ -39,9 +39,10 @@ import org.rulelearn.experiments.setup.BatchExperimentSetupChurn4000v8Original;
 import org.rulelearn.experiments.setup.BatchExperimentSetupMonumentsMoNGEL;
 import org.rulelearn.experiments.setup.BatchExperimentSetupMonumentsOLM_OSDL;
 import org.rulelearn.experiments.setup.BatchExperimentSetupMonumentsOriginal;
-import org.rulelearn.measures.dominance.EpsilonConsistencyMeasure;
 import org.rulelearn.validation.OrdinalMisclassificationMatrix;
 
+import weka.experiment.PairedStatsCorrected;
+
 /**
  * Batch repeated cross-validation experiment over multiple data sets, with pre-processing of learning data, and different parameterized learning methods.
  * Each data set used in the experiment need to be an ordinal classification problem (with order among decisions).
@@ -55,6 +56,10 @@ public class BatchExperiment {
 	DataProcessorProvider trainDataPreprocessorProvider;
 	List<LearningAlgorithm> learningAlgorithms;
 	LearningAlgorithmDataParametersContainer parametersContainer;
+	WorkUnitCostModel costModel = new WorkUnitCostModel();
+	String setupName = null; //identifies results of this experiment in a journal; null = results are not journaled
+	ExperimentJournal journal = null;
+	List<String> importedJournalFilePaths = new ArrayList<String>(); //journals (e.g., written by workers of a distributed experiment) whose results are restored as if they were in the journal of this experiment
 	
 	//<BEGIN EXPERIMENT CONFIG>
 	//TODO: configure?
@@ -68,9 +73,78 @@ public class BatchExperiment {
 	static final String decimalFormat = "%.5f"; //tells number of decimal places
 	static final String percentDecimalFormat = "%.3f"; //tells number of decimal places in percentages
 	
-	static final boolean foldsInParallel = true; //false => folds will be done sequentially (useful only to measure more accurately avg. calculation times)
+	static final boolean foldsInParallel = true; //false => work units (folds, algorithms, parameters) will be done sequentially (useful only to measure more accurately avg. calculation times)
+	static final int numberOfThreads = Runtime.getRuntime().availableProcessors(); //number of threads running work units in parallel
+	static final boolean memoryAdmissionControl = true; //true = work units are started only if their estimated heap footprint fits in free heap memory, so the number of units running in parallel adapts to data size
+	static final double heapUsageLimit = 0.85; //fraction of maximum heap size that may be used when memory admission control is on
+	static final boolean pipelinedCrossValidations = true; //true = folds of the next cross-validation are prepared in background while the current cross-validation is calculated (at most one cross-validation ahead)
+	static final String journalDirectoryPath = null; //directory with journals of results of finished work units, allowing to resume an interrupted experiment (e.g., "./journal"); null = do not journal results
+	static final String journalRunTag = null; //tag included in keys of journaled results and of rules cached on disk (e.g., version of the code or of ruleLearn), so results and rules of a run with another tag are not restored; null = no tag
+	static final String reportFilePath = null; //file to which reports are written (appended) in addition to console; null = console only
+	static final String workUnitCostsFilePath = null; //costs of work units recorded in previous runs, used to run the most expensive units first and to estimate wall time (e.g., "./work-unit-costs.tsv"); null = costs are modeled in memory only, within a run
+	static final boolean shareGroupArtifacts = false; //true = fold partitions and WEKA instances are calculated once for all data sets of a data group (containing the same objects, e.g., with different semantics of missing values); false = they are calculated for each data set
+	static final String ruleSetsCacheDirectoryPath = null; //directory with rules induced by VCDomLEM in previous runs, identified by version of VCDomLEM and ruleLearn (plus journalRunTag), hash of training data, consistency threshold, and generalization flag (e.g., "./rule-sets"); null = rules are induced in each run
+	static final String foldPartitionsCacheDirectoryPath = null; //directory with partitions of objects into cross-validation folds, calculated in previous runs, identified by data group (or data set) name, hash of decisions, seed, and number of folds (e.g., "./fold-partitions"); null = partitions are calculated in each run
+	static final boolean useDominanceKernel = true; //true = epsilon consistencies of objects (used by quality of approximation and numbers of consistent objects) are calculated over ranks of evaluations, if all active condition attributes are gain/cost attributes without missing values (see DominanceCounter); false = dominance cones of ruleLearn are always used
+	static final int dominanceIndexMinNumberOfObjects = 50000; //data with at least this number of objects use a k-d tree over ranks of evaluations (see DominanceIndex), not checking all pairs of objects; smaller data use a bitset kernel (see DominanceKernel)
+	static final boolean useCompiledRuleSet = true; //true = rules covering test objects are found for the whole test data on primitive codes of evaluations (see CompiledRuleSet), and rule classifier is invoked once per distinct set of covering rules; false = each test object is classified separately by rule classifier
+	static final double cachesHeapFraction = 0.2; //fraction of maximum heap size that may be occupied by rules (and, separately, by unions, by numbers of consistent objects, and by WEKA instances shared within data groups) cached in memory; entries evicted above this budget stay softly referenced until GC needs their memory
+	static final BoundedCache.EvictionPolicy cachesEvictionPolicy = BoundedCache.EvictionPolicy.LRU; //LRU = evict least recently used cached entries first; LFU = evict least frequently used entries first
+	static final boolean racingParameters = false; //true = after each CV (starting from racingCrossValidationsCount-th one), parameters of an algorithm significantly worse than its best parameters are dropped, and remaining CVs are done only for surviving parameters (ignored by workers of a distributed experiment)
+	static final int racingCrossValidationsCount = 2; //number of CVs done for all parameters before the first racing round
+	static final double racingSignificanceLevel = 0.05; //significance level of corrected resampled paired t-test comparing per-fold accuracies of parameters with the best parameters
+	static final boolean racingHalving = false; //true = in each racing round, additionally, only the better half (by avg. accuracy) of surviving parameters survives (successive halving)
+	static final int concurrentSetupsCount = 1; //number of experiment setups run concurrently, sharing threads and heap budget (see BatchExperimentSuite); 1 = setups are run one after another
+	static final String setupReportsDirectoryPath = "./reports"; //directory with reports of setups run concurrently, one file per setup; null = reports of all setups are written to console (and reportFilePath)
 	//<END EXPERIMENT CONFIG>
 	
+	/**
+	 * Result of learning and validation of a model on full data, stored until it can be printed in the order of (algorithm, parameters) pairs.
+	 */
+	private static class FullDataWorkUnitResult {
+		WorkUnit workUnit;
+		ModelValidationResult modelValidationResult;
+		long trainingTime;
+		long validationTime;
+		String modelDescription;
+		boolean restored; //tells if this result has been restored from a journal
+		
+		FullDataWorkUnitResult(WorkUnit workUnit, ModelValidationResult modelValidationResult, long trainingTime, long validationTime, String modelDescription, boolean restored) {
+			this.workUnit = workUnit;
+			this.modelValidationResult = modelValidationResult;
+			this.trainingTime = trainingTime;
+			this.validationTime = validationTime;
+			this.modelDescription = modelDescription;
+			this.restored = restored;
+		}
+	}
+	
+	/**
+	 * Cross-validation whose folds are ready to be learned from, once preprocessing of train data of each fold is done.
+	 */
+	private static class PreparedCrossValidation {
+		int crossValidationNumber;
+		long seed;
+		long startTime;
+		Decision[] referenceOrderOfDecisions;
+		String dataHash; //hash of cross-validated data, used to journal results; null if results are not journaled
+		List<CrossValidationFold> folds;
+		List<List<WorkUnit>> foldsWorkUnits; //units to be run for subsequent folds (not restored from journal)
+		List<CompletableFuture<Data>> processedTrainDataReady; //preprocessing of train data of subsequent folds; null if all units of a fold are restored from journal
+		String[] preprocesssorsLog;
+		
+		PreparedCrossValidation(int crossValidationNumber, long seed, long startTime, Decision[] referenceOrderOfDecisions, List<CrossValidationFold> folds) {
+			this.crossValidationNumber = crossValidationNumber;
+			this.seed = seed;
+			this.startTime = startTime;
+			this.referenceOrderOfDecisions = referenceOrderOfDecisions;
+			this.folds = folds;
+			this.foldsWorkUnits = new ArrayList<List<WorkUnit>>(folds.size());
+			this.processedTrainDataReady = new ArrayList<CompletableFuture<Data>>(folds.size());
+			this.preprocesssorsLog = new String[folds.size()];
+		}
+	}
+	
 	/**
 	 * Constructs this experiment.
 	 * 
@@ -89,37 +163,50 @@ public class BatchExperiment {
 		this.parametersContainer = parametersContainer;
 	}
 	
+	/**
+	 * Constructs this experiment, whose results of finished work units are journaled, so the experiment can be resumed if interrupted.
+	 * 
+	 * @param setupName name of experiment setup, identifying journaled results
+	 * @param dataProviders
+	 * @param crossValidationProvider
+	 * @param trainDataPreprocessorProvider
+	 * @param learningAlgorithms
+	 * @param parametersContainer
+	 */
+	public BatchExperiment(String setupName, List<DataProvider> dataProviders, CrossValidationProvider crossValidationProvider, DataProcessorProvider trainDataPreprocessorProvider,
+			List<LearningAlgorithm> learningAlgorithms, LearningAlgorithmDataParametersContainer parametersContainer) {
+		this(dataProviders, crossValidationProvider, trainDataPreprocessorProvider, learningAlgorithms, parametersContainer);
+		this.setupName = setupName;
+	}
+	
 	static String prepareText(String text, String prefix) {
 		return text.replaceAll("%p", prefix).replaceAll("%n", System.lineSeparator());
 	}
 	
 	static String resolveText(String text, Object... params) {
-		for (int i = 0; i < params.length; i++) {
-			text = text.replaceFirst("%"+(i+1), (params[i] != null ? params[i].toString() : "null"));
-		}
-		return text;
+		return ExperimentReporter.Template.of(text).format(params); //template is compiled once, so no regular expressions are evaluated
 	}
 	
-	//e.g.: out("This is a test %1, %2.", 23, "abc") results in System.out.print("This is a test 23, abc.");
+	//e.g.: out("This is a test %1, %2.", 23, "abc") results in reporting "This is a test 23, abc."; text is resolved by reporter's writer thread
 	static void out(String text, Object... params) {
-		System.out.print(resolveText(text, params));
+		ExperimentReporter.current().report(() -> resolveText(text, params));
 	}
 	
-	//e.g.: out("This is a test %1, %2.", 23, "abc") results in System.out.println("This is a test 23, abc.");
+	//e.g.: out("This is a test %1, %2.", 23, "abc") results in reporting "This is a test 23, abc." followed by new line; text is resolved by reporter's writer thread
 	static void outN(String text, Object... params) {
-		System.out.println(resolveText(text, params));
+		ExperimentReporter.current().report(() -> resolveText(text, params) + System.lineSeparator());
 	}
 	
 	static void out(String text) {
-		System.out.print(text);
+		ExperimentReporter.current().report(text);
 	}
 	
 	static void outN(String text) {
-		System.out.println(text);
+		ExperimentReporter.current().report(() -> text + System.lineSeparator());
 	}
 	
 	static void outN() {
-		System.out.println();
+		ExperimentReporter.current().report(System.lineSeparator());
 	}
 	
 	private long b(String msg) { //begin
@@ -146,19 +233,14 @@ public class BatchExperiment {
 	}
 	
 	/**
-	 * Calculates quality of approximation using \epsilon-VC-DRSA.
+	 * Calculates quality of approximation using \epsilon-VC-DRSA. Epsilon consistencies of objects are calculated only for the first considered threshold,
+	 * and then reused for all other thresholds (see {@link EpsilonConsistencyProfile}).
 	 * 
-	 * @param informationTable the data
+	 * @param data the data, whose name identifies epsilon consistency profile {@link UnionsCache cached} for these data
 	 * @return quality of approximation
 	 */
-	double calculateQualityOfApproximation(InformationTable informationTable, double consistencyThreshold) {
-		InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = (informationTable instanceof InformationTableWithDecisionDistributions ?
-				(InformationTableWithDecisionDistributions)informationTable : new InformationTableWithDecisionDistributions(informationTable, true, true));
-		
-		Unions unions = new UnionsWithSingleLimitingDecision(informationTableWithDecisionDistributions, 
-				   new VCDominanceBasedRoughSetCalculator(EpsilonConsistencyMeasure.getInstance(), consistencyThreshold));
-		
-		return unions.getQualityOfApproximation();
+	double calculateQualityOfApproximation(Data data, double consistencyThreshold) {
+		return UnionsCache.getInstance().getConsistencyProfile(data).getQualityOfApproximation(consistencyThreshold);
 	}
 	
 	static String getTruePositiveRates(OrdinalMisclassificationMatrix misclassificationMatrix) {
@@ -187,13 +269,63 @@ public class BatchExperiment {
 	}
 	
 	/**
-	 * Runs this experiment.
+	 * Prints expected wall time of this experiment, estimated using costs of work units recorded in previous runs.
+	 * Assuming that the most expensive units are run first, wall time is approximated by the maximum of total cost of all units divided by the number of threads,
+	 * and cost of the most expensive unit. If no unit has a recorded cost (e.g., in the first run), wall time is reported as unavailable.
 	 * 
-	 * @return results of this experiment
+	 * @param numberOfThreads number of threads running work units in parallel
 	 */
-	public BatchExperimentResults run() {
+	void printExpectedWallTime(int numberOfThreads) {
+		long totalCost = 0L;
+		long maxCost = 0L;
+		int estimatedCount = 0; //number of (data, algorithm, parameters) triples with recorded costs
+		List<String> notEstimated = new ArrayList<String>();
+		
+		for (DataProvider dataProvider : dataProviders) {
+			int numberOfObjects = costModel.getDataSize(dataProvider.getDataName());
+			if (numberOfObjects < 0) {
+				notEstimated.add(dataProvider.getDataName());
+				continue;
+			}
+			int crossValidationsCount = doCrossValidations ? dataProvider.getSeeds().length : 0;
+			int numberOfFolds = dataProvider.getNumberOfFolds();
+			int numberOfFoldTrainingObjects = numberOfFolds > 0 ? (int)Math.round((double)numberOfObjects * (numberOfFolds - 1) / numberOfFolds) : numberOfObjects;
+			
+			for (int learningAlgorithmNumber = 0; learningAlgorithmNumber < learningAlgorithms.size(); learningAlgorithmNumber++) {
+				LearningAlgorithm algorithm = learningAlgorithms.get(learningAlgorithmNumber);
+				List<LearningAlgorithmDataParameters> parametersList = processListOfParameters(parametersContainer.getParameters(algorithm.getName(), dataProvider.getDataName()));
+				for (int parametersNumber = 0; parametersNumber < parametersList.size(); parametersNumber++) {
+					WorkUnit workUnit = new WorkUnit(-1, -1, -1, learningAlgorithmNumber, parametersNumber, algorithm, parametersList.get(parametersNumber));
+					long fullDataCost = doFullDataReclassification ? costModel.estimate(dataProvider.getDataName(), workUnit, numberOfObjects) : 0L;
+					long foldCost = crossValidationsCount > 0 ? costModel.estimate(dataProvider.getDataName(), workUnit, numberOfFoldTrainingObjects) : 0L;
+					if (fullDataCost < 0 || foldCost < 0) {
+						notEstimated.add(dataProvider.getDataName()+":"+algorithm.getName()+"("+parametersList.get(parametersNumber)+")");
+						continue;
+					}
+					totalCost += fullDataCost + (long)crossValidationsCount * numberOfFolds * foldCost;
+					maxCost = Math.max(maxCost, Math.max(fullDataCost, foldCost));
+					estimatedCount++;
+				}
+			}
+		}
 		
-		//calculate maximum number of parameters for an algorithm
+		if (estimatedCount == 0) {
+			outN("Expected wall time: unavailable, as no work unit has a recorded cost.");
+			return;
+		}
+		long expectedWallTime = Math.max(totalCost / numberOfThreads, maxCost);
+		outN("Expected wall time: %1 [ms] (total cost of work units: %2 [ms], most expensive work unit: %3 [ms], threads: %4).", expectedWallTime, totalCost, maxCost, numberOfThreads);
+		if (notEstimated.size() > 0) {
+			outN("Expected wall time does not include work units without recorded costs: %1.", notEstimated.stream().collect(Collectors.joining(", ")));
+		}
+	}
+	
+	/**
+	 * Calculates maximum number of parameters for an algorithm, over all (data, algorithm) pairs.
+	 * 
+	 * @return maximum number of parameters for an algorithm
+	 */
+	int getMaxParametersCount() {
 		int maxParametersCount = -1;
 		int parametersCount;
 		for (DataProvider dataProvider : dataProviders) {
@@ -207,18 +339,109 @@ public class BatchExperiment {
 				}
 			}
 		}
+		return maxParametersCount;
+	}
+	
+	/**
+	 * Calculates maximum number of cross-validations among all data sets.
+	 * 
+	 * @return maximum number of cross-validations
+	 */
+	int getMaxCrossValidationsCount() {
+		int maxCrossValidationsCount = -1;
+		for (DataProvider dataProvider : dataProviders) {
+			if (dataProvider.getSeeds().length > maxCrossValidationsCount) {
+				maxCrossValidationsCount = dataProvider.getSeeds().length;
+			}
+		}
+		return maxCrossValidationsCount;
+	}
+	
+	/**
+	 * Sets memory budgets of in-memory caches, and opens persistent caches of rules and of fold partitions, if configured and not opened yet.
+	 */
+	static synchronized void configureCaches() {
+		long cachesMaxWeight = (long)(cachesHeapFraction * Runtime.getRuntime().maxMemory());
+		VCDomLEMModeRuleClassifierLearnerCache.getInstance().configure(cachesMaxWeight, cachesEvictionPolicy);
+		NumberOfConsistentObjectsCache.getInstance().configure(cachesMaxWeight, cachesEvictionPolicy);
+		UnionsCache.getInstance().configure(cachesMaxWeight, cachesEvictionPolicy);
+		DataGroupArtifactStore.getInstance().configure(cachesMaxWeight, cachesEvictionPolicy);
+		
+		if (ruleSetsCacheDirectoryPath != null && VCDomLEMModeRuleClassifierLearnerCache.getInstance().getDiskCache() == null) {
+			try {
+				VCDomLEMModeRuleClassifierLearnerCache.getInstance().setDiskCache(new RuleSetDiskCache(ruleSetsCacheDirectoryPath, RuleSetDiskCache.getVersionTag(journalRunTag)));
+				outN("Rules induced by VCDomLEM are cached in directory %1 (version: %2).", ruleSetsCacheDirectoryPath, RuleSetDiskCache.getVersionTag(journalRunTag));
+			} catch (IOException exception) {
+				outN("Could not open directory %1, rules induced by VCDomLEM will not be cached on disk: %2.", ruleSetsCacheDirectoryPath, exception.getMessage());
+			}
+		}
+		
+		if (foldPartitionsCacheDirectoryPath != null && DataGroupArtifactStore.getInstance().getFoldPartitionDiskCache() == null) {
+			try {
+				DataGroupArtifactStore.getInstance().setFoldPartitionDiskCache(new FoldPartitionDiskCache(foldPartitionsCacheDirectoryPath));
+				outN("Partitions of objects into cross-validation folds are cached in directory %1.", foldPartitionsCacheDirectoryPath);
+			} catch (IOException exception) {
+				outN("Could not open directory %1, partitions of objects into cross-validation folds will not be cached on disk: %2.", foldPartitionsCacheDirectoryPath, exception.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Runs this experiment.
+	 * 
+	 * @return results of this experiment
+	 */
+	public BatchExperimentResults run() {
+		return run(null);
+	}
+	
+	/**
+	 * Runs this experiment using given scheduler of work units, shared with experiments run concurrently (see {@link BatchExperimentSuite}).
+	 * Shared scheduler is not shut down by this method.
+	 * 
+	 * @param sharedScheduler scheduler of work units shared with other experiments, or {@code null} if this experiment should use its own scheduler
+	 * @return results of this experiment
+	 */
+	public BatchExperimentResults run(WorkUnitScheduler sharedScheduler) {
+		
+		int maxParametersCount = getMaxParametersCount();
 		outN(">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>> STARTING BATCH EXPERIMENT RUN <<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<");
 		outN(">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>> Training data preprocessor: " + trainDataPreprocessorProvider.toString());
 		outN("Maximum number of algorithm vs data parameters, over all (data, algorithm) pairs: %1.", maxParametersCount); //!
 		
-		//calculate maximum number of cross validations among all data sets
-				int maxCrossValidationsCount = -1;
-				for (DataProvider dataProvider : dataProviders) {
-					if (dataProvider.getSeeds().length > maxCrossValidationsCount) {
-						maxCrossValidationsCount = dataProvider.getSeeds().length;
-					}
+		int maxCrossValidationsCount = getMaxCrossValidationsCount();
+		outN("Maximum number of cross-validations: %1.", maxCrossValidationsCount); //!
+		
+		int numberOfUsedThreads = sharedScheduler != null ? sharedScheduler.getNumberOfThreads() : (foldsInParallel ? numberOfThreads : 1);
+		if (workUnitCostsFilePath != null) {
+			try {
+				costModel.load(workUnitCostsFilePath);
+			} catch (IOException exception) {
+				outN("Could not load costs of work units from file %1: %2.", workUnitCostsFilePath, exception.getMessage());
+			}
+		}
+		printExpectedWallTime(numberOfUsedThreads); //!
+		configureCaches();
+		
+		if (journalDirectoryPath != null && setupName != null) {
+			String journalFilePath = journalDirectoryPath + "/" + setupName.replaceAll("[^A-Za-z0-9_.()-]", "_") + ".journal";
+			try {
+				journal = new ExperimentJournal(journalFilePath);
+				outN("Results of finished work units are journaled in file %1 (results restored from the journal: %2).", journalFilePath, journal.size()); //!
+			} catch (IOException exception) {
+				outN("Could not open journal %1, results of work units will not be journaled: %2.", journalFilePath, exception.getMessage()); //!
+				journal = null;
+			}
+		}
+		if (journal != null) {
+			for (String importedJournalFilePath : importedJournalFilePaths) {
+				try {
+					outN("Results imported from journal %1: %2.", importedJournalFilePath, journal.importRecords(importedJournalFilePath)); //!
+				} catch (IOException exception) {
+					outN("Could not import journal %1: %2.", importedJournalFilePath, exception.getMessage()); //!
 				}
-				outN("Maximum number of cross-validations: %1.", maxCrossValidationsCount); //!
+			}
+		}
 		
 		outN(); //!
 		
@@ -226,547 +449,1065 @@ public class BatchExperiment {
 				.dataSetsCount(dataProviders.size()).learningAlgorithmsCount(learningAlgorithms.size()).maxParametersCount(maxParametersCount)
 				.maxCrossValidationsCount(maxCrossValidationsCount).build();
 		
-		List<CrossValidationFold> crossValidationFolds;
-		Data data;
-		int dataSetNumber;
-		int crossValidationsCount;
-		CrossValidation crossValidation;
-		BatchExperimentResults.CVSelector initializingCVSelector;
-		
-		long t1, t2;
-		boolean doCrossValidationsForProvider;
-		List<LearningAlgorithmDataParameters> parametersList;
+		//work units (folds, algorithms, parameters, cross-validations, data sets) are run in parallel or sequentially
+		MemoryAdmissionController memoryAdmissionController = sharedScheduler == null && foldsInParallel && memoryAdmissionControl ? new MemoryAdmissionController(heapUsageLimit) : null;
+		WorkUnitScheduler scheduler = sharedScheduler != null ? sharedScheduler : (memoryAdmissionController != null ?
+				new WorkUnitScheduler(numberOfUsedThreads, memoryAdmissionController) : new WorkUnitScheduler(numberOfUsedThreads));
+		List<CompletableFuture<Void>> dataSetsDone = new ArrayList<CompletableFuture<Void>>(dataProviders.size());
 		
-		dataSetNumber = -1;
-		for (DataProvider dataProvider : dataProviders) {
-			dataSetNumber++;
-			final int streamDataSetNumber = dataSetNumber;
-			
-			doCrossValidationsForProvider = dataProvider.getSeeds().length > 0 && doCrossValidations;
-			
-			if (doCrossValidationsForProvider || doFullDataReclassification) {
-				t1 = b(resolveText("Starting calculations for data %1.", dataProvider.getDataName()));
-
-				//>>>>> PROCESS FULL DATA
-				if (doFullDataReclassification) {
-					double epsilonDRSAConsistencyThreshold = 0.0;
-					double qualityOfDRSAApproximation;
-					double qualityOfVCDRSAApproximation;
-					Map<String, FullDataModelValidationResult> algorithmNameWithParameters2Evaluations = new LinkedHashMap<String, FullDataModelValidationResult>();
-					Map<Double, Double> consistencyThreshold2QualityOfApproximation = new LinkedHashMap<Double, Double>();
+		try {
+			int dataSetNumber = -1;
+			for (DataProvider dataProvider : dataProviders) {
+				dataSetNumber++;
+				final int streamDataSetNumber = dataSetNumber;
+				
+				boolean doCrossValidationsForProvider = dataProvider.getSeeds().length > 0 && doCrossValidations;
+				
+				if (doCrossValidationsForProvider || doFullDataReclassification) {
+					scheduler.awaitFreeCapacity(); //start next data set only when worker threads are about to run out of work
+					long t1 = b(resolveText("Starting calculations for data %1.", dataProvider.getDataName()));
 					
-					outN("--");
+					//>>>>> PROCESS FULL DATA
+					CompletableFuture<Void> fullDataDone = doFullDataReclassification ?
+							processFullData(scheduler, dataProvider, dataSetNumber, results) : CompletableFuture.completedFuture(null);
+					//<<<<<
 					
-					//print full data set accuracies
-					Data fullData = dataProvider.provideOriginalData(); //gets InformationTableWithDecisionDistributions, which involves time-consuming transformation from InformationTable read from 2 files
-					outN("Quality of approximation for consistency threshold=%1: %2.", epsilonDRSAConsistencyThreshold, qualityOfDRSAApproximation = calculateQualityOfApproximation(fullData.getInformationTable(), 0.0));
-					consistencyThreshold2QualityOfApproximation.put(Double.valueOf(epsilonDRSAConsistencyThreshold), qualityOfDRSAApproximation);
+					//>>>>> DO MULTIPLE CROSS-VALIDATIONS
+					CompletableFuture<Void> crossValidationsDone = doCrossValidationsForProvider ?
+							scheduleCrossValidations(scheduler, dataProvider, dataSetNumber, results) : CompletableFuture.completedFuture(null);
+					//<<<<<
 					
-					//if rule classifier is used for any data (thus in particular for the current data)
-					if (learningAlgorithms.stream().filter(algorithm -> algorithm.getName().equals(VCDomLEMModeRuleClassifierLearner.getAlgorithmName())).collect(Collectors.toList()).size() > 0) {
-						
-						parametersList = parametersContainer.getParameters(VCDomLEMModeRuleClassifierLearner.getAlgorithmName(), dataProvider.getDataName()); //get list of parameters for rule classifier
-						
-						if (parametersList != null) { //VC-DRSA rule classifier has at least one parameter (although the algorithm itself may not be on the list of considered algorithms)
-							for (LearningAlgorithmDataParameters parameters : parametersList) { //check quality of approximation for all considered consistency thresholds
-								double consistencyThreshold = Double.valueOf(parameters.getParameter(VCDomLEMModeRuleClassifierLearnerDataParameters.consistencyThresholdParameterName));
-								if (!consistencyThreshold2QualityOfApproximation.containsKey(Double.valueOf(consistencyThreshold))) { //ensure that quality of approximation is calculated for each consistency threshold only once
-									outN("Quality of approximation for consistency threshold=%1: %2.", consistencyThreshold, qualityOfVCDRSAApproximation = calculateQualityOfApproximation(fullData.getInformationTable(), consistencyThreshold));
-									consistencyThreshold2QualityOfApproximation.put(consistencyThreshold, qualityOfVCDRSAApproximation);
-								}
+					dataSetsDone.add(CompletableFuture.allOf(fullDataDone, crossValidationsDone).thenRun(() -> {
+						ExperimentReporter.current().atomically(() -> { //print whole summary at once, even if other data set is processed in the meantime
+							e(t1, resolveText("Finishing calculations for data '%1'.", dataProvider.getDataName()));
+							
+							//>>>>> SUMMARIZE MULTIPLE CROSS-VALIDATIONS
+							if (doCrossValidationsForProvider) {
+								summarizeCrossValidations(dataProvider, streamDataSetNumber, results);
 							}
-						}
-					}
-					
-					outN("--");
-					
-					//TODO: choose another version of provide method for full data?
-					DataProcessor fullDataPreprocessor = trainDataPreprocessorProvider.provide(fullData.getGroupName()); //get preprocessor used only for full data
-					//DataProcessor fullDataPreprocessor = trainDataPreprocessorProvider.provide(); //get preprocessor used only for full data
-					System.out.println("Using full train data preprocesssor: "+fullDataPreprocessor.toString());
-					
-					//calculate and process full data models for all (algorithm, parameters) pairs
-					Data processedFullData = fullDataPreprocessor.process(fullData); //processedFullData will have the same informationTableTransformationTime only if AcceptingDataProcessor is used
-					
-					//----- PRINT NUMBER OF OBJECTS IN EACH CLASS
-					DecisionDistribution decisionDistribution = new DecisionDistribution(processedFullData.getInformationTable());
-					for (Decision decision : decisionDistribution.getDecisions()) {
-						System.out.println("Class "+((SimpleDecision)decision).getEvaluation()+": "+decisionDistribution.getCount(decision)+" objects.");
-					}
-					outN("--");
-//					InformationTableWriter informationTableWriter = new InformationTableWriter(true);
-//					try (FileWriter fileWriter = new FileWriter("./meta.json")) {
-//						informationTableWriter.writeAttributes(processedFullData.getInformationTable(), fileWriter);
-//					}
-//					catch (IOException exception) {
-//						exception.printStackTrace();
-//					}
-//					try (FileWriter fileWriter = new FileWriter("./data.json")) {
-//						informationTableWriter.writeObjects(processedFullData.getInformationTable(), fileWriter);
-//					}
-//					catch (IOException exception) {
-//						exception.printStackTrace();
-//					}
-//					//----- PRINT SIGNATURE AND HASH -----
-//					System.out.print("++ Signature of processed full data: ");
-//					System.out.println(signature(processedFullData.getInformationTable()));
-//					System.out.print("++ Hash of processed full data: ");
-//					System.out.println(processedFullData.getInformationTable().getHash());
-//					outN("--");
-//					//-----
-					
-					int algorithmNumber = -1;
-					//TODO: optimize the following loop using a parallel stream
-					for (LearningAlgorithm algorithm : learningAlgorithms) {
-						algorithmNumber++;
-						
-						parametersList = processListOfParameters(parametersContainer.getParameters(algorithm.getName(), dataProvider.getDataName()));
-						int parameterNumber = -1;
-						
-						//TODO: optimize the following loop using a parallel stream
-						for (LearningAlgorithmDataParameters parameters : parametersList) { //check all parameters from the list of parameters for current algorithm
-							parameterNumber++;
+							//<<<<<
+							outN();
+						});
+						dataProvider.done(); //facilitate GC
+					}));
+				} else {
+					dataProvider.done(); //facilitate GC
+				}
+			} //for dataProvider
+			
+			CompletableFuture.allOf(dataSetsDone.toArray(new CompletableFuture<?>[0])).join(); //wait for all scheduled work units
+			outN("%1.", VCDomLEMModeRuleClassifierLearnerCache.getInstance().toString()); //statistics cumulated over all experiments run so far in this JVM; taken now, as caches are cleared before the reporter writes them
+			outN("%1.", NumberOfConsistentObjectsCache.getInstance().toString());
+			outN("%1.", UnionsCache.getInstance().toString());
+			outN("%1.", DataGroupArtifactStore.getInstance().toString());
+		} finally {
+			if (sharedScheduler == null) {
+				scheduler.shutdown();
+				DataGroupArtifactStore.getInstance().clear(); //next setup may use the same names of data groups for different data (shared store is cleared by the suite)
+			}
+			for (DataProvider dataProvider : dataProviders) {
+				clearCaches(dataProvider.getDataName()); //next setup may use the same names of data sets for different data, so no entry of this run may survive, also if the run has failed
+			}
+			if (memoryAdmissionController != null) {
+				memoryAdmissionController.close();
+			}
+			
+			if (journal != null) {
+				try {
+					journal.close();
+				} catch (IOException exception) {
+					outN("Could not close journal: %1.", exception.getMessage());
+				}
+				journal = null;
+			}
+			
+			if (workUnitCostsFilePath != null) { //save costs even if the run has not been completed, so they can be used in the next run
+				try {
+					costModel.save(workUnitCostsFilePath);
+				} catch (IOException exception) {
+					outN("Could not save costs of work units to file %1: %2.", workUnitCostsFilePath, exception.getMessage());
+				}
+			}
+			
+			ExperimentReporter.current().flush(); //all reports of this run are written before results are summarized
+		}
+		
+		return results;
+	}
 	
-							/**/long trainingStartTime = System.currentTimeMillis();
-							//=====
-							ClassificationModel model = algorithm.learn(processedFullData, parameters); //can change result of processedFullData.getInformationTable()
-							//=====
-							/**/long fullDataTrainingTime = System.currentTimeMillis() - trainingStartTime;
-							fullDataTrainingTime -= model.getModelLearningStatistics().getTotalStatisticsCountingTime();
-							fullDataTrainingTime += model.getModelLearningStatistics().getTotalModelCalculationTimeSavedByUsingCache();
-							if (algorithm.getName().equals(VCDomLEMModeRuleClassifierLearner.getAlgorithmName()) && trainDataPreprocessorProvider instanceof AcceptingDataProcessorProvider) { //processedFullData is the same as fullData
-								fullDataTrainingTime += fullData.getInformationTableTransformationTime(); //add time of data transformation (done out of time measurement zone marked by /**/, when fullData were provided), as VC-DRSA rule model needs this transformation!
-								model.getModelLearningStatistics().totalDataTransformationTime = fullData.getInformationTableTransformationTime(); //set proper information table transformation time
-							}
-							
-							/**/long validationStartTime = System.currentTimeMillis();
-							//=====
-							ModelValidationResult modelValidationResult = model.validate(fullData);
-							//=====
-							/**/long fullDataValidationTime = System.currentTimeMillis() - validationStartTime;
-							fullDataValidationTime -= modelValidationResult.getClassificationStatistics().getTotalStatisticsCountingTime();
-							fullDataValidationTime -= modelValidationResult.getModelDescription().getModelDescriptionCalculationTime();
+	/**
+	 * Clears entries of caches of rules, numbers of consistent objects, and unions concerning data set with given name, i.e., the data set itself,
+	 * its folds (see {@link RepeatableCrossValidation}), and their processed versions, whose names all start with the name of the data set.
+	 * Entries of experiments run concurrently in other lanes of a {@link BatchExperimentSuite suite}, concerning other data sets, are kept.
+	 * 
+	 * @param dataName name of the data set
+	 */
+	static void clearCaches(String dataName) {
+		Predicate<String> derivedDataName = dataSetName -> isDerivedDataName(dataSetName, dataName);
+		VCDomLEMModeRuleClassifierLearnerCache.getInstance().clearIf(derivedDataName); //release references to allow GC
+		NumberOfConsistentObjectsCache.getInstance().clearIf(derivedDataName); //release references to allow GC
+		UnionsCache.getInstance().clearIf(derivedDataName); //release references to allow GC
+	}
 	
-							/**/BatchExperimentResults.DataAlgorithmParametersSelector selector = (new BatchExperimentResults.DataAlgorithmParametersSelector())
-							/**/	.dataSetNumber(dataSetNumber).learningAlgorithmNumber(algorithmNumber).parametersNumber(parameterNumber);
-							/**/CalculationTimes fullDataCalculationTimes = results.getFullDataCalculationTimes(selector);
-							/**/fullDataCalculationTimes.increaseTotalTrainingTime(fullDataTrainingTime);
-							/**/fullDataCalculationTimes.increaseTotalValidationTime(fullDataValidationTime);
-							
-							algorithmNameWithParameters2Evaluations.put(algorithm.getName()+"("+parameters+")", new FullDataModelValidationResult(selector, modelValidationResult));
-							
-							ClassificationStatistics classificationStatistics = modelValidationResult.getClassificationStatistics();
-							
-							//OUTPUT
-							outN("Train data result for '%1(%2)': "+System.lineSeparator()+
-									"Accuracy: %3 (overall: %4, avg: %5) # %6 # %7 (%8|%9). Main model decisions ratio: %10."+System.lineSeparator()+
-									"True positive rates: %11 # Gmean: %12."+System.lineSeparator()+
-									"%% [Learning]: %13."+System.lineSeparator()+
-									"%14"+System.lineSeparator()+
-									"%% [Times]: training: %15 [ms], validation: %16 [ms].",
-									algorithm.getName(),
-									parameters,
-									round(modelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
-									round(classificationStatistics.getOverallAccuracy()), //test if the same as above
-									round(classificationStatistics.getAvgAccuracy()), //test if the same as above
-									round(classificationStatistics.getMainModelAccuracy()),
-									round(classificationStatistics.getDefaultModelAccuracy()),
-									round(classificationStatistics.getDefaultClassAccuracy()),
-									round(classificationStatistics.getDefaultClassifierAccuracy()),
-									round(classificationStatistics.getMainModelDecisionsRatio()),
-									getTruePositiveRates(modelValidationResult.getOrdinalMisclassificationMatrix()),
-									round(modelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
-									modelValidationResult.getModelLearningStatistics().toString(),
-									Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
-									.map(line -> (new StringBuilder("%% ")).append(line).toString())
-									.collect(Collectors.joining(System.lineSeparator())), //print validation summary in several lines
-									fullDataTrainingTime,
-									fullDataValidationTime);
-							outN("  /");
-							outN(" /");
-							outN("/");
-							String modelDescription = model.getModelDescription().toString();
-							model.getModelDescription().compress(); //free some memory occupied by model description
-							if (modelDescription.endsWith(System.lineSeparator())) {
-								out("[Model]: "+modelDescription);
-							} else {
-								outN("[Model]: "+modelDescription);
-							}
-							outN("\\");
-							outN(" \\");
-							outN("  \\");
-							model = null; //facilitate GC
-						}
+	/**
+	 * Tells if data set with given name is the data set with the other given name, or may be derived from it (i.e., be its fold or processed version), judging by the names only.
+	 * 
+	 * @param dataSetName name of the checked data set
+	 * @param dataName name of the other data set
+	 * @return {@code true} if the checked data set is the other data set or may be derived from it, {@code false} otherwise
+	 */
+	static boolean isDerivedDataName(String dataSetName, String dataName) {
+		return dataSetName.equals(dataName) || dataSetName.startsWith(dataName+"_");
+	}
+	
+	/**
+	 * Learns and validates models for all (algorithm, parameters) pairs on full data provided by given data provider, and stores results of validation.
+	 * Models are learned and validated in parallel, but their results are stored and printed in the order of (algorithm, parameters) pairs,
+	 * once all of them are done. This method does not wait for the models, so cross-validations of the same data can be scheduled in the meantime.
+	 * 
+	 * @param scheduler scheduler of work units
+	 * @param dataProvider provider of processed data
+	 * @param dataSetNumber number of processed data set
+	 * @param results experiment results to be updated
+	 * @return future completed when results of all models are stored and reported
+	 */
+	private CompletableFuture<Void> processFullData(WorkUnitScheduler scheduler, DataProvider dataProvider, int dataSetNumber, BatchExperimentResults results) {
+		List<LearningAlgorithmDataParameters> parametersList;
+		double epsilonDRSAConsistencyThreshold = 0.0;
+		double qualityOfDRSAApproximation;
+		double qualityOfVCDRSAApproximation;
+		Map<String, FullDataModelValidationResult> algorithmNameWithParameters2Evaluations = new LinkedHashMap<String, FullDataModelValidationResult>();
+		Map<Double, Double> consistencyThreshold2QualityOfApproximation = new LinkedHashMap<Double, Double>();
+		
+		outN("--");
+		
+		//print full data set accuracies
+		Data fullData = dataProvider.provideOriginalData(); //gets InformationTableWithDecisionDistributions, which involves time-consuming transformation from InformationTable read from 2 files
+		costModel.recordDataSize(dataProvider.getDataName(), fullData.getInformationTable().getNumberOfObjects());
+		outN("Quality of approximation for consistency threshold=%1: %2.", epsilonDRSAConsistencyThreshold, qualityOfDRSAApproximation = calculateQualityOfApproximation(fullData, 0.0));
+		consistencyThreshold2QualityOfApproximation.put(Double.valueOf(epsilonDRSAConsistencyThreshold), qualityOfDRSAApproximation);
+		
+		//if rule classifier is used for any data (thus in particular for the current data)
+		if (learningAlgorithms.stream().filter(algorithm -> algorithm.getName().equals(VCDomLEMModeRuleClassifierLearner.getAlgorithmName())).collect(Collectors.toList()).size() > 0) {
+			
+			parametersList = parametersContainer.getParameters(VCDomLEMModeRuleClassifierLearner.getAlgorithmName(), dataProvider.getDataName()); //get list of parameters for rule classifier
+			
+			if (parametersList != null) { //VC-DRSA rule classifier has at least one parameter (although the algorithm itself may not be on the list of considered algorithms)
+				for (LearningAlgorithmDataParameters parameters : parametersList) { //check quality of approximation for all considered consistency thresholds
+					double consistencyThreshold = Double.valueOf(parameters.getParameter(VCDomLEMModeRuleClassifierLearnerDataParameters.consistencyThresholdParameterName));
+					if (!consistencyThreshold2QualityOfApproximation.containsKey(Double.valueOf(consistencyThreshold))) { //ensure that quality of approximation is calculated for each consistency threshold only once
+						outN("Quality of approximation for consistency threshold=%1: %2.", consistencyThreshold, qualityOfVCDRSAApproximation = calculateQualityOfApproximation(fullData, consistencyThreshold));
+						consistencyThreshold2QualityOfApproximation.put(consistencyThreshold, qualityOfVCDRSAApproximation);
+					}
+				}
+			}
+		}
+		
+		outN("--");
+		
+		//TODO: choose another version of provide method for full data?
+		DataProcessor fullDataPreprocessor = trainDataPreprocessorProvider.provide(fullData.getGroupName()); //get preprocessor used only for full data
+		//DataProcessor fullDataPreprocessor = trainDataPreprocessorProvider.provide(); //get preprocessor used only for full data
+		outN("Using full train data preprocesssor: %1", fullDataPreprocessor);
+		
+		//calculate and process full data models for all (algorithm, parameters) pairs
+		Data processedFullData = fullDataPreprocessor.process(fullData); //processedFullData will have the same informationTableTransformationTime only if AcceptingDataProcessor is used
+		
+		//----- PRINT NUMBER OF OBJECTS IN EACH CLASS
+		DecisionDistribution decisionDistribution = new DecisionDistribution(processedFullData.getInformationTable());
+		for (Decision decision : decisionDistribution.getDecisions()) {
+			outN("Class %1: %2 objects.", ((SimpleDecision)decision).getEvaluation(), decisionDistribution.getCount(decision));
+		}
+		outN("--");
+//		InformationTableWriter informationTableWriter = new InformationTableWriter(true);
+//		try (FileWriter fileWriter = new FileWriter("./meta.json")) {
+//			informationTableWriter.writeAttributes(processedFullData.getInformationTable(), fileWriter);
+//		}
+//		catch (IOException exception) {
+//			exception.printStackTrace();
+//		}
+//		try (FileWriter fileWriter = new FileWriter("./data.json")) {
+//			informationTableWriter.writeObjects(processedFullData.getInformationTable(), fileWriter);
+//		}
+//		catch (IOException exception) {
+//			exception.printStackTrace();
+//		}
+//		//----- PRINT SIGNATURE AND HASH -----
+//		System.out.print("++ Signature of processed full data: ");
+//		System.out.println(signature(processedFullData.getInformationTable()));
+//		System.out.print("++ Hash of processed full data: ");
+//		System.out.println(processedFullData.getInformationTable().getHash());
+//		outN("--");
+//		//-----
+		
+		//learn and validate models for all (algorithm, parameters) pairs in parallel
+		int numberOfTrainingObjects = processedFullData.getInformationTable().getNumberOfObjects();
+		int numberOfAttributes = processedFullData.getInformationTable().getNumberOfAttributes();
+		Decision[] referenceOrderOfDecisions = fullData.getInformationTable().getOrderedUniqueFullyDeterminedDecisions(); //used to journal results
+		String dataHash = journal != null ? ExperimentJournal.getDataHash(fullData.getInformationTable()) : null; //used to journal results
+		List<CompletableFuture<FullDataWorkUnitResult>> fullDataUnitsDone = new ArrayList<CompletableFuture<FullDataWorkUnitResult>>();
+		int algorithmNumber = -1;
+		for (LearningAlgorithm algorithm : learningAlgorithms) {
+			algorithmNumber++;
+			
+			parametersList = processListOfParameters(parametersContainer.getParameters(algorithm.getName(), dataProvider.getDataName()));
+			int parameterNumber = -1;
+			
+			for (LearningAlgorithmDataParameters parameters : parametersList) { //check all parameters from the list of parameters for current algorithm
+				parameterNumber++;
+				WorkUnit workUnit = new WorkUnit(dataSetNumber, -1, -1, algorithmNumber, parameterNumber, algorithm, parameters); //full data unit
+				String journalKey = ExperimentJournal.getFullDataKey(setupName, trainDataPreprocessorProvider.toString(), dataProvider.getDataName(), dataHash, workUnit);
+				ExperimentJournal.Record journalRecord = journal != null ? journal.get(journalKey) : null;
+				
+				if (journalRecord != null) { //unit finished in previous run
+					fullDataUnitsDone.add(CompletableFuture.completedFuture(restoreFullDataWorkUnit(workUnit, journalRecord, referenceOrderOfDecisions, results)));
+				} else {
+					CompletableFuture<FullDataWorkUnitResult> fullDataUnitDone = scheduler.submit(() -> {
+						FullDataWorkUnitResult fullDataWorkUnitResult = runFullDataWorkUnit(workUnit, fullData, processedFullData, results);
+						journal(journalKey, fullDataWorkUnitResult.modelValidationResult, referenceOrderOfDecisions,
+								fullDataWorkUnitResult.trainingTime, fullDataWorkUnitResult.validationTime, fullDataWorkUnitResult.modelDescription);
+						return fullDataWorkUnitResult;
+					}, costModel.estimate(dataProvider.getDataName(), workUnit, numberOfTrainingObjects),
+					MemoryAdmissionController.estimateFootprint(algorithm, numberOfTrainingObjects, numberOfAttributes));
+					fullDataUnitsDone.add(fullDataUnitDone.exceptionally(exception -> { //failure of one unit does not fail results of other units
+						reportFailedWorkUnit(workUnit, exception);
+						return null;
+					}));
+				}
+			}
+		}
+		
+		//collect and print results in the order of (algorithm, parameters) pairs, no matter which unit finishes first
+		return CompletableFuture.allOf(fullDataUnitsDone.toArray(new CompletableFuture<?>[0])).whenComplete((result, exception) -> {
+			VCDomLEMModeRuleClassifierLearnerCache.getInstance().clear(processedFullData.getName()); //release references to allow GC
+			NumberOfConsistentObjectsCache.getInstance().clear(processedFullData.getName()); //release references to allow GC
+			UnionsCache.getInstance().clear(processedFullData.getName()); //release references to allow GC
+			UnionsCache.getInstance().clear(fullData.getName()); //release references to allow GC
+		}).thenRun(() -> {
+			ExperimentReporter.current().atomically(() -> { //print all results at once, even if cross-validations of the same data are reported in the meantime
+				for (CompletableFuture<FullDataWorkUnitResult> fullDataUnitDone : fullDataUnitsDone) {
+					FullDataWorkUnitResult fullDataWorkUnitResult = fullDataUnitDone.join();
+					if (fullDataWorkUnitResult == null) { //unit failed, as already reported
+						continue;
+					}
+					WorkUnit workUnit = fullDataWorkUnitResult.workUnit;
+					ModelValidationResult modelValidationResult = fullDataWorkUnitResult.modelValidationResult;
+					if (!fullDataWorkUnitResult.restored) {
+						costModel.record(dataProvider.getDataName(), workUnit, numberOfTrainingObjects, fullDataWorkUnitResult.trainingTime, fullDataWorkUnitResult.validationTime);
 					}
 					
-					//save quality of approximation and results of all parameterized algorithms for full data
-					FullDataResults fullDataResults = new FullDataResults(consistencyThreshold2QualityOfApproximation, algorithmNameWithParameters2Evaluations);
-					results.storeFullDataResults(dataProvider.getDataName(), fullDataResults);
+					algorithmNameWithParameters2Evaluations.put(workUnit.getAlgorithm().getName()+"("+workUnit.getParameters()+")", new FullDataModelValidationResult(workUnit.getSelector(), modelValidationResult));
 					
-					VCDomLEMModeRuleClassifierLearnerCache.getInstance().clear(); //release references to allow GC
+					ClassificationStatistics classificationStatistics = modelValidationResult.getClassificationStatistics();
 					
-					outN("@@@@@ [BEGIN] Full train data reports:");
 					//OUTPUT
-					out(results.reportFullDataResults(dataProvider.getDataName()));
-					outN("@@@@@ [END]");
+					outN("Train data result for '%1(%2)': "+System.lineSeparator()+
+							"Accuracy: %3 (overall: %4, avg: %5) # %6 # %7 (%8|%9). Main model decisions ratio: %10."+System.lineSeparator()+
+							"True positive rates: %11 # Gmean: %12."+System.lineSeparator()+
+							"%% [Learning]: %13."+System.lineSeparator()+
+							"%14"+System.lineSeparator()+
+							"%% [Times]: training: %15 [ms], validation: %16 [ms].",
+							workUnit.getAlgorithm().getName(),
+							workUnit.getParameters(),
+							round(modelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
+							round(classificationStatistics.getOverallAccuracy()), //test if the same as above
+							round(classificationStatistics.getAvgAccuracy()), //test if the same as above
+							round(classificationStatistics.getMainModelAccuracy()),
+							round(classificationStatistics.getDefaultModelAccuracy()),
+							round(classificationStatistics.getDefaultClassAccuracy()),
+							round(classificationStatistics.getDefaultClassifierAccuracy()),
+							round(classificationStatistics.getMainModelDecisionsRatio()),
+							getTruePositiveRates(modelValidationResult.getOrdinalMisclassificationMatrix()),
+							round(modelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
+							modelValidationResult.getModelLearningStatistics().toString(),
+							Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
+							.map(line -> (new StringBuilder("%% ")).append(line).toString())
+							.collect(Collectors.joining(System.lineSeparator())), //print validation summary in several lines
+							fullDataWorkUnitResult.trainingTime,
+							fullDataWorkUnitResult.validationTime);
+					outN("  /");
+					outN(" /");
+					outN("/");
+					String modelDescription = fullDataWorkUnitResult.modelDescription;
+					if (modelDescription.endsWith(System.lineSeparator())) {
+						out("[Model]: "+modelDescription);
+					} else {
+						outN("[Model]: "+modelDescription);
+					}
+					outN("\\");
+					outN(" \\");
+					outN("  \\");
 				}
-				//<<<<<
-
-				//>>>>> DO MULTIPLE CROSS-VALIDATIONS
-				if (doCrossValidationsForProvider) {
-					crossValidationsCount = dataProvider.getSeeds().length; //get number of cross-validations for current data
-					for (int crossValidationNumber = 0; crossValidationNumber < crossValidationsCount; crossValidationNumber++) {
-						t2 = b(resolveText("  Starting calculations for %1, cross-validation %2.", dataProvider.getDataName(), crossValidationNumber));
-						data = dataProvider.provide(crossValidationNumber);
-						
-						crossValidation = crossValidationProvider.provide();
-						crossValidation.setSeed(dataProvider.getSeeds()[crossValidationNumber]);
-						crossValidation.setNumberOfFolds(dataProvider.getNumberOfFolds());
-						
-						final int streamCrossValidationNumber = crossValidationNumber;
-						
-						//for each (algorithm, parameters) pair initialize storage for results of particular folds
-						for (int i = 0; i < learningAlgorithms.size(); i++) {
-							parametersList = processListOfParameters(parametersContainer.getParameters(learningAlgorithms.get(i).getName(), dataProvider.getDataName()));
-							for (int j = 0; j < parametersList.size(); j++) {
-								initializingCVSelector = (new BatchExperimentResults.CVSelector())
-										.dataSetNumber(dataSetNumber).learningAlgorithmNumber(i).parametersNumber(j).crossValidationNumber(crossValidationNumber);
-								results.initializeFoldResults(initializingCVSelector, data.getInformationTable().getOrderedUniqueFullyDeterminedDecisions(), crossValidation.getNumberOfFolds());
-							}
-						}
-						
-						crossValidationFolds = crossValidation.getStratifiedFolds(data);
-						
-//						Object[][][][] foldResults = new Object[crossValidationFolds.size()][learningAlgorithms.size()][maxParametersCount][7];
-						
-						//run certain number of folds in parallel or sequentially
-						Stream<CrossValidationFold> foldsStream = foldsInParallel ? crossValidationFolds.parallelStream() : crossValidationFolds.stream();
-						String[] preprocesssorsLog = new String[crossValidationFolds.size()];
-						
-						foldsStream.forEach(fold -> {       //just for measuring time!
-							String linePrefix = "      "+foldNumber2Spaces(fold.getIndex());
-							String summaryLinePrefix = linePrefix + "%% ";
-							//OUTPUT
-							String messageTemplate = prepareText("%pEnd of fold %1, algorithm %2(%3).%n"
-									+ "%p%% [Accuracy]: %4 (overall: %5, avg: %6) # %7 # %8 (%9|%10). Main model decisions ratio: %11.%n"
-									+ "%p%% [TP rates]: %12 # Gmean: %13.%n"
-									+ "%14%n"
-									+ "%p%% [Duration]: %15 [ms].", linePrefix); //%p will be replaced by prefix, %n by new line
-							
-							//long t3;
-							//t3 = b("    Starting calculations for fold "+fold.getIndex()+".");
-							//t3 = b(null);
-							b(null);
-							
-							DataProcessor foldTrainDataPreprocessor = trainDataPreprocessorProvider.provide(
-									fold.getTrainData().getGroupName(),
-									dataProvider.getSeeds()[streamCrossValidationNumber],
-									fold.getIndex());//get preprocessor used only for fold training data, on subsequent data sets
-							preprocesssorsLog[fold.getIndex()] = "  Fold "+fold.getIndex()+": used CV fold train data preprocesssor: "+foldTrainDataPreprocessor.toString();
-							
-							Data processedTrainData = foldTrainDataPreprocessor.process(fold.getTrainData()); //e.g.: over-sampling, under-sampling, bootstrapping
-							
-//							//----- PRINT SIGNATURE AND HASH -----
-//							System.out.println("++ /Fold "+fold.getIndex()+"/ Signature of processed fold train data: "
-//									+ signature(processedTrainData.getInformationTable())
-//									+ " ++ Hash of processed fold train data: "
-//									+ processedTrainData.getInformationTable().getHash());
-//							outN("--");
-//							//-----
-							
-							//long t4;
-							
-							int learningAlgorithmNumber = -1;
-							for (LearningAlgorithm algorithm : learningAlgorithms) {
-								learningAlgorithmNumber++;
-								//t4 = b("      Starting calculations for fold "+fold.getIndex()+", algorithm "+algorithm.getName()+".");
-								//t4 = b(null);
-								
-								long t5;
-								
-								List<LearningAlgorithmDataParameters> _parametersList = processListOfParameters(parametersContainer.getParameters(algorithm.getName(), dataProvider.getDataName()));
-								int parametersNumber = -1;
-								for (LearningAlgorithmDataParameters parameters : _parametersList) { //check all parameters from the list of parameters for current algorithm
-									parametersNumber++;
-									t5 = b(null);
-									
-									/**/long trainingStartTime = System.currentTimeMillis();
-									//=====
-									ClassificationModel model = algorithm.learn(processedTrainData, parameters); //can change result of processedTrainData.getInformationTable()
-									//=====
-									/**/long foldTrainingTime = System.currentTimeMillis() - trainingStartTime;
-									foldTrainingTime -= model.getModelLearningStatistics().getTotalStatisticsCountingTime();
-									foldTrainingTime += model.getModelLearningStatistics().getTotalModelCalculationTimeSavedByUsingCache();
-									//here transformation of information table is done inside time measurement zone, so no correction is necessary
-									
-									/**/long validationStartTime = System.currentTimeMillis();
-									//=====
-									ModelValidationResult modelValidationResult = model.validate(fold.getTestData());
-									//=====
-									/**/long foldValidationTime = System.currentTimeMillis() - validationStartTime;
-									foldValidationTime -= modelValidationResult.getClassificationStatistics().getTotalStatisticsCountingTime();
-									foldValidationTime -= modelValidationResult.getModelDescription().getModelDescriptionCalculationTime();
-									
-									/**/BatchExperimentResults.DataAlgorithmParametersSelector selector = (new BatchExperimentResults.DataAlgorithmParametersSelector())
-									/**/	.dataSetNumber(streamDataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber);
-									/**/CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
-									/**/totalFoldCalculationTimes.increaseTotalTrainingTime(foldTrainingTime);
-									/**/totalFoldCalculationTimes.increaseTotalValidationTime(foldValidationTime);
-									
-									String classificationStatisticsAsText = modelValidationResult.getClassificationStatistics().toString();
-									model = null; //facilitate GC
-									
-									BatchExperimentResults.CVSelector cvSelector = (new BatchExperimentResults.CVSelector())
-											.dataSetNumber(streamDataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber).crossValidationNumber(streamCrossValidationNumber);
-									results.storeFoldModelValidationResult(cvSelector, fold.getIndex(), modelValidationResult);
-									
-//									e(t5, resolveText("      %1End of fold %2, algorithm %3(%4)."+System.lineSeparator()+
-//													  "      %5%% [Accuracy]: %6 # %7 # %8."+System.lineSeparator()+
-//													  "%9",
-//											foldNumber2Spaces(fold.getIndex()), fold.getIndex(), algorithm.getName(), parameters,
-//											foldNumber2Spaces(fold.getIndex()),
-//											round(modelValidationResult.getOverallAccuracy()), round(modelValidationResult.getMainModelAccuracy()), round(modelValidationResult.getDefaultModelAccuracy()),
-//											Arrays.asList(classificationStatisticsAsText.split(System.lineSeparator())).stream()
-//											.map(line -> (new StringBuilder("      ")).append(foldNumber2Spaces(fold.getIndex())).append("%% ").append(line).toString())
-//											.collect(Collectors.joining(System.lineSeparator())) //print validation summary in several lines
-//									));
-									
-									long duration = System.currentTimeMillis() - t5;
-									//OUTPUT
-									outN(resolveText(messageTemplate, //"End of fold" message
-											fold.getIndex(), algorithm.getName(), parameters,
-											round(modelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
-											round(modelValidationResult.getClassificationStatistics().getOverallAccuracy()), //test if the same as above
-											round(modelValidationResult.getClassificationStatistics().getAvgAccuracy()), //test if the same as above
-											round(modelValidationResult.getClassificationStatistics().getMainModelAccuracy()),
-											round(modelValidationResult.getClassificationStatistics().getDefaultModelAccuracy()),
-											round(modelValidationResult.getClassificationStatistics().getDefaultClassAccuracy()),
-											round(modelValidationResult.getClassificationStatistics().getDefaultClassifierAccuracy()),
-											round(modelValidationResult.getClassificationStatistics().getMainModelDecisionsRatio()),
-											getTruePositiveRates(modelValidationResult.getOrdinalMisclassificationMatrix()),
-											round(modelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
-											Arrays.asList(classificationStatisticsAsText.split(System.lineSeparator())).stream()
-											.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
-											.collect(Collectors.joining(System.lineSeparator())), //print validation summary in several lines
-											duration));
-									
-//									String template;
-//									int foldIndex; //%1
-//									LearningAlgorithm algorithm; //%2
-//									LearningAlgorithmDataParameters parameters; //%3
-//									double overallAccuracy; //%4
-//									double mainModelAccuracy; //%5
-//									double defaultModelAccuracy; //%6
-//									ClassificationStatistics classificationStatistics; //%7
-//									long duration; //%8
-								}
-								
-								//e(t4, resolveText("      %1Finishing calculations for fold %2, algorithm %3.", foldNumber2Spaces(fold.getIndex()), fold.getIndex(), algorithm.getName()));
-							}
-							
-							VCDomLEMModeRuleClassifierLearnerCache.getInstance().clear(processedTrainData.getName()); //release references to allow GC
-							processedTrainData = null; //facilitate GC
-		
-							//e(t3, "    Finishing calculations for fold "+fold.getIndex()+".");
-							fold.done(); //facilitate GC
-						});
-					
-						data = null; //facilitate GC
-						crossValidation = null; //facilitate GC
-						crossValidationFolds = null; //facilitate GC
-						
-						e(t2, resolveText("  Finishing calculations for %1, cross-validation %2.", dataProvider.getDataName(), crossValidationNumber));
-						outN("  ----------");
-						for (String s: preprocesssorsLog) {
-							System.out.println(s);
-						}
-						outN("  ----------");
-						for (int learningAlgorithmNumber = 0; learningAlgorithmNumber < learningAlgorithms.size(); learningAlgorithmNumber++) {
-							parametersList = processListOfParameters(parametersContainer.getParameters(learningAlgorithms.get(learningAlgorithmNumber).getName(), dataProvider.getDataName()));
-							int parametersNumber = -1;
-							for (LearningAlgorithmDataParameters parameters : parametersList) {
-								parametersNumber++;
-								CVSelector cvSelector = (new BatchExperimentResults.CVSelector())
-										.dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber).crossValidationNumber(crossValidationNumber);
-								ModelValidationResult aggregatedCVModelValidationResult = results.getAggregatedCVModelValidationResult(cvSelector);
-								ClassificationStatistics classificationStatistics = aggregatedCVModelValidationResult.getClassificationStatistics();
-								
-								//OUTPUT
-								outN("  Avg. result over folds for algorithm '%1(%2)': "+System.lineSeparator()+
-										"    Accuracy: %3 (overall: %4, avg: %5) # %6 # %7 (%8|%9). Avg. main model decisions ratio: %10."+System.lineSeparator()+
-										"    True positive rates: %11 # Gmean: %12.",
-										learningAlgorithms.get(learningAlgorithmNumber).getName(),
-										parameters,
-										round(aggregatedCVModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
-										round(classificationStatistics.getOverallAccuracy()), //test if the same as above
-										round(classificationStatistics.getAvgAccuracy()), //test if the same as above
-										round(classificationStatistics.getMainModelAccuracy()),
-										round(classificationStatistics.getDefaultModelAccuracy()),
-										round(classificationStatistics.getDefaultClassAccuracy()),
-										round(classificationStatistics.getDefaultClassifierAccuracy()),
-										round(classificationStatistics.getMainModelDecisionsRatio()),
-										getTruePositiveRates(aggregatedCVModelValidationResult.getOrdinalMisclassificationMatrix()),
-										round(aggregatedCVModelValidationResult.getOrdinalMisclassificationMatrix().getGmean())
-								);
-							}
-						}
-						outN("  ----------");
-						
-						VCDomLEMModeRuleClassifierLearnerCache.getInstance().clear(); //release references to allow GC
-						NumberOfConsistentObjectsCache.getInstance().clear(); //release references to allow GC
-					} //for crossValidationNumber
-				} //if (doCrossValidations)
-				//<<<<<
-
-				e(t1, resolveText("Finishing calculations for data '%1'.", dataProvider.getDataName()));
 				
-				//>>>>> SUMMARIZE MULTIPLE CROSS-VALIDATIONS
-				if (doCrossValidationsForProvider) {
-					outN("==========");
-					for (int learningAlgorithmNumber = 0; learningAlgorithmNumber < learningAlgorithms.size(); learningAlgorithmNumber++) {
-						parametersList = processListOfParameters(parametersContainer.getParameters(learningAlgorithms.get(learningAlgorithmNumber).getName(), dataProvider.getDataName()));
-						
-						List<DataAlgorithmParametersSelector> bestAlgorithmParametersSelectors = new ArrayList<DataAlgorithmParametersSelector>(); //initialize as an empty list
-						double bestAccuracy = -1.0;
-	
-						int parametersNumber = -1;
-						for (LearningAlgorithmDataParameters parameters : parametersList) {
-							parametersNumber++;
-							DataAlgorithmParametersSelector selector = (new DataAlgorithmParametersSelector())
-									.dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber);
-							ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
-							ClassificationStatistics classificationStatistics = aggregatedModelValidationResult.getClassificationStatistics();
-							MeansAndStandardDeviations meansAndStandardDeviations = classificationStatistics.getMeansAndStandardDeviations();
-							CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
-							
-							String summaryLinePrefix = "  %% ";
-							
-							//OUTPUT
-							outN("Avg. result over CVs for algorithm '%1(%2)': "+System.lineSeparator()+
-									"  Accuracy: %3 (stdDev: %4) (overall: %5 (stdDev: %6) | avg: %7) # %8 (stdDev: %9) # %10 (stdDev: %11) (%12 (stdDev: %13) | %14 (stdDev: %15)). Avg. main model decisions ratio: %16. "+System.lineSeparator()+
-									"  True positive rates: %17 # Gmean: %18."+System.lineSeparator()+
-									"  %% [Learning]: %19"+System.lineSeparator()+
-									"%20"+System.lineSeparator()+
-									"  %% [Model]: %21."+System.lineSeparator()+
-									"  %% [Avg. fold calculation times]: training: %22 [ms], validation: %23 [ms]",
-									learningAlgorithms.get(learningAlgorithmNumber).getName(),
-									parameters,
-									round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
-									round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()),
-									round(meansAndStandardDeviations.getOverallAverageAccuracy().getMean()),
-									round(meansAndStandardDeviations.getOverallAverageAccuracy().getStdDev()),
-									round(aggregatedModelValidationResult.getClassificationStatistics().getAvgAccuracy()),
-									round(meansAndStandardDeviations.getMainModelAverageAccuracy().getMean()),
-									round(meansAndStandardDeviations.getMainModelAverageAccuracy().getStdDev()),
-									round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getMean()),
-									round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getStdDev()),
-									round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getMean()),
-									round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getStdDev()),
-									round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getMean()),
-									round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getStdDev()),
-									round(aggregatedModelValidationResult.getClassificationStatistics().getMainModelDecisionsRatio()),
-									getTruePositiveRates(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix()),
-									round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
-									aggregatedModelValidationResult.getModelLearningStatistics().toString(),
-									Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
-									.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
-									.collect(Collectors.joining(System.lineSeparator())),
-									aggregatedModelValidationResult.getModelDescription().toShortString(),
-									round(totalFoldCalculationTimes.getAverageTrainingTime()),
-									round(totalFoldCalculationTimes.getAverageValidationTime())
-								);
-	
-							MeanAndStandardDeviation averageAccuracy = useMainModelAccuracy ?
-									meansAndStandardDeviations.getMainModelAverageAccuracy() :
-									meansAndStandardDeviations.getOverallAverageAccuracy(); //TODO: generalize comparison to other quality measures!
-							if (averageAccuracy.getMean() > bestAccuracy) { //better accuracy found
-								bestAccuracy = averageAccuracy.getMean();
-								bestAlgorithmParametersSelectors = new ArrayList<DataAlgorithmParametersSelector>();
-								bestAlgorithmParametersSelectors.add(new DataAlgorithmParametersSelector(selector));
-							} else if (averageAccuracy.getMean() == bestAccuracy) {
-								bestAlgorithmParametersSelectors.add(new DataAlgorithmParametersSelector(selector));
-							}
-						} //for
-						
-						//print the best parameters + accuracy for the current algorithm
-						if (parametersList.size() > 1) {
-							outN();
-							
-							for (DataAlgorithmParametersSelector selector : bestAlgorithmParametersSelectors) {
-								ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
-								ClassificationStatistics classificationStatistics = aggregatedModelValidationResult.getClassificationStatistics();
-								MeansAndStandardDeviations meansAndStandardDeviations = classificationStatistics.getMeansAndStandardDeviations();
-								CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
-								
-								String summaryLinePrefix = "    %% ";
-								String accuracyType = useMainModelAccuracy ? "main model" : "overall"; //TODO: generalize comparison to other quality measures!
-								
-								//OUTPUT
-								outN("  Best avg. "+accuracyType+" result over cross-validations for algorithm '%1(%2)': "+System.lineSeparator()+
-									 "    Accuracy: %3 (stdDev: %4) (overall: %5 (stdDev: %6) | avg: %7) # %8 (stdDev: %9) # %10 (stdDev: %11) (%12 (stdDev: %13) | %14 (stdDev: %15)). Avg. main model decisions ratio: %16. "+System.lineSeparator()+
-									 "    True positive rates: %17 # Gmean: %18."+System.lineSeparator()+
-									 "    %% [Learning]: %19"+System.lineSeparator()+
-									 "%20"+System.lineSeparator()+
-									 "    %% [Model]: %21."+System.lineSeparator()+
-									 "    %% [Avg. fold calculation times]: training: %22 [ms], validation: %23 [ms]",
-										learningAlgorithms.get(learningAlgorithmNumber).getName(),
-										parametersList.get(selector.parametersNumber),
-										round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
-										round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()),
-										round(meansAndStandardDeviations.getOverallAverageAccuracy().getMean()),
-										round(meansAndStandardDeviations.getOverallAverageAccuracy().getStdDev()),
-										round(aggregatedModelValidationResult.getClassificationStatistics().getAvgAccuracy()),
-										round(meansAndStandardDeviations.getMainModelAverageAccuracy().getMean()),
-										round(meansAndStandardDeviations.getMainModelAverageAccuracy().getStdDev()),
-										round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getMean()),
-										round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getStdDev()),
-										round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getMean()),
-										round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getStdDev()),
-										round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getMean()),
-										round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getStdDev()),
-										round(aggregatedModelValidationResult.getClassificationStatistics().getMainModelDecisionsRatio()),
-										getTruePositiveRates(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix()),
-										round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
-										aggregatedModelValidationResult.getModelLearningStatistics().toString(),
-										Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
-										.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
-										.collect(Collectors.joining(System.lineSeparator())),
-										aggregatedModelValidationResult.getModelDescription().toShortString(),
-										round(totalFoldCalculationTimes.getAverageTrainingTime()),
-										round(totalFoldCalculationTimes.getAverageValidationTime())
-									);
-							} //for
-							outN("--");
-						} else {
-							outN("--");
-						}
-					}
-					outN("==========");
-				} //if (doCrossValidations)
-				//<<<<<
-				outN();
-			} //if (doCrossValidations || doFullDataReclassification)
-			
-			dataProvider.done(); //facilitate GC
-			VCDomLEMModeRuleClassifierLearnerCache.getInstance().clear(); //release references to allow GC
-			NumberOfConsistentObjectsCache.getInstance().clear(); //release references to allow GC
-		} //for dataProvider
-		
-		return results;
+				//save quality of approximation and results of all parameterized algorithms for full data
+				FullDataResults fullDataResults = new FullDataResults(consistencyThreshold2QualityOfApproximation, algorithmNameWithParameters2Evaluations);
+				results.storeFullDataResults(dataProvider.getDataName(), fullDataResults);
+				
+				outN("@@@@@ [BEGIN] Full train data reports:");
+				//OUTPUT
+				out(results.reportFullDataResults(dataProvider.getDataName()));
+				outN("@@@@@ [END]");
+			});
+		});
 	}
 	
-	public static void main(String[] args) {
-		//<BEGIN EXPERIMENT CONFIG>
-		int k = 10; //number of folds
-//		int k = 4; //number of folds
+	/**
+	 * Learns model using given algorithm and parameters on given processed full data, validates that model on given full data, and stores calculation times.
+	 * 
+	 * @param workUnit unit of work to run
+	 * @param fullData full data
+	 * @param processedFullData processed full data
+	 * @param results experiment results to be updated
+	 * @return result of validation, to be printed and stored
+	 */
+	private FullDataWorkUnitResult runFullDataWorkUnit(WorkUnit workUnit, Data fullData, Data processedFullData, BatchExperimentResults results) {
+		LearningAlgorithm algorithm = workUnit.getAlgorithm();
 		
-//		long[] SKIP_DATA = new long[]{};
+		/**/long trainingStartTime = System.currentTimeMillis();
+		//=====
+		ClassificationModel model = algorithm.learn(processedFullData, workUnit.getParameters()); //can change result of processedFullData.getInformationTable()
+		//=====
+		/**/long fullDataTrainingTime = System.currentTimeMillis() - trainingStartTime;
+		fullDataTrainingTime -= model.getModelLearningStatistics().getTotalStatisticsCountingTime();
+		fullDataTrainingTime += model.getModelLearningStatistics().getTotalModelCalculationTimeSavedByUsingCache();
+		if (algorithm.getName().equals(VCDomLEMModeRuleClassifierLearner.getAlgorithmName()) && trainDataPreprocessorProvider instanceof AcceptingDataProcessorProvider) { //processedFullData is the same as fullData
+			fullDataTrainingTime += fullData.getInformationTableTransformationTime(); //add time of data transformation (done out of time measurement zone marked by /**/, when fullData were provided), as VC-DRSA rule model needs this transformation!
+			model.getModelLearningStatistics().totalDataTransformationTime = fullData.getInformationTableTransformationTime(); //set proper information table transformation time
+		}
 		
-		long[] monumentsSeeds = new long[]{0L, 8897335920153900L, 5347765673520470L, 3684779165093844L, 5095550231390613L, 1503924106488124L, 5782954920893053L, 3231154532347289L, 9843288945267302L, 4914830721005112L};
-//		long[] monumentsSeeds = new long[]{0L, 8897335920153900L, 5347765673520470L}; //only first 3 CVs
-//		long[] monumentsSeeds = SKIP_DATA;
+		/**/long validationStartTime = System.currentTimeMillis();
+		//=====
+		ModelValidationResult modelValidationResult = model.validate(fullData);
+		//=====
+		/**/long fullDataValidationTime = System.currentTimeMillis() - validationStartTime;
+		fullDataValidationTime -= modelValidationResult.getClassificationStatistics().getTotalStatisticsCountingTime();
+		fullDataValidationTime -= modelValidationResult.getModelDescription().getModelDescriptionCalculationTime();
 		
-//		/*-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------*/
+		/**/CalculationTimes fullDataCalculationTimes = results.getFullDataCalculationTimes(workUnit.getSelector());
+		/**/fullDataCalculationTimes.increaseTotalTrainingTime(fullDataTrainingTime);
+		/**/fullDataCalculationTimes.increaseTotalValidationTime(fullDataValidationTime);
+		
+		String modelDescription = model.getModelDescription().toString();
+		model.getModelDescription().compress(); //free some memory occupied by model description
+		model = null; //facilitate GC
+		
+		return new FullDataWorkUnitResult(workUnit, modelValidationResult, fullDataTrainingTime, fullDataValidationTime, modelDescription, false);
+	}
+	
+	/**
+	 * Restores result of learning and validation of a model on full data from given journal record, and stores calculation times.
+	 * 
+	 * @param workUnit unit of work finished in a previous run
+	 * @param journalRecord journaled result of the unit
+	 * @param referenceOrderOfDecisions order of decisions used when the result was journaled
+	 * @param results experiment results to be updated
+	 * @return restored result of validation, to be printed and stored
+	 */
+	private FullDataWorkUnitResult restoreFullDataWorkUnit(WorkUnit workUnit, ExperimentJournal.Record journalRecord, Decision[] referenceOrderOfDecisions, BatchExperimentResults results) {
+		/**/CalculationTimes fullDataCalculationTimes = results.getFullDataCalculationTimes(workUnit.getSelector());
+		/**/fullDataCalculationTimes.increaseTotalTrainingTime(journalRecord.getTrainingTime());
+		/**/fullDataCalculationTimes.increaseTotalValidationTime(journalRecord.getValidationTime());
+		
+		return new FullDataWorkUnitResult(workUnit, journalRecord.getModelValidationResult(referenceOrderOfDecisions),
+				journalRecord.getTrainingTime(), journalRecord.getValidationTime(), journalRecord.getModelDescriptionText(), true);
+	}
+	
+	/**
+	 * Appends result of a finished work unit to the journal, if results are journaled.
+	 * If the result cannot be journaled, the experiment continues, and the unit will be calculated again if the experiment is resumed.
+	 * 
+	 * @param journalKey key of the result
+	 * @param modelValidationResult result of validation
+	 * @param referenceOrderOfDecisions order of all decisions present in validated data set
+	 * @param trainingTime training time [ms]
+	 * @param validationTime validation time [ms]
+	 * @param modelDescription full textual model description, or {@code null}
+	 */
+	private void journal(String journalKey, ModelValidationResult modelValidationResult, Decision[] referenceOrderOfDecisions, long trainingTime, long validationTime, String modelDescription) {
+		if (journal != null) {
+			try {
+				journal.append(journalKey, modelValidationResult, referenceOrderOfDecisions, trainingTime, validationTime, modelDescription);
+			} catch (IOException | InvalidValueException exception) {
+				outN("Could not journal result %1: %2.", journalKey, exception.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Schedules all cross-validations for data provided by given data provider. Subsequent cross-validation is scheduled
+	 * only when worker threads of given scheduler are about to run out of work, so folds of all cross-validations do not reside in memory at the same time.
+	 * If {@link #pipelinedCrossValidations} is {@code true}, folds of the next cross-validation are prepared in background (as a prerequisite work unit)
+	 * while units of the current cross-validation are calculated, so preparation of folds is not on the critical path.
+	 * At most one cross-validation is prepared ahead, which bounds memory occupied by prepared folds.
+	 * If {@link #racingParameters} is {@code true}, units of subsequent cross-validation are scheduled only when all previous cross-validations are done,
+	 * and only for parameters that survived {@link #raceParameters(DataProvider, int, int, BatchExperimentResults) racing}.
+	 * 
+	 * @param scheduler scheduler of work units
+	 * @param dataProvider provider of processed data
+	 * @param dataSetNumber number of processed data set
+	 * @param results experiment results to be updated
+	 * @return future completed when all cross-validations are done and reported
+	 */
+	private CompletableFuture<Void> scheduleCrossValidations(WorkUnitScheduler scheduler, DataProvider dataProvider, int dataSetNumber, BatchExperimentResults results) {
+		int crossValidationsCount = dataProvider.getSeeds().length; //get number of cross-validations for current data
+		CompletableFuture<?>[] crossValidationsDone = new CompletableFuture<?>[crossValidationsCount];
+		CompletableFuture<PreparedCrossValidation> nextCrossValidationReady = null; //prepared in background, if pipelined
+		
+		for (int crossValidationNumber = 0; crossValidationNumber < crossValidationsCount; crossValidationNumber++) {
+			PreparedCrossValidation preparedCrossValidation;
+			try {
+				if (nextCrossValidationReady != null) {
+					preparedCrossValidation = nextCrossValidationReady.join();
+				} else {
+					scheduler.awaitFreeCapacity();
+					preparedCrossValidation = prepareCrossValidation(scheduler, dataProvider, dataSetNumber, crossValidationNumber, results);
+				}
+			} catch (RuntimeException exception) { //e.g., data could not be provided or divided into folds; remaining cross-validations are still done
+				outN("  Cross-validation %1 of %2 failed, so its results are missing: %3.", crossValidationNumber, dataProvider.getDataName(), getCause(exception));
+				preparedCrossValidation = null;
+			}
+			if (racingParameters && crossValidationNumber >= racingCrossValidationsCount) {
+				CompletableFuture.allOf(Arrays.copyOfRange(crossValidationsDone, 0, crossValidationNumber)).join(); //racing needs results of all previous cross-validations
+				raceParameters(dataProvider, dataSetNumber, crossValidationNumber, results);
+			}
+			crossValidationsDone[crossValidationNumber] = preparedCrossValidation != null ?
+					scheduleCrossValidation(scheduler, dataProvider, dataSetNumber, preparedCrossValidation, results) : CompletableFuture.completedFuture(null);
+			
+			if (pipelinedCrossValidations && crossValidationNumber + 1 < crossValidationsCount) { //prefetch next cross-validation
+				int nextCrossValidationNumber = crossValidationNumber + 1;
+				nextCrossValidationReady = scheduler.submit(() -> prepareCrossValidation(scheduler, dataProvider, dataSetNumber, nextCrossValidationNumber, results));
+				scheduler.awaitFreeCapacity(); //schedule units of the next cross-validation only when worker threads are about to run out of work
+			}
+		}
+		
+		return CompletableFuture.allOf(crossValidationsDone);
+	}
+	
+	/**
+	 * Runs single cross-validation of data provided by data provider with given number, as a task of a {@link DistributedBatchExperiment distributed experiment}.
+	 * Results of work units are journaled (and thus passed to the coordinator of the distributed experiment), and reported, but not summarized.
+	 * 
+	 * @param scheduler scheduler of work units
+	 * @param dataSetNumber number of processed data set
+	 * @param crossValidationNumber number of cross-validation to run
+	 */
+	void runCrossValidationTask(WorkUnitScheduler scheduler, int dataSetNumber, int crossValidationNumber) {
+		BatchExperimentResults results = (new BatchExperimentResults.Builder())
+				.dataSetsCount(dataProviders.size()).learningAlgorithmsCount(learningAlgorithms.size()).maxParametersCount(getMaxParametersCount())
+				.maxCrossValidationsCount(getMaxCrossValidationsCount()).build();
+		DataProvider dataProvider = dataProviders.get(dataSetNumber);
+		
+		PreparedCrossValidation preparedCrossValidation = prepareCrossValidation(scheduler, dataProvider, dataSetNumber, crossValidationNumber, results);
+		scheduleCrossValidation(scheduler, dataProvider, dataSetNumber, preparedCrossValidation, results).join();
+	}
+	
+	/**
+	 * Prepares single cross-validation: provides data, initializes storage for results of particular folds, divides data into folds,
+	 * restores results of work units finished in previous run, and schedules preprocessing of train data of each fold with remaining units.
+	 * 
+	 * @param scheduler scheduler of work units
+	 * @param dataProvider provider of processed data
+	 * @param dataSetNumber number of processed data set
+	 * @param crossValidationNumber number of prepared cross-validation
+	 * @param results experiment results to be updated
+	 * @return prepared cross-validation
+	 */
+	private PreparedCrossValidation prepareCrossValidation(WorkUnitScheduler scheduler, DataProvider dataProvider, int dataSetNumber, int crossValidationNumber,
+			BatchExperimentResults results) {
+		long t2 = b(resolveText("  Starting calculations for %1, cross-validation %2.", dataProvider.getDataName(), crossValidationNumber));
+		long seed = dataProvider.getSeeds()[crossValidationNumber];
+		Data data = dataProvider.provide(crossValidationNumber);
+		
+		CrossValidation crossValidation = crossValidationProvider.provide();
+		crossValidation.setSeed(seed);
+		crossValidation.setNumberOfFolds(dataProvider.getNumberOfFolds());
+		
+		Decision[] referenceOrderOfDecisions = data.getInformationTable().getOrderedUniqueFullyDeterminedDecisions(); //also used to journal results
+		
+		//for each (algorithm, parameters) pair initialize storage for results of particular folds
+		for (int i = 0; i < learningAlgorithms.size(); i++) {
+			List<LearningAlgorithmDataParameters> parametersList = processListOfParameters(parametersContainer.getParameters(learningAlgorithms.get(i).getName(), dataProvider.getDataName()));
+			for (int j = 0; j < parametersList.size(); j++) {
+				BatchExperimentResults.CVSelector initializingCVSelector = (new BatchExperimentResults.CVSelector())
+						.dataSetNumber(dataSetNumber).learningAlgorithmNumber(i).parametersNumber(j).crossValidationNumber(crossValidationNumber);
+				if (results.isDropped(initializingCVSelector)) { //parameters dropped by racing
+					continue;
+				}
+				results.initializeFoldResults(initializingCVSelector, referenceOrderOfDecisions, crossValidation.getNumberOfFolds());
+			}
+		}
+		
+		PreparedCrossValidation preparedCrossValidation = new PreparedCrossValidation(crossValidationNumber, seed, t2, referenceOrderOfDecisions, crossValidation.getStratifiedFolds(data));
+		preparedCrossValidation.dataHash = journal != null ? ExperimentJournal.getDataHash(data.getInformationTable()) : null;
+		int k = preparedCrossValidation.folds.size();
+		
+		for (CrossValidationFold fold : preparedCrossValidation.folds) {
+			int foldIndex = fold.getIndex();
+			
+			//skip units finished in previous run
+			List<WorkUnit> workUnits = new ArrayList<WorkUnit>();
+			for (int learningAlgorithmNumber = 0; learningAlgorithmNumber < learningAlgorithms.size(); learningAlgorithmNumber++) {
+				LearningAlgorithm algorithm = learningAlgorithms.get(learningAlgorithmNumber);
+				List<LearningAlgorithmDataParameters> parametersList = processListOfParameters(parametersContainer.getParameters(algorithm.getName(), dataProvider.getDataName()));
+				for (int parametersNumber = 0; parametersNumber < parametersList.size(); parametersNumber++) { //check all parameters from the list of parameters for current algorithm
+					WorkUnit workUnit = new WorkUnit(dataSetNumber, crossValidationNumber, foldIndex, learningAlgorithmNumber, parametersNumber, algorithm, parametersList.get(parametersNumber));
+					if (results.isDropped(workUnit.getSelector())) { //parameters dropped by racing
+						continue;
+					}
+					ExperimentJournal.Record journalRecord = journal != null ? journal.get(ExperimentJournal.getKey(setupName, trainDataPreprocessorProvider.toString(), dataProvider.getDataName(), preparedCrossValidation.dataHash, seed, k, foldIndex, workUnit)) : null;
+					if (journalRecord != null) {
+						restoreWorkUnit(workUnit, journalRecord, referenceOrderOfDecisions, results);
+					} else {
+						workUnits.add(workUnit);
+					}
+				}
+			}
+			preparedCrossValidation.foldsWorkUnits.add(workUnits);
+			
+			if (workUnits.size() == 0) { //whole fold restored
+				preparedCrossValidation.preprocesssorsLog[foldIndex] = "  Fold "+foldIndex+": restored from journal";
+				preparedCrossValidation.processedTrainDataReady.add(null);
+				fold.done(); //facilitate GC
+			} else {
+				//fold data first ...
+				preparedCrossValidation.processedTrainDataReady.add(scheduler.submit(() -> {
+					DataProcessor foldTrainDataPreprocessor = trainDataPreprocessorProvider.provide(fold.getTrainData().getGroupName(), seed, foldIndex); //get preprocessor used only for fold training data, on subsequent data sets
+					preparedCrossValidation.preprocesssorsLog[foldIndex] = "  Fold "+foldIndex+": used CV fold train data preprocesssor: "+foldTrainDataPreprocessor.toString();
+					return foldTrainDataPreprocessor.process(fold.getTrainData()); //e.g.: over-sampling, under-sampling, bootstrapping
+				}));
+			}
+		}
+		
+		return preparedCrossValidation;
+	}
+	
+	/**
+	 * Schedules learning and validation units of single prepared cross-validation. For each fold, all (algorithm, parameters) pairs are learned and validated in parallel,
+	 * once preprocessing of fold train data is done, and, when all folds are done, results are aggregated and reported.
+	 * 
+	 * @param scheduler scheduler of work units
+	 * @param dataProvider provider of processed data
+	 * @param dataSetNumber number of processed data set
+	 * @param preparedCrossValidation prepared cross-validation
+	 * @param results experiment results to be updated
+	 * @return future completed when the cross-validation is done and reported
+	 */
+	private CompletableFuture<Void> scheduleCrossValidation(WorkUnitScheduler scheduler, DataProvider dataProvider, int dataSetNumber, PreparedCrossValidation preparedCrossValidation,
+			BatchExperimentResults results) {
+		int crossValidationNumber = preparedCrossValidation.crossValidationNumber;
+		long seed = preparedCrossValidation.seed;
+		Decision[] referenceOrderOfDecisions = preparedCrossValidation.referenceOrderOfDecisions;
+		List<CompletableFuture<Void>> foldsDone = new ArrayList<CompletableFuture<Void>>(preparedCrossValidation.folds.size());
+		
+		for (int i = 0; i < preparedCrossValidation.folds.size(); i++) {
+			CrossValidationFold fold = preparedCrossValidation.folds.get(i);
+			CompletableFuture<Data> processedTrainDataReady = preparedCrossValidation.processedTrainDataReady.get(i);
+			if (processedTrainDataReady == null) { //whole fold restored
+				continue;
+			}
+			int foldIndex = fold.getIndex();
+			
+			//... then learners, the most expensive first ...
+			int numberOfTrainingObjects = fold.getTrainData().getInformationTable().getNumberOfObjects(); //used to estimate costs and heap footprints of units
+			int numberOfAttributes = fold.getTrainData().getInformationTable().getNumberOfAttributes();
+			List<CompletableFuture<Void>> unitsDone = new ArrayList<CompletableFuture<Void>>();
+			for (WorkUnit workUnit : preparedCrossValidation.foldsWorkUnits.get(i)) {
+				if (results.isDropped(workUnit.getSelector())) { //parameters dropped by racing after this cross-validation was prepared
+					continue;
+				}
+				String journalKey = ExperimentJournal.getKey(setupName, trainDataPreprocessorProvider.toString(), dataProvider.getDataName(), preparedCrossValidation.dataHash, seed, preparedCrossValidation.folds.size(), foldIndex, workUnit);
+				CompletableFuture<Void> unitDone = scheduler.submitAfter(processedTrainDataReady, processedTrainData -> {
+					runWorkUnit(workUnit, dataProvider.getDataName(), processedTrainData, fold.getTestData(), journalKey, referenceOrderOfDecisions, results);
+					return null;
+				}, costModel.estimate(dataProvider.getDataName(), workUnit, numberOfTrainingObjects),
+				MemoryAdmissionController.estimateFootprint(workUnit.getAlgorithm(), numberOfTrainingObjects, numberOfAttributes));
+				unitsDone.add(unitDone.exceptionally(exception -> { //failure of one unit leaves only its fold result missing, so the cross-validation is still reported
+					if (!processedTrainDataReady.isCompletedExceptionally()) { //failed preprocessing is reported once per fold
+						reportFailedWorkUnit(workUnit, exception);
+					}
+					return null;
+				}));
+			}
+			
+			foldsDone.add(CompletableFuture.allOf(unitsDone.toArray(new CompletableFuture<?>[0])).whenComplete((result, exception) -> {
+				String processedTrainDataName;
+				try {
+					processedTrainDataName = processedTrainDataReady.join().getName();
+				} catch (CompletionException | CancellationException preprocessingException) { //preprocessing failed, so entries could only concern not processed train data
+					outN("  Preprocessing of train data of fold %1 of %2, cross-validation %3, failed, so results of the fold are missing: %4.",
+							foldIndex, dataProvider.getDataName(), crossValidationNumber, getCause(preprocessingException));
+					processedTrainDataName = fold.getTrainData().getName();
+				}
+				VCDomLEMModeRuleClassifierLearnerCache.getInstance().clear(processedTrainDataName); //release references to allow GC
+				NumberOfConsistentObjectsCache.getInstance().clear(processedTrainDataName); //release references to allow GC
+				UnionsCache.getInstance().clear(processedTrainDataName); //release references to allow GC
+				fold.done(); //facilitate GC
+			}));
+		}
+		
+		//... and finally aggregation of results over folds
+		return CompletableFuture.allOf(foldsDone.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+			ExperimentReporter.current().atomically(() -> { //print whole report at once
+				e(preparedCrossValidation.startTime, resolveText("  Finishing calculations for %1, cross-validation %2.", dataProvider.getDataName(), crossValidationNumber));
+				reportCrossValidation(dataProvider, dataSetNumber, crossValidationNumber, preparedCrossValidation.preprocesssorsLog, results);
+			});
+			aggregateCrossValidations(dataProvider, dataSetNumber, results); //outside of atomic report, so other reports are not held back
+		});
+	}
+	
+	/**
+	 * Aggregates results over all cross-validations done so far, for all (algorithm, parameters) pairs not dropped by racing, as soon as a cross-validation is done.
+	 * Aggregated results are memoized by {@link BatchExperimentResults}, and invalidated only when another cross-validation becomes complete,
+	 * so at the end of the experiment the summary only reuses them, instead of aggregating all cross-validations at once.
+	 * 
+	 * @param dataProvider provider of processed data
+	 * @param dataSetNumber number of processed data set
+	 * @param results experiment results to be updated
+	 */
+	private void aggregateCrossValidations(DataProvider dataProvider, int dataSetNumber, BatchExperimentResults results) {
+		for (int learningAlgorithmNumber = 0; learningAlgorithmNumber < learningAlgorithms.size(); learningAlgorithmNumber++) {
+			int parametersCount = processListOfParameters(parametersContainer.getParameters(learningAlgorithms.get(learningAlgorithmNumber).getName(), dataProvider.getDataName())).size();
+			for (int parametersNumber = 0; parametersNumber < parametersCount; parametersNumber++) {
+				DataAlgorithmParametersSelector selector = (new DataAlgorithmParametersSelector())
+						.dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber);
+				if (!results.isDropped(selector)) { //aggregated results of dropped parameters do not change any more
+					results.getAggregatedModelValidationResult(selector);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reports failure of given work unit, whose result is thus missing, so other units can continue.
+	 * 
+	 * @param workUnit failed unit of work
+	 * @param exception exception thrown by the unit (possibly wrapped in {@link CompletionException})
+	 */
+	static void reportFailedWorkUnit(WorkUnit workUnit, Throwable exception) {
+		outN("  Work unit (%1) failed, so its result is missing: %2.", workUnit, getCause(exception));
+	}
+	
+	/**
+	 * Gets cause of given exception thrown by a future, i.e., unwraps {@link CompletionException}.
+	 * 
+	 * @param exception exception thrown by a future
+	 * @return cause of the exception
+	 */
+	static Throwable getCause(Throwable exception) {
+		return exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception;
+	}
+	
+	/**
+	 * Reports cross-validations of selected (data set, algorithm, parameters) triple that lack results of some folds (e.g., because a work unit has failed),
+	 * and thus are skipped by {@link BatchExperimentResults#getAggregatedModelValidationResult(DataAlgorithmParametersSelector) aggregation}.
+	 * 
+	 * @param results experiment results
+	 * @param selector selector of (data set, algorithm, parameters) triple
+	 */
+	static void reportIncompleteCrossValidations(BatchExperimentResults results, DataAlgorithmParametersSelector selector) {
+		List<Integer> incompleteCrossValidations = results.getIncompleteCrossValidations(selector);
+		if (incompleteCrossValidations.size() > 0) {
+			outN("  %% [Incomplete]: cross-validation(s) %1 skipped, as results of some of their folds are missing.", incompleteCrossValidations);
+		}
+	}
+	
+	/**
+	 * Learns model using given algorithm and parameters on given (processed) fold train data, validates that model on given fold test data,
+	 * and stores validation result and calculation times.
+	 * 
+	 * @param workUnit unit of work to run
+	 * @param dataName name of processed data set, used to record cost of the unit
+	 * @param processedTrainData processed fold train data
+	 * @param testData fold test data
+	 * @param journalKey key of journaled result of the unit
+	 * @param referenceOrderOfDecisions order of all decisions present in cross-validated data, used to journal result of the unit
+	 * @param results experiment results to be updated
+	 */
+	private void runWorkUnit(WorkUnit workUnit, String dataName, Data processedTrainData, Data testData, String journalKey, Decision[] referenceOrderOfDecisions,
+			BatchExperimentResults results) {
+		LearningAlgorithm algorithm = workUnit.getAlgorithm();
+		LearningAlgorithmDataParameters parameters = workUnit.getParameters();
+		
+		String linePrefix = "      "+foldNumber2Spaces(workUnit.getFoldIndex());
+		String summaryLinePrefix = linePrefix + "%% ";
+		
+		long t5 = b(null);
+		
+		/**/long trainingStartTime = System.currentTimeMillis();
+		//=====
+		ClassificationModel model = algorithm.learn(processedTrainData, parameters); //can change result of processedTrainData.getInformationTable()
+		//=====
+		/**/long foldTrainingTime = System.currentTimeMillis() - trainingStartTime;
+		foldTrainingTime -= model.getModelLearningStatistics().getTotalStatisticsCountingTime();
+		foldTrainingTime += model.getModelLearningStatistics().getTotalModelCalculationTimeSavedByUsingCache();
+		//here transformation of information table is done inside time measurement zone, so no correction is necessary
+		
+		/**/long validationStartTime = System.currentTimeMillis();
+		//=====
+		ModelValidationResult modelValidationResult = model.validate(testData);
+		//=====
+		/**/long foldValidationTime = System.currentTimeMillis() - validationStartTime;
+		foldValidationTime -= modelValidationResult.getClassificationStatistics().getTotalStatisticsCountingTime();
+		foldValidationTime -= modelValidationResult.getModelDescription().getModelDescriptionCalculationTime();
+		
+		/**/CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(workUnit.getSelector());
+		/**/totalFoldCalculationTimes.increaseTotalTrainingTime(foldTrainingTime);
+		/**/totalFoldCalculationTimes.increaseTotalValidationTime(foldValidationTime);
+		costModel.record(dataName, workUnit, processedTrainData.getInformationTable().getNumberOfObjects(), foldTrainingTime, foldValidationTime);
+		
+		modelValidationResult.getModelDescription().compress(); //textual fold model description is not used, and would enlarge journal
+		model = null; //facilitate GC
+		
+		results.storeFoldModelValidationResult(workUnit.getCVSelector(), workUnit.getFoldIndex(), modelValidationResult);
+		journal(journalKey, modelValidationResult, referenceOrderOfDecisions, foldTrainingTime, foldValidationTime, null);
+		
+		long duration = System.currentTimeMillis() - t5;
+		//OUTPUT
+		ExperimentReporter.current().report(() -> resolveText(prepareText("%pEnd of fold %1, algorithm %2(%3).%n" //"End of fold" message, formatted by reporter's writer thread
+				+ "%p%% [Accuracy]: %4 (overall: %5, avg: %6) # %7 # %8 (%9|%10). Main model decisions ratio: %11.%n"
+				+ "%p%% [TP rates]: %12 # Gmean: %13.%n"
+				+ "%14%n"
+				+ "%p%% [Duration]: %15 [ms].%n", linePrefix), //%p will be replaced by prefix, %n by new line
+				workUnit.getFoldIndex(), algorithm.getName(), parameters,
+				round(modelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
+				round(modelValidationResult.getClassificationStatistics().getOverallAccuracy()), //test if the same as above
+				round(modelValidationResult.getClassificationStatistics().getAvgAccuracy()), //test if the same as above
+				round(modelValidationResult.getClassificationStatistics().getMainModelAccuracy()),
+				round(modelValidationResult.getClassificationStatistics().getDefaultModelAccuracy()),
+				round(modelValidationResult.getClassificationStatistics().getDefaultClassAccuracy()),
+				round(modelValidationResult.getClassificationStatistics().getDefaultClassifierAccuracy()),
+				round(modelValidationResult.getClassificationStatistics().getMainModelDecisionsRatio()),
+				getTruePositiveRates(modelValidationResult.getOrdinalMisclassificationMatrix()),
+				round(modelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
+				Arrays.asList(modelValidationResult.getClassificationStatistics().toString().split(System.lineSeparator())).stream()
+				.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
+				.collect(Collectors.joining(System.lineSeparator())), //print validation summary in several lines
+				duration));
+	}
+	
+	/**
+	 * Restores result of learning and validation of a model on fold train and test data from given journal record,
+	 * and stores validation result and calculation times.
+	 * 
+	 * @param workUnit unit of work finished in a previous run
+	 * @param journalRecord journaled result of the unit
+	 * @param referenceOrderOfDecisions order of decisions used when the result was journaled
+	 * @param results experiment results to be updated
+	 */
+	private void restoreWorkUnit(WorkUnit workUnit, ExperimentJournal.Record journalRecord, Decision[] referenceOrderOfDecisions, BatchExperimentResults results) {
+		/**/CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(workUnit.getSelector());
+		/**/totalFoldCalculationTimes.increaseTotalTrainingTime(journalRecord.getTrainingTime());
+		/**/totalFoldCalculationTimes.increaseTotalValidationTime(journalRecord.getValidationTime());
+		
+		results.storeFoldModelValidationResult(workUnit.getCVSelector(), workUnit.getFoldIndex(), journalRecord.getModelValidationResult(referenceOrderOfDecisions));
+		
+		//OUTPUT
+		outN("      %1Fold %2, algorithm %3(%4): result restored from journal.", foldNumber2Spaces(workUnit.getFoldIndex()), workUnit.getFoldIndex(),
+				workUnit.getAlgorithm().getName(), workUnit.getParameters());
+	}
+	
+	/**
+	 * Races parameters of each algorithm, for data provided by given data provider, using per-fold accuracies from given number of first cross-validations.
+	 * Only cross-validations complete for all surviving parameters of an algorithm are used, so fold accuracies of different parameters can be paired.
+	 * Among parameters not dropped so far, the ones with the best avg. accuracy are found, and each other parameters are compared with them
+	 * by corrected resampled paired t-test (accounting for overlap of train data of cross-validation folds). Parameters significantly worse than the best ones are dropped.
+	 * If {@link #racingHalving} is {@code true}, additionally, only the better half of surviving parameters survives.
+	 * Results of dropped parameters concerning remaining cross-validations (if already prepared) are removed.
+	 * 
+	 * @param dataProvider provider of processed data
+	 * @param dataSetNumber number of processed data set
+	 * @param crossValidationsCount number of cross-validations already done for all surviving parameters
+	 * @param results experiment results to be updated
+	 */
+	void raceParameters(DataProvider dataProvider, int dataSetNumber, int crossValidationsCount, BatchExperimentResults results) {
+		for (int learningAlgorithmNumber = 0; learningAlgorithmNumber < learningAlgorithms.size(); learningAlgorithmNumber++) {
+			List<LearningAlgorithmDataParameters> parametersList = processListOfParameters(parametersContainer.getParameters(learningAlgorithms.get(learningAlgorithmNumber).getName(), dataProvider.getDataName()));
+			
+			List<DataAlgorithmParametersSelector> survivingSelectors = new ArrayList<DataAlgorithmParametersSelector>();
+			for (int parametersNumber = 0; parametersNumber < parametersList.size(); parametersNumber++) {
+				DataAlgorithmParametersSelector selector = (new DataAlgorithmParametersSelector())
+						.dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber);
+				if (!results.isDropped(selector)) {
+					survivingSelectors.add(selector);
+				}
+			}
+			if (survivingSelectors.size() < 2) {
+				continue;
+			}
+			
+			List<Integer> completeCrossValidationNumbers = new ArrayList<Integer>(); //fold accuracies are paired only over cross-validations complete for all surviving parameters
+			for (int crossValidationNumber = 0; crossValidationNumber < crossValidationsCount; crossValidationNumber++) {
+				boolean complete = true;
+				for (DataAlgorithmParametersSelector selector : survivingSelectors) {
+					if (!results.isCrossValidationComplete((new CVSelector()).dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber)
+							.parametersNumber(selector.parametersNumber).crossValidationNumber(crossValidationNumber))) {
+						complete = false;
+						break;
+					}
+				}
+				if (complete) {
+					completeCrossValidationNumbers.add(crossValidationNumber);
+				}
+			}
+			if (completeCrossValidationNumbers.isEmpty()) { //e.g., work units failed in each cross-validation
+				continue;
+			}
+			
+			Map<DataAlgorithmParametersSelector, double[]> selector2FoldAccuracies = new LinkedHashMap<DataAlgorithmParametersSelector, double[]>();
+			Map<DataAlgorithmParametersSelector, Double> selector2MeanAccuracy = new LinkedHashMap<DataAlgorithmParametersSelector, Double>();
+			for (DataAlgorithmParametersSelector selector : survivingSelectors) {
+				double[] foldAccuracies = results.getFoldAccuracies(selector, completeCrossValidationNumbers, useMainModelAccuracy);
+				selector2FoldAccuracies.put(selector, foldAccuracies);
+				selector2MeanAccuracy.put(selector, Arrays.stream(foldAccuracies).average().orElse(0.0));
+			}
+			survivingSelectors.sort((selector1, selector2) -> Double.compare(selector2MeanAccuracy.get(selector2), selector2MeanAccuracy.get(selector1))); //the best first
+			DataAlgorithmParametersSelector bestSelector = survivingSelectors.get(0);
+			double[] bestFoldAccuracies = selector2FoldAccuracies.get(bestSelector);
+			
+			List<DataAlgorithmParametersSelector> droppedSelectors = new ArrayList<DataAlgorithmParametersSelector>();
+			for (DataAlgorithmParametersSelector selector : survivingSelectors.subList(1, survivingSelectors.size())) {
+				double[] foldAccuracies = selector2FoldAccuracies.get(selector);
+				PairedStatsCorrected pairedStats = new PairedStatsCorrected(racingSignificanceLevel, 1.0 / (dataProvider.getNumberOfFolds() - 1)); //test/train size ratio
+				for (int i = 0; i < foldAccuracies.length; i++) {
+					pairedStats.add(foldAccuracies[i], bestFoldAccuracies[i]);
+				}
+				pairedStats.calculateDerived();
+				if (selector2MeanAccuracy.get(selector) < selector2MeanAccuracy.get(bestSelector) && pairedStats.differencesProbability < racingSignificanceLevel) {
+					droppedSelectors.add(selector);
+				}
+			}
+			if (racingHalving) {
+				for (DataAlgorithmParametersSelector selector : survivingSelectors.subList((survivingSelectors.size() + 1) / 2, survivingSelectors.size())) {
+					if (!droppedSelectors.contains(selector)) {
+						droppedSelectors.add(selector);
+					}
+				}
+			}
+			
+			for (DataAlgorithmParametersSelector selector : droppedSelectors) {
+				results.dropParameters(selector, crossValidationsCount);
+				for (int crossValidationNumber = crossValidationsCount; crossValidationNumber < dataProvider.getSeeds().length; crossValidationNumber++) {
+					results.removeFoldResults((new CVSelector()).dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber)
+							.parametersNumber(selector.parametersNumber).crossValidationNumber(crossValidationNumber));
+				}
+				//OUTPUT
+				outN("  Racing after %1 cross-validation(s) for %2: dropped algorithm '%3(%4)' (avg. accuracy: %5, best: %6).", crossValidationsCount, dataProvider.getDataName(),
+						learningAlgorithms.get(learningAlgorithmNumber).getName(), parametersList.get(selector.parametersNumber),
+						round(selector2MeanAccuracy.get(selector)), round(selector2MeanAccuracy.get(bestSelector)));
+			}
+		}
+	}
+	
+	/**
+	 * Reports results of single cross-validation, aggregated over folds, for all (algorithm, parameters) pairs.
+	 * 
+	 * @param dataProvider provider of processed data
+	 * @param dataSetNumber number of processed data set
+	 * @param crossValidationNumber number of reported cross-validation
+	 * @param preprocesssorsLog description of preprocessors used for each fold
+	 * @param results experiment results
+	 */
+	private void reportCrossValidation(DataProvider dataProvider, int dataSetNumber, int crossValidationNumber, String[] preprocesssorsLog, BatchExperimentResults results) {
+		outN("  ----------");
+		for (String s: preprocesssorsLog) {
+			outN(s);
+		}
+		outN("  ----------");
+		for (int learningAlgorithmNumber = 0; learningAlgorithmNumber < learningAlgorithms.size(); learningAlgorithmNumber++) {
+			List<LearningAlgorithmDataParameters> parametersList = processListOfParameters(parametersContainer.getParameters(learningAlgorithms.get(learningAlgorithmNumber).getName(), dataProvider.getDataName()));
+			int parametersNumber = -1;
+			for (LearningAlgorithmDataParameters parameters : parametersList) {
+				parametersNumber++;
+				CVSelector cvSelector = (new BatchExperimentResults.CVSelector())
+						.dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber).crossValidationNumber(crossValidationNumber);
+				ModelValidationResult aggregatedCVModelValidationResult = results.getAggregatedCVModelValidationResult(cvSelector);
+				if (aggregatedCVModelValidationResult == null) {
+					if (!results.isDropped(cvSelector)) { //otherwise, parameters dropped by racing
+						outN("  Avg. result over folds for algorithm '%1(%2)': unavailable, as results of some folds are missing.", learningAlgorithms.get(learningAlgorithmNumber).getName(), parameters);
+					}
+					continue;
+				}
+				ClassificationStatistics classificationStatistics = aggregatedCVModelValidationResult.getClassificationStatistics();
+				
+				//OUTPUT
+				outN("  Avg. result over folds for algorithm '%1(%2)': "+System.lineSeparator()+
+						"    Accuracy: %3 (overall: %4, avg: %5) # %6 # %7 (%8|%9). Avg. main model decisions ratio: %10."+System.lineSeparator()+
+						"    True positive rates: %11 # Gmean: %12.",
+						learningAlgorithms.get(learningAlgorithmNumber).getName(),
+						parameters,
+						round(aggregatedCVModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
+						round(classificationStatistics.getOverallAccuracy()), //test if the same as above
+						round(classificationStatistics.getAvgAccuracy()), //test if the same as above
+						round(classificationStatistics.getMainModelAccuracy()),
+						round(classificationStatistics.getDefaultModelAccuracy()),
+						round(classificationStatistics.getDefaultClassAccuracy()),
+						round(classificationStatistics.getDefaultClassifierAccuracy()),
+						round(classificationStatistics.getMainModelDecisionsRatio()),
+						getTruePositiveRates(aggregatedCVModelValidationResult.getOrdinalMisclassificationMatrix()),
+						round(aggregatedCVModelValidationResult.getOrdinalMisclassificationMatrix().getGmean())
+				);
+			}
+		}
+		outN("  ----------");
+	}
+	
+	/**
+	 * Summarizes all cross-validations done for data provided by given data provider, for all (algorithm, parameters) pairs.
+	 * 
+	 * @param dataProvider provider of processed data
+	 * @param dataSetNumber number of processed data set
+	 * @param results experiment results
+	 */
+	private void summarizeCrossValidations(DataProvider dataProvider, int dataSetNumber, BatchExperimentResults results) {
+		List<LearningAlgorithmDataParameters> parametersList;
+		outN("==========");
+		for (int learningAlgorithmNumber = 0; learningAlgorithmNumber < learningAlgorithms.size(); learningAlgorithmNumber++) {
+			parametersList = processListOfParameters(parametersContainer.getParameters(learningAlgorithms.get(learningAlgorithmNumber).getName(), dataProvider.getDataName()));
+			
+			List<DataAlgorithmParametersSelector> bestAlgorithmParametersSelectors = new ArrayList<DataAlgorithmParametersSelector>(); //initialize as an empty list
+			double bestAccuracy = -1.0;
+
+			int parametersNumber = -1;
+			for (LearningAlgorithmDataParameters parameters : parametersList) {
+				parametersNumber++;
+				DataAlgorithmParametersSelector selector = (new DataAlgorithmParametersSelector())
+						.dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber);
+				ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
+				if (aggregatedModelValidationResult == null) { //no complete cross-validation, so parameters are not compared with other ones
+					outN("Avg. result over CVs for algorithm '%1(%2)': unavailable, as no cross-validation has been completed.", learningAlgorithms.get(learningAlgorithmNumber).getName(), parameters);
+					reportIncompleteCrossValidations(results, selector);
+					continue;
+				}
+				ClassificationStatistics classificationStatistics = aggregatedModelValidationResult.getClassificationStatistics();
+				MeansAndStandardDeviations meansAndStandardDeviations = classificationStatistics.getMeansAndStandardDeviations();
+				CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
+				
+				String summaryLinePrefix = "  %% ";
+				
+				//OUTPUT
+				outN("Avg. result over CVs for algorithm '%1(%2)': "+System.lineSeparator()+
+						"  Accuracy: %3 (stdDev: %4) (overall: %5 (stdDev: %6) | avg: %7) # %8 (stdDev: %9) # %10 (stdDev: %11) (%12 (stdDev: %13) | %14 (stdDev: %15)). Avg. main model decisions ratio: %16. "+System.lineSeparator()+
+						"  True positive rates: %17 # Gmean: %18."+System.lineSeparator()+
+						"  %% [Learning]: %19"+System.lineSeparator()+
+						"%20"+System.lineSeparator()+
+						"  %% [Model]: %21."+System.lineSeparator()+
+						"  %% [Avg. fold calculation times]: training: %22 [ms], validation: %23 [ms]",
+						learningAlgorithms.get(learningAlgorithmNumber).getName(),
+						parameters,
+						round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
+						round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()),
+						round(meansAndStandardDeviations.getOverallAverageAccuracy().getMean()),
+						round(meansAndStandardDeviations.getOverallAverageAccuracy().getStdDev()),
+						round(aggregatedModelValidationResult.getClassificationStatistics().getAvgAccuracy()),
+						round(meansAndStandardDeviations.getMainModelAverageAccuracy().getMean()),
+						round(meansAndStandardDeviations.getMainModelAverageAccuracy().getStdDev()),
+						round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getMean()),
+						round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getStdDev()),
+						round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getMean()),
+						round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getStdDev()),
+						round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getMean()),
+						round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getStdDev()),
+						round(aggregatedModelValidationResult.getClassificationStatistics().getMainModelDecisionsRatio()),
+						getTruePositiveRates(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix()),
+						round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
+						aggregatedModelValidationResult.getModelLearningStatistics().toString(),
+						Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
+						.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
+						.collect(Collectors.joining(System.lineSeparator())),
+						aggregatedModelValidationResult.getModelDescription().toShortString(),
+						round(totalFoldCalculationTimes.getAverageTrainingTime()),
+						round(totalFoldCalculationTimes.getAverageValidationTime())
+					);
+
+				MeanAndStandardDeviation averageAccuracy = useMainModelAccuracy ?
+						meansAndStandardDeviations.getMainModelAverageAccuracy() :
+						meansAndStandardDeviations.getOverallAverageAccuracy(); //TODO: generalize comparison to other quality measures!
+				reportIncompleteCrossValidations(results, selector);
+				if (results.isDropped(selector)) { //parameters dropped by racing are not compared with parameters evaluated in all cross-validations
+					outN("  %% [Racing]: dropped after %1 cross-validation(s).", results.getCrossValidationsCountBeforeDrop(selector));
+				} else if (averageAccuracy.getMean() > bestAccuracy) { //better accuracy found
+					bestAccuracy = averageAccuracy.getMean();
+					bestAlgorithmParametersSelectors = new ArrayList<DataAlgorithmParametersSelector>();
+					bestAlgorithmParametersSelectors.add(new DataAlgorithmParametersSelector(selector));
+				} else if (averageAccuracy.getMean() == bestAccuracy) {
+					bestAlgorithmParametersSelectors.add(new DataAlgorithmParametersSelector(selector));
+				}
+			} //for
+			
+			//print the best parameters + accuracy for the current algorithm
+			if (parametersList.size() > 1) {
+				outN();
+				
+				for (DataAlgorithmParametersSelector selector : bestAlgorithmParametersSelectors) {
+					ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
+					ClassificationStatistics classificationStatistics = aggregatedModelValidationResult.getClassificationStatistics();
+					MeansAndStandardDeviations meansAndStandardDeviations = classificationStatistics.getMeansAndStandardDeviations();
+					CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
+					
+					String summaryLinePrefix = "    %% ";
+					String accuracyType = useMainModelAccuracy ? "main model" : "overall"; //TODO: generalize comparison to other quality measures!
+					
+					//OUTPUT
+					outN("  Best avg. "+accuracyType+" result over cross-validations for algorithm '%1(%2)': "+System.lineSeparator()+
+						 "    Accuracy: %3 (stdDev: %4) (overall: %5 (stdDev: %6) | avg: %7) # %8 (stdDev: %9) # %10 (stdDev: %11) (%12 (stdDev: %13) | %14 (stdDev: %15)). Avg. main model decisions ratio: %16. "+System.lineSeparator()+
+						 "    True positive rates: %17 # Gmean: %18."+System.lineSeparator()+
+						 "    %% [Learning]: %19"+System.lineSeparator()+
+						 "%20"+System.lineSeparator()+
+						 "    %% [Model]: %21."+System.lineSeparator()+
+						 "    %% [Avg. fold calculation times]: training: %22 [ms], validation: %23 [ms]",
+							learningAlgorithms.get(learningAlgorithmNumber).getName(),
+							parametersList.get(selector.parametersNumber),
+							round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()),
+							round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()),
+							round(meansAndStandardDeviations.getOverallAverageAccuracy().getMean()),
+							round(meansAndStandardDeviations.getOverallAverageAccuracy().getStdDev()),
+							round(aggregatedModelValidationResult.getClassificationStatistics().getAvgAccuracy()),
+							round(meansAndStandardDeviations.getMainModelAverageAccuracy().getMean()),
+							round(meansAndStandardDeviations.getMainModelAverageAccuracy().getStdDev()),
+							round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getMean()),
+							round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getStdDev()),
+							round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getMean()),
+							round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getStdDev()),
+							round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getMean()),
+							round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getStdDev()),
+							round(aggregatedModelValidationResult.getClassificationStatistics().getMainModelDecisionsRatio()),
+							getTruePositiveRates(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix()),
+							round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
+							aggregatedModelValidationResult.getModelLearningStatistics().toString(),
+							Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
+							.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
+							.collect(Collectors.joining(System.lineSeparator())),
+							aggregatedModelValidationResult.getModelDescription().toShortString(),
+							round(totalFoldCalculationTimes.getAverageTrainingTime()),
+							round(totalFoldCalculationTimes.getAverageValidationTime())
+						);
+				} //for
+				outN("--");
+			} else {
+				outN("--");
+			}
+		}
+		outN("==========");
+	}
+	
+	/**
+	 * Gets setups of experiments run by {@link #main(String[])}. Setups are also used by workers of a {@link DistributedBatchExperiment distributed experiment},
+	 * which identify them by {@link BatchExperimentSetup#getName() name}, so all workers and the coordinator have to be run with the same configuration.
+	 * 
+	 * @return setups of experiments
+	 */
+	static BatchExperimentSetup[] getBatchExperimentSetups() {
+		//<BEGIN EXPERIMENT CONFIG>
+		int k = 10; //number of folds
+//		int k = 4; //number of folds
+		
+//		long[] SKIP_DATA = new long[]{};
+		
+		long[] monumentsSeeds = new long[]{0L, 8897335920153900L, 5347765673520470L, 3684779165093844L, 5095550231390613L, 1503924106488124L, 5782954920893053L, 3231154532347289L, 9843288945267302L, 4914830721005112L};
+//		long[] monumentsSeeds = new long[]{0L, 8897335920153900L, 5347765673520470L}; //only first 3 CVs
+//		long[] monumentsSeeds = SKIP_DATA;
+		
+//		/*-------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------------*/
 		long[] churn4000v8Seeds = new long[]{0L, 5488762120989881L, 4329629961476882L, 9522694898378332L, 6380856248140969L, 6557502705862619L, 2859990958560648L, 3853558955285837L, 6493344966644321L, 8051004458813256L};
 //		long[] churn4000v8Seeds = new long[]{0L, 5488762120989881L, 4329629961476882L}; //only first 3 CVs
 //		long[] churn4000v8Seeds = new long[]{0L, 5488762120989881L}; //only first 2 CVs
@@ -775,7 +1516,7 @@ public class BatchExperiment {
 		long[] churn10000v8Seeds = churn4000v8Seeds;
 		
 		//TODO: configure which setup should be used in this batch experiment
-		BatchExperimentSetup[] batchExperimentSetups = {
+		return new BatchExperimentSetup[] {
 				new BatchExperimentSetupMonumentsOriginal(monumentsSeeds, k, new AcceptingDataProcessorProvider()),
 				new BatchExperimentSetupMonumentsOLM_OSDL(monumentsSeeds, k, new AcceptingDataProcessorProvider()),
 				new BatchExperimentSetupMonumentsMoNGEL(monumentsSeeds, k, new AcceptingDataProcessorProvider()),
@@ -804,152 +1545,278 @@ public class BatchExperiment {
 //				new BatchExperimentSetupChurn10000v8OLM_OSDL(churn10000v8Seeds, k, new BalancingDataProcessorProvider(BalancingStrategy.UNDER_AND_OVERSAMPLING, 7449350427617649L))
 		};
 		//<END EXPERIMENT CONFIG>
-		
-		for (BatchExperimentSetup batchExperimentSetup : batchExperimentSetups) {
-			List<DataProvider> dataProviders = batchExperimentSetup.getDataProviders();
-			List<LearningAlgorithm> learningAlgorithms = batchExperimentSetup.getLearningAlgorithms();
-			LearningAlgorithmDataParametersContainer parametersContainer = batchExperimentSetup.getLearningAlgorithmDataParametersContainer();
-			DataProcessorProvider dataProcessorProvider = batchExperimentSetup.getDataProcessorProvider();
-			
-			BatchExperimentResults results = (new BatchExperiment(
-					dataProviders,
-					new RepeatableCrossValidationProvider(),
-					dataProcessorProvider,
-					learningAlgorithms,
-					parametersContainer)
-			).run();
-			
-			//------------------------------------------------------------------------------------------------------------------------------
-			
-			Function<String, Integer> d2i = (dataName) -> {
-				return dataProviders.stream().map(provider -> provider.getDataName()).collect(Collectors.toList()).indexOf(dataName);
-			}; //maps data name to data index at the dataProviders list
-			Function<String, Integer> a2i = (algorithmName) -> {
-				return learningAlgorithms.stream().map(algorithm -> algorithm.getName()).collect(Collectors.toList()).indexOf(algorithmName);
-			}; //maps algorithm name to algorithm index at the learningAlgorithms list
-			
-			//------------------------------------------------------------------------------------------------------------------------------
-			
-			//get names of data sets for which there is a provider with non-empty list of seeds
-			List<String> dataSetsNames = dataProviders.stream().filter(provider -> provider.getSeeds().length > 0).map(provider -> provider.getDataName()).collect(Collectors.toList());
-			//get names of algorithms
-			List<String> algorithmsNames = learningAlgorithms.stream().map(algorithm -> algorithm.getName()).collect(Collectors.toList());
-			
-			List<LearningAlgorithmDataParameters> parametersList;
-			int parametersNumber;
+	}
 	
-			//print experiment summary:
-			outN("####################");
-			
-			//$$$$$
-			ResultsTable<String> accuracies = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			ResultsTable<String> tPRsAndGmean = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			ResultsTable<String> fullDataModelCharacteristics = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			//---
-			ResultsTable<String> avgAccuracies = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			ResultsTable<String> stdDevs = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			ResultsTable<String> avgTPRsAndGmean = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			ResultsTable<String> avgTrainingTimes = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			ResultsTable<String> avgValidationTimes = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			ResultsTable<String> avgDataModelCharacteristics = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			ResultsTable<String> avgTestDataQualities = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
-			
-			if (doFullDataReclassification) {
-				accuracies.setTopLeftCell("% missing");
-				accuracies.setColumnHeaders(algorithmsNames);
-				tPRsAndGmean.setTopLeftCell("% missing");
-				tPRsAndGmean.setColumnHeaders(algorithmsNames);
-				fullDataModelCharacteristics.setTopLeftCell("% missing");
-				fullDataModelCharacteristics.setColumnHeaders(algorithmsNames);
+	/**
+	 * Runs experiments for all {@link #getBatchExperimentSetups() setups}. If run with arguments {@code coordinator <queue-directory>},
+	 * first distributes cross-validations of all setups among worker JVMs (see {@link DistributedBatchExperiment}), and then merges their results.
+	 * If run with arguments {@code worker <queue-directory>}, calculates cross-validations taken from the queue, until the queue is empty.
+	 * 
+	 * @param args command line arguments
+	 */
+	public static void main(String[] args) {
+		BatchExperimentSetup[] batchExperimentSetups = getBatchExperimentSetups();
+		List<String> importedJournalFilePaths = new ArrayList<String>();
+		
+		if (reportFilePath != null) {
+			try {
+				ExperimentReporter.getInstance().addSink(new ExperimentReporter.FileSink(reportFilePath, true));
+			} catch (IOException exception) {
+				outN("Could not open report file %1, reports will be written only to console: %2.", reportFilePath, exception.getMessage());
 			}
-			if (doCrossValidations) { //there are going to be average results => initialize tables
-				avgAccuracies.setTopLeftCell("% missing");
-				avgAccuracies.setColumnHeaders(algorithmsNames);
-				stdDevs.setTopLeftCell("% missing");
-				stdDevs.setColumnHeaders(algorithmsNames);
-				avgTPRsAndGmean.setTopLeftCell("% missing");
-				avgTPRsAndGmean.setColumnHeaders(algorithmsNames);
-				avgTrainingTimes.setTopLeftCell("% missing");
-				avgTrainingTimes.setColumnHeaders(algorithmsNames);
-				avgValidationTimes.setTopLeftCell("% missing");
-				avgValidationTimes.setColumnHeaders(algorithmsNames);
-				avgDataModelCharacteristics.setTopLeftCell("% missing");
-				avgDataModelCharacteristics.setColumnHeaders(algorithmsNames);
-				avgTestDataQualities.setTopLeftCell("% missing");
-				avgTestDataQualities.setColumnHeaders(algorithmsNames);
+		}
+		
+		if (args.length >= 2 && args[0].equals(DistributedBatchExperiment.WORKER_MODE)) {
+			DistributedBatchExperiment.runWorker(batchExperimentSetups, args[1]);
+			ExperimentReporter.getInstance().close(); //write pending reports before JVM exits
+			return;
+		} else if (args.length >= 2 && args[0].equals(DistributedBatchExperiment.COORDINATOR_MODE)) {
+			importedJournalFilePaths = DistributedBatchExperiment.runCoordinator(batchExperimentSetups, args[1]);
+		}
+		
+		if (concurrentSetupsCount > 1) {
+			(new BatchExperimentSuite(concurrentSetupsCount, setupReportsDirectoryPath)).run(batchExperimentSetups, importedJournalFilePaths);
+		} else {
+			for (BatchExperimentSetup batchExperimentSetup : batchExperimentSetups) {
+				runSetup(batchExperimentSetup, importedJournalFilePaths, null, null);
 			}
-			//$$$$$
+		}
+		
+		ExperimentReporter.getInstance().close(); //write pending reports before JVM exits
+	}
+	
+	/**
+	 * Runs experiment for given setup, and prints summary of its results.
+	 * 
+	 * @param batchExperimentSetup setup of the experiment
+	 * @param importedJournalFilePaths journals with results calculated by workers of a distributed experiment (possibly empty)
+	 * @param scheduler scheduler of work units shared with experiments for other setups, or {@code null} if the experiment should use its own scheduler
+	 * @param costModel model of costs of work units shared with experiments for other setups, or {@code null} if the experiment should use its own model
+	 */
+	static void runSetup(BatchExperimentSetup batchExperimentSetup, List<String> importedJournalFilePaths, WorkUnitScheduler scheduler, WorkUnitCostModel costModel) {
+		List<DataProvider> dataProviders = batchExperimentSetup.getDataProviders();
+		List<LearningAlgorithm> learningAlgorithms = batchExperimentSetup.getLearningAlgorithms();
+		LearningAlgorithmDataParametersContainer parametersContainer = batchExperimentSetup.getLearningAlgorithmDataParametersContainer();
+		DataProcessorProvider dataProcessorProvider = batchExperimentSetup.getDataProcessorProvider();
+		
+		BatchExperiment batchExperiment = new BatchExperiment(
+				batchExperimentSetup.getName(),
+				dataProviders,
+				new RepeatableCrossValidationProvider(),
+				dataProcessorProvider,
+				learningAlgorithms,
+				parametersContainer);
+		batchExperiment.importedJournalFilePaths = importedJournalFilePaths; //results calculated by workers, if any
+		if (costModel != null) {
+			batchExperiment.costModel = costModel;
+		}
+		BatchExperimentResults results = batchExperiment.run(scheduler);
+		
+		//------------------------------------------------------------------------------------------------------------------------------
+		
+		Function<String, Integer> d2i = (dataName) -> {
+			return dataProviders.stream().map(provider -> provider.getDataName()).collect(Collectors.toList()).indexOf(dataName);
+		}; //maps data name to data index at the dataProviders list
+		Function<String, Integer> a2i = (algorithmName) -> {
+			return learningAlgorithms.stream().map(algorithm -> algorithm.getName()).collect(Collectors.toList()).indexOf(algorithmName);
+		}; //maps algorithm name to algorithm index at the learningAlgorithms list
+		
+		//------------------------------------------------------------------------------------------------------------------------------
+		
+		//get names of data sets for which there is a provider with non-empty list of seeds
+		List<String> dataSetsNames = dataProviders.stream().filter(provider -> provider.getSeeds().length > 0).map(provider -> provider.getDataName()).collect(Collectors.toList());
+		//get names of algorithms
+		List<String> algorithmsNames = learningAlgorithms.stream().map(algorithm -> algorithm.getName()).collect(Collectors.toList());
+		
+		List<LearningAlgorithmDataParameters> parametersList;
+		int parametersNumber;
+
+		//print experiment summary:
+		outN("####################");
+		
+		//$$$$$
+		ResultsTable<String> accuracies = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		ResultsTable<String> tPRsAndGmean = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		ResultsTable<String> fullDataModelCharacteristics = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		//---
+		ResultsTable<String> avgAccuracies = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		ResultsTable<String> stdDevs = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		ResultsTable<String> avgTPRsAndGmean = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		ResultsTable<String> avgTrainingTimes = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		ResultsTable<String> avgValidationTimes = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		ResultsTable<String> avgDataModelCharacteristics = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		ResultsTable<String> avgTestDataQualities = new ResultsTable<>(dataSetsNames.size(), algorithmsNames.size());
+		
+		if (doFullDataReclassification) {
+			accuracies.setTopLeftCell("% missing");
+			accuracies.setColumnHeaders(algorithmsNames);
+			tPRsAndGmean.setTopLeftCell("% missing");
+			tPRsAndGmean.setColumnHeaders(algorithmsNames);
+			fullDataModelCharacteristics.setTopLeftCell("% missing");
+			fullDataModelCharacteristics.setColumnHeaders(algorithmsNames);
+		}
+		if (doCrossValidations) { //there are going to be average results => initialize tables
+			avgAccuracies.setTopLeftCell("% missing");
+			avgAccuracies.setColumnHeaders(algorithmsNames);
+			stdDevs.setTopLeftCell("% missing");
+			stdDevs.setColumnHeaders(algorithmsNames);
+			avgTPRsAndGmean.setTopLeftCell("% missing");
+			avgTPRsAndGmean.setColumnHeaders(algorithmsNames);
+			avgTrainingTimes.setTopLeftCell("% missing");
+			avgTrainingTimes.setColumnHeaders(algorithmsNames);
+			avgValidationTimes.setTopLeftCell("% missing");
+			avgValidationTimes.setColumnHeaders(algorithmsNames);
+			avgDataModelCharacteristics.setTopLeftCell("% missing");
+			avgDataModelCharacteristics.setColumnHeaders(algorithmsNames);
+			avgTestDataQualities.setTopLeftCell("% missing");
+			avgTestDataQualities.setColumnHeaders(algorithmsNames);
+		}
+		//$$$$$
+		
+		for (String dataSetName : dataSetsNames) {
+			if (doFullDataReclassification) {
+				outN(results.reportFullDataResults(dataSetName));
+				//$$$$$
+				accuracies.newRow(dataSetName);
+				tPRsAndGmean.newRow(dataSetName);
+				fullDataModelCharacteristics.newRow(dataSetName);
+				
+				for (String algorithmName : algorithmsNames) {
+					List<LearningAlgorithmDataParameters> parameters;
+					String parametersTxt;
+					if ((parameters = parametersContainer.getParameters(algorithmName, dataSetName)) != null) {
+						//TODO: get results for the best parameters if CV is done, not for the first
+						parametersTxt = parameters.get(0).toString(); //get results for the first parameters
+					} else {
+						parametersTxt = "null";
+					}
+					FullDataModelValidationResult fullDataModelValidationResult = results.dataName2FullDataResults.get(dataSetName).algorithmNameWithParameters2Results.get(algorithmName+"("+parametersTxt+")");
+					if (fullDataModelValidationResult == null) { //work unit failed
+						accuracies.addRowValue("-");
+						tPRsAndGmean.addRowValue("-");
+						fullDataModelCharacteristics.addRowValue("-");
+						continue;
+					}
+					ModelValidationResult modelValidationResult = fullDataModelValidationResult.getModelValidationResult();
+					OrdinalMisclassificationMatrix fullDataOrdinalMisclassificationMatrix = modelValidationResult.getOrdinalMisclassificationMatrix();
+					
+					accuracies.addRowValue(round(fullDataOrdinalMisclassificationMatrix.getAccuracy()));
+					tPRsAndGmean.addRowValue(String.format(Locale.US, "%s # Gmean: %s.", getTruePositiveRates(fullDataOrdinalMisclassificationMatrix), round(fullDataOrdinalMisclassificationMatrix.getGmean())));
+					
+					String rowValue = modelValidationResult.getModelDescription().toCompressedShortString();
+					if (algorithmName.equals(VCDomLEMModeRuleClassifierLearner.getAlgorithmName())) {
+						rowValue += ", r/o: " + round(modelValidationResult.getClassificationStatistics().getAverageNumberOfCoveringRules());
+					}
+					fullDataModelCharacteristics.addRowValue(rowValue);
+					
+				}
+				//$$$$$
+			} //if (doFullDataReclassification)
 			
-			for (String dataSetName : dataSetsNames) {
-				if (doFullDataReclassification) {
-					outN(results.reportFullDataResults(dataSetName));
-					//$$$$$
-					accuracies.newRow(dataSetName);
-					tPRsAndGmean.newRow(dataSetName);
-					fullDataModelCharacteristics.newRow(dataSetName);
+			if (doCrossValidations) {
+				//$$$$$
+				avgAccuracies.newRow(dataSetName);
+				stdDevs.newRow(dataSetName);
+				avgTPRsAndGmean.newRow(dataSetName);
+				avgTrainingTimes.newRow(dataSetName);
+				avgValidationTimes.newRow(dataSetName);
+				avgDataModelCharacteristics.newRow(dataSetName);
+				avgTestDataQualities.newRow(dataSetName);
+				//$$$$$
+				
+				for (String algorithmName : algorithmsNames) {
+					parametersList = processListOfParameters(parametersContainer.getParameters(algorithmName, dataSetName));
+					parametersNumber = -1;
+					List<DataAlgorithmParametersSelector> bestAlgorithmParametersSelectors = new ArrayList<DataAlgorithmParametersSelector>(); //initialize as an empty list
+					double bestAccuracy = -1.0;
 					
-					for (String algorithmName : algorithmsNames) {
-						List<LearningAlgorithmDataParameters> parameters;
-						String parametersTxt;
-						if ((parameters = parametersContainer.getParameters(algorithmName, dataSetName)) != null) {
-							//TODO: get results for the best parameters if CV is done, not for the first
-							parametersTxt = parameters.get(0).toString(); //get results for the first parameters
-						} else {
-							parametersTxt = "null";
+					for (LearningAlgorithmDataParameters parameters : parametersList) { //check all parameters from the list of parameters for the current algorithm
+						parametersNumber++;
+						DataAlgorithmParametersSelector selector = (new DataAlgorithmParametersSelector())
+								.dataSetNumber(d2i.apply(dataSetName)).learningAlgorithmNumber(a2i.apply(algorithmName)).parametersNumber(parametersNumber);
+						ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
+						if (aggregatedModelValidationResult == null) { //no complete cross-validation, so parameters are not compared with other ones
+							outN("Avg. result for ('%1', %2(%3)): unavailable, as no cross-validation has been completed.", dataSetName, algorithmName, parameters);
+							reportIncompleteCrossValidations(results, selector);
+							continue;
 						}
-						ModelValidationResult modelValidationResult = results.dataName2FullDataResults.get(dataSetName).algorithmNameWithParameters2Results.get(algorithmName+"("+parametersTxt+")").getModelValidationResult();
-						OrdinalMisclassificationMatrix fullDataOrdinalMisclassificationMatrix = modelValidationResult.getOrdinalMisclassificationMatrix();
+						ClassificationStatistics classificationStatistics = aggregatedModelValidationResult.getClassificationStatistics();
+						MeansAndStandardDeviations meansAndStandardDeviations = classificationStatistics.getMeansAndStandardDeviations();
+						CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
 						
-						accuracies.addRowValue(round(fullDataOrdinalMisclassificationMatrix.getAccuracy()));
-						tPRsAndGmean.addRowValue(String.format(Locale.US, "%s # Gmean: %s.", getTruePositiveRates(fullDataOrdinalMisclassificationMatrix), round(fullDataOrdinalMisclassificationMatrix.getGmean())));
+						String summaryLinePrefix = "  %% ";
 						
-						String rowValue = modelValidationResult.getModelDescription().toCompressedShortString();
-						if (algorithmName.equals(VCDomLEMModeRuleClassifierLearner.getAlgorithmName())) {
-							rowValue += ", r/o: " + round(modelValidationResult.getClassificationStatistics().getAverageNumberOfCoveringRules());
+						//OUTPUT
+						outN("Avg. result for ('%1', %2(%3)): "+System.lineSeparator()+
+								"  Accuracy: %4 (stdDev: %5) (overall: %6 (stdDev: %7) | avg: %8) # %9 (stdDev: %10) # %11 (stdDev: %12) (%13 (stdDev: %14) | %15 (stdDev: %16)). Avg. main model decisions ratio: %17. "+System.lineSeparator()+
+								"  True positive rates: %18 # Gmean: %19."+System.lineSeparator()+
+								"  %% [Learning]: %20"+System.lineSeparator()+
+								"%21"+System.lineSeparator()+
+								"  %% [Model]: %22."+System.lineSeparator()+
+								"  %% [Avg. fold calculation times]: training: %23, validation: %24",
+								dataSetName, algorithmName, parameters,
+								round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()), //
+								round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()), //
+								round(meansAndStandardDeviations.getOverallAverageAccuracy().getMean()),
+								round(meansAndStandardDeviations.getOverallAverageAccuracy().getStdDev()),
+								round(aggregatedModelValidationResult.getClassificationStatistics().getAvgAccuracy()),
+								round(meansAndStandardDeviations.getMainModelAverageAccuracy().getMean()),
+								round(meansAndStandardDeviations.getMainModelAverageAccuracy().getStdDev()),
+								round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getMean()),
+								round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getStdDev()),
+								round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getMean()), //
+								round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getStdDev()), //
+								round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getMean()), //
+								round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getStdDev()), //
+								round(aggregatedModelValidationResult.getClassificationStatistics().getMainModelDecisionsRatio()),
+								getTruePositiveRates(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix()),
+								round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
+								aggregatedModelValidationResult.getModelLearningStatistics().toString(),
+								Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
+								.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
+								.collect(Collectors.joining(System.lineSeparator())),
+								aggregatedModelValidationResult.getModelDescription().toShortString(),
+								round(totalFoldCalculationTimes.getAverageTrainingTime()),
+								round(totalFoldCalculationTimes.getAverageValidationTime())
+							);
+	
+						MeanAndStandardDeviation averageAccuracy = useMainModelAccuracy ?
+								meansAndStandardDeviations.getMainModelAverageAccuracy() :
+								meansAndStandardDeviations.getOverallAverageAccuracy(); //TODO: generalize comparison to other quality measures!
+						reportIncompleteCrossValidations(results, selector);
+						if (results.isDropped(selector)) { //parameters dropped by racing are not compared with parameters evaluated in all cross-validations
+							outN("  %% [Racing]: dropped after %1 cross-validation(s).", results.getCrossValidationsCountBeforeDrop(selector));
+						} else if (averageAccuracy.getMean() > bestAccuracy) { //better accuracy found
+							bestAccuracy = averageAccuracy.getMean();
+							bestAlgorithmParametersSelectors = new ArrayList<DataAlgorithmParametersSelector>();
+							bestAlgorithmParametersSelectors.add(new DataAlgorithmParametersSelector(selector));
+						} else if (averageAccuracy.getMean() == bestAccuracy) {
+							bestAlgorithmParametersSelectors.add(new DataAlgorithmParametersSelector(selector));
 						}
-						fullDataModelCharacteristics.addRowValue(rowValue);
-						
-					}
-					//$$$$$
-				} //if (doFullDataReclassification)
-				
-				if (doCrossValidations) {
-					//$$$$$
-					avgAccuracies.newRow(dataSetName);
-					stdDevs.newRow(dataSetName);
-					avgTPRsAndGmean.newRow(dataSetName);
-					avgTrainingTimes.newRow(dataSetName);
-					avgValidationTimes.newRow(dataSetName);
-					avgDataModelCharacteristics.newRow(dataSetName);
-					avgTestDataQualities.newRow(dataSetName);
-					//$$$$$
+					} //for
 					
-					for (String algorithmName : algorithmsNames) {
-						parametersList = processListOfParameters(parametersContainer.getParameters(algorithmName, dataSetName));
-						parametersNumber = -1;
-						List<DataAlgorithmParametersSelector> bestAlgorithmParametersSelectors = new ArrayList<DataAlgorithmParametersSelector>(); //initialize as an empty list
-						double bestAccuracy = -1.0;
+					//print the best parameters + accuracy for the current algorithm
+					if (parametersList.size() > 1) {
+						outN();
 						
-						for (LearningAlgorithmDataParameters parameters : parametersList) { //check all parameters from the list of parameters for the current algorithm
-							parametersNumber++;
-							DataAlgorithmParametersSelector selector = (new DataAlgorithmParametersSelector())
-									.dataSetNumber(d2i.apply(dataSetName)).learningAlgorithmNumber(a2i.apply(algorithmName)).parametersNumber(parametersNumber);
+						for (DataAlgorithmParametersSelector selector : bestAlgorithmParametersSelectors) {
 							ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
 							ClassificationStatistics classificationStatistics = aggregatedModelValidationResult.getClassificationStatistics();
 							MeansAndStandardDeviations meansAndStandardDeviations = classificationStatistics.getMeansAndStandardDeviations();
 							CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
 							
-							String summaryLinePrefix = "  %% ";
+							String summaryLinePrefix = "    %% ";
+							String accuracyType = useMainModelAccuracy ? "main model" : "overall"; //TODO: generalize comparison to other quality measures!
 							
 							//OUTPUT
-							outN("Avg. result for ('%1', %2(%3)): "+System.lineSeparator()+
-									"  Accuracy: %4 (stdDev: %5) (overall: %6 (stdDev: %7) | avg: %8) # %9 (stdDev: %10) # %11 (stdDev: %12) (%13 (stdDev: %14) | %15 (stdDev: %16)). Avg. main model decisions ratio: %17. "+System.lineSeparator()+
-									"  True positive rates: %18 # Gmean: %19."+System.lineSeparator()+
-									"  %% [Learning]: %20"+System.lineSeparator()+
-									"%21"+System.lineSeparator()+
-									"  %% [Model]: %22."+System.lineSeparator()+
-									"  %% [Avg. fold calculation times]: training: %23, validation: %24",
-									dataSetName, algorithmName, parameters,
+							outN("  Best avg. "+accuracyType+" result for ('%1', %2(%3)): "+System.lineSeparator()+
+								 "    Accuracy: %4 (stdDev: %5) (overall: %6 (stdDev: %7) | avg: %8) # %9 (stdDev: %10) # %11 (stdDev: %12) (%13 (stdDev: %14) | %15 (stdDev: %16)). Avg. main model decisions ratio: %17. "+System.lineSeparator()+
+								 "    True positive rates: %18 # Gmean: %19."+System.lineSeparator()+
+								 "    %% [Learning]: %20"+System.lineSeparator()+
+								 "%21"+System.lineSeparator()+
+								 "    %% [Model]: %22."+System.lineSeparator()+
+								 "    %% [Avg. fold calculation times]: training: %23, validation: %24",
+									dataSetName, algorithmName, parametersList.get(selector.parametersNumber),
 									round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()), //
 									round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()), //
 									round(meansAndStandardDeviations.getOverallAverageAccuracy().getMean()),
@@ -969,148 +1836,96 @@ public class BatchExperiment {
 									aggregatedModelValidationResult.getModelLearningStatistics().toString(),
 									Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
 									.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
-									.collect(Collectors.joining(System.lineSeparator())),
-									aggregatedModelValidationResult.getModelDescription().toShortString(),
+									.collect(Collectors.joining(System.lineSeparator())), //[Testing]
+									aggregatedModelValidationResult.getModelDescription().toShortString(), //[Model]
 									round(totalFoldCalculationTimes.getAverageTrainingTime()),
 									round(totalFoldCalculationTimes.getAverageValidationTime())
 								);
-		
-							MeanAndStandardDeviation averageAccuracy = useMainModelAccuracy ?
-									meansAndStandardDeviations.getMainModelAverageAccuracy() :
-									meansAndStandardDeviations.getOverallAverageAccuracy(); //TODO: generalize comparison to other quality measures!
-							if (averageAccuracy.getMean() > bestAccuracy) { //better accuracy found
-								bestAccuracy = averageAccuracy.getMean();
-								bestAlgorithmParametersSelectors = new ArrayList<DataAlgorithmParametersSelector>();
-								bestAlgorithmParametersSelectors.add(new DataAlgorithmParametersSelector(selector));
-							} else if (averageAccuracy.getMean() == bestAccuracy) {
-								bestAlgorithmParametersSelectors.add(new DataAlgorithmParametersSelector(selector));
-							}
 						} //for
-						
-						//print the best parameters + accuracy for the current algorithm
-						if (parametersList.size() > 1) {
-							outN();
-							
-							for (DataAlgorithmParametersSelector selector : bestAlgorithmParametersSelectors) {
-								ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
-								ClassificationStatistics classificationStatistics = aggregatedModelValidationResult.getClassificationStatistics();
-								MeansAndStandardDeviations meansAndStandardDeviations = classificationStatistics.getMeansAndStandardDeviations();
-								CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
-								
-								String summaryLinePrefix = "    %% ";
-								String accuracyType = useMainModelAccuracy ? "main model" : "overall"; //TODO: generalize comparison to other quality measures!
-								
-								//OUTPUT
-								outN("  Best avg. "+accuracyType+" result for ('%1', %2(%3)): "+System.lineSeparator()+
-									 "    Accuracy: %4 (stdDev: %5) (overall: %6 (stdDev: %7) | avg: %8) # %9 (stdDev: %10) # %11 (stdDev: %12) (%13 (stdDev: %14) | %15 (stdDev: %16)). Avg. main model decisions ratio: %17. "+System.lineSeparator()+
-									 "    True positive rates: %18 # Gmean: %19."+System.lineSeparator()+
-									 "    %% [Learning]: %20"+System.lineSeparator()+
-									 "%21"+System.lineSeparator()+
-									 "    %% [Model]: %22."+System.lineSeparator()+
-									 "    %% [Avg. fold calculation times]: training: %23, validation: %24",
-										dataSetName, algorithmName, parametersList.get(selector.parametersNumber),
-										round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()), //
-										round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()), //
-										round(meansAndStandardDeviations.getOverallAverageAccuracy().getMean()),
-										round(meansAndStandardDeviations.getOverallAverageAccuracy().getStdDev()),
-										round(aggregatedModelValidationResult.getClassificationStatistics().getAvgAccuracy()),
-										round(meansAndStandardDeviations.getMainModelAverageAccuracy().getMean()),
-										round(meansAndStandardDeviations.getMainModelAverageAccuracy().getStdDev()),
-										round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getMean()),
-										round(meansAndStandardDeviations.getDefaultModelAverageAccuracy().getStdDev()),
-										round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getMean()), //
-										round(meansAndStandardDeviations.getDefaultClassAverageAccuracy().getStdDev()), //
-										round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getMean()), //
-										round(meansAndStandardDeviations.getDefaultClassifierAverageAccuracy().getStdDev()), //
-										round(aggregatedModelValidationResult.getClassificationStatistics().getMainModelDecisionsRatio()),
-										getTruePositiveRates(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix()),
-										round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getGmean()),
-										aggregatedModelValidationResult.getModelLearningStatistics().toString(),
-										Arrays.asList(classificationStatistics.toString().split(System.lineSeparator())).stream()
-										.map(line -> new StringBuilder(128).append(summaryLinePrefix).append(line).toString())
-										.collect(Collectors.joining(System.lineSeparator())), //[Testing]
-										aggregatedModelValidationResult.getModelDescription().toShortString(), //[Model]
-										round(totalFoldCalculationTimes.getAverageTrainingTime()),
-										round(totalFoldCalculationTimes.getAverageValidationTime())
-									);
-							} //for
-							outN("--");
-						} else {
-							outN("--");
+						outN("--");
+					} else {
+						outN("--");
+					}
+					
+					//$$$$$
+					if (bestAlgorithmParametersSelectors.isEmpty()) { //no complete cross-validation for any parameters
+						if (doCrossValidations) {
+							avgAccuracies.addRowValue("-");
+							stdDevs.addRowValue("-");
+							avgTPRsAndGmean.addRowValue("-");
+							avgTrainingTimes.addRowValue("-");
+							avgValidationTimes.addRowValue("-");
+							avgDataModelCharacteristics.addRowValue("-");
+							avgTestDataQualities.addRowValue("-");
 						}
+					} else { //update results tables concerning avg. results
+						DataAlgorithmParametersSelector selector = bestAlgorithmParametersSelectors.get(0); //get first selector concerning eq-equo best parameters //TODO: generalize?
+						ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
+						CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
 						
-						//$$$$$
-						{ //update results tables concerning avg. results
-							DataAlgorithmParametersSelector selector = bestAlgorithmParametersSelectors.get(0); //get first selector concerning eq-equo best parameters //TODO: generalize?
-							ModelValidationResult aggregatedModelValidationResult = results.getAggregatedModelValidationResult(selector);
-							CalculationTimes totalFoldCalculationTimes = results.getTotalFoldCalculationTimes(selector);
-							
-							if (doCrossValidations) {
-								avgAccuracies.addRowValue(round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()));
-								stdDevs.addRowValue(round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()));
-								avgTPRsAndGmean.addRowValue(String.format(Locale.US, "%s # Gmean: %s",
-										getTruePositiveRates(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix()),
-										round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getGmean()) ));
-								avgTrainingTimes.addRowValue(round(totalFoldCalculationTimes.getAverageTrainingTime()));
-								avgValidationTimes.addRowValue(round(totalFoldCalculationTimes.getAverageValidationTime()));
-								//calculate row value:
-								String rowValue = aggregatedModelValidationResult.getModelDescription().toCompressedShortString();
-								if (algorithmName.equals(VCDomLEMModeRuleClassifierLearner.getAlgorithmName())) {
-									rowValue += ", r/o: " + round(aggregatedModelValidationResult.getClassificationStatistics().getAverageNumberOfCoveringRules());
-								}
-								avgDataModelCharacteristics.addRowValue(rowValue);
-								//
-								avgTestDataQualities.addRowValue(aggregatedModelValidationResult.getClassificationStatistics().getCompressedQualitiesOfApproximation());
+						if (doCrossValidations) {
+							avgAccuracies.addRowValue(round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getAccuracy()));
+							stdDevs.addRowValue(round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getDeviationOfAccuracy()));
+							avgTPRsAndGmean.addRowValue(String.format(Locale.US, "%s # Gmean: %s",
+									getTruePositiveRates(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix()),
+									round(aggregatedModelValidationResult.getOrdinalMisclassificationMatrix().getGmean()) ));
+							avgTrainingTimes.addRowValue(round(totalFoldCalculationTimes.getAverageTrainingTime()));
+							avgValidationTimes.addRowValue(round(totalFoldCalculationTimes.getAverageValidationTime()));
+							//calculate row value:
+							String rowValue = aggregatedModelValidationResult.getModelDescription().toCompressedShortString();
+							if (algorithmName.equals(VCDomLEMModeRuleClassifierLearner.getAlgorithmName())) {
+								rowValue += ", r/o: " + round(aggregatedModelValidationResult.getClassificationStatistics().getAverageNumberOfCoveringRules());
 							}
+							avgDataModelCharacteristics.addRowValue(rowValue);
+							//
+							avgTestDataQualities.addRowValue(aggregatedModelValidationResult.getClassificationStatistics().getCompressedQualitiesOfApproximation());
 						}
-						//$$$$$
-					} //for algorithmName
-				} //if (doCrossValidations)
-				outN("####################");
-			} //for dataSetName
-			
-			outN(">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>> FINISHING BATCH EXPERIMENT RUN <<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<");
-			outN(">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>> Training data preprocessor: " + batchExperimentSetup.getDataProcessorProvider());
-
-			//$$$$$
-			if (doFullDataReclassification) {
-				outN("Full data accuracy");
-				outN(accuracies.toString("\t"));
-				outN("--");
-				outN("Full data TPR & Gmean");
-				outN(tPRsAndGmean.toString("\t"));
-				outN("--");
-				outN("Full data model characteristics");
-				outN(fullDataModelCharacteristics.toString("\t"));
-				outN("--");
-			}
-			if (doCrossValidations) {
-				outN("Avg accuracy");
-				outN(avgAccuracies.toString("\t"));
-				outN("--");
-				outN("Standard deviations");
-				outN(stdDevs.toString("\t"));
-				outN("--");
-				outN("Avg TPR & Gmean");
-				outN(avgTPRsAndGmean.toString("\t"));
-				outN("--");
-				outN("Avg. fold training time [ms]");
-				outN(avgTrainingTimes.toString("\t"));
-				outN("--");
-				outN("Avg. fold validation time [ms]");
-				outN(avgValidationTimes.toString("\t"));
-				outN("--");
-				outN("Avg. data model characteristics (across cross-validation folds)");
-				outN(avgDataModelCharacteristics.toString("\t"));
-				outN("--");
-				outN("Avg. quality for test data");
-				outN(avgTestDataQualities.toString("\t"));
-				outN("--");
-			}
-			//$$$$$
-			
-		} //for batchExperimentSetup
+					}
+					//$$$$$
+				} //for algorithmName
+			} //if (doCrossValidations)
+			outN("####################");
+		} //for dataSetName
 		
+		outN(">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>> FINISHING BATCH EXPERIMENT RUN <<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<<");
+		outN(">>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>>> Training data preprocessor: " + batchExperimentSetup.getDataProcessorProvider());
+
+		//$$$$$
+		if (doFullDataReclassification) {
+			outN("Full data accuracy");
+			outN(accuracies.toString("\t"));
+			outN("--");
+			outN("Full data TPR & Gmean");
+			outN(tPRsAndGmean.toString("\t"));
+			outN("--");
+			outN("Full data model characteristics");
+			outN(fullDataModelCharacteristics.toString("\t"));
+			outN("--");
+		}
+		if (doCrossValidations) {
+			outN("Avg accuracy");
+			outN(avgAccuracies.toString("\t"));
+			outN("--");
+			outN("Standard deviations");
+			outN(stdDevs.toString("\t"));
+			outN("--");
+			outN("Avg TPR & Gmean");
+			outN(avgTPRsAndGmean.toString("\t"));
+			outN("--");
+			outN("Avg. fold training time [ms]");
+			outN(avgTrainingTimes.toString("\t"));
+			outN("--");
+			outN("Avg. fold validation time [ms]");
+			outN(avgValidationTimes.toString("\t"));
+			outN("--");
+			outN("Avg. data model characteristics (across cross-validation folds)");
+			outN(avgDataModelCharacteristics.toString("\t"));
+			outN("--");
+			outN("Avg. quality for test data");
+			outN(avgTestDataQualities.toString("\t"));
+			outN("--");
+		}
+		//$$$$$
 	}
 	
 	/**
@@ -15,6 +15,13 @@ import org.rulelearn.data.Decision;
 import org.rulelearn.experiments.ModelValidationResult.ClassificationStatistics;
 
 /**
+ * Results of a {@link BatchExperiment}: results of all folds of all cross-validations, and results for full data.<br>
+ * <br>
+ * Results aggregated over folds of a cross-validation, and over all cross-validations, are memoized. Result aggregated over all cross-validations concerns only complete
+ * cross-validations, so it is invalidated only when a cross-validation of given (data set, algorithm, parameters) triple becomes complete (or is removed), and not by each
+ * fold result. Hence, it can be aggregated as soon as each cross-validation is done, and is not calculated again when results are summarized.
+ * Methods storing and aggregating fold results are synchronized, as fold results are stored by many work units in parallel.
+ * 
  * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
  */
 public class BatchExperimentResults {
@@ -29,6 +36,15 @@ public class BatchExperimentResults {
 			this.foldModelValidationResults = new ModelValidationResult[foldsCount];
 			this.aggregatedModelValidationResult = null;
 		}
+		
+		boolean isComplete() { //tells if results of all folds are stored
+			for (ModelValidationResult foldModelValidationResult : foldModelValidationResults) {
+				if (foldModelValidationResult == null) {
+					return false;
+				}
+			}
+			return true;
+		}
 	}
 	
 	public static class FullDataResults { //full information table results for a single data set
@@ -184,6 +200,7 @@ public class BatchExperimentResults {
 	}
 	
 	FoldsResults[][][][] foldsResults; //usage: foldsResults[dataSetNumber][learningAlgorithmNumber][parametersNumber][crossValidationNumber] = foldsResults
+	ModelValidationResult[][][] aggregatedModelValidationResults; //usage: aggregatedModelValidationResults[dataSetNumber][learningAlgorithmNumber][parametersNumber]; result aggregated over all CVs, or null if not calculated yet or invalidated
 	
 	int dataSetsCount = -1;
 	int learningAlgorithmsCount = -1;
@@ -194,6 +211,7 @@ public class BatchExperimentResults {
 	
 	CalculationTimes[][][] totalFoldCalculationTimes; //usage: foldCalculationTimes[dataSetNumber][learningAlgorithmNumber][parametersNumber]; cumulated times over all folds (in any cross-validation)
 	CalculationTimes[][][] fullDataCalculationTimes; //usage: fullDataCalculationTimes[dataSetNumber][learningAlgorithmNumber][parametersNumber]; time concerning single training and validation on full data
+	int[][][] crossValidationsCountBeforeDrop; //usage: crossValidationsCountBeforeDrop[dataSetNumber][learningAlgorithmNumber][parametersNumber]; number of CVs done before parameters were dropped by racing, or -1 if not dropped
 	
 	private BatchExperimentResults(int dataSetsCount, int learningAlgorithmsCount, int maxParametersCount, int maxCrossValidationsCount) {
 		this.dataSetsCount = dataSetsCount;
@@ -203,9 +221,11 @@ public class BatchExperimentResults {
 		this.dataName2FullDataResults = new HashMap<String, FullDataResults>();
 		
 		this.foldsResults = new FoldsResults[dataSetsCount][learningAlgorithmsCount][maxParametersCount][maxCrossValidationsCount];
+		this.aggregatedModelValidationResults = new ModelValidationResult[dataSetsCount][learningAlgorithmsCount][maxParametersCount];
 		
 		this.fullDataCalculationTimes = new CalculationTimes[dataSetsCount][learningAlgorithmsCount][maxParametersCount];
 		this.totalFoldCalculationTimes = new CalculationTimes[dataSetsCount][learningAlgorithmsCount][maxParametersCount];
+		this.crossValidationsCountBeforeDrop = new int[dataSetsCount][learningAlgorithmsCount][maxParametersCount];
 		
 		//initialize calculation times
 		for (int i = 0; i < dataSetsCount; i++) {
@@ -213,6 +233,7 @@ public class BatchExperimentResults {
 				for (int k = 0; k < maxParametersCount; k++) {
 					this.fullDataCalculationTimes[i][j][k] = new CalculationTimes();
 					this.totalFoldCalculationTimes[i][j][k] = new CalculationTimes();
+					this.crossValidationsCountBeforeDrop[i][j][k] = -1;
 				}
 			}
 		}
@@ -275,20 +296,66 @@ public class BatchExperimentResults {
 	}
 	
 	//must be called before storeFoldMisclassificationMatrix!
-	public void initializeFoldResults(CVSelector selector, Decision[] orderOfDecisions, int foldsCount) {
+	public synchronized void initializeFoldResults(CVSelector selector, Decision[] orderOfDecisions, int foldsCount) {
 		foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][selector.crossValidationNumber] = new FoldsResults(orderOfDecisions, foldsCount);
+		aggregatedModelValidationResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber] = null; //invalidate
+	}
+	
+	public synchronized void storeFoldModelValidationResult(CVSelector selector, int foldNumber, ModelValidationResult modelValidationResult) { //do initializeFoldResults before!
+		FoldsResults _foldResults = foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][selector.crossValidationNumber];
+		_foldResults.foldModelValidationResults[foldNumber] = modelValidationResult;
+		_foldResults.aggregatedModelValidationResult = null; //invalidate
+		if (_foldResults.isComplete()) { //incomplete cross-validations are skipped by aggregation over all CVs, so results of their folds do not change the aggregated result
+			aggregatedModelValidationResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber] = null; //invalidate
+		}
+	}
+	
+	//removes results of all folds of selected single cross-validation (e.g., for parameters dropped by racing before this cross-validation)
+	public synchronized void removeFoldResults(CVSelector selector) {
+		foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][selector.crossValidationNumber] = null;
+		aggregatedModelValidationResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber] = null; //invalidate
+	}
+	
+	//tells if results of all folds of selected single cross-validation are stored
+	public synchronized boolean isCrossValidationComplete(CVSelector selector) {
+		FoldsResults _foldResults = foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][selector.crossValidationNumber];
+		return _foldResults != null && _foldResults.isComplete();
+	}
+	
+	//gets accuracies for subsequent folds of given complete cross-validations; accuracies of folds of subsequent CVs are in the same order for all (algorithm, parameters) pairs, so they can be paired
+	public synchronized double[] getFoldAccuracies(DataAlgorithmParametersSelector selector, List<Integer> crossValidationNumbers, boolean mainModelAccuracy) {
+		List<Double> foldAccuracies = new ArrayList<Double>();
+		for (int i : crossValidationNumbers) {
+			FoldsResults _foldResults = foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][i];
+			if (_foldResults != null && _foldResults.isComplete()) {
+				for (ModelValidationResult foldModelValidationResult : _foldResults.foldModelValidationResults) {
+					ClassificationStatistics classificationStatistics = foldModelValidationResult.getClassificationStatistics();
+					foldAccuracies.add(mainModelAccuracy ? classificationStatistics.getMainModelAccuracy() : classificationStatistics.getOverallAccuracy());
+				}
+			}
+		}
+		return foldAccuracies.stream().mapToDouble(Double::doubleValue).toArray();
 	}
 	
-	public void storeFoldModelValidationResult(CVSelector selector, int foldNumber, ModelValidationResult modelValidationResult) { //do initializeFoldResults before!
-		foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][selector.crossValidationNumber]
-				.foldModelValidationResults[foldNumber] = modelValidationResult;
+	//marks selected parameters as dropped by racing, after given number of cross-validations
+	public synchronized void dropParameters(DataAlgorithmParametersSelector selector, int crossValidationsCount) {
+		crossValidationsCountBeforeDrop[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber] = crossValidationsCount;
 	}
 	
-	//gets aggregated over folds model validation result for selected single cross-validation, or null (if there are no fold results stored for given CV selector)
-	public ModelValidationResult getAggregatedCVModelValidationResult(CVSelector selector) {
+	public synchronized boolean isDropped(DataAlgorithmParametersSelector selector) {
+		return crossValidationsCountBeforeDrop[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber] >= 0;
+	}
+	
+	//gets number of cross-validations done before selected parameters were dropped by racing, or -1 if these parameters were not dropped
+	public synchronized int getCrossValidationsCountBeforeDrop(DataAlgorithmParametersSelector selector) {
+		return crossValidationsCountBeforeDrop[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber];
+	}
+	
+	//gets aggregated over folds model validation result for selected single cross-validation, or null (if there are no fold results stored for given CV selector, or results of some folds are missing)
+	public synchronized ModelValidationResult getAggregatedCVModelValidationResult(CVSelector selector) {
 		FoldsResults _foldResults = foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][selector.crossValidationNumber];
 		
-		if (_foldResults != null) {
+		if (_foldResults != null && _foldResults.isComplete()) {
 			if (_foldResults.aggregatedModelValidationResult == null) { //there is no aggregated matrix yet
 				_foldResults.aggregatedModelValidationResult = new ModelValidationResult(AggregationMode.SUM, _foldResults.orderOfDecisions, _foldResults.foldModelValidationResults);
 			}
@@ -298,20 +365,47 @@ public class BatchExperimentResults {
 		}
 	}
 	
-	public ModelValidationResult getAggregatedModelValidationResult(DataAlgorithmParametersSelector selector) {
+	//gets aggregated over all complete CVs model validation result for selected (data set, algorithm, parameters) triple, or null (if there is no complete CV for given selector);
+	//result is calculated only once, until another CV of given selector becomes complete or is removed
+	public synchronized ModelValidationResult getAggregatedModelValidationResult(DataAlgorithmParametersSelector selector) {
+		ModelValidationResult aggregatedModelValidationResult = aggregatedModelValidationResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber];
+		if (aggregatedModelValidationResult == null) {
+			aggregatedModelValidationResult = calculateAggregatedModelValidationResult(selector);
+			aggregatedModelValidationResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber] = aggregatedModelValidationResult;
+		}
+		return aggregatedModelValidationResult;
+	}
+	
+	//gets numbers of cross-validations of selected (data set, algorithm, parameters) triple that have been started, but lack results of some folds (e.g., because a work unit has failed);
+	//such cross-validations are skipped when results are aggregated over all CVs, so they should be reported with aggregated results
+	public synchronized List<Integer> getIncompleteCrossValidations(DataAlgorithmParametersSelector selector) {
+		List<Integer> incompleteCrossValidations = new ArrayList<Integer>();
+		for (int i = 0; i < maxCrossValidationsCount; i++) {
+			FoldsResults _foldResults = foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][i];
+			if (_foldResults != null && !_foldResults.isComplete()) {
+				incompleteCrossValidations.add(i);
+			}
+		}
+		return incompleteCrossValidations;
+	}
+	
+	private ModelValidationResult calculateAggregatedModelValidationResult(DataAlgorithmParametersSelector selector) {
 		List<ModelValidationResult> modelValidationResults = new ArrayList<>(maxCrossValidationsCount);
 		int numberOfCrossValidations = 0;
 		Decision[] orderOfDecisions = null; //order taken from entire data
 		
 		for (int i = 0; i < maxCrossValidationsCount; i++) {
+			FoldsResults _foldResults = foldsResults[selector.dataSetNumber][selector.learningAlgorithmNumber][selector.parametersNumber][i];
+			if (_foldResults == null || !_foldResults.isComplete()) { //CV not done, e.g., dropped by racing, or a work unit has failed (see getIncompleteCrossValidations)
+				continue;
+			}
 			ModelValidationResult aggregatedCVModelValidationResult = getAggregatedCVModelValidationResult(
 					(new CVSelector()).dataSetNumber(selector.dataSetNumber).learningAlgorithmNumber(selector.learningAlgorithmNumber)
 					.parametersNumber(selector.parametersNumber).crossValidationNumber(i));
-			if (i == 0) {
-				orderOfDecisions = aggregatedCVModelValidationResult.getOrderOfDecisions(); //get order from the first model validation result
-			}
-			
 			if (aggregatedCVModelValidationResult != null) {
+				if (orderOfDecisions == null) {
+					orderOfDecisions = aggregatedCVModelValidationResult.getOrderOfDecisions(); //get order from the first model validation result
+				}
 				numberOfCrossValidations++;
 				modelValidationResults.add(aggregatedCVModelValidationResult);
 			}
@@ -0,0 +1,217 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import static org.rulelearn.experiments.BatchExperiment.outN;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.rulelearn.core.InvalidValueException;
+import org.rulelearn.experiments.setup.BatchExperimentSetup;
+
+/**
+ * Runs {@link BatchExperiment experiments} for several {@link BatchExperimentSetup experiment setups} concurrently, so small setups do not leave the machine underused.
+ * All experiments share one {@link WorkUnitScheduler scheduler of work units}, whose pool of threads is the global CPU budget, and one {@link MemoryAdmissionController
+ * memory admission controller}, which is the global heap budget. Hence, running several setups concurrently does not start more work units in parallel than running
+ * a single setup. Experiments also share one {@link WorkUnitCostModel model of costs of work units}, so the most expensive units of all setups are run first.<br>
+ * <br>
+ * Each experiment keeps its own results and journal, and writes its reports to its own file in given directory (through its own {@link ExperimentReporter reporter}),
+ * so reports of different setups do not interleave. Only the start and the end of each setup are reported to the default reporter (console).<br>
+ * <br>
+ * Caches of unions, rules, and numbers of consistent objects (see {@link UnionsCache}, {@link VCDomLEMModeRuleClassifierLearnerCache}, {@link NumberOfConsistentObjectsCache})
+ * are shared by all experiments, and keyed by names of data sets only. Different setups may use the same names for different data (e.g., original and preprocessed
+ * variants of a data set), and an experiment clears cached entries of given data name when it is done with that data. Hence, setups that share a name of any data set
+ * are never run concurrently: they are put in one lane, and run one after another (see {@link #getLanes(BatchExperimentSetup[])}), while different lanes are run concurrently.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class BatchExperimentSuite {
+	
+	static final String REPORT_EXTENSION = ".txt";
+	
+	int concurrentSetupsCount;
+	String reportsDirectoryPath;
+	
+	/**
+	 * Constructs this suite.
+	 * 
+	 * @param concurrentSetupsCount maximum number of setups run concurrently
+	 * @param reportsDirectoryPath path to the directory with reports of setups, one file per setup; {@code null} if reports of all setups should be written by the default reporter
+	 * @throws InvalidValueException if given number of setups is not positive
+	 */
+	public BatchExperimentSuite(int concurrentSetupsCount, String reportsDirectoryPath) {
+		if (concurrentSetupsCount < 1) {
+			throw new InvalidValueException("Number of concurrently run experiment setups should be positive.");
+		}
+		this.concurrentSetupsCount = concurrentSetupsCount;
+		this.reportsDirectoryPath = reportsDirectoryPath;
+	}
+	
+	/**
+	 * Runs experiments for all given setups, at most {@link #concurrentSetupsCount} at a time, and waits until all of them are finished.
+	 * Setups sharing names of data sets are run one after another (see {@link #getLanes(BatchExperimentSetup[])}).
+	 * Failure of an experiment is reported, and does not stop experiments for other setups.
+	 * 
+	 * @param batchExperimentSetups setups of experiments
+	 * @param importedJournalFilePaths journals with results calculated by workers of a distributed experiment (possibly empty)
+	 */
+	public void run(BatchExperimentSetup[] batchExperimentSetups, List<String> importedJournalFilePaths) {
+		List<List<BatchExperimentSetup>> lanes = getLanes(batchExperimentSetups);
+		int numberOfUsedThreads = BatchExperiment.foldsInParallel ? BatchExperiment.numberOfThreads : 1;
+		MemoryAdmissionController memoryAdmissionController = BatchExperiment.foldsInParallel && BatchExperiment.memoryAdmissionControl ?
+				new MemoryAdmissionController(BatchExperiment.heapUsageLimit) : null;
+		WorkUnitScheduler scheduler = memoryAdmissionController != null ?
+				new WorkUnitScheduler(numberOfUsedThreads, memoryAdmissionController) : new WorkUnitScheduler(numberOfUsedThreads);
+		WorkUnitCostModel costModel = new WorkUnitCostModel();
+		
+		AtomicInteger threadNumber = new AtomicInteger(0);
+		ExecutorService setupExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(concurrentSetupsCount, lanes.size())), runnable -> {
+			Thread thread = new Thread(runnable, "experiment-setup-"+threadNumber.getAndIncrement()); //only feeds the shared scheduler with work units
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		outN("Running %1 experiment setups in %2 lanes, at most %3 concurrently, using %4 shared threads.", batchExperimentSetups.length, lanes.size(), concurrentSetupsCount, numberOfUsedThreads);
+		for (List<BatchExperimentSetup> lane : lanes) {
+			if (lane.size() > 1) {
+				List<String> setupNames = new ArrayList<String>(lane.size());
+				for (BatchExperimentSetup batchExperimentSetup : lane) {
+					setupNames.add(batchExperimentSetup.getName());
+				}
+				outN("Setups %1 share names of data sets, so they are run one after another.", setupNames);
+			}
+		}
+		
+		try {
+			List<Future<?>> lanesDone = new ArrayList<Future<?>>(lanes.size());
+			for (List<BatchExperimentSetup> lane : lanes) {
+				lanesDone.add(setupExecutor.submit(() -> {
+					for (BatchExperimentSetup batchExperimentSetup : lane) {
+						try {
+							runSetup(batchExperimentSetup, importedJournalFilePaths, scheduler, costModel);
+						} catch (RuntimeException exception) {
+							outN("Experiment setup failed: %1.", exception); //failure is also written to the report of the setup
+						}
+					}
+				}));
+			}
+			for (Future<?> laneDone : lanesDone) {
+				try {
+					laneDone.get();
+				} catch (ExecutionException exception) {
+					outN("Experiment setup failed: %1.", exception.getCause());
+				}
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		} finally {
+			setupExecutor.shutdownNow();
+			scheduler.shutdown();
+			DataGroupArtifactStore.getInstance().clear(); //release artifacts shared by concurrently run setups
+			if (memoryAdmissionController != null) {
+				memoryAdmissionController.close();
+			}
+		}
+	}
+	
+	/**
+	 * Divides given setups into lanes, so that setups sharing a name of any data set (also indirectly, through other setups) are in the same lane.
+	 * Names of data sets are also shared if one of them may denote data derived from the other (see {@link BatchExperiment#isDerivedDataName(String, String)}),
+	 * as cache entries of derived data (e.g., folds) are keyed and cleared by names extending the name of the original data set.
+	 * Setups of a lane are run one after another, in the order in which they are given, so they never use caches keyed by names of data sets concurrently.
+	 * 
+	 * @param batchExperimentSetups setups of experiments
+	 * @return lanes of setups
+	 */
+	static List<List<BatchExperimentSetup>> getLanes(BatchExperimentSetup[] batchExperimentSetups) {
+		List<Set<String>> lanesDataNames = new ArrayList<Set<String>>();
+		List<List<Integer>> lanesSetupIndices = new ArrayList<List<Integer>>();
+		
+		for (int setupIndex = 0; setupIndex < batchExperimentSetups.length; setupIndex++) {
+			Set<String> dataNames = new HashSet<String>();
+			for (DataProvider dataProvider : batchExperimentSetups[setupIndex].getDataProviders()) {
+				dataNames.add(dataProvider.getDataName());
+			}
+			List<Integer> setupIndices = new ArrayList<Integer>();
+			for (int laneIndex = lanesDataNames.size() - 1; laneIndex >= 0; laneIndex--) {
+				if (sharesDataName(lanesDataNames.get(laneIndex), dataNames)) { //setup shares a data name with the lane, so lanes are merged
+					dataNames.addAll(lanesDataNames.remove(laneIndex));
+					setupIndices.addAll(lanesSetupIndices.remove(laneIndex));
+				}
+			}
+			setupIndices.add(setupIndex);
+			Collections.sort(setupIndices);
+			lanesDataNames.add(dataNames);
+			lanesSetupIndices.add(setupIndices);
+		}
+		
+		List<List<BatchExperimentSetup>> lanes = new ArrayList<List<BatchExperimentSetup>>(lanesSetupIndices.size());
+		for (List<Integer> setupIndices : lanesSetupIndices) {
+			List<BatchExperimentSetup> lane = new ArrayList<BatchExperimentSetup>(setupIndices.size());
+			for (int setupIndex : setupIndices) {
+				lane.add(batchExperimentSetups[setupIndex]);
+			}
+			lanes.add(lane);
+		}
+		return lanes;
+	}
+	
+	static boolean sharesDataName(Set<String> dataNames, Set<String> otherDataNames) {
+		for (String dataName : dataNames) {
+			for (String otherDataName : otherDataNames) {
+				if (BatchExperiment.isDerivedDataName(dataName, otherDataName) || BatchExperiment.isDerivedDataName(otherDataName, dataName)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	private void runSetup(BatchExperimentSetup batchExperimentSetup, List<String> importedJournalFilePaths, WorkUnitScheduler scheduler, WorkUnitCostModel costModel) {
+		ExperimentReporter reporter = null;
+		String reportFilePath = null;
+		if (reportsDirectoryPath != null) {
+			reportFilePath = Paths.get(reportsDirectoryPath, FileWorkQueue.toFileName(batchExperimentSetup.getName()) + REPORT_EXTENSION).toString();
+			try {
+				reporter = (new ExperimentReporter()).addSink(new ExperimentReporter.FileSink(reportFilePath, true));
+			} catch (IOException exception) {
+				outN("Could not open report file %1, reports of setup %2 will be written to console: %3.", reportFilePath, batchExperimentSetup.getName(), exception.getMessage());
+			}
+		}
+		
+		long start = System.currentTimeMillis();
+		if (reporter != null) {
+			outN("Started experiment setup %1 (reports are written to file %2).", batchExperimentSetup.getName(), reportFilePath);
+		} else {
+			outN("Started experiment setup %1.", batchExperimentSetup.getName());
+		}
+		
+		ExperimentReporter.setCurrent(reporter); //work units scheduled by this thread inherit its reporter
+		try {
+			BatchExperiment.runSetup(batchExperimentSetup, importedJournalFilePaths, scheduler, costModel);
+		} catch (RuntimeException exception) {
+			outN("Experiment setup %1 failed: %2.", batchExperimentSetup.getName(), exception); //written to the report of the setup
+			throw exception;
+		} finally {
+			ExperimentReporter.setCurrent(null);
+			if (reporter != null) {
+				reporter.close();
+			}
+		}
+		
+		outN("Finished experiment setup %1 [Duration]: %2 [ms].", batchExperimentSetup.getName(), System.currentTimeMillis() - start);
+	}
+	
+}
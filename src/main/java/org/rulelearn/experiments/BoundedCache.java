@@ -0,0 +1,310 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.lang.ref.SoftReference;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.rulelearn.core.InvalidValueException;
+
+/**
+ * In-memory cache with a memory budget, shared by experiment caches (see {@link VCDomLEMModeRuleClassifierLearnerCache} and {@link NumberOfConsistentObjectsCache}).
+ * Each entry has a weight, i.e., its estimated heap size, and the total weight of strongly referenced entries is kept within the budget.
+ * When an entry does not fit, entries are evicted according to the {@link EvictionPolicy eviction policy} until it fits.
+ * Evicted entries are not dropped, but kept softly referenced, so they are still returned (and become strongly referenced again) unless the garbage collector
+ * has reclaimed them because the heap is running out. This way the cache neither causes an out of memory error, nor forces recalculation while there is free heap.<br>
+ * <br>
+ * Cache is thread-safe, and counts hits (also of softly referenced entries), misses, and evictions. A missing value can be calculated only once,
+ * even if requested concurrently by several threads (see {@link #get(Object, Supplier)}).
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class BoundedCache<K, V> {
+	
+	static final int cleanupInterval = 64; //number of puts after which evicted entries reclaimed by GC are forgotten
+	
+	/**
+	 * Policy choosing an entry to evict when the budget is exceeded.
+	 */
+	public static enum EvictionPolicy {
+		/**
+		 * Evict least recently used entry.
+		 */
+		LRU,
+		/**
+		 * Evict least frequently used entry (least recently used among equally frequently used ones).
+		 */
+		LFU
+	}
+	
+	/**
+	 * Strongly referenced entry.
+	 */
+	private static class Entry<K, V> {
+		K key;
+		V value;
+		long weight;
+		long usesCount = 0L;
+		long lastUseNumber = 0L; //number of the last use of this entry among uses of all entries, distinguishing equally frequently used entries
+		
+		Entry(K key, V value, long weight) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+	
+	String name;
+	long maxWeight;
+	EvictionPolicy evictionPolicy;
+	ToLongFunction<V> weigher;
+	
+	LinkedHashMap<K, Entry<K, V>> key2Entry = new LinkedHashMap<K, Entry<K, V>>(16, 0.75f, true); //access order, i.e., least recently used entry first
+	TreeSet<Entry<K, V>> entriesByUses = new TreeSet<Entry<K, V>>(Comparator.<Entry<K, V>>comparingLong(entry -> entry.usesCount).thenComparingLong(entry -> entry.lastUseNumber)); //least frequently used entry first (least recently used among equally frequently used ones), so LFU eviction does not scan all entries
+	long usesNumber = 0L; //number of uses of all entries so far
+	Map<K, SoftReference<V>> key2EvictedValue = new HashMap<K, SoftReference<V>>(); //evicted entries, until reclaimed by GC
+	long weight = 0L; //total weight of strongly referenced entries
+	Map<K, CompletableFuture<V>> key2CalculatedValue = new ConcurrentHashMap<K, CompletableFuture<V>>(); //values being calculated (see get(K, Supplier))
+	
+	long hitsCount = 0L;
+	long softHitsCount = 0L; //hits of evicted entries not reclaimed by GC yet
+	long missesCount = 0L;
+	long evictionsCount = 0L;
+	long waitsCount = 0L; //misses for which requesting thread waited until the value was calculated by another thread
+	long putsCount = 0L;
+	
+	/**
+	 * Constructs this cache.
+	 * 
+	 * @param name name of this cache, used when printing its statistics
+	 * @param maxWeight memory budget, i.e., maximum total weight of strongly referenced entries [B]
+	 * @param evictionPolicy policy choosing entries to evict
+	 * @param weigher estimates weight of a value [B]
+	 * @throws InvalidValueException if given memory budget is negative
+	 */
+	public BoundedCache(String name, long maxWeight, EvictionPolicy evictionPolicy, ToLongFunction<V> weigher) {
+		this.name = name;
+		this.weigher = weigher;
+		configure(maxWeight, evictionPolicy);
+	}
+	
+	/**
+	 * Changes memory budget and eviction policy of this cache, evicting entries exceeding new budget.
+	 * 
+	 * @param maxWeight memory budget, i.e., maximum total weight of strongly referenced entries [B]
+	 * @param evictionPolicy policy choosing entries to evict
+	 * @throws InvalidValueException if given memory budget is negative
+	 */
+	public synchronized void configure(long maxWeight, EvictionPolicy evictionPolicy) {
+		if (maxWeight < 0L) {
+			throw new InvalidValueException("Memory budget of a cache should not be negative.");
+		}
+		this.maxWeight = maxWeight;
+		this.evictionPolicy = evictionPolicy;
+		evict(0L);
+	}
+	
+	/**
+	 * Gets value stored for given key.
+	 * 
+	 * @param key the key
+	 * @return stored value, or {@code null} if there is no value for given key, or it has been evicted and reclaimed by GC
+	 */
+	public synchronized V get(K key) {
+		Entry<K, V> entry = key2Entry.get(key);
+		if (entry != null) {
+			entriesByUses.remove(entry); //re-inserted, as its position changes
+			entry.usesCount++;
+			entry.lastUseNumber = ++usesNumber;
+			entriesByUses.add(entry);
+			hitsCount++;
+			return entry.value;
+		}
+		
+		SoftReference<V> evictedValue = key2EvictedValue.remove(key);
+		V value = evictedValue != null ? evictedValue.get() : null;
+		if (value != null) {
+			softHitsCount++;
+			put(key, value); //used again, so strongly referenced again
+			return value;
+		}
+		
+		missesCount++;
+		return null;
+	}
+	
+	/**
+	 * Gets value stored for given key, calculating it only if it is neither stored in this cache, nor being calculated by another thread (single-flight).
+	 * If the value is being calculated by another thread, the calling thread waits for it. If calculation fails, the exception is rethrown to the calculating thread
+	 * and to all waiting threads, and nothing is stored in this cache, so the next request calculates the value again.
+	 * 
+	 * @param key the key
+	 * @param calculator calculates the value if it is not in this cache
+	 * @return value taken from this cache, or calculated by given calculator
+	 */
+	public V get(K key, Supplier<V> calculator) {
+		V value = get(key);
+		if (value != null) {
+			return value;
+		}
+		
+		CompletableFuture<V> calculatedValue = new CompletableFuture<V>();
+		CompletableFuture<V> otherCalculatedValue = key2CalculatedValue.putIfAbsent(key, calculatedValue);
+		if (otherCalculatedValue != null) {
+			synchronized (this) {
+				waitsCount++;
+			}
+			try {
+				return otherCalculatedValue.join();
+			} catch (CompletionException exception) {
+				throw (exception.getCause() instanceof RuntimeException) ? (RuntimeException)exception.getCause() : exception;
+			}
+		}
+		
+		try {
+			value = peek(key); //value calculated by another thread is stored before it stops being calculated, so it cannot be missed
+			if (value == null) {
+				value = calculator.get();
+				put(key, value);
+			}
+			calculatedValue.complete(value);
+			return value;
+		} catch (RuntimeException | Error exception) {
+			calculatedValue.completeExceptionally(exception);
+			throw exception;
+		} finally {
+			key2CalculatedValue.remove(key, calculatedValue);
+		}
+	}
+	
+	/**
+	 * Gets value stored for given key, without counting a hit or a miss. Evicted value is not made strongly referenced again.
+	 * 
+	 * @param key the key
+	 * @return stored value, or {@code null} if there is no value for given key, or it has been evicted and reclaimed by GC
+	 */
+	public synchronized V peek(K key) {
+		Entry<K, V> entry = key2Entry.get(key);
+		if (entry != null) {
+			return entry.value;
+		}
+		SoftReference<V> evictedValue = key2EvictedValue.get(key);
+		return evictedValue != null ? evictedValue.get() : null;
+	}
+	
+	/**
+	 * Stores given value for given key, evicting other entries if necessary. Value heavier than the whole budget is kept only softly referenced.
+	 * 
+	 * @param key the key
+	 * @param value the value
+	 */
+	public synchronized void put(K key, V value) {
+		if (++putsCount % cleanupInterval == 0) { //occasionally forget evicted entries reclaimed by GC
+			key2EvictedValue.values().removeIf(evictedValue -> evictedValue.get() == null);
+		}
+		remove(key);
+		long valueWeight = Math.max(weigher.applyAsLong(value), 0L);
+		if (valueWeight > maxWeight) {
+			key2EvictedValue.put(key, new SoftReference<V>(value));
+			evictionsCount++;
+			return;
+		}
+		
+		evict(valueWeight);
+		Entry<K, V> entry = new Entry<K, V>(key, value, valueWeight);
+		entry.usesCount = 1L;
+		entry.lastUseNumber = ++usesNumber;
+		key2Entry.put(key, entry);
+		entriesByUses.add(entry);
+		weight += valueWeight;
+	}
+	
+	private void evict(long requiredWeight) { //evicts entries until required weight fits in the budget
+		while (weight + requiredWeight > maxWeight && !key2Entry.isEmpty()) {
+			Entry<K, V> evictedEntry = evictionPolicy == EvictionPolicy.LRU ? key2Entry.values().iterator().next() : entriesByUses.first(); //least recently used entry is the first one in access order
+			key2Entry.remove(evictedEntry.key);
+			entriesByUses.remove(evictedEntry);
+			weight -= evictedEntry.weight;
+			key2EvictedValue.put(evictedEntry.key, new SoftReference<V>(evictedEntry.value));
+			evictionsCount++;
+		}
+	}
+	
+	public synchronized void remove(K key) {
+		Entry<K, V> entry = key2Entry.remove(key);
+		if (entry != null) {
+			entriesByUses.remove(entry);
+			weight -= entry.weight;
+		}
+		key2EvictedValue.remove(key);
+	}
+	
+	/**
+	 * Removes all entries whose keys satisfy given condition.
+	 * 
+	 * @param condition condition satisfied by keys of removed entries
+	 */
+	public synchronized void removeIf(Predicate<K> condition) {
+		for (Iterator<Entry<K, V>> iterator = key2Entry.values().iterator(); iterator.hasNext(); ) {
+			Entry<K, V> entry = iterator.next();
+			if (condition.test(entry.key)) {
+				entriesByUses.remove(entry);
+				weight -= entry.weight;
+				iterator.remove();
+			}
+		}
+		key2EvictedValue.keySet().removeIf(condition);
+	}
+	
+	public synchronized void clear() {
+		key2Entry.clear();
+		entriesByUses.clear();
+		key2EvictedValue.clear();
+		weight = 0L;
+	}
+	
+	public synchronized long getWeight() {
+		return weight;
+	}
+	
+	public synchronized long getHitsCount() {
+		return hitsCount + softHitsCount;
+	}
+	
+	public synchronized long getSoftHitsCount() {
+		return softHitsCount;
+	}
+	
+	public synchronized long getMissesCount() {
+		return missesCount;
+	}
+	
+	public synchronized long getWaitsCount() {
+		return waitsCount;
+	}
+	
+	public synchronized long getEvictionsCount() {
+		return evictionsCount;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return (new StringBuilder(name)).append(": entries: ").append(key2Entry.size()).append(", weight: ").append(weight).append("/").append(maxWeight)
+				.append(" [B], hits: ").append(hitsCount + softHitsCount).append(" (incl. evicted entries not reclaimed by GC: ").append(softHitsCount)
+				.append("), misses: ").append(missesCount).append(" (incl. waits for values calculated by other threads: ").append(waitsCount)
+				.append("), evictions (").append(evictionPolicy).append("): ").append(evictionsCount).toString();
+	}
+	
+}
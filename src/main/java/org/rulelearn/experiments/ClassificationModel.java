@@ -3,20 +3,11 @@
  */
 package org.rulelearn.experiments;
 
+import java.io.Serializable;
 import java.util.Locale;
 
-import org.rulelearn.approximations.Unions;
-import org.rulelearn.approximations.UnionsWithSingleLimitingDecision;
-import org.rulelearn.approximations.VCDominanceBasedRoughSetCalculator;
 import org.rulelearn.core.InvalidValueException;
-import org.rulelearn.data.Decision;
-import org.rulelearn.data.InformationTable;
-import org.rulelearn.data.InformationTableWithDecisionDistributions;
 import org.rulelearn.data.SimpleDecision;
-import org.rulelearn.measures.dominance.EpsilonConsistencyMeasure;
-
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
 
 /**
  * Classification model learned from data.
@@ -25,72 +16,26 @@ import it.unimi.dsi.fastutil.ints.IntSet;
  */
 public interface ClassificationModel {
 	
-	static int getNumberOfConsistentObjects(InformationTable informationTable, double consistencyThreshold) {
-		InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = (informationTable instanceof InformationTableWithDecisionDistributions ?
-				(InformationTableWithDecisionDistributions)informationTable : new InformationTableWithDecisionDistributions(informationTable, true, true));
-		Unions unions = new UnionsWithSingleLimitingDecision(informationTableWithDecisionDistributions, new VCDominanceBasedRoughSetCalculator(EpsilonConsistencyMeasure.getInstance(), consistencyThreshold));
-		
-		return unions.getNumberOfConsistentObjects();
-	}
-	
 	/**
-	 * Gets number of consistent objects in the given information table, for given threshold, assuming objects from given information table have given decisions.
+	 * Gets number of consistent objects in the given data set, for given threshold, using {@link EpsilonConsistencyProfile epsilon consistency profile} {@link UnionsCache cached} for that data set,
+	 * so numbers of consistent objects for different thresholds are obtained without calculating unions for each threshold.
 	 * 
-	 * @param informationTable tested information table
-	 * @param decisions new decisions for subsequent objects from given information table
+	 * @param data the data set
 	 * @param consistencyThreshold consistency threshold for the calculation of approximations
 	 * 
-	 * @return the number of consistent objects in the given information table, for given threshold, assuming objects from given information table have given decisions
+	 * @return the number of consistent objects in the given data set, for given threshold
 	 */
-	static int getNumberOfConsistentObjects(InformationTable informationTable, Decision[] decisions, double consistencyThreshold) {
-		InformationTable informationTableWithAssignedDecisions = new InformationTable(informationTable, decisions, true);
-		return getNumberOfConsistentObjects(informationTableWithAssignedDecisions, consistencyThreshold);
-	}
-	
-	/**
-	 * Gets number of pre- and post-consistent objects in the given information table (i.e., objects that are originally consistent and remain consistent for assigned decisions),
-	 * for given threshold, assuming objects from given information table have given decisions.
-	 * 
-	 * @param informationTable tested information table
-	 * @param decisions new decisions for subsequent objects from given information table
-	 * @param consistencyThreshold consistency threshold for the calculation of approximations
-	 * 
-	 * @return
-	 */
-	static int getNumberOfPreAndPostConsistentObjects(InformationTable informationTable, Decision[] decisions, double consistencyThreshold) {
-		InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = (informationTable instanceof InformationTableWithDecisionDistributions ?
-				(InformationTableWithDecisionDistributions)informationTable : new InformationTableWithDecisionDistributions(informationTable, true, true));
-		Unions unions = new UnionsWithSingleLimitingDecision(informationTableWithDecisionDistributions, new VCDominanceBasedRoughSetCalculator(EpsilonConsistencyMeasure.getInstance(), consistencyThreshold));
-		
-		int[] preConsistentObjects = unions.getNumbersOfConsistentObjects();
-		
-		InformationTable informationTableWithAssignedDecisions = new InformationTable(informationTable, decisions, true);
-		informationTableWithDecisionDistributions = new InformationTableWithDecisionDistributions(informationTableWithAssignedDecisions, true, true);
-		unions = new UnionsWithSingleLimitingDecision(informationTableWithDecisionDistributions, new VCDominanceBasedRoughSetCalculator(EpsilonConsistencyMeasure.getInstance(), consistencyThreshold));
-		
-		int[] postConsistentObjects = unions.getNumbersOfConsistentObjects();
-		
-		IntSet postConsistentObjectsSet = new IntOpenHashSet();
-		for (int i = 0; i < postConsistentObjects.length; i++) {
-			postConsistentObjectsSet.add(postConsistentObjects[i]); //add post consistent objects to the hash set
-		}
-		
-		int result = 0;
-		
-		for (int i = 0; i < preConsistentObjects.length; i++) {
-			if (postConsistentObjectsSet.contains(preConsistentObjects[i])) { //both pre and post-consistent object found
-				result++;
-			}
-		}
-		
-		return result;
+	static int getNumberOfConsistentObjects(Data data, double consistencyThreshold) {
+		return UnionsCache.getInstance().getConsistencyProfile(data).getNumberOfConsistentObjects(consistencyThreshold);
 	}
 	
 	public abstract class ModelDescriptionBuilder {
 		abstract ModelDescription build(AggregationMode aggregationMode, ModelDescription... modelDescriptions); //builds new model description from given array of model descriptions
 	}
 	
-	public abstract class ModelDescription {
+	public abstract class ModelDescription implements Serializable { //serializable to be stored in an experiment journal
+		private static final long serialVersionUID = 1L;
+		
 		public abstract String toString();
 		public abstract String toShortString(); //one line model description
 		public abstract String toCompressedShortString(); //even shorter one line model description (to be put into a spreadsheet table)
@@ -99,7 +44,9 @@ public interface ClassificationModel {
 		public abstract void compress(); //reduces occupied memory to bare minimum (e.g., by dropping textual model representation (if present))
 	}
 	
-	public static class ModelLearningStatistics {
+	public static class ModelLearningStatistics implements Serializable { //serializable to be stored in an experiment journal
+		private static final long serialVersionUID = 1L;
+		
 		int totalNumberOfLearningObjects = 0; //total number of learning objects
 		int totalNumberOfConsistentLearningObjects = 0; //for epsilon consistency threshold 0.0
 		double consistencyThreshold = -1.0; //<0.0 if not used
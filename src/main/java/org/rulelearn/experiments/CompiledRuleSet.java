@@ -0,0 +1,331 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.util.Arrays;
+
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.rules.Condition;
+import org.rulelearn.rules.ConditionAtLeast;
+import org.rulelearn.rules.ConditionAtMost;
+import org.rulelearn.rules.Rule;
+import org.rulelearn.rules.RuleSet;
+import org.rulelearn.types.EnumerationField;
+import org.rulelearn.types.EvaluationField;
+import org.rulelearn.types.Field;
+import org.rulelearn.types.IntegerField;
+import org.rulelearn.types.RealField;
+
+/**
+ * Rule set compiled to primitive arrays, used to find rules covering all objects of a test information table at once (see {@link ModeRuleClassifier#validate(Data)}),
+ * instead of checking conditions of each rule against {@link Field fields} of each object.<br>
+ * <br>
+ * Conditions of all rules are kept in flat arrays (attribute index and condition of each position, and the range of positions of each rule).
+ * When test objects are covered, each column of evaluations used by the rules is encoded as ranks of distinct values (if all its values are integer, real, or enumerated),
+ * and each condition on such a column is translated, for the test table, to a predicate on codes: an at-least or at-most condition becomes a threshold on codes with a direction flag
+ * (found by binary search over distinct values), and any other condition becomes a lookup table of codes. Conditions are checked by ruleLearn only for one representative field
+ * of each needed distinct value, so the semantics of conditions does not change. Conditions on other columns (e.g., with missing values) are checked by ruleLearn for each object.
+ * Then, rules covering subsequent objects are found on primitive arrays, and stored in one array for the whole table, without any allocation per object.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class CompiledRuleSet {
+	
+	//types of conditions compiled for a test table
+	static final byte CODE_AT_LEAST = 0; //satisfied iff code of evaluation >= threshold
+	static final byte CODE_AT_MOST = 1; //satisfied iff code of evaluation <= threshold
+	static final byte CODE_LOOKUP = 2; //satisfied iff lookup table is true for code of evaluation
+	static final byte NOT_COMPILED = 3; //checked by ruleLearn
+	
+	int numberOfRules;
+	int[] ruleConditionsStarts; //conditions of i-th rule are at positions ruleConditionsStarts[i]..ruleConditionsStarts[i+1]-1
+	int[] conditionAttributeIndices; //index of the attribute of the condition at each position
+	Condition<? extends EvaluationField>[] conditions; //condition at each position
+	
+	/**
+	 * Compiled conditions of a rule set, for a particular test information table.
+	 */
+	static class TableConditions {
+		int[][] codes; //codes[a][x] = code of evaluation of object x on attribute a; null if attribute a is not used by rules, or if its evaluations cannot be encoded
+		byte[] types; //type of the condition at each position
+		int[] thresholds; //threshold of the condition at each position, if its type is CODE_AT_LEAST or CODE_AT_MOST
+		boolean[][] lookups; //lookup table of the condition at each position, if its type is CODE_LOOKUP
+		
+		TableConditions(int numberOfAttributes, int numberOfConditions) {
+			codes = new int[numberOfAttributes][];
+			types = new byte[numberOfConditions];
+			thresholds = new int[numberOfConditions];
+			lookups = new boolean[numberOfConditions][];
+		}
+	}
+	
+	/**
+	 * Rules covering subsequent objects of a test information table.
+	 */
+	public static class Coverage {
+		int[] coveringRulesStarts; //indices of rules covering x-th object are at positions coveringRulesStarts[x]..coveringRulesStarts[x+1]-1
+		int[] coveringRules;
+		
+		Coverage(int[] coveringRulesStarts, int[] coveringRules) {
+			this.coveringRulesStarts = coveringRulesStarts;
+			this.coveringRules = coveringRules;
+		}
+		
+		public int getNumberOfObjects() {
+			return coveringRulesStarts.length - 1;
+		}
+		
+		public int getNumberOfCoveringRules(int objectIndex) {
+			return coveringRulesStarts[objectIndex + 1] - coveringRulesStarts[objectIndex];
+		}
+		
+		/**
+		 * Gets indices of rules covering given object, in ascending order.
+		 * 
+		 * @param objectIndex index of an object
+		 * @return indices of rules covering given object
+		 */
+		public int[] getCoveringRules(int objectIndex) {
+			return Arrays.copyOfRange(coveringRules, coveringRulesStarts[objectIndex], coveringRulesStarts[objectIndex + 1]);
+		}
+		
+		public long getTotalNumberOfCoveringRules() {
+			return coveringRulesStarts[getNumberOfObjects()];
+		}
+		
+		/**
+		 * Gets, for each object, index of the first object covered by exactly the same rules. Objects covered by the same rules get the same decision
+		 * from any classifier whose decision depends only on covering rules, so it is enough to classify representative objects.
+		 * 
+		 * @return array with index of the representative of each object (equal to the index of the object, if the object is a representative)
+		 */
+		public int[] getRepresentatives() {
+			int numberOfObjects = getNumberOfObjects();
+			int[] representatives = new int[numberOfObjects];
+			int[] hashTable = new int[Integer.highestOneBit(Math.max(1, numberOfObjects)) << 2]; //open addressing, load factor at most 0.5; stores representative + 1, or 0 for empty slot
+			int mask = hashTable.length - 1;
+			
+			for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+				int hash = 1;
+				for (int position = coveringRulesStarts[objectIndex]; position < coveringRulesStarts[objectIndex + 1]; position++) {
+					hash = 31 * hash + coveringRules[position];
+				}
+				int slot = (hash ^ (hash >>> 16)) & mask;
+				while (hashTable[slot] != 0 && !haveSameCoveringRules(hashTable[slot] - 1, objectIndex)) {
+					slot = (slot + 1) & mask;
+				}
+				if (hashTable[slot] == 0) {
+					hashTable[slot] = objectIndex + 1;
+				}
+				representatives[objectIndex] = hashTable[slot] - 1;
+			}
+			
+			return representatives;
+		}
+		
+		private boolean haveSameCoveringRules(int objectIndex, int otherObjectIndex) {
+			int start = coveringRulesStarts[objectIndex];
+			int otherStart = coveringRulesStarts[otherObjectIndex];
+			int size = coveringRulesStarts[objectIndex + 1] - start;
+			if (size != coveringRulesStarts[otherObjectIndex + 1] - otherStart) {
+				return false;
+			}
+			for (int i = 0; i < size; i++) {
+				if (coveringRules[start + i] != coveringRules[otherStart + i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Compiles given rule set.
+	 * 
+	 * @param ruleSet rule set to compile
+	 */
+	@SuppressWarnings("unchecked")
+	public CompiledRuleSet(RuleSet ruleSet) {
+		numberOfRules = ruleSet.size();
+		ruleConditionsStarts = new int[numberOfRules + 1];
+		Condition<? extends EvaluationField>[][] ruleConditions = new Condition[numberOfRules][];
+		for (int ruleIndex = 0; ruleIndex < numberOfRules; ruleIndex++) {
+			Rule rule = ruleSet.getRule(ruleIndex);
+			ruleConditions[ruleIndex] = rule.getConditions();
+			ruleConditionsStarts[ruleIndex + 1] = ruleConditionsStarts[ruleIndex] + ruleConditions[ruleIndex].length;
+		}
+		
+		conditionAttributeIndices = new int[ruleConditionsStarts[numberOfRules]];
+		conditions = new Condition[ruleConditionsStarts[numberOfRules]];
+		for (int ruleIndex = 0; ruleIndex < numberOfRules; ruleIndex++) {
+			for (int i = 0; i < ruleConditions[ruleIndex].length; i++) {
+				int position = ruleConditionsStarts[ruleIndex] + i;
+				conditions[position] = ruleConditions[ruleIndex][i];
+				conditionAttributeIndices[position] = conditions[position].getAttributeWithContext().getAttributeIndex();
+			}
+		}
+	}
+	
+	/**
+	 * Finds rules covering subsequent objects of given information table. Gives the same rules as {@link Rule#covers(int, InformationTable)}.
+	 * 
+	 * @param informationTable test information table with the same attributes as the table from which rules have been induced
+	 * @return rules covering subsequent objects of given information table
+	 */
+	public Coverage cover(InformationTable informationTable) {
+		TableConditions tableConditions = compile(informationTable);
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		int[] coveringRulesStarts = new int[numberOfObjects + 1];
+		int[] coveringRules = new int[Math.max(16, numberOfObjects)];
+		int numberOfCoveringRules = 0;
+		
+		for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+			for (int ruleIndex = 0; ruleIndex < numberOfRules; ruleIndex++) {
+				if (covers(ruleIndex, objectIndex, informationTable, tableConditions)) {
+					if (numberOfCoveringRules == coveringRules.length) {
+						coveringRules = Arrays.copyOf(coveringRules, coveringRules.length << 1);
+					}
+					coveringRules[numberOfCoveringRules++] = ruleIndex;
+				}
+			}
+			coveringRulesStarts[objectIndex + 1] = numberOfCoveringRules;
+		}
+		
+		return new Coverage(coveringRulesStarts, coveringRules);
+	}
+	
+	private boolean covers(int ruleIndex, int objectIndex, InformationTable informationTable, TableConditions tableConditions) {
+		for (int position = ruleConditionsStarts[ruleIndex]; position < ruleConditionsStarts[ruleIndex + 1]; position++) {
+			boolean satisfied;
+			switch (tableConditions.types[position]) {
+			case CODE_AT_LEAST:
+				satisfied = tableConditions.codes[conditionAttributeIndices[position]][objectIndex] >= tableConditions.thresholds[position];
+				break;
+			case CODE_AT_MOST:
+				satisfied = tableConditions.codes[conditionAttributeIndices[position]][objectIndex] <= tableConditions.thresholds[position];
+				break;
+			case CODE_LOOKUP:
+				satisfied = tableConditions.lookups[position][tableConditions.codes[conditionAttributeIndices[position]][objectIndex]];
+				break;
+			default:
+				satisfied = conditions[position].satisfiedBy(objectIndex, informationTable);
+				break;
+			}
+			if (!satisfied) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Compiles conditions of this rule set for given information table.
+	 */
+	TableConditions compile(InformationTable informationTable) {
+		TableConditions tableConditions = new TableConditions(informationTable.getNumberOfAttributes(), conditions.length);
+		int[][] codeRepresentatives = new int[informationTable.getNumberOfAttributes()][]; //codeRepresentatives[a][c] = index of an object whose evaluation on attribute a has code c
+		boolean[] encoded = new boolean[informationTable.getNumberOfAttributes()]; //tells if encoding of attribute a has been tried
+		
+		for (int position = 0; position < conditions.length; position++) {
+			int attributeIndex = conditionAttributeIndices[position];
+			if (!encoded[attributeIndex]) {
+				tableConditions.codes[attributeIndex] = getCodes(informationTable, attributeIndex);
+				if (tableConditions.codes[attributeIndex] != null) {
+					codeRepresentatives[attributeIndex] = getCodeRepresentatives(tableConditions.codes[attributeIndex]);
+				}
+				encoded[attributeIndex] = true;
+			}
+			
+			if (tableConditions.codes[attributeIndex] == null || codeRepresentatives[attributeIndex].length == 0) {
+				tableConditions.types[position] = NOT_COMPILED;
+			} else if (conditions[position] instanceof ConditionAtLeast || conditions[position] instanceof ConditionAtMost) { //satisfied by an up-set or a down-set of ordered codes
+				compileMonotonicCondition(position, informationTable, codeRepresentatives[attributeIndex], tableConditions);
+			} else {
+				int[] representatives = codeRepresentatives[attributeIndex];
+				boolean[] lookup = new boolean[representatives.length];
+				for (int code = 0; code < representatives.length; code++) {
+					lookup[code] = conditions[position].satisfiedBy(representatives[code], informationTable);
+				}
+				tableConditions.types[position] = CODE_LOOKUP;
+				tableConditions.lookups[position] = lookup;
+			}
+		}
+		
+		return tableConditions;
+	}
+	
+	private void compileMonotonicCondition(int position, InformationTable informationTable, int[] representatives, TableConditions tableConditions) {
+		Condition<? extends EvaluationField> condition = conditions[position];
+		int maxCode = representatives.length - 1;
+		boolean lowestSatisfied = condition.satisfiedBy(representatives[0], informationTable);
+		boolean highestSatisfied = condition.satisfiedBy(representatives[maxCode], informationTable);
+		
+		if (lowestSatisfied == highestSatisfied) { //satisfied by all codes, or by none of them
+			tableConditions.types[position] = CODE_AT_LEAST;
+			tableConditions.thresholds[position] = lowestSatisfied ? 0 : maxCode + 1;
+		} else if (highestSatisfied) { //up-set - find the lowest satisfying code
+			int low = 1;
+			int high = maxCode;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (condition.satisfiedBy(representatives[middle], informationTable)) {
+					high = middle;
+				} else {
+					low = middle + 1;
+				}
+			}
+			tableConditions.types[position] = CODE_AT_LEAST;
+			tableConditions.thresholds[position] = low;
+		} else { //down-set - find the highest satisfying code
+			int low = 0;
+			int high = maxCode - 1;
+			while (low < high) {
+				int middle = (low + high + 1) >>> 1;
+				if (condition.satisfiedBy(representatives[middle], informationTable)) {
+					low = middle;
+				} else {
+					high = middle - 1;
+				}
+			}
+			tableConditions.types[position] = CODE_AT_MOST;
+			tableConditions.thresholds[position] = low;
+		}
+	}
+	
+	/**
+	 * Encodes evaluations of objects on given attribute as ranks of distinct values, in ascending order of values.
+	 * 
+	 * @return array of codes of subsequent objects, or {@code null} if any evaluation is not an integer, real, or enumerated value (e.g., it is a missing value)
+	 */
+	static int[] getCodes(InformationTable informationTable, int attributeIndex) {
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		double[] values = new double[numberOfObjects];
+		for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+			Field field = informationTable.getField(objectIndex, attributeIndex);
+			if (field instanceof RealField) {
+				values[objectIndex] = ((RealField)field).getValue() + 0.0; //adding 0.0 turns -0.0 into 0.0, so equal values get equal codes
+			} else if (field instanceof IntegerField) {
+				values[objectIndex] = ((IntegerField)field).getValue();
+			} else if (field instanceof EnumerationField) {
+				values[objectIndex] = ((EnumerationField)field).getValue(); //index of enumeration element
+			} else {
+				return null;
+			}
+		}
+		return DominanceKernel.toRanks(values);
+	}
+	
+	private static int[] getCodeRepresentatives(int[] codes) {
+		int numberOfCodes = 0;
+		for (int code : codes) {
+			numberOfCodes = Math.max(numberOfCodes, code + 1);
+		}
+		int[] representatives = new int[numberOfCodes];
+		for (int objectIndex = codes.length - 1; objectIndex >= 0; objectIndex--) {
+			representatives[codes[objectIndex]] = objectIndex;
+		}
+		return representatives;
+	}
+	
+}
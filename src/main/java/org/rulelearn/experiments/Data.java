@@ -3,26 +3,45 @@
  */
 package org.rulelearn.experiments;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
 
 import org.rulelearn.core.UnknownValueException;
 import org.rulelearn.data.InformationTable;
 import org.rulelearn.data.InformationTableWithDecisionDistributions;
 
 import weka.core.Instances;
+import weka.core.OptionHandler;
+import weka.core.Utils;
+import weka.filters.Filter;
 
 /**
+ * Data set, i.e., information table with its name, and possibly a cross-validation seed.<br>
+ * <br>
+ * Conversion of the information table to WEKA {@link Instances} is done only once, and then shared by all WEKA learners and classifiers using this data.
+ * Shared instances are read-only. Learners, which may modify their training data (e.g., change weights of instances), get {@link #getInstancesCopy() cheap copies},
+ * sharing values of instances. Also instances transformed by a chain of filters are calculated once per chain (see {@link #getFilteredInstances(Filter[])}).
+ * If this data has a {@link #getGroupArtifactsKey() group artifacts key}, instances are also shared with other data sets of the same data group
+ * (see {@link DataGroupArtifactStore}).
+ * 
  * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
  */
 public class Data {
 	
-	InformationTable data;
+	volatile InformationTable data; //replaced by its extension with decision distributions, when the extension is requested for the first time
+	final Object informationTableTransformationLock = new Object();
 	Instances instances = null; //not always used - calculated only when getter is invoked for the first time
+	Map<String, FilteredInstances> filterChain2FilteredInstances = new HashMap<String, FilteredInstances>(); //instances transformed by chains of filters, calculated on demand
+	final Object filteredInstancesLock = new Object(); //filtering does not block threads getting unfiltered instances
+	String groupArtifactsKey = null; //key of artifacts shared by data sets of a data group (see DataGroupArtifactStore), or null if artifacts of this data are not shared
 	String name;
 	String groupName; //name of a group of different data sets that this data belongs to (data sets within a group may differ, e.g., by missing values or different columns, but should contain the same objects!)
 	long seed;
 	boolean hasSeed = false;
-	long informationTableTransformationTime = 0L; //time of transformation from InformationTable to InformationTableWithDecisionDistributions, if the information table contains decision distributions
+	volatile long informationTableTransformationTime = 0L; //time of transformation from InformationTable to InformationTableWithDecisionDistributions, if the information table contains decision distributions
+	DominanceCounter dominanceCounter = null; //dominance counter constructed once per data set and shared by its data (and by its cross-validation folds, as restricted views), or null if not shared
 	
 	Data(InformationTable data, String name, String groupName, long seed) {
 		this.data = data;
@@ -60,21 +79,145 @@ public class Data {
 		return data;
 	}
 	
-	//SIC! replaces data with new reference
-	//next call to getInformationTable() will in fact return an instance of InformationTableWithDecisionDistributions!
-	public void extendInformationTableWithDecisionDistributions() { //does not check if the information table already contains decision distributions
-		long start = System.currentTimeMillis();
-		data = new InformationTableWithDecisionDistributions(data, true, true);
-		this.informationTableTransformationTime = System.currentTimeMillis() - start;
+	/**
+	 * Gets information table of this data extended with decision distributions. The extension is calculated only once, on the first call,
+	 * and then replaces the original information table, so next calls to {@link #getInformationTable()} return the extended table too.
+	 * Time of the extension is recorded once (see {@link #getInformationTableTransformationTime()}).
+	 * Many work units may call this method for the same data in parallel - only one of them calculates the extension, and the others wait for it.
+	 * 
+	 * @return information table of this data extended with decision distributions
+	 */
+	public InformationTableWithDecisionDistributions getInformationTableWithDecisionDistributions() {
+		InformationTable informationTable = data;
+		if (informationTable instanceof InformationTableWithDecisionDistributions) {
+			return (InformationTableWithDecisionDistributions)informationTable;
+		}
+		synchronized (informationTableTransformationLock) { //transformation does not block threads getting the information table or instances
+			if (!(data instanceof InformationTableWithDecisionDistributions)) { //other work unit could have already extended the information table
+				long start = System.currentTimeMillis();
+				InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = new InformationTableWithDecisionDistributions(data, true, true); //calculate only necessary distributions!
+				informationTableTransformationTime = System.currentTimeMillis() - start;
+				data = informationTableWithDecisionDistributions; //published after transformation time
+			}
+			return (InformationTableWithDecisionDistributions)data;
+		}
+	}
+	
+	/**
+	 * Instances transformed by a chain of filters, together with these filters, trained on the (unfiltered) instances.
+	 */
+	public static class FilteredInstances {
+		Instances instances;
+		Filter[] filters;
+		
+		FilteredInstances(Instances instances, Filter[] filters) {
+			this.instances = instances;
+			this.filters = filters;
+		}
+		
+		/**
+		 * Gets cheap copy of filtered instances, which can be modified by a learner.
+		 * 
+		 * @return copy of filtered instances
+		 */
+		public Instances getInstancesCopy() {
+			return new Instances(instances);
+		}
+		
+		/**
+		 * Gets copies of trained filters, so each model can apply them to test data independently (filters are not thread-safe).
+		 * 
+		 * @return copies of trained filters
+		 * @throws Exception if filters cannot be copied
+		 */
+		public Filter[] getFiltersCopy() throws Exception {
+			Filter[] filtersCopy = new Filter[filters.length];
+			for (int i = 0; i < filters.length; i++) {
+				filtersCopy[i] = Filter.makeCopy(filters[i]);
+			}
+			return filtersCopy;
+		}
 	}
 	
-	public Instances getInstances() { //builds instances on the first call
+	/**
+	 * Gets instances converted from the information table. Returned instances are shared, and must not be modified.
+	 * 
+	 * @return shared instances
+	 */
+	public synchronized Instances getInstances() { //builds instances on the first call; synchronized, as the same test data are validated by many work units in parallel
 		if (instances == null) {
-			instances = InformationTable2Instances.convert(data, name);
+			instances = groupArtifactsKey != null ?
+					DataGroupArtifactStore.getInstance().getInstances(groupArtifactsKey, () -> InformationTable2Instances.convert(data, name)) :
+					InformationTable2Instances.convert(data, name);
 		}
 		return instances;
 	}
 	
+	/**
+	 * Gets cheap copy of {@link #getInstances() shared instances}, which can be modified by a learner.
+	 * The copy contains copies of instances (so, e.g., their weights can be changed), but shares values of instances with the shared instances.
+	 * 
+	 * @return copy of shared instances
+	 */
+	public Instances getInstancesCopy() {
+		return new Instances(getInstances());
+	}
+	
+	/**
+	 * Gets {@link #getInstances() instances} transformed by given chain of filters. Transformation is done only once for each chain,
+	 * identified by classes and options of subsequent filters. Given filters are used (and trained) only if the chain has not been used before.
+	 * 
+	 * @param filters chain of new (not trained) filters
+	 * @return filtered instances, together with trained filters
+	 * @throws Exception if filtering fails
+	 */
+	public FilteredInstances getFilteredInstances(Filter[] filters) throws Exception {
+		String filterChain = getFilterChain(filters);
+		synchronized (filteredInstancesLock) { //the same train data are used by many work units in parallel
+			FilteredInstances filteredInstances = filterChain2FilteredInstances.get(filterChain);
+			if (filteredInstances == null) {
+				if (groupArtifactsKey != null) {
+					try {
+						filteredInstances = DataGroupArtifactStore.getInstance().getFilteredInstances(groupArtifactsKey + "|" + filterChain, () -> {
+							try {
+								return filter(filters);
+							} catch (Exception exception) {
+								throw new CompletionException(exception);
+							}
+						});
+					} catch (CompletionException exception) {
+						throw (exception.getCause() instanceof Exception) ? (Exception)exception.getCause() : exception;
+					}
+				} else {
+					filteredInstances = filter(filters);
+				}
+				filterChain2FilteredInstances.put(filterChain, filteredInstances);
+			}
+			return filteredInstances;
+		}
+	}
+	
+	private FilteredInstances filter(Filter[] filters) throws Exception {
+		Instances instances = getInstances();
+		for (Filter filter : filters) { //use subsequent filters
+			filter.setInputFormat(instances);
+			instances = Filter.useFilter(instances, filter);
+		}
+		return new FilteredInstances(instances, filters);
+	}
+	
+	static String getFilterChain(Filter[] filters) {
+		StringBuilder filterChain = new StringBuilder(64);
+		for (Filter filter : filters) {
+			filterChain.append(filter.getClass().getName());
+			if (filter instanceof OptionHandler) {
+				filterChain.append(" ").append(Utils.joinOptions(((OptionHandler)filter).getOptions()));
+			}
+			filterChain.append("|");
+		}
+		return filterChain.toString();
+	}
+	
 	public String getName() {
 		return name;
 	}
@@ -83,6 +226,15 @@ public class Data {
 		return groupName;
 	}
 	
+	/**
+	 * Gets key of artifacts shared by data sets of a data group (see {@link DataGroupArtifactStore}).
+	 * 
+	 * @return key of shared artifacts, or {@code null} if artifacts of this data are not shared
+	 */
+	public String getGroupArtifactsKey() {
+		return groupArtifactsKey;
+	}
+	
 	public long getSeed() {
 		if (hasSeed) {
 			return seed;
@@ -94,6 +246,17 @@ public class Data {
 	public long getInformationTableTransformationTime() {
 		return informationTableTransformationTime;
 	}
+	
+	/**
+	 * Gets {@link DominanceCounter dominance counter} of objects of this data, constructed once for the full data set by its {@link BasicDataProvider data provider}.
+	 * For a cross-validation fold, it is a {@link DominanceCounter#restrictTo(int[]) view} of the counter of the full data set, restricted to objects of the fold,
+	 * so consistency of objects of the fold is counted without comparing objects again.
+	 * 
+	 * @return shared dominance counter of objects of this data, or {@code null} if there is no such counter (see {@link DominanceCounter#of(Data)})
+	 */
+	public DominanceCounter getDominanceCounter() {
+		return dominanceCounter;
+	}
 
 	@Override
 	public int hashCode() {
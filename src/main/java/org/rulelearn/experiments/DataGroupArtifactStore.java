@@ -0,0 +1,214 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.util.function.Supplier;
+
+import org.rulelearn.data.Attribute;
+import org.rulelearn.data.EvaluationAttribute;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.experiments.Data.FilteredInstances;
+import org.rulelearn.types.Field;
+import org.rulelearn.types.UnknownSimpleField;
+
+import weka.core.Instances;
+
+/**
+ * Stores artifacts derived from data, which are the same for all data sets of a data group (see {@link DataProvider#getDataGroup()}).
+ * Data sets of a group contain the same objects, and differ, e.g., by semantics of missing values (like -mv2 and -mv1.5 variants of the same data).
+ * Hence, partitions of objects into cross-validation folds (see {@link FoldPartition}), and conversions to WEKA {@link Instances} (which do not distinguish
+ * semantics of missing values), are calculated once and shared by all data sets of a group. Computations sensitive to semantics of missing values
+ * (e.g., unions of decision classes, rules) are still done for each data set.<br>
+ * <br>
+ * Instances are shared only by data sets with the same attributes and the same evaluations (see {@link #getArtifactsKey(String, InformationTable)}), as data sets
+ * of a group may also differ by columns, and data sets of different setups may be (mis)named alike. Fold partitions are shared by all data sets of a group with the same
+ * decisions (see {@link #getDecisionsHash(InformationTable)}), and can also be persisted (see {@link FoldPartitionDiskCache}).
+ * Artifacts are kept in {@link BoundedCache bounded caches}, so their estimated heap size does not exceed a configurable budget. The store should be {@link #clear() cleared}
+ * when an experiment setup is done.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class DataGroupArtifactStore {
+	
+	static private DataGroupArtifactStore instance = null;
+	
+	static synchronized DataGroupArtifactStore getInstance() {
+		if (instance == null) {
+			instance = new DataGroupArtifactStore();
+		}
+		return instance;
+	}
+	
+	static final long bytesPerIndex = 4L;
+	static final long foldPartitionsMaxWeight = 64L * 1024L * 1024L; //maximum estimated heap size of strongly referenced fold partitions [B]
+	static final double defaultHeapFraction = 0.1; //fraction of maximum heap size that may be occupied by shared instances, unless configured otherwise
+	
+	static long estimateWeight(Instances instances) {
+		return (long)instances.numInstances() * instances.numAttributes() * MemoryAdmissionController.bytesPerValue;
+	}
+	
+	BoundedCache<String, FoldPartition> key2FoldPartition = new BoundedCache<String, FoldPartition>(
+			"Fold partitions cache", foldPartitionsMaxWeight, BoundedCache.EvictionPolicy.LRU,
+			foldPartition -> ((foldPartition.isOnHeap() ? foldPartition.getNumberOfIndices() : 0L) + 3L * foldPartition.getNumberOfFolds()) * bytesPerIndex); //memory-mapped indices do not occupy heap
+	volatile FoldPartitionDiskCache foldPartitionDiskCache = null; //persistent cache of fold partitions consulted before partitions are calculated; null = partitions are not persisted
+	BoundedCache<String, Instances> key2Instances = new BoundedCache<String, Instances>(
+			"Shared instances cache", (long)(defaultHeapFraction * Runtime.getRuntime().maxMemory()), BoundedCache.EvictionPolicy.LRU, DataGroupArtifactStore::estimateWeight);
+	BoundedCache<String, FilteredInstances> key2FilteredInstances = new BoundedCache<String, FilteredInstances>(
+			"Shared filtered instances cache", (long)(defaultHeapFraction * Runtime.getRuntime().maxMemory()), BoundedCache.EvictionPolicy.LRU,
+			filteredInstances -> estimateWeight(filteredInstances.instances));
+	
+	/**
+	 * Changes memory budget and eviction policy of this store. Fold partitions, which are small, keep their own budget.
+	 * 
+	 * @param maxWeight maximum estimated heap size of strongly referenced instances (and, separately, filtered instances) [B]
+	 * @param evictionPolicy policy choosing artifacts to evict
+	 */
+	public void configure(long maxWeight, BoundedCache.EvictionPolicy evictionPolicy) {
+		key2FoldPartition.configure(foldPartitionsMaxWeight, evictionPolicy);
+		key2Instances.configure(maxWeight, evictionPolicy);
+		key2FilteredInstances.configure(maxWeight, evictionPolicy);
+	}
+	
+	
+	/**
+	 * Gets key of artifacts shared by data sets of given data group that have the same attributes and evaluations as given information table.
+	 * Attributes are compared by names, kinds, types, preference types, and value types, and evaluations are compared by {@link #getContentHash(InformationTable) content hash},
+	 * both ignoring semantics of missing values.
+	 * 
+	 * @param groupName name of the data group
+	 * @param informationTable information table of a data set from the group
+	 * @return key of shared artifacts
+	 */
+	static String getArtifactsKey(String groupName, InformationTable informationTable) {
+		StringBuilder attributesSignature = new StringBuilder(256);
+		for (Attribute attribute : informationTable.getAttributes()) {
+			attributesSignature.append(attribute.getName()).append(",").append(attribute.getClass().getSimpleName()).append(",").append(attribute.isActive());
+			if (attribute instanceof EvaluationAttribute) {
+				EvaluationAttribute evaluationAttribute = (EvaluationAttribute)attribute;
+				attributesSignature.append(",").append(evaluationAttribute.getType()).append(",").append(evaluationAttribute.getPreferenceType())
+						.append(",").append(evaluationAttribute.getValueType().getClass().getSimpleName());
+			}
+			attributesSignature.append(";");
+		}
+		return groupName + "|" + Integer.toHexString(attributesSignature.toString().hashCode()) + "|" + informationTable.getNumberOfObjects() + "|" + getContentHash(informationTable);
+	}
+	
+	/**
+	 * Gets hash of all evaluations of all objects from given information table, in the order of objects. Missing values are hashed alike,
+	 * whatever their semantics, so data sets differing only by semantics of missing values have the same content hash.
+	 * The hash is calculated from textual representations of evaluations, so it is the same in each run (and can be persisted).
+	 * 
+	 * @param informationTable information table whose content should be hashed
+	 * @return hexadecimal hash of the content of given information table
+	 */
+	static String getContentHash(InformationTable informationTable) {
+		return getContentHash(informationTable, false);
+	}
+	
+	/**
+	 * Gets hash of all evaluations of all objects from given information table, in the order of objects.
+	 * 
+	 * @param informationTable information table whose content should be hashed
+	 * @param distinguishMissingValues tells if missing values with different semantics should be hashed differently
+	 * @return hexadecimal hash of the content of given information table
+	 */
+	static String getContentHash(InformationTable informationTable, boolean distinguishMissingValues) {
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		int numberOfAttributes = informationTable.getNumberOfAttributes();
+		long hash = 31L * numberOfObjects + numberOfAttributes;
+		for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+			for (int attributeIndex = 0; attributeIndex < numberOfAttributes; attributeIndex++) {
+				Field field = informationTable.getField(objectIndex, attributeIndex);
+				hash = 31L * hash + (field instanceof UnknownSimpleField ? (distinguishMissingValues ? field.getClass().getSimpleName() : "?") : field.toString()).hashCode();
+			}
+		}
+		return Long.toHexString(hash);
+	}
+	
+	/**
+	 * Gets hash of decisions of all objects from given information table, in the order of objects. Stratified partition of objects into folds
+	 * depends only on these decisions (and on the seed and number of folds), so it can be shared by data sets with the same decisions hash.
+	 * The hash is calculated from textual representations of decisions, so it is the same in each run (and can be persisted).
+	 * 
+	 * @param informationTable information table whose decisions should be hashed
+	 * @return hash of the decisions of given information table
+	 */
+	static long getDecisionsHash(InformationTable informationTable) {
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		long hash = numberOfObjects;
+		for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+			hash = 31L * hash + String.valueOf(informationTable.getDecision(objectIndex)).hashCode();
+		}
+		return hash;
+	}
+	
+	/**
+	 * Sets persistent cache of fold partitions.
+	 * 
+	 * @param foldPartitionDiskCache persistent cache of fold partitions, or {@code null} if fold partitions should not be persisted
+	 */
+	public void setFoldPartitionDiskCache(FoldPartitionDiskCache foldPartitionDiskCache) {
+		this.foldPartitionDiskCache = foldPartitionDiskCache;
+	}
+	
+	public FoldPartitionDiskCache getFoldPartitionDiskCache() {
+		return foldPartitionDiskCache;
+	}
+	
+	/**
+	 * Gets partition of objects of given data group into folds of given cross-validation. The partition is taken from memory, or loaded from {@link FoldPartitionDiskCache disk},
+	 * or, if it is in neither of them, calculated by given calculator (only once, also if requested concurrently) and stored on disk.
+	 * 
+	 * Partitions are identified by group name, seed, number of folds, and {@link #getDecisionsHash(InformationTable) decisions hash} of partitioned data,
+	 * so data sets with the same name but different decisions (or different order of objects) do not share partitions.
+	 * 
+	 * @param groupName name of the data group (or data set, if it does not share artifacts with other data sets)
+	 * @param seed seed of the cross-validation
+	 * @param k number of folds
+	 * @param informationTable partitioned data
+	 * @param calculator calculates the partition if it is neither in memory, nor on disk
+	 * @return partition of objects into folds
+	 */
+	public FoldPartition getFoldPartition(String groupName, long seed, int k, InformationTable informationTable, Supplier<FoldPartition> calculator) {
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		long decisionsHash = getDecisionsHash(informationTable);
+		return key2FoldPartition.get(groupName + "|" + Long.toHexString(decisionsHash) + "|" + seed + "|" + k, () -> {
+			FoldPartitionDiskCache foldPartitionDiskCache = this.foldPartitionDiskCache;
+			FoldPartition foldPartition = foldPartitionDiskCache != null ? foldPartitionDiskCache.load(groupName, decisionsHash, seed, k, numberOfObjects) : null;
+			if (foldPartition == null) {
+				foldPartition = calculator.get();
+				if (foldPartitionDiskCache != null) {
+					foldPartitionDiskCache.store(groupName, decisionsHash, seed, k, foldPartition);
+				}
+			}
+			return foldPartition;
+		});
+	}
+	
+	public Instances getInstances(String key, Supplier<Instances> calculator) {
+		return key2Instances.get(key, calculator);
+	}
+	
+	public FilteredInstances getFilteredInstances(String key, Supplier<FilteredInstances> calculator) {
+		return key2FilteredInstances.get(key, calculator);
+	}
+	
+	public void clear() {
+		key2FoldPartition.clear();
+		key2Instances.clear();
+		key2FilteredInstances.clear();
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append(key2FoldPartition).append("; ").append(key2Instances).append("; ").append(key2FilteredInstances);
+		FoldPartitionDiskCache foldPartitionDiskCache = this.foldPartitionDiskCache;
+		if (foldPartitionDiskCache != null) {
+			sb.append("; ").append(foldPartitionDiskCache);
+		}
+		return sb.toString();
+	}
+	
+}
@@ -0,0 +1,217 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import static org.rulelearn.experiments.BatchExperiment.outN;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.rulelearn.experiments.FileWorkQueue.Task;
+import org.rulelearn.experiments.setup.BatchExperimentSetup;
+
+/**
+ * Runs a {@link BatchExperiment} across several JVMs, on one machine or on several hosts. The coordinator enumerates cross-validations of all data sets of all
+ * {@link BatchExperimentSetup experiment setups}, and puts them, as tasks, in a {@link FileWorkQueue queue} stored in a directory. Worker JVMs claim tasks from the queue,
+ * calculate all work units of claimed cross-validations (using all their threads), and append results of work units to their {@link ExperimentJournal journals},
+ * stored in the directory of the queue. When the queue is empty, the coordinator runs each experiment setup as usual, but with journals of workers imported,
+ * so results calculated by workers are restored instead of being calculated, and the whole experiment is summarized as if it were run in a single JVM.
+ * Work units not calculated by workers (e.g., learning from full data, or a cross-validation that failed) are calculated by the coordinator.<br>
+ * <br>
+ * To run an experiment across several hosts, the directory of the queue has to be on a file system shared by all hosts, supporting atomic renames.
+ * All JVMs have to be run with the same {@link BatchExperiment#getBatchExperimentSetups() configuration}, and have access to the same data files.
+ * Tasks already done in a previous run are not enqueued again, so an interrupted distributed experiment can be resumed.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class DistributedBatchExperiment {
+	
+	static final String COORDINATOR_MODE = "coordinator";
+	static final String WORKER_MODE = "worker";
+	
+	static final long pollInterval = 5000L; //[ms], how often the queue is checked when waiting for tasks or for workers
+	static final long heartbeatInterval = 60000L; //[ms], how often a worker signals that it is still calculating claimed task
+	static final long staleTaskTimeout = 10 * heartbeatInterval; //[ms], after this time without heartbeat, claimed task is considered abandoned by a crashed worker
+	
+	/**
+	 * Enqueues cross-validations of all given setups, waits until all of them are done by workers, and returns paths to journals of workers.
+	 * 
+	 * @param batchExperimentSetups setups of experiments
+	 * @param queueDirectoryPath path to the directory of the queue
+	 * @return paths to journals with results calculated by workers, to be imported by experiments run by the coordinator
+	 */
+	public static List<String> runCoordinator(BatchExperimentSetup[] batchExperimentSetups, String queueDirectoryPath) {
+		if (BatchExperiment.journalDirectoryPath == null) {
+			outN("Results calculated by workers cannot be imported, as journaling of results is switched off. All calculations will be done by the coordinator.");
+			return new ArrayList<String>();
+		}
+		
+		try {
+			FileWorkQueue queue = new FileWorkQueue(queueDirectoryPath);
+			
+			int enqueuedTasksCount = 0;
+			if (BatchExperiment.doCrossValidations) {
+				for (BatchExperimentSetup batchExperimentSetup : batchExperimentSetups) {
+					List<DataProvider> dataProviders = batchExperimentSetup.getDataProviders();
+					for (int dataSetNumber = 0; dataSetNumber < dataProviders.size(); dataSetNumber++) {
+						for (int crossValidationNumber = 0; crossValidationNumber < dataProviders.get(dataSetNumber).getSeeds().length; crossValidationNumber++) {
+							if (queue.enqueue(new Task(batchExperimentSetup.getName(), dataSetNumber, crossValidationNumber))) {
+								enqueuedTasksCount++;
+							}
+						}
+					}
+				}
+			}
+			queue.markEnqueued();
+			outN("Enqueued %1 cross-validations in %2 (already done: %3). Waiting for workers.", enqueuedTasksCount, queueDirectoryPath, queue.getNumberOfDoneTasks());
+			
+			int pendingTasksCount;
+			int claimedTasksCount;
+			while ((pendingTasksCount = queue.getNumberOfPendingTasks()) + (claimedTasksCount = queue.getNumberOfClaimedTasks()) > 0) {
+				int requeuedTasksCount = queue.requeueStale(staleTaskTimeout);
+				if (requeuedTasksCount > 0) {
+					outN("Requeued %1 cross-validations abandoned by workers.", requeuedTasksCount);
+				}
+				outN("Pending cross-validations: %1, being calculated by workers: %2.", pendingTasksCount, claimedTasksCount);
+				try {
+					Thread.sleep(pollInterval);
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			
+			return queue.getResultsJournalPaths();
+		} catch (IOException exception) {
+			outN("Could not use queue %1, all calculations will be done by the coordinator: %2.", queueDirectoryPath, exception.getMessage());
+			return new ArrayList<String>();
+		}
+	}
+	
+	/**
+	 * Claims tasks from the queue and calculates them, until the coordinator has enqueued all tasks and all of them are done.
+	 * 
+	 * @param batchExperimentSetups setups of experiments, the same as used by the coordinator
+	 * @param queueDirectoryPath path to the directory of the queue
+	 */
+	public static void runWorker(BatchExperimentSetup[] batchExperimentSetups, String queueDirectoryPath) {
+		String workerId = FileWorkQueue.toFileName(ManagementFactory.getRuntimeMXBean().getName()); //pid@host
+		Map<String, BatchExperimentSetup> name2Setup = new HashMap<String, BatchExperimentSetup>();
+		for (BatchExperimentSetup batchExperimentSetup : batchExperimentSetups) {
+			name2Setup.put(batchExperimentSetup.getName(), batchExperimentSetup);
+		}
+		Map<String, BatchExperiment> name2Experiment = new HashMap<String, BatchExperiment>();
+		
+		FileWorkQueue queue;
+		ExperimentJournal journal;
+		try {
+			queue = new FileWorkQueue(queueDirectoryPath);
+			journal = new ExperimentJournal(queue.getResultsJournalPath(workerId));
+		} catch (IOException exception) {
+			outN("Could not use queue %1: %2.", queueDirectoryPath, exception.getMessage());
+			return;
+		}
+		outN("Worker %1 started (results restored from the journal: %2).", workerId, journal.size());
+		BatchExperiment.configureCaches(); //rules induced by workers are reused by the coordinator, if the directory is shared
+		
+		int numberOfUsedThreads = BatchExperiment.foldsInParallel ? BatchExperiment.numberOfThreads : 1;
+		MemoryAdmissionController memoryAdmissionController = BatchExperiment.foldsInParallel && BatchExperiment.memoryAdmissionControl ?
+				new MemoryAdmissionController(BatchExperiment.heapUsageLimit) : null;
+		WorkUnitScheduler scheduler = memoryAdmissionController != null ?
+				new WorkUnitScheduler(numberOfUsedThreads, memoryAdmissionController) : new WorkUnitScheduler(numberOfUsedThreads);
+		ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+		int doneTasksCount = 0;
+		
+		try {
+			while (true) {
+				Task task = queue.claim(workerId);
+				if (task == null) {
+					if (queue.isEnqueued() && queue.getNumberOfPendingTasks() + queue.getNumberOfClaimedTasks() == 0) {
+						break; //all tasks done (as long as other workers calculate their tasks, their tasks can still be requeued, if abandoned)
+					}
+					Thread.sleep(pollInterval);
+					continue;
+				}
+				
+				BatchExperimentSetup batchExperimentSetup = name2Setup.get(task.getSetupName());
+				if (batchExperimentSetup == null) {
+					outN("Worker %1 does not know setup %2, and stops. Check if the worker has the same configuration as the coordinator.", workerId, task.getSetupName());
+					queue.unclaim(task);
+					break;
+				}
+				BatchExperiment batchExperiment = name2Experiment.computeIfAbsent(task.getSetupName(), setupName -> {
+					BatchExperiment experiment = new BatchExperiment(setupName, batchExperimentSetup.getDataProviders(), new RepeatableCrossValidationProvider(),
+							batchExperimentSetup.getDataProcessorProvider(), batchExperimentSetup.getLearningAlgorithms(), batchExperimentSetup.getLearningAlgorithmDataParametersContainer());
+					experiment.journal = journal;
+					if (BatchExperiment.workUnitCostsFilePath != null) {
+						try {
+							experiment.costModel.load(BatchExperiment.workUnitCostsFilePath); //costs are only read, as the coordinator updates them
+						} catch (IOException exception) {
+							outN("Could not load costs of work units from file %1: %2.", BatchExperiment.workUnitCostsFilePath, exception.getMessage());
+						}
+					}
+					return experiment;
+				});
+				
+				outN("Worker %1 starts task: %2.", workerId, task);
+				ScheduledFuture<?> heartbeat = heartbeatExecutor.scheduleAtFixedRate(() -> {
+					try {
+						queue.heartbeat(task);
+					} catch (IOException exception) {
+						outN("Could not signal that task %1 is being calculated: %2.", task, exception.getMessage());
+					}
+				}, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+				try {
+					batchExperiment.runCrossValidationTask(scheduler, task.getDataSetNumber(), task.getCrossValidationNumber());
+				} catch (RuntimeException exception) { //any failure of the task, so the task is completed below, and the worker keeps polling
+					Throwable cause = exception instanceof CompletionException && exception.getCause() != null ? exception.getCause() : exception; //failure of a work unit
+					outN("Task %1 failed, missing results will be calculated by the coordinator: %2.", task, cause);
+				} finally {
+					heartbeat.cancel(false);
+					BatchExperiment.clearCaches(batchExperiment.dataProviders.get(task.getDataSetNumber()).getDataName()); //next task may concern another setup, using the same names of data sets for different data
+				}
+				try {
+					if (queue.complete(task)) { //also failed task, so it is not retried forever
+						doneTasksCount++;
+					} else {
+						outN("Worker %1 lost its claim of task %2 (requeued as stale), so the task is left to the worker that claims it now.", workerId, task);
+					}
+				} catch (IOException exception) { //worker keeps polling, as the queue may still be usable
+					outN("Worker %1 could not mark task %2 as done: %3.", workerId, task, exception.getMessage());
+				}
+			}
+		} catch (IOException exception) {
+			outN("Worker %1 could not use queue %2: %3.", workerId, queueDirectoryPath, exception.getMessage());
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		} finally {
+			heartbeatExecutor.shutdownNow();
+			scheduler.shutdown();
+			if (memoryAdmissionController != null) {
+				memoryAdmissionController.close();
+			}
+			try {
+				journal.close();
+			} catch (IOException exception) {
+				outN("Could not close journal: %1.", exception.getMessage());
+			}
+		}
+		
+		outN("Worker %1 finished %2 tasks.", workerId, doneTasksCount);
+	}
+	
+}
@@ -0,0 +1,174 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.rulelearn.data.InformationTable;
+
+/**
+ * Counts objects of subsequent decision classes in dominance cones of objects of an information table, without materializing dominance cones.
+ * Used to calculate epsilon consistencies of objects (see {@link EpsilonConsistencyProfile}, {@link TestDataConsistencyChecker}).
+ * Dominance is checked on ranks of evaluations on active condition attributes (see {@link DominanceKernel#getConditionRanks(InformationTable)}),
+ * so it does not depend on decisions of objects, and the same counter can be used for many vectors of decisions of the same objects.<br>
+ * <br>
+ * Dominance between two objects does not depend on other objects either, so a counter constructed once for the full data set can also count objects in dominance cones
+ * taken within any subset of its objects (e.g., training or test objects of a cross-validation fold), see {@link #restrictTo(int[])}.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public interface DominanceCounter {
+	
+	/**
+	 * Counter of objects of subsequent decision classes in dominance cones, for fixed decisions of objects.
+	 */
+	interface ConeClassCounter {
+		/**
+		 * Counts objects of subsequent decision classes in positive or negative dominance cone of given object. Can be called by many threads concurrently.
+		 * 
+		 * @param objectIndex index of the object whose dominance cone is considered
+		 * @param positive {@code true} if positive dominance cone (objects dominating given object) should be considered,
+		 *        {@code false} if negative dominance cone (objects dominated by given object) should be considered
+		 * @param coneClassSizes array, indexed by rank of class, to be filled with numbers of objects of subsequent classes in the cone
+		 */
+		void countClasses(int objectIndex, boolean positive, int[] coneClassSizes);
+	}
+	
+	/**
+	 * Gets counter of objects of subsequent decision classes in dominance cones, for given decisions of objects.
+	 * 
+	 * @param classRanks ranks of decision classes of subsequent objects; -1 for objects not belonging to any class
+	 * @param numberOfClasses number of decision classes
+	 * @return counter of objects of subsequent decision classes in dominance cones
+	 */
+	ConeClassCounter getConeClassCounter(int[] classRanks, int numberOfClasses);
+	
+	/**
+	 * Gets number of objects whose dominance cones are considered by this counter.
+	 * 
+	 * @return number of objects
+	 */
+	int getNumberOfObjects();
+	
+	/**
+	 * Gets view of this counter restricted to given subset of objects. Objects of the subset are indexed by their positions in given array,
+	 * and dominance cones are taken within the subset. The view does not compare any objects by itself - objects outside the subset are masked
+	 * by having no decision class, and then objects in dominance cones are counted by this counter.
+	 * 
+	 * @param objectIndices indices (in this counter) of subsequent objects of the subset
+	 * @return view of this counter restricted to given subset of objects
+	 */
+	default DominanceCounter restrictTo(int[] objectIndices) {
+		return new Restriction(this, objectIndices);
+	}
+	
+	/**
+	 * Dominance counter restricted to a subset of objects of another dominance counter (see {@link DominanceCounter#restrictTo(int[])}).
+	 */
+	class Restriction implements DominanceCounter {
+		DominanceCounter fullCounter;
+		int[] objectIndices; //objectIndices[i] = index in the full counter of i-th object of the subset
+		
+		Restriction(DominanceCounter fullCounter, int[] objectIndices) {
+			this.fullCounter = fullCounter;
+			this.objectIndices = objectIndices;
+		}
+		
+		@Override
+		public ConeClassCounter getConeClassCounter(int[] classRanks, int numberOfClasses) {
+			int[] fullClassRanks = new int[fullCounter.getNumberOfObjects()];
+			Arrays.fill(fullClassRanks, -1); //objects outside the subset are not counted
+			for (int objectIndex = 0; objectIndex < objectIndices.length; objectIndex++) {
+				fullClassRanks[objectIndices[objectIndex]] = classRanks[objectIndex];
+			}
+			ConeClassCounter fullConeClassCounter = fullCounter.getConeClassCounter(fullClassRanks, numberOfClasses);
+			return (objectIndex, positive, coneClassSizes) -> fullConeClassCounter.countClasses(objectIndices[objectIndex], positive, coneClassSizes);
+		}
+		
+		@Override
+		public int getNumberOfObjects() {
+			return objectIndices.length;
+		}
+		
+		@Override
+		public DominanceCounter restrictTo(int[] objectIndices) { //restriction of a restriction is a restriction of the full counter
+			int[] fullObjectIndices = new int[objectIndices.length];
+			for (int objectIndex = 0; objectIndex < objectIndices.length; objectIndex++) {
+				fullObjectIndices[objectIndex] = this.objectIndices[objectIndices[objectIndex]];
+			}
+			return new Restriction(fullCounter, fullObjectIndices);
+		}
+	}
+	
+	/**
+	 * Calculates, for each object, maximum epsilon consistency with respect to unions comprising that object (see {@link EpsilonConsistencyProfile}).
+	 * Objects are processed in parallel, on {@link java.util.concurrent.ForkJoinPool#commonPool() common fork-join pool}.
+	 * 
+	 * @param classRanks ranks of decision classes of subsequent objects; -1 for objects not belonging to any class
+	 * @param classSizes numbers of objects of subsequent decision classes
+	 * @return array with maximum epsilon consistency of each object (zero for objects not belonging to any class), in the order of objects
+	 */
+	default double[] calculateMaxEpsilonConsistencies(int[] classRanks, int[] classSizes) {
+		int numberOfClasses = classSizes.length;
+		ConeClassCounter coneClassCounter = getConeClassCounter(classRanks, numberOfClasses);
+		double[] maxEpsilonConsistencies = new double[classRanks.length];
+		
+		IntStream.range(0, classRanks.length).parallel().forEach(objectIndex -> {
+			int rank = classRanks[objectIndex];
+			if (rank < 0) {
+				return;
+			}
+			int[] positiveConeClassSizes = null;
+			int[] negativeConeClassSizes = null;
+			if (rank > 0) {
+				positiveConeClassSizes = new int[numberOfClasses];
+				coneClassCounter.countClasses(objectIndex, true, positiveConeClassSizes);
+			}
+			if (rank < numberOfClasses - 1) {
+				negativeConeClassSizes = new int[numberOfClasses];
+				coneClassCounter.countClasses(objectIndex, false, negativeConeClassSizes);
+			}
+			maxEpsilonConsistencies[objectIndex] = EpsilonConsistencyProfile.calculateMaxEpsilonConsistency(rank, classSizes, positiveConeClassSizes, negativeConeClassSizes);
+		});
+		
+		return maxEpsilonConsistencies;
+	}
+	
+	/**
+	 * Constructs counter for given information table, if {@link BatchExperiment#useDominanceKernel switched on}, and if dominance between objects of given information table
+	 * can be checked on ranks of evaluations. For tables with less than {@link BatchExperiment#dominanceIndexMinNumberOfObjects} objects, constructs a {@link DominanceKernel bitset kernel},
+	 * checking each pair of objects (64 pairs at a time). For larger tables, constructs a {@link DominanceIndex dominance index}, which does not check pairs of objects
+	 * separated by whole nodes of a k-d tree.
+	 * 
+	 * @param informationTable information table
+	 * @return counter for given information table, or {@code null} if dominance cones of ruleLearn have to be used
+	 */
+	static DominanceCounter of(InformationTable informationTable) {
+		if (!BatchExperiment.useDominanceKernel) {
+			return null;
+		}
+		int[][] ranks = DominanceKernel.getConditionRanks(informationTable);
+		if (ranks == null) {
+			return null;
+		}
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		return numberOfObjects < BatchExperiment.dominanceIndexMinNumberOfObjects ?
+				new DominanceKernel(ranks, numberOfObjects) : new DominanceIndex(ranks, numberOfObjects);
+	}
+	
+	/**
+	 * Gets counter for given data. Uses the counter {@link Data#getDominanceCounter() saved in given data}, which can be shared with other data sets
+	 * (e.g., a view of the counter of the full data set, for a cross-validation fold). Otherwise, {@link #of(InformationTable) constructs} counter
+	 * for the information table of given data.
+	 * 
+	 * @param data the data set
+	 * @return counter for given data, or {@code null} if dominance cones of ruleLearn have to be used
+	 */
+	static DominanceCounter of(Data data) {
+		DominanceCounter dominanceCounter = data.getDominanceCounter();
+		return dominanceCounter != null ? dominanceCounter : of(data.getInformationTable());
+	}
+	
+}
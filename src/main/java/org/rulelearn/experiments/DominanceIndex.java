@@ -0,0 +1,176 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.util.Arrays;
+
+/**
+ * Multidimensional index of objects of an information table, counting objects of subsequent decision classes in dominance cones without checking all pairs of objects.
+ * Used instead of {@link DominanceKernel} for very large tables, where time of checking all pairs of objects, quadratic in the number of objects, is prohibitive.<br>
+ * <br>
+ * Objects are points in the space of {@link DominanceKernel#getConditionRanks(org.rulelearn.data.InformationTable) ranks of evaluations} on active condition attributes,
+ * stored in a k-d tree. Each node of the tree covers a contiguous range of objects in the order of the tree, and remembers the bounding box of these objects.
+ * Positive dominance cone of an object is an orthant of the space (all ranks not lower than the ranks of the object). If the bounding box of a node is inside the orthant,
+ * all objects of the node are counted at once, using prefix sums of class memberships along the order of the tree (so class counts of nodes are summarized in O(1) time);
+ * if the box is outside the orthant, the node is skipped; otherwise, its children are visited (and the objects of a leaf are checked one by one).
+ * Analogously for negative dominance cones. The tree takes linear memory, and a query visits O(n^(1-1/d)) nodes in the worst case, for d attributes,
+ * but much less for real data, where many attributes are correlated.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class DominanceIndex implements DominanceCounter {
+	
+	static final int LEAF_SIZE = 32; //maximum number of objects in a leaf of the tree
+	
+	int numberOfObjects;
+	int[][] ranks; //ranks[a][x] = rank of evaluation of object x on a-th active condition attribute (the greater the better)
+	int[] order; //indices of objects in the order of the tree; each node covers a contiguous range of this array
+	
+	//nodes of the tree, indexed by node number; node 0 is the root
+	int numberOfNodes = 0;
+	int[] nodeFrom; //first position (inclusive) of objects of a node in the order of the tree
+	int[] nodeTo; //last position (exclusive) of objects of a node in the order of the tree
+	int[] nodeLeft; //number of the left child of a node, or -1 for a leaf
+	int[] nodeRight; //number of the right child of a node, or -1 for a leaf
+	int[][] nodeMinRanks; //nodeMinRanks[a][node] = minimal rank on a-th attribute among objects of a node
+	int[][] nodeMaxRanks; //nodeMaxRanks[a][node] = maximal rank on a-th attribute among objects of a node
+	
+	DominanceIndex(int[][] ranks, int numberOfObjects) {
+		this.ranks = ranks;
+		this.numberOfObjects = numberOfObjects;
+		
+		order = new int[numberOfObjects];
+		for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+			order[objectIndex] = objectIndex;
+		}
+		
+		int maxNumberOfNodes = Math.max(1, 4 * ((numberOfObjects + LEAF_SIZE - 1) / LEAF_SIZE)); //leaves have at least LEAF_SIZE / 2 objects (except for the root)
+		nodeFrom = new int[maxNumberOfNodes];
+		nodeTo = new int[maxNumberOfNodes];
+		nodeLeft = new int[maxNumberOfNodes];
+		nodeRight = new int[maxNumberOfNodes];
+		nodeMinRanks = new int[ranks.length][maxNumberOfNodes];
+		nodeMaxRanks = new int[ranks.length][maxNumberOfNodes];
+		
+		build(0, numberOfObjects, new long[numberOfObjects]);
+	}
+	
+	/**
+	 * Builds subtree for objects at given range of positions in the order of the tree. Splits objects on the attribute with the largest spread of ranks,
+	 * at the median rank.
+	 * 
+	 * @return number of the root of the subtree
+	 */
+	private int build(int from, int to, long[] keys) {
+		int node = numberOfNodes++;
+		nodeFrom[node] = from;
+		nodeTo[node] = to;
+		
+		int splitAttributeIndex = -1;
+		int maxSpread = 0;
+		for (int attributeIndex = 0; attributeIndex < ranks.length; attributeIndex++) {
+			int[] attributeRanks = ranks[attributeIndex];
+			int minRank = Integer.MAX_VALUE;
+			int maxRank = Integer.MIN_VALUE;
+			for (int position = from; position < to; position++) {
+				int rank = attributeRanks[order[position]];
+				minRank = Math.min(minRank, rank);
+				maxRank = Math.max(maxRank, rank);
+			}
+			nodeMinRanks[attributeIndex][node] = minRank;
+			nodeMaxRanks[attributeIndex][node] = maxRank;
+			if (maxRank - minRank > maxSpread) {
+				maxSpread = maxRank - minRank;
+				splitAttributeIndex = attributeIndex;
+			}
+		}
+		
+		if (to - from <= LEAF_SIZE || splitAttributeIndex < 0) { //small node, or all objects of the node have the same ranks
+			nodeLeft[node] = -1;
+			nodeRight[node] = -1;
+			return node;
+		}
+		
+		//sort objects of the node by rank on the split attribute (object indices are non-negative ints)
+		int[] splitRanks = ranks[splitAttributeIndex];
+		for (int position = from; position < to; position++) {
+			keys[position] = ((long)splitRanks[order[position]] << 32) | order[position];
+		}
+		Arrays.sort(keys, from, to);
+		for (int position = from; position < to; position++) {
+			order[position] = (int)keys[position];
+		}
+		
+		int middle = (from + to) >>> 1;
+		nodeLeft[node] = build(from, middle, keys);
+		nodeRight[node] = build(middle, to, keys);
+		return node;
+	}
+	
+	@Override
+	public int getNumberOfObjects() {
+		return numberOfObjects;
+	}
+	
+	@Override
+	public ConeClassCounter getConeClassCounter(int[] classRanks, int numberOfClasses) {
+		//classPrefixSums[c][p] = number of objects of class c among objects at positions 0..p-1 in the order of the tree
+		int[][] classPrefixSums = new int[numberOfClasses][numberOfObjects + 1];
+		for (int position = 0; position < numberOfObjects; position++) {
+			int classRank = classRanks[order[position]];
+			for (int rank = 0; rank < numberOfClasses; rank++) {
+				classPrefixSums[rank][position + 1] = classPrefixSums[rank][position] + (rank == classRank ? 1 : 0);
+			}
+		}
+		return (objectIndex, positive, coneClassSizes) -> {
+			Arrays.fill(coneClassSizes, 0);
+			countClasses(0, objectIndex, positive, classRanks, classPrefixSums, coneClassSizes);
+		};
+	}
+	
+	private void countClasses(int node, int objectIndex, boolean positive, int[] classRanks, int[][] classPrefixSums, int[] coneClassSizes) {
+		boolean inside = true;
+		for (int attributeIndex = 0; attributeIndex < ranks.length; attributeIndex++) {
+			int rank = ranks[attributeIndex][objectIndex];
+			if (positive) {
+				if (nodeMaxRanks[attributeIndex][node] < rank) {
+					return; //no object of the node dominates given object
+				}
+				inside &= nodeMinRanks[attributeIndex][node] >= rank;
+			} else {
+				if (nodeMinRanks[attributeIndex][node] > rank) {
+					return; //no object of the node is dominated by given object
+				}
+				inside &= nodeMaxRanks[attributeIndex][node] <= rank;
+			}
+		}
+		
+		if (inside) { //all objects of the node are in the cone
+			for (int classRank = 0; classRank < coneClassSizes.length; classRank++) {
+				coneClassSizes[classRank] += classPrefixSums[classRank][nodeTo[node]] - classPrefixSums[classRank][nodeFrom[node]];
+			}
+		} else if (nodeLeft[node] < 0) { //leaf - check its objects one by one
+			for (int position = nodeFrom[node]; position < nodeTo[node]; position++) {
+				int otherObjectIndex = order[position];
+				if (classRanks[otherObjectIndex] >= 0 && isInCone(otherObjectIndex, objectIndex, positive)) {
+					coneClassSizes[classRanks[otherObjectIndex]]++;
+				}
+			}
+		} else {
+			countClasses(nodeLeft[node], objectIndex, positive, classRanks, classPrefixSums, coneClassSizes);
+			countClasses(nodeRight[node], objectIndex, positive, classRanks, classPrefixSums, coneClassSizes);
+		}
+	}
+	
+	private boolean isInCone(int otherObjectIndex, int objectIndex, boolean positive) {
+		for (int attributeIndex = 0; attributeIndex < ranks.length; attributeIndex++) {
+			int[] attributeRanks = ranks[attributeIndex];
+			if (positive ? attributeRanks[otherObjectIndex] < attributeRanks[objectIndex] : attributeRanks[otherObjectIndex] > attributeRanks[objectIndex]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+}
@@ -0,0 +1,278 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.util.Arrays;
+
+import org.rulelearn.data.Attribute;
+import org.rulelearn.data.AttributePreferenceType;
+import org.rulelearn.data.AttributeType;
+import org.rulelearn.data.EvaluationAttribute;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.types.EnumerationField;
+import org.rulelearn.types.Field;
+import org.rulelearn.types.IntegerField;
+import org.rulelearn.types.RealField;
+
+/**
+ * Dominance relation between objects of an information table, checked on primitive ranks of evaluations instead of generic comparisons of {@link Field fields}.
+ * Used to count objects of subsequent decision classes in dominance cones, e.g., to calculate epsilon consistencies of objects (see {@link EpsilonConsistencyProfile}),
+ * without materializing dominance cones of all objects.<br>
+ * <br>
+ * Each active condition attribute is encoded as a column of ranks of evaluations (reversed for cost attributes), so object y dominates object x
+ * iff rank of y is not lower than rank of x in each column. Objects are split into blocks of 64, and in each block and each column, objects are sorted by rank.
+ * Then, objects of a block whose rank is not lower (or not greater) than given rank form a prefix (or suffix) of that order, which is taken as a precalculated
+ * {@code long} bitset. Dominance cone of an object restricted to a block is an AND of such bitsets over all columns, and the number of objects of a decision class
+ * in that cone is a popcount of the cone AND the bitset of the class. Time of counting classes in the cones of all objects is quadratic, but with a small constant,
+ * and memory is linear in the number of objects.<br>
+ * <br>
+ * Ranks of evaluations can be {@link #getConditionRanks(InformationTable) calculated} only if all active condition attributes are gain or cost attributes with integer, real,
+ * or enumerated values, and there are no missing values among their evaluations. For such attributes, dominance is a conjunction of total preorders, and the kernel gives the same
+ * dominance cones as ruleLearn. Otherwise, dominance cones of ruleLearn, which handle missing values and attributes without preference order, have to be used.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class DominanceKernel implements DominanceCounter {
+	
+	static final int BLOCK_SIZE = 64; //number of objects in a block, equal to the number of bits in a long
+	
+	int numberOfObjects;
+	int numberOfBlocks;
+	int[][] ranks; //ranks[a][x] = rank of evaluation of object x on a-th active condition attribute (the greater the better)
+	int[][] blockSortedRanks; //blockSortedRanks[a][b * BLOCK_SIZE + i] = i-th lowest rank on a-th attribute among objects of block b
+	long[][] blockPrefixMasks; //blockPrefixMasks[a][b * (BLOCK_SIZE + 1) + i] = bitset of objects of block b having i lowest ranks on a-th attribute
+	long[] blockMasks; //blockMasks[b] = bitset of all objects of block b (last block can be incomplete)
+	
+	DominanceKernel(int[][] ranks, int numberOfObjects) {
+		this.ranks = ranks;
+		this.numberOfObjects = numberOfObjects;
+		this.numberOfBlocks = (numberOfObjects + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		
+		blockMasks = new long[numberOfBlocks];
+		for (int block = 0; block < numberOfBlocks; block++) {
+			int blockSize = getBlockSize(block);
+			blockMasks[block] = blockSize == BLOCK_SIZE ? -1L : (1L << blockSize) - 1L;
+		}
+		
+		int numberOfAttributes = ranks.length;
+		blockSortedRanks = new int[numberOfAttributes][];
+		blockPrefixMasks = new long[numberOfAttributes][];
+		long[] rankOffsetPairs = new long[BLOCK_SIZE];
+		
+		for (int attributeIndex = 0; attributeIndex < numberOfAttributes; attributeIndex++) {
+			int[] attributeRanks = ranks[attributeIndex];
+			int[] sortedRanks = new int[numberOfBlocks * BLOCK_SIZE];
+			long[] prefixMasks = new long[numberOfBlocks * (BLOCK_SIZE + 1)];
+			
+			for (int block = 0; block < numberOfBlocks; block++) {
+				int blockStart = block * BLOCK_SIZE;
+				int blockSize = getBlockSize(block);
+				for (int offset = 0; offset < blockSize; offset++) {
+					rankOffsetPairs[offset] = ((long)attributeRanks[blockStart + offset] << 6) | offset; //ranks are non-negative
+				}
+				Arrays.sort(rankOffsetPairs, 0, blockSize);
+				
+				int prefixStart = block * (BLOCK_SIZE + 1);
+				long prefixMask = 0L;
+				prefixMasks[prefixStart] = prefixMask;
+				for (int i = 0; i < blockSize; i++) {
+					sortedRanks[blockStart + i] = (int)(rankOffsetPairs[i] >>> 6);
+					prefixMask |= 1L << (int)(rankOffsetPairs[i] & 63L);
+					prefixMasks[prefixStart + i + 1] = prefixMask;
+				}
+			}
+			
+			blockSortedRanks[attributeIndex] = sortedRanks;
+			blockPrefixMasks[attributeIndex] = prefixMasks;
+		}
+	}
+	
+	/**
+	 * Calculates ranks of evaluations of objects from given information table on active condition attributes, if dominance between these objects
+	 * can be checked on ranks of evaluations.
+	 * 
+	 * @param informationTable information table
+	 * @return array of columns of ranks, indexed by active condition attribute and by object (the greater rank the better evaluation),
+	 *         or {@code null} if any active condition attribute of given information table has no preference order,
+	 *         has values other than integer, real, or enumerated, or has missing values
+	 */
+	static int[][] getConditionRanks(InformationTable informationTable) {
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		int numberOfAttributes = informationTable.getNumberOfAttributes();
+		int[][] ranks = new int[numberOfAttributes][]; //with spare space, if not all attributes are active condition ones
+		int numberOfConditionAttributes = 0;
+		
+		for (int attributeIndex = 0; attributeIndex < numberOfAttributes; attributeIndex++) {
+			Attribute attribute = informationTable.getAttribute(attributeIndex);
+			if (!(attribute instanceof EvaluationAttribute)) {
+				continue;
+			}
+			EvaluationAttribute evaluationAttribute = (EvaluationAttribute)attribute;
+			if (!evaluationAttribute.isActive() || evaluationAttribute.getType() != AttributeType.CONDITION) {
+				continue;
+			}
+			
+			AttributePreferenceType preferenceType = evaluationAttribute.getPreferenceType();
+			if (preferenceType != AttributePreferenceType.GAIN && preferenceType != AttributePreferenceType.COST) {
+				return null;
+			}
+			
+			double[] values = new double[numberOfObjects];
+			for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+				Field field = informationTable.getField(objectIndex, attributeIndex);
+				double value;
+				if (field instanceof RealField) {
+					value = ((RealField)field).getValue();
+				} else if (field instanceof IntegerField) {
+					value = ((IntegerField)field).getValue();
+				} else if (field instanceof EnumerationField) {
+					value = ((EnumerationField)field).getValue(); //index of enumeration element, ordered according to preference
+				} else { //missing value or not supported type of value
+					return null;
+				}
+				values[objectIndex] = (preferenceType == AttributePreferenceType.GAIN ? value : -value) + 0.0; //adding 0.0 turns -0.0 into 0.0, so equal values get equal ranks
+			}
+			ranks[numberOfConditionAttributes++] = toRanks(values);
+		}
+		
+		return Arrays.copyOf(ranks, numberOfConditionAttributes);
+	}
+	
+	static int[] toRanks(double[] values) { //ranks of distinct values, in ascending order of values
+		double[] sortedValues = values.clone();
+		Arrays.sort(sortedValues);
+		int numberOfDistinctValues = 0;
+		for (int i = 0; i < sortedValues.length; i++) {
+			if (i == 0 || sortedValues[i] != sortedValues[i - 1]) {
+				sortedValues[numberOfDistinctValues++] = sortedValues[i];
+			}
+		}
+		
+		int[] ranks = new int[values.length];
+		for (int objectIndex = 0; objectIndex < values.length; objectIndex++) {
+			ranks[objectIndex] = Arrays.binarySearch(sortedValues, 0, numberOfDistinctValues, values[objectIndex]);
+		}
+		return ranks;
+	}
+	
+	private int getBlockSize(int block) {
+		return Math.min(BLOCK_SIZE, numberOfObjects - block * BLOCK_SIZE);
+	}
+	
+	@Override
+	public int getNumberOfObjects() {
+		return numberOfObjects;
+	}
+	
+	/**
+	 * Gets bitsets of objects from subsequent decision classes.
+	 * 
+	 * @param classRanks ranks of decision classes of subsequent objects; -1 for objects not belonging to any class
+	 * @param numberOfClasses number of decision classes
+	 * @return array of bitsets, indexed by rank of class and by block
+	 */
+	long[][] getClassMasks(int[] classRanks, int numberOfClasses) {
+		long[][] classMasks = new long[numberOfClasses][numberOfBlocks];
+		for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+			if (classRanks[objectIndex] >= 0) {
+				classMasks[classRanks[objectIndex]][objectIndex / BLOCK_SIZE] |= 1L << (objectIndex % BLOCK_SIZE);
+			}
+		}
+		return classMasks;
+	}
+	
+	@Override
+	public ConeClassCounter getConeClassCounter(int[] classRanks, int numberOfClasses) {
+		long[][] classMasks = getClassMasks(classRanks, numberOfClasses);
+		long[] memberMasks = getMemberMasks(classMasks);
+		return (objectIndex, positive, coneClassSizes) -> countClasses(objectIndex, positive, classMasks, memberMasks, coneClassSizes);
+	}
+	
+	/**
+	 * Gets bitsets of objects belonging to any decision class, used to skip blocks without such objects (e.g., blocks without objects of a subset of objects
+	 * counted by a {@link DominanceCounter#restrictTo(int[]) restricted view} of this kernel).
+	 * 
+	 * @param classMasks bitsets of objects from subsequent decision classes (see {@link #getClassMasks(int[], int)})
+	 * @return array of bitsets, indexed by block
+	 */
+	long[] getMemberMasks(long[][] classMasks) {
+		long[] memberMasks = new long[numberOfBlocks];
+		for (long[] classMask : classMasks) {
+			for (int block = 0; block < numberOfBlocks; block++) {
+				memberMasks[block] |= classMask[block];
+			}
+		}
+		return memberMasks;
+	}
+	
+	/**
+	 * Counts objects of subsequent decision classes in positive or negative dominance cone of given object.
+	 * 
+	 * @param objectIndex index of the object whose dominance cone is considered
+	 * @param positive {@code true} if positive dominance cone (objects dominating given object) should be considered,
+	 *        {@code false} if negative dominance cone (objects dominated by given object) should be considered
+	 * @param classMasks bitsets of objects from subsequent decision classes (see {@link #getClassMasks(int[], int)})
+	 * @param memberMasks bitsets of objects belonging to any decision class (see {@link #getMemberMasks(long[][])})
+	 * @param coneClassSizes array, indexed by rank of class, to be filled with numbers of objects of subsequent classes in the cone
+	 */
+	void countClasses(int objectIndex, boolean positive, long[][] classMasks, long[] memberMasks, int[] coneClassSizes) {
+		Arrays.fill(coneClassSizes, 0);
+		int numberOfAttributes = ranks.length;
+		int numberOfClasses = classMasks.length;
+		
+		for (int block = 0; block < numberOfBlocks; block++) {
+			long coneMask = blockMasks[block] & memberMasks[block]; //objects not belonging to any class are not counted anyway
+			int blockStart = block * BLOCK_SIZE;
+			int blockEnd = blockStart + getBlockSize(block);
+			int prefixStart = block * (BLOCK_SIZE + 1);
+			
+			for (int attributeIndex = 0; attributeIndex < numberOfAttributes && coneMask != 0L; attributeIndex++) {
+				int rank = ranks[attributeIndex][objectIndex];
+				int[] sortedRanks = blockSortedRanks[attributeIndex];
+				if (positive) { //objects with rank not lower than the rank of given object form a suffix of sorted objects
+					int position = lowerBound(sortedRanks, blockStart, blockEnd, rank) - blockStart;
+					coneMask &= ~blockPrefixMasks[attributeIndex][prefixStart + position];
+				} else { //objects with rank not greater than the rank of given object form a prefix of sorted objects
+					int position = upperBound(sortedRanks, blockStart, blockEnd, rank) - blockStart;
+					coneMask &= blockPrefixMasks[attributeIndex][prefixStart + position];
+				}
+			}
+			
+			if (coneMask != 0L) {
+				for (int classRank = 0; classRank < numberOfClasses; classRank++) {
+					coneClassSizes[classRank] += Long.bitCount(coneMask & classMasks[classRank][block]);
+				}
+			}
+		}
+	}
+	
+	private static int lowerBound(int[] sortedValues, int from, int to, int value) { //index of the first value not lower than given value
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedValues[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	private static int upperBound(int[] sortedValues, int from, int to, int value) { //index of the first value greater than given value
+		int low = from;
+		int high = to;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedValues[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+}
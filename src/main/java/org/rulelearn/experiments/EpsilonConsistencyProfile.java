@@ -0,0 +1,239 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.rulelearn.data.Decision;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.data.InformationTableWithDecisionDistributions;
+import org.rulelearn.dominance.DominanceCones;
+import org.rulelearn.measures.dominance.EpsilonConsistencyMeasure;
+
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+
+/**
+ * Epsilon consistency of all objects of a data set, calculated once and then used to answer, for any number of consistency thresholds,
+ * how many objects are consistent and what is the quality of approximation in \epsilon-VC-DRSA.<br>
+ * <br>
+ * Epsilon consistency of object y with respect to upward union X (see {@link EpsilonConsistencyMeasure}) is equal to |D+(y) \cap ¬X| / |¬X|,
+ * where D+(y) is positive dominance cone of y, and ¬X is the complementary downward union (analogously for downward unions and negative dominance cones).
+ * Object y belonging to union X belongs to the lower approximation of X iff its epsilon consistency is not greater than the threshold.
+ * Object is consistent (i.e., does not belong to the boundary of any union) iff it belongs to the lower approximations of all unions it belongs to.
+ * Hence, it is enough to remember, for each object, the maximum of its epsilon consistencies with respect to all unions it belongs to.
+ * These maxima do not depend on the threshold, so they are calculated in one pass over dominance cones, and sorted.
+ * Then, the number of objects consistent for given threshold is found by binary search, in O(log n) time.
+ * Numbers of objects of subsequent classes in dominance cones are counted either in dominance cones of ruleLearn, or by a {@link DominanceCounter dominance counter}.<br>
+ * <br>
+ * Objects whose decision is not fully determined do not belong to any union, so they are always consistent.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class EpsilonConsistencyProfile {
+	
+	double[] sortedMaxEpsilonConsistencies; //for each object, maximum epsilon consistency with respect to unions comprising that object, sorted in ascending order
+	
+	/**
+	 * Calculates epsilon consistencies of all objects from given information table.
+	 * 
+	 * @param informationTable information table of the data set; if it is not an {@link InformationTableWithDecisionDistributions}, it is transformed to one before calculation
+	 */
+	public EpsilonConsistencyProfile(InformationTable informationTable) {
+		InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = (informationTable instanceof InformationTableWithDecisionDistributions ?
+				(InformationTableWithDecisionDistributions)informationTable : new InformationTableWithDecisionDistributions(informationTable, true, true));
+		
+		setMaxEpsilonConsistencies(calculateMaxEpsilonConsistencies(informationTableWithDecisionDistributions, informationTableWithDecisionDistributions.getDominanceCones()));
+	}
+	
+	/**
+	 * Calculates epsilon consistencies of all objects from given information table, counting objects in dominance cones by given dominance counter.
+	 * 
+	 * @param informationTable information table of the data set
+	 * @param dominanceCounter dominance counter {@link DominanceCounter#of(InformationTable) constructed} for given information table
+	 */
+	public EpsilonConsistencyProfile(InformationTable informationTable, DominanceCounter dominanceCounter) {
+		setMaxEpsilonConsistencies(calculateMaxEpsilonConsistencies(informationTable, dominanceCounter));
+	}
+	
+	/**
+	 * Calculates epsilon consistency profile of given data. If a {@link DominanceCounter dominance counter} is {@link Data#getDominanceCounter() shared} by given data,
+	 * or can be {@link DominanceCounter#of(InformationTable) constructed} for them, the counter is used, and the information table of given data is not extended with decision distributions.
+	 * Otherwise, dominance cones of the {@link Data#getInformationTableWithDecisionDistributions() extension saved in given data} are used.
+	 * 
+	 * @param data the data set
+	 * @return epsilon consistency profile of given data
+	 */
+	static EpsilonConsistencyProfile of(Data data) {
+		DominanceCounter dominanceCounter = DominanceCounter.of(data);
+		return dominanceCounter != null ? new EpsilonConsistencyProfile(data.getInformationTable(), dominanceCounter) :
+			new EpsilonConsistencyProfile(data.getInformationTableWithDecisionDistributions());
+	}
+	
+	private void setMaxEpsilonConsistencies(double[] maxEpsilonConsistencies) {
+		Arrays.sort(maxEpsilonConsistencies);
+		this.sortedMaxEpsilonConsistencies = maxEpsilonConsistencies;
+	}
+	
+	/**
+	 * Ranks of decision classes of objects from an information table, and sizes of these classes.
+	 */
+	static class DecisionRanks {
+		int[] ranks; //-1 for objects whose decision is not fully determined
+		int[] classSizes;
+		
+		DecisionRanks(InformationTable informationTable) {
+			Decision[] orderedDecisions = informationTable.getOrderedUniqueFullyDeterminedDecisions();
+			int numberOfClasses = orderedDecisions.length;
+			Map<Decision, Integer> decision2Rank = new HashMap<Decision, Integer>();
+			for (int rank = 0; rank < numberOfClasses; rank++) {
+				decision2Rank.put(orderedDecisions[rank], rank);
+			}
+			
+			int numberOfObjects = informationTable.getNumberOfObjects();
+			ranks = new int[numberOfObjects];
+			classSizes = new int[numberOfClasses];
+			for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+				Integer rank = decision2Rank.get(informationTable.getDecision(objectIndex));
+				ranks[objectIndex] = rank != null ? rank : -1;
+				if (rank != null) {
+					classSizes[rank]++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Calculates, for each object, maximum epsilon consistency with respect to unions comprising that object. Unions are formed by decisions of objects
+	 * from given information table, while dominance between objects is given by dominance cones, which depend only on condition attributes.
+	 * Hence, the same dominance cones can be used to evaluate many vectors of decisions assigned to the same objects (see {@link TestDataConsistencyChecker}).
+	 * 
+	 * @param informationTable information table providing decisions of objects
+	 * @param dominanceCones dominance cones of objects from given information table
+	 * @return array with maximum epsilon consistency of each object (zero for objects whose decision is not fully determined), in the order of objects
+	 */
+	static double[] calculateMaxEpsilonConsistencies(InformationTable informationTable, DominanceCones dominanceCones) {
+		DecisionRanks decisionRanks = new DecisionRanks(informationTable);
+		int[] ranks = decisionRanks.ranks;
+		int numberOfClasses = decisionRanks.classSizes.length;
+		
+		double[] maxEpsilonConsistencies = new double[ranks.length];
+		int[] positiveConeClassSizes = new int[numberOfClasses]; //for each class, number of objects from that class in the positive dominance cone of considered object
+		int[] negativeConeClassSizes = new int[numberOfClasses]; //for each class, number of objects from that class in the negative dominance cone of considered object
+		
+		for (int objectIndex = 0; objectIndex < ranks.length; objectIndex++) {
+			int rank = ranks[objectIndex];
+			if (rank < 0) {
+				continue;
+			}
+			if (rank > 0) {
+				countClasses(dominanceCones.getPositiveDCone(objectIndex), ranks, positiveConeClassSizes);
+			}
+			if (rank < numberOfClasses - 1) {
+				countClasses(dominanceCones.getNegativeDCone(objectIndex), ranks, negativeConeClassSizes);
+			}
+			maxEpsilonConsistencies[objectIndex] = calculateMaxEpsilonConsistency(rank, decisionRanks.classSizes, positiveConeClassSizes, negativeConeClassSizes);
+		}
+		
+		return maxEpsilonConsistencies;
+	}
+	
+	/**
+	 * Calculates, for each object, maximum epsilon consistency with respect to unions comprising that object, counting objects in dominance cones by given dominance counter.
+	 * 
+	 * @param informationTable information table providing decisions of objects
+	 * @param dominanceCounter dominance counter constructed for given information table (or for an information table with the same objects, but other decisions)
+	 * @return array with maximum epsilon consistency of each object (zero for objects whose decision is not fully determined), in the order of objects
+	 */
+	static double[] calculateMaxEpsilonConsistencies(InformationTable informationTable, DominanceCounter dominanceCounter) {
+		DecisionRanks decisionRanks = new DecisionRanks(informationTable);
+		return dominanceCounter.calculateMaxEpsilonConsistencies(decisionRanks.ranks, decisionRanks.classSizes);
+	}
+	
+	/**
+	 * Calculates maximum epsilon consistency of an object with respect to unions comprising that object.
+	 * 
+	 * @param rank rank of the decision class of the object
+	 * @param classSizes numbers of objects of subsequent decision classes
+	 * @param positiveConeClassSizes numbers of objects of subsequent decision classes in the positive dominance cone of the object; not used if rank is 0
+	 * @param negativeConeClassSizes numbers of objects of subsequent decision classes in the negative dominance cone of the object; not used if rank is the highest one
+	 * @return maximum epsilon consistency of the object
+	 */
+	static double calculateMaxEpsilonConsistency(int rank, int[] classSizes, int[] positiveConeClassSizes, int[] negativeConeClassSizes) {
+		int numberOfClasses = classSizes.length;
+		double maxEpsilonConsistency = 0.0;
+		
+		//upward unions of classes 1..rank; complementary union of class t comprises classes 0..t-1
+		if (rank > 0) {
+			int coneComplementSize = 0;
+			int complementSize = 0;
+			for (int t = 1; t <= rank; t++) {
+				coneComplementSize += positiveConeClassSizes[t - 1];
+				complementSize += classSizes[t - 1];
+				maxEpsilonConsistency = Math.max(maxEpsilonConsistency, (double)coneComplementSize / complementSize);
+			}
+		}
+		
+		//downward unions of classes rank..numberOfClasses-2; complementary union of class t comprises classes t+1..numberOfClasses-1
+		if (rank < numberOfClasses - 1) {
+			int coneComplementSize = 0;
+			int complementSize = 0;
+			for (int t = numberOfClasses - 2; t >= rank; t--) {
+				coneComplementSize += negativeConeClassSizes[t + 1];
+				complementSize += classSizes[t + 1];
+				maxEpsilonConsistency = Math.max(maxEpsilonConsistency, (double)coneComplementSize / complementSize);
+			}
+		}
+		
+		return maxEpsilonConsistency;
+	}
+	
+	private static void countClasses(IntSortedSet dominanceCone, int[] ranks, int[] coneClassSizes) {
+		Arrays.fill(coneClassSizes, 0);
+		IntIterator iterator = dominanceCone.iterator();
+		while (iterator.hasNext()) {
+			int rank = ranks[iterator.nextInt()];
+			if (rank >= 0) {
+				coneClassSizes[rank]++;
+			}
+		}
+	}
+	
+	public int getNumberOfObjects() {
+		return sortedMaxEpsilonConsistencies.length;
+	}
+	
+	/**
+	 * Gets number of objects consistent for given threshold, i.e., number of objects whose maximum epsilon consistency is not greater than the threshold.
+	 * 
+	 * @param consistencyThreshold consistency threshold for the calculation of approximations
+	 * @return number of objects consistent for given threshold
+	 */
+	public int getNumberOfConsistentObjects(double consistencyThreshold) {
+		int low = 0;
+		int high = sortedMaxEpsilonConsistencies.length; //index of the first value greater than the threshold is in [low, high]
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedMaxEpsilonConsistencies[middle] <= consistencyThreshold) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Gets quality of approximation for given threshold, i.e., the fraction of objects consistent for that threshold.
+	 * 
+	 * @param consistencyThreshold consistency threshold for the calculation of approximations
+	 * @return quality of approximation for given threshold
+	 */
+	public double getQualityOfApproximation(double consistencyThreshold) {
+		return sortedMaxEpsilonConsistencies.length > 0 ? (double)getNumberOfConsistentObjects(consistencyThreshold) / sortedMaxEpsilonConsistencies.length : 0.0;
+	}
+	
+}
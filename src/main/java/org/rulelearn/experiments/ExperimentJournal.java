@@ -0,0 +1,330 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.rulelearn.core.InvalidValueException;
+import org.rulelearn.data.Decision;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.experiments.ClassificationModel.ModelDescription;
+import org.rulelearn.experiments.ClassificationModel.ModelLearningStatistics;
+import org.rulelearn.experiments.ModelValidationResult.ClassificationStatistics;
+import org.rulelearn.validation.OrdinalMisclassificationMatrix;
+
+/**
+ * Durable journal of results of finished {@link WorkUnit work units} of a {@link BatchExperiment}. Each result is appended to a local file,
+ * and forced to disk, as soon as the work unit is finished. When an interrupted experiment is run again, results of work units already present in the journal
+ * are restored instead of being calculated once more.<br>
+ * <br>
+ * Each result is identified by a key composed of setup name, optional run tag (see {@link BatchExperiment#journalRunTag}), train data preprocessor (with its seed), data name,
+ * {@link #getDataHash(InformationTable) data hash}, seed of the cross-validation, number of folds, fold index, and algorithm with parameters
+ * (see {@link #getKey(String, String, String, String, long, int, int, WorkUnit)}), so results are not restored for edited data, for another preprocessing of train data,
+ * for another number of folds, or for a run with another tag (e.g., after the code has changed). The file consists of records of the form (length, serialized {@link Record record}, CRC32 checksum).
+ * A record that has not been written completely (e.g., due to a crash) is detected when the journal is opened, and dropped. A complete record that cannot be deserialized
+ * (e.g., written by an incompatible version of the experiment) is skipped, but kept in the file, together with all records following it.<br>
+ * <br>
+ * {@link OrdinalMisclassificationMatrix Misclassification matrices} are not serializable, so they are stored as counts of (original decision, assigned decision) pairs,
+ * with decisions represented by their indices in a reference order of decisions (i.e., order of all decisions present in the data set the work unit concerns).
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class ExperimentJournal {
+	
+	static final String FULL_DATA_KEY_PART = "full";
+	
+	/**
+	 * Journaled result of a single work unit.
+	 */
+	public static class Record implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		String key;
+		int[] orderOfDecisions; //indices of decisions of stored misclassification matrix in the reference order of decisions
+		long[][] misclassificationCounts; //[i][j] = number of objects with i-th original decision and j-th assigned decision, in the reference order of decisions
+		ClassificationStatistics classificationStatistics;
+		ModelLearningStatistics modelLearningStatistics;
+		ModelDescription modelDescription;
+		long trainingTime; //[ms], as added to calculation times
+		long validationTime; //[ms], as added to calculation times
+		String modelDescriptionText; //full textual model description (printed for full data), or null
+		
+		public String getKey() {
+			return key;
+		}
+		
+		public long getTrainingTime() {
+			return trainingTime;
+		}
+		
+		public long getValidationTime() {
+			return validationTime;
+		}
+		
+		public String getModelDescriptionText() {
+			return modelDescriptionText;
+		}
+		
+		/**
+		 * Rebuilds model validation result stored in this record.
+		 * 
+		 * @param referenceOrderOfDecisions reference order of decisions, the same as the one used when this record was created
+		 * @return restored model validation result
+		 */
+		public ModelValidationResult getModelValidationResult(Decision[] referenceOrderOfDecisions) {
+			int numberOfObjects = 0;
+			for (long[] row : misclassificationCounts) {
+				for (long count : row) {
+					numberOfObjects += count;
+				}
+			}
+			
+			Decision[] originalDecisions = new Decision[numberOfObjects];
+			Decision[] assignedDecisions = new Decision[numberOfObjects];
+			int objectIndex = 0;
+			for (int i = 0; i < misclassificationCounts.length; i++) {
+				for (int j = 0; j < misclassificationCounts[i].length; j++) {
+					for (long count = 0; count < misclassificationCounts[i][j]; count++) {
+						originalDecisions[objectIndex] = referenceOrderOfDecisions[i];
+						assignedDecisions[objectIndex] = referenceOrderOfDecisions[j];
+						objectIndex++;
+					}
+				}
+			}
+			
+			Decision[] matrixOrderOfDecisions = Arrays.stream(orderOfDecisions).mapToObj(index -> referenceOrderOfDecisions[index]).toArray(Decision[]::new);
+			OrdinalMisclassificationMatrix ordinalMisclassificationMatrix = new OrdinalMisclassificationMatrix(matrixOrderOfDecisions, originalDecisions, assignedDecisions);
+			
+			return new ModelValidationResult(ordinalMisclassificationMatrix, classificationStatistics, modelLearningStatistics, modelDescription);
+		}
+	}
+	
+	Path path;
+	FileChannel channel;
+	Map<String, Record> key2Record = new ConcurrentHashMap<String, Record>();
+	
+	/**
+	 * Opens the journal stored in given file, creating the file if it does not exist yet. All complete and readable records present in the file are read,
+	 * and incomplete record at the end of the file (if any) is dropped.
+	 * 
+	 * @param filePath path to the file with the journal
+	 * @throws IOException if the file cannot be read or written
+	 */
+	public ExperimentJournal(String filePath) throws IOException {
+		this.path = Paths.get(filePath);
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		
+		long validLength = Files.exists(path) ? readRecords(path, key2Record) : 0L;
+		
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		channel.truncate(validLength); //drop incomplete record, if present
+		channel.position(validLength);
+	}
+	
+	/**
+	 * Reads all complete records stored in given file, stopping at the first incomplete or corrupted record. Complete records that cannot be deserialized are skipped.
+	 * Length of each record is checked against the number of bytes left in the file before the record is read, so a torn length does not cause allocation of a huge array.
+	 * 
+	 * @param path path to the file with records
+	 * @param key2Record map to which read records are put
+	 * @return length of the part of the file with complete records (including skipped ones)
+	 * @throws IOException if the file cannot be read
+	 */
+	static long readRecords(Path path, Map<String, Record> key2Record) throws IOException {
+		long fileLength = Files.size(path); //file may grow while it is read (e.g., if it is written by a worker), but records appended in the meantime are not read
+		long validLength = 0L;
+		try (DataInputStream input = new DataInputStream(Files.newInputStream(path))) {
+			while (fileLength - validLength >= Integer.BYTES + Long.BYTES) {
+				int length = input.readInt();
+				if (length < 0 || length > fileLength - validLength - Integer.BYTES - Long.BYTES) {
+					break; //incomplete record
+				}
+				byte[] bytes = new byte[length];
+				input.readFully(bytes);
+				long checksum = input.readLong();
+				if (checksum(bytes) != checksum) {
+					break; //incomplete or corrupted record
+				}
+				validLength += Integer.BYTES + length + Long.BYTES;
+				
+				try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+					Record record = (Record)objectInput.readObject();
+					key2Record.put(record.key, record);
+				} catch (ClassNotFoundException | ClassCastException | ObjectStreamException exception) {
+					continue; //complete record written by an incompatible version of the experiment, so the unit concerned will be calculated again
+				}
+			}
+		}
+		return validLength;
+	}
+	
+	static long checksum(byte[] bytes) {
+		CRC32 crc32 = new CRC32();
+		crc32.update(bytes);
+		return crc32.getValue();
+	}
+	
+	/**
+	 * Gets hash of the content of given data, distinguishing semantics of missing values, to be used in keys of journaled results.
+	 * 
+	 * @param informationTable information table of the data
+	 * @return hexadecimal hash of the data
+	 */
+	public static String getDataHash(InformationTable informationTable) {
+		return DataGroupArtifactStore.getContentHash(informationTable, true);
+	}
+	
+	static String getKeyPrefix(String setupName, String preprocessorName, String dataName, String dataHash) {
+		return BatchExperiment.journalRunTag != null ? setupName+"|"+BatchExperiment.journalRunTag+"|"+preprocessorName+"|"+dataName+"|"+dataHash :
+			setupName+"|"+preprocessorName+"|"+dataName+"|"+dataHash;
+	}
+	
+	/**
+	 * Gets key of a journaled result of given cross-validation work unit.
+	 * 
+	 * @param setupName name of experiment setup
+	 * @param preprocessorName description of provider of train data preprocessors, including its parameters and seed
+	 * @param dataName name of data set
+	 * @param dataHash {@link #getDataHash(InformationTable) hash} of the data set
+	 * @param seed seed of the cross-validation
+	 * @param k number of folds of the cross-validation
+	 * @param foldIndex index of the fold
+	 * @param workUnit the work unit
+	 * @return key of the journaled result
+	 */
+	public static String getKey(String setupName, String preprocessorName, String dataName, String dataHash, long seed, int k, int foldIndex, WorkUnit workUnit) {
+		return getKeyPrefix(setupName, preprocessorName, dataName, dataHash)+"|"+seed+"|"+k+"|"+foldIndex+"|"+workUnit.getAlgorithm().getName()+"("+workUnit.getParameters()+")";
+	}
+	
+	/**
+	 * Gets key of a journaled result of given full data work unit.
+	 * 
+	 * @param setupName name of experiment setup
+	 * @param preprocessorName description of provider of train data preprocessors, including its parameters and seed
+	 * @param dataName name of data set
+	 * @param dataHash {@link #getDataHash(InformationTable) hash} of the data set
+	 * @param workUnit the work unit
+	 * @return key of the journaled result
+	 */
+	public static String getFullDataKey(String setupName, String preprocessorName, String dataName, String dataHash, WorkUnit workUnit) {
+		return getKeyPrefix(setupName, preprocessorName, dataName, dataHash)+"|"+FULL_DATA_KEY_PART+"|"+FULL_DATA_KEY_PART+"|"+FULL_DATA_KEY_PART+"|"+workUnit.getAlgorithm().getName()+"("+workUnit.getParameters()+")";
+	}
+	
+	/**
+	 * Gets journaled result with given key.
+	 * 
+	 * @param key key of the result
+	 * @return journaled result, or {@code null} if there is no result with given key
+	 */
+	public Record get(String key) {
+		return key2Record.get(key);
+	}
+	
+	/**
+	 * Imports records stored in another journal file (e.g., written by a worker of a {@link DistributedBatchExperiment distributed experiment}),
+	 * so results of the work units concerned can be restored from this journal. Imported records are not copied to the file of this journal.
+	 * Incomplete record at the end of imported file (e.g., being written right now) is skipped.
+	 * 
+	 * @param filePath path to the imported journal file
+	 * @return number of imported records
+	 * @throws IOException if the file cannot be read
+	 */
+	public int importRecords(String filePath) throws IOException {
+		Map<String, Record> importedKey2Record = new HashMap<String, Record>();
+		readRecords(Paths.get(filePath), importedKey2Record);
+		key2Record.putAll(importedKey2Record);
+		return importedKey2Record.size();
+	}
+	
+	public int size() {
+		return key2Record.size();
+	}
+	
+	/**
+	 * Appends given result to this journal, and forces it to disk.
+	 * 
+	 * @param key key of the result
+	 * @param modelValidationResult model validation result
+	 * @param referenceOrderOfDecisions reference order of decisions, which has to contain all decisions present in the misclassification matrix
+	 * @param trainingTime training time [ms]
+	 * @param validationTime validation time [ms]
+	 * @param modelDescriptionText full textual model description, or {@code null}
+	 * 
+	 * @throws IOException if the result cannot be written
+	 * @throws InvalidValueException if misclassification matrix contains a decision absent in given reference order of decisions
+	 */
+	public void append(String key, ModelValidationResult modelValidationResult, Decision[] referenceOrderOfDecisions, long trainingTime, long validationTime, String modelDescriptionText) throws IOException {
+		OrdinalMisclassificationMatrix ordinalMisclassificationMatrix = modelValidationResult.getOrdinalMisclassificationMatrix();
+		
+		Record record = new Record();
+		record.key = key;
+		record.orderOfDecisions = Arrays.stream(ordinalMisclassificationMatrix.getOrderOfDecisions()).mapToInt(decision -> {
+			int index = Arrays.asList(referenceOrderOfDecisions).indexOf(decision);
+			if (index < 0) {
+				throw new InvalidValueException("Decision "+decision+" is not present in the reference order of decisions.");
+			}
+			return index;
+		}).toArray();
+		record.misclassificationCounts = new long[referenceOrderOfDecisions.length][referenceOrderOfDecisions.length];
+		for (int i = 0; i < referenceOrderOfDecisions.length; i++) {
+			for (int j = 0; j < referenceOrderOfDecisions.length; j++) {
+				record.misclassificationCounts[i][j] = Math.round(ordinalMisclassificationMatrix.getValue(referenceOrderOfDecisions[i], referenceOrderOfDecisions[j]));
+			}
+		}
+		record.classificationStatistics = modelValidationResult.getClassificationStatistics();
+		record.modelLearningStatistics = modelValidationResult.getModelLearningStatistics();
+		record.modelDescription = modelValidationResult.getModelDescription();
+		record.trainingTime = trainingTime;
+		record.validationTime = validationTime;
+		record.modelDescriptionText = modelDescriptionText;
+		
+		ByteArrayOutputStream bytesOutput = new ByteArrayOutputStream(4096);
+		try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytesOutput)) {
+			objectOutput.writeObject(record);
+		}
+		byte[] bytes = bytesOutput.toByteArray();
+		
+		ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length + Long.BYTES);
+		buffer.putInt(bytes.length).put(bytes).putLong(checksum(bytes));
+		buffer.flip();
+		
+		synchronized (this) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(false);
+		}
+		key2Record.put(key, record);
+	}
+	
+	/**
+	 * Closes this journal.
+	 * 
+	 * @throws IOException if the file with the journal cannot be closed
+	 */
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+	
+}
@@ -0,0 +1,408 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous reporter of a {@link BatchExperiment}. Threads running work units only publish report events (template and parameters, or a supplier of text)
+ * to a lock-free queue, and a single background writer thread formats these events and writes them to all {@link Sink sinks} (e.g., console, file).
+ * Hence, formatting and writing of reports does not slow down work units, and work units do not contend for a lock of {@link System#out}.
+ * Events published by one thread are written in the order of publication. Events published by a thread inside {@link #atomically(Runnable)}
+ * are written together, without events of other threads in between.<br>
+ * <br>
+ * Templates contain placeholders %1, %2, ..., replaced by subsequent parameters (see {@link BatchExperiment#resolveText(String, Object...)}).
+ * Each template is {@link Template#compile(String) compiled} once, and then reused.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class ExperimentReporter {
+	
+	static final int maxCachedTemplatesCount = 1024; //templates built dynamically (e.g., including data names) are compiled but not cached above this limit
+	
+	/**
+	 * Destination of reports.
+	 */
+	public interface Sink {
+		void write(String text) throws IOException;
+		void flush() throws IOException;
+		void close() throws IOException;
+	}
+	
+	/**
+	 * Sink writing reports to {@link System#out}.
+	 */
+	public static class ConsoleSink implements Sink {
+		@Override
+		public void write(String text) {
+			System.out.print(text);
+		}
+		
+		@Override
+		public void flush() {
+			System.out.flush();
+		}
+		
+		@Override
+		public void close() {
+			System.out.flush(); //console is not closed
+		}
+	}
+	
+	/**
+	 * Sink writing reports to a text file.
+	 */
+	public static class FileSink implements Sink {
+		BufferedWriter writer;
+		
+		/**
+		 * Constructs this sink.
+		 * 
+		 * @param filePath path to the file with reports
+		 * @param append tells if reports should be appended to the file, if it already exists
+		 * @throws IOException if the file cannot be opened
+		 */
+		public FileSink(String filePath, boolean append) throws IOException {
+			Path path = Paths.get(filePath);
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			this.writer = append ?
+					Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND) :
+					Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+		}
+		
+		@Override
+		public void write(String text) throws IOException {
+			writer.write(text);
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			writer.flush();
+		}
+		
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+	
+	/**
+	 * Compiled template with placeholders %1, %2, ..., where literal parts are found once, so formatting does not involve regular expressions.
+	 * Placeholder without corresponding parameter is left as is. Text of a parameter is not searched for placeholders.
+	 */
+	public static class Template {
+		String[] literals; //literals[i] precedes i-th placeholder; the last literal follows the last placeholder
+		int[] parameterIndices; //0-based indices of parameters replacing subsequent placeholders
+		String[] placeholders; //texts of subsequent placeholders, used if there is no corresponding parameter
+		
+		static Map<String, Template> text2Template = new ConcurrentHashMap<String, Template>();
+		
+		/**
+		 * Gets compiled template for given text, compiling it only if it has not been compiled before.
+		 * 
+		 * @param text text of the template
+		 * @return compiled template
+		 */
+		public static Template of(String text) {
+			Template template = text2Template.get(text);
+			if (template == null) {
+				template = compile(text);
+				if (text2Template.size() < maxCachedTemplatesCount) {
+					text2Template.put(text, template);
+				}
+			}
+			return template;
+		}
+		
+		/**
+		 * Compiles given template.
+		 * 
+		 * @param text text of the template
+		 * @return compiled template
+		 */
+		public static Template compile(String text) {
+			List<String> literals = new ArrayList<String>();
+			List<Integer> parameterIndices = new ArrayList<Integer>();
+			List<String> placeholders = new ArrayList<String>();
+			
+			int literalStart = 0;
+			int i = 0;
+			while (i < text.length()) {
+				if (text.charAt(i) == '%' && i + 1 < text.length() && Character.isDigit(text.charAt(i + 1))) {
+					int end = i + 1;
+					while (end < text.length() && Character.isDigit(text.charAt(end))) {
+						end++;
+					}
+					literals.add(text.substring(literalStart, i));
+					parameterIndices.add(Integer.parseInt(text.substring(i + 1, end)) - 1);
+					placeholders.add(text.substring(i, end));
+					literalStart = i = end;
+				} else {
+					i++;
+				}
+			}
+			literals.add(text.substring(literalStart));
+			
+			Template template = new Template();
+			template.literals = literals.toArray(new String[0]);
+			template.parameterIndices = parameterIndices.stream().mapToInt(Integer::intValue).toArray();
+			template.placeholders = placeholders.toArray(new String[0]);
+			return template;
+		}
+		
+		/**
+		 * Replaces placeholders of this template with given parameters.
+		 * 
+		 * @param params parameters of this template
+		 * @return text with placeholders replaced
+		 */
+		public String format(Object... params) {
+			StringBuilder builder = new StringBuilder(256);
+			for (int i = 0; i < parameterIndices.length; i++) {
+				builder.append(literals[i]);
+				int parameterIndex = parameterIndices[i];
+				if (parameterIndex >= 0 && parameterIndex < params.length) {
+					builder.append(params[parameterIndex] != null ? params[parameterIndex].toString() : "null");
+				} else {
+					builder.append(placeholders[i]);
+				}
+			}
+			builder.append(literals[literals.length - 1]);
+			return builder.toString();
+		}
+	}
+	
+	/**
+	 * Report event, formatted by the writer thread.
+	 */
+	private static class Event {
+		Supplier<String> text; //supplies formatted text; null for flush events
+		List<Event> group = null; //events written together, or null
+		CountDownLatch flushed = null; //counted down when all previous events have been written and sinks flushed, or null
+		
+		Event(Supplier<String> text) {
+			this.text = text;
+		}
+	}
+	
+	static ExperimentReporter instance = null;
+	static ThreadLocal<ExperimentReporter> current = new ThreadLocal<ExperimentReporter>(); //reporter of the experiment run by given thread, or null if the default reporter is used
+	
+	LinkedTransferQueue<Event> queue = new LinkedTransferQueue<Event>();
+	List<Sink> sinks = new CopyOnWriteArrayList<Sink>();
+	ThreadLocal<List<Event>> atomicGroup = new ThreadLocal<List<Event>>(); //events published inside atomically(...), or null
+	Thread writer;
+	volatile boolean closed = false;
+	
+	/**
+	 * Constructs this reporter, without any sink, and starts its writer thread.
+	 */
+	public ExperimentReporter() {
+		writer = new Thread(this::write, "experiment-reporter");
+		writer.setDaemon(true);
+		writer.start();
+	}
+	
+	/**
+	 * Gets default reporter, writing reports to console (plus sinks added later).
+	 * 
+	 * @return default reporter
+	 */
+	public static synchronized ExperimentReporter getInstance() {
+		if (instance == null) {
+			instance = new ExperimentReporter();
+			instance.addSink(new ConsoleSink());
+		}
+		return instance;
+	}
+	
+	/**
+	 * Gets reporter of the experiment run by the calling thread, i.e., reporter {@link #setCurrent(ExperimentReporter) set} for this thread,
+	 * or the {@link #getInstance() default reporter}, if no reporter has been set. This way, experiments run concurrently (see {@link BatchExperimentSuite})
+	 * can write their reports to separate sinks.
+	 * 
+	 * @return reporter of the experiment run by the calling thread
+	 */
+	public static ExperimentReporter current() {
+		ExperimentReporter reporter = current.get();
+		return reporter != null ? reporter : getInstance();
+	}
+	
+	/**
+	 * Sets reporter of the experiment run by the calling thread.
+	 * 
+	 * @param reporter reporter of the experiment run by the calling thread, or {@code null} if the default reporter should be used
+	 */
+	public static void setCurrent(ExperimentReporter reporter) {
+		if (reporter != null) {
+			current.set(reporter);
+		} else {
+			current.remove();
+		}
+	}
+	
+	public ExperimentReporter addSink(Sink sink) {
+		sinks.add(sink);
+		return this;
+	}
+	
+	public void removeSink(Sink sink) {
+		sinks.remove(sink);
+	}
+	
+	/**
+	 * Publishes text supplied by given supplier, evaluated by the writer thread. Objects used by the supplier should not change after publication.
+	 * 
+	 * @param text supplier of the text
+	 */
+	public void report(Supplier<String> text) {
+		publish(new Event(text));
+	}
+	
+	/**
+	 * Publishes given text.
+	 * 
+	 * @param text the text
+	 */
+	public void report(String text) {
+		publish(new Event(() -> text));
+	}
+	
+	/**
+	 * Publishes given template with given parameters, formatted by the writer thread. Parameters should not change after publication.
+	 * 
+	 * @param template the template
+	 * @param params parameters of the template
+	 */
+	public void report(Template template, Object... params) {
+		publish(new Event(() -> template.format(params)));
+	}
+	
+	private void publish(Event event) {
+		List<Event> group = atomicGroup.get();
+		if (group != null) {
+			group.add(event);
+		} else {
+			queue.add(event);
+		}
+	}
+	
+	/**
+	 * Runs given action, and writes all reports published by the calling thread while running the action together, without reports of other threads in between.
+	 * 
+	 * @param action the action
+	 */
+	public void atomically(Runnable action) {
+		if (atomicGroup.get() != null) { //nested call
+			action.run();
+			return;
+		}
+		
+		List<Event> group = new ArrayList<Event>();
+		atomicGroup.set(group);
+		try {
+			action.run();
+		} finally {
+			atomicGroup.remove();
+			Event event = new Event(null);
+			event.group = group;
+			queue.add(event);
+		}
+	}
+	
+	/**
+	 * Blocks the calling thread until all reports published so far are written, and flushes all sinks.
+	 */
+	public void flush() {
+		if (closed) {
+			return;
+		}
+		Event event = new Event(null);
+		event.flushed = new CountDownLatch(1);
+		queue.add(event);
+		try {
+			event.flushed.await();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Writes all reports published so far, closes all sinks, and stops the writer thread.
+	 */
+	public void close() {
+		flush();
+		closed = true;
+		writer.interrupt();
+		for (Sink sink : sinks) {
+			try {
+				sink.close();
+			} catch (IOException exception) {
+				System.err.println("Could not close report sink: "+exception.getMessage());
+			}
+		}
+	}
+	
+	private void write() {
+		while (!closed) {
+			Event event;
+			try {
+				event = queue.take();
+			} catch (InterruptedException exception) {
+				return; //closed
+			}
+			write(event);
+			if (event.flushed != null) {
+				for (Sink sink : sinks) {
+					try {
+						sink.flush();
+					} catch (IOException exception) {
+						System.err.println("Could not flush report sink: "+exception.getMessage());
+					}
+				}
+				event.flushed.countDown();
+			}
+		}
+	}
+	
+	private void write(Event event) {
+		if (event.group != null) {
+			for (Event groupEvent : event.group) {
+				write(groupEvent);
+			}
+		}
+		if (event.text != null) {
+			String text;
+			try {
+				text = event.text.get();
+			} catch (RuntimeException exception) {
+				text = "Could not format report: "+exception+System.lineSeparator();
+			}
+			for (Sink sink : sinks) {
+				try {
+					sink.write(text);
+				} catch (IOException exception) {
+					System.err.println("Could not write report: "+exception.getMessage());
+				}
+			}
+		}
+	}
+	
+}
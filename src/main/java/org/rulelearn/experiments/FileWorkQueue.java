@@ -0,0 +1,316 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.rulelearn.core.InvalidValueException;
+
+/**
+ * Queue of tasks of a {@link DistributedBatchExperiment distributed experiment}, stored in a directory, so it can be shared by several JVMs on one machine,
+ * or by several hosts (if the directory is on a shared file system). Each task is a single file, which moves between sub-directories:
+ * {@value #PENDING_DIRECTORY} (task waiting for a worker), {@value #CLAIMED_DIRECTORY} (task taken by a worker), and {@value #DONE_DIRECTORY} (finished task).
+ * A task is claimed by an atomic rename, so it is taken by exactly one worker. Claimed task whose file has not been touched (see {@link #heartbeat(Task)}) for a long time
+ * is considered abandoned by a crashed worker, and can be {@link #requeueStale(long) moved back} to pending tasks.<br>
+ * <br>
+ * Results of work units calculated by workers are stored in {@link ExperimentJournal journals} in sub-directory {@value #RESULTS_DIRECTORY}, one journal per worker.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class FileWorkQueue {
+	
+	static final String PENDING_DIRECTORY = "pending";
+	static final String CLAIMED_DIRECTORY = "claimed";
+	static final String DONE_DIRECTORY = "done";
+	static final String RESULTS_DIRECTORY = "results";
+	static final String ENQUEUED_MARKER = "enqueued"; //file created when all tasks have been enqueued
+	static final String TASK_EXTENSION = ".task";
+	static final String JOURNAL_EXTENSION = ".journal";
+	static final String CLAIM_SEPARATOR = "@"; //separates worker id and task file name, in names of claimed task files
+	static final String SEPARATOR = "\t";
+	
+	/**
+	 * Task of a distributed experiment, i.e., all work units of single cross-validation of one data set in one experiment setup.
+	 */
+	public static class Task {
+		String setupName;
+		int dataSetNumber;
+		int crossValidationNumber;
+		Path claimedPath = null; //path of the file of claimed task
+		
+		public Task(String setupName, int dataSetNumber, int crossValidationNumber) {
+			this.setupName = setupName;
+			this.dataSetNumber = dataSetNumber;
+			this.crossValidationNumber = crossValidationNumber;
+		}
+		
+		public String getSetupName() {
+			return setupName;
+		}
+		
+		public int getDataSetNumber() {
+			return dataSetNumber;
+		}
+		
+		public int getCrossValidationNumber() {
+			return crossValidationNumber;
+		}
+		
+		String getFileName() {
+			return toFileName(setupName) + "-" + dataSetNumber + "-" + crossValidationNumber + TASK_EXTENSION;
+		}
+		
+		@Override
+		public String toString() {
+			return setupName+", data #"+dataSetNumber+", CV #"+crossValidationNumber;
+		}
+	}
+	
+	Path directoryPath;
+	Path pendingPath;
+	Path claimedPath;
+	Path donePath;
+	Path resultsPath;
+	
+	/**
+	 * Constructs this queue, creating its directories if they do not exist yet.
+	 * 
+	 * @param directoryPath path to the directory of the queue
+	 * @throws IOException if directories of the queue cannot be created
+	 */
+	public FileWorkQueue(String directoryPath) throws IOException {
+		this.directoryPath = Paths.get(directoryPath);
+		this.pendingPath = this.directoryPath.resolve(PENDING_DIRECTORY);
+		this.claimedPath = this.directoryPath.resolve(CLAIMED_DIRECTORY);
+		this.donePath = this.directoryPath.resolve(DONE_DIRECTORY);
+		this.resultsPath = this.directoryPath.resolve(RESULTS_DIRECTORY);
+		
+		Files.createDirectories(pendingPath);
+		Files.createDirectories(claimedPath);
+		Files.createDirectories(donePath);
+		Files.createDirectories(resultsPath);
+	}
+	
+	/**
+	 * Converts given text to a string that can be safely used as a part of file name.
+	 * 
+	 * @param text text to convert
+	 * @return converted text
+	 */
+	static String toFileName(String text) {
+		return text.replaceAll("[^A-Za-z0-9_.()-]", "_");
+	}
+	
+	/**
+	 * Adds given task to this queue, unless the task is already pending, claimed, or done.
+	 * Task file is written under a temporary name, and then moved, so a worker cannot read it half-written.
+	 * 
+	 * @param task task to add
+	 * @return {@code true} if the task has been added, {@code false} otherwise
+	 * @throws IOException if task file cannot be written
+	 */
+	public boolean enqueue(Task task) throws IOException {
+		String fileName = task.getFileName();
+		if (Files.exists(pendingPath.resolve(fileName)) || Files.exists(donePath.resolve(fileName)) || findClaimed(fileName) != null) {
+			return false;
+		}
+		
+		Path temporaryPath = directoryPath.resolve(fileName + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+			writer.write(task.setupName + SEPARATOR + task.dataSetNumber + SEPARATOR + task.crossValidationNumber);
+			writer.newLine();
+		}
+		Files.move(temporaryPath, pendingPath.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+		return true;
+	}
+	
+	private Path findClaimed(String fileName) throws IOException {
+		for (Path path : list(claimedPath)) {
+			if (getTaskFileName(path).equals(fileName)) {
+				return path;
+			}
+		}
+		return null;
+	}
+	
+	private static String getTaskFileName(Path claimedPath) {
+		String claimedFileName = claimedPath.getFileName().toString();
+		return claimedFileName.substring(claimedFileName.indexOf(CLAIM_SEPARATOR) + 1);
+	}
+	
+	private static List<Path> list(Path directoryPath) throws IOException {
+		List<Path> paths = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directoryPath, "*" + TASK_EXTENSION)) {
+			for (Path path : stream) {
+				paths.add(path);
+			}
+		}
+		Collections.sort(paths); //tasks of subsequent cross-validations are claimed in order
+		return paths;
+	}
+	
+	/**
+	 * Signals that all tasks have been added to this queue, so workers finding no pending task can stop.
+	 * 
+	 * @throws IOException if marker file cannot be created
+	 */
+	public void markEnqueued() throws IOException {
+		try {
+			Files.createFile(directoryPath.resolve(ENQUEUED_MARKER));
+		} catch (FileAlreadyExistsException exception) {
+			//already marked
+		}
+	}
+	
+	public boolean isEnqueued() {
+		return Files.exists(directoryPath.resolve(ENQUEUED_MARKER));
+	}
+	
+	/**
+	 * Claims first pending task for given worker.
+	 * 
+	 * @param workerId identifier of the worker, which has to be unique among all workers and can be safely used as a part of file name (see {@link #toFileName(String)})
+	 * @return claimed task, or {@code null} if there is no pending task
+	 * @throws IOException if claimed task cannot be read
+	 * @throws InvalidValueException if claimed task file is malformed
+	 */
+	public Task claim(String workerId) throws IOException {
+		for (Path path : list(pendingPath)) {
+			Path claimedTaskPath = claimedPath.resolve(workerId + CLAIM_SEPARATOR + path.getFileName().toString());
+			try {
+				Files.move(path, claimedTaskPath, StandardCopyOption.ATOMIC_MOVE);
+			} catch (NoSuchFileException exception) {
+				continue; //task claimed by another worker in the meantime
+			}
+			Files.setLastModifiedTime(claimedTaskPath, FileTime.fromMillis(System.currentTimeMillis()));
+			
+			String line;
+			try (BufferedReader reader = Files.newBufferedReader(claimedTaskPath, StandardCharsets.UTF_8)) {
+				line = reader.readLine();
+			}
+			String[] fields = line != null ? line.split(SEPARATOR) : new String[0];
+			if (fields.length != 3) {
+				throw new InvalidValueException("Malformed task file "+claimedTaskPath+".");
+			}
+			Task task = new Task(fields[0], Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+			task.claimedPath = claimedTaskPath;
+			return task;
+		}
+		return null;
+	}
+	
+	/**
+	 * Signals that given claimed task is still being calculated, so it is not considered abandoned.
+	 * 
+	 * @param task claimed task
+	 * @throws IOException if task file cannot be touched
+	 */
+	public void heartbeat(Task task) throws IOException {
+		Files.setLastModifiedTime(task.claimedPath, FileTime.fromMillis(System.currentTimeMillis()));
+	}
+	
+	/**
+	 * Marks given claimed task as done. If the claim has been lost in the meantime (i.e., the task has been {@link #requeueStale(long) requeued} as stale,
+	 * e.g., due to a skew of clocks of hosts, and possibly claimed by another worker), the task is left to the worker that has it now.
+	 * 
+	 * @param task claimed task
+	 * @return {@code true} if the task has been marked as done, {@code false} if the claim has been lost
+	 * @throws IOException if task file cannot be moved
+	 */
+	public boolean complete(Task task) throws IOException {
+		try {
+			Files.move(task.claimedPath, donePath.resolve(task.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+			return true;
+		} catch (NoSuchFileException exception) {
+			return false; //task requeued as stale, so it is (or will be) done elsewhere
+		}
+	}
+	
+	/**
+	 * Moves given claimed task back to pending tasks, so it can be claimed by another worker.
+	 * 
+	 * @param task claimed task
+	 * @throws IOException if task file cannot be moved
+	 */
+	public void unclaim(Task task) throws IOException {
+		Files.move(task.claimedPath, pendingPath.resolve(task.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Moves claimed tasks, whose files have not been touched for given time, back to pending tasks.
+	 * 
+	 * @param timeout time [ms] after which claimed task is considered abandoned
+	 * @return number of moved tasks
+	 * @throws IOException if task files cannot be read or moved
+	 */
+	public int requeueStale(long timeout) throws IOException {
+		int count = 0;
+		long now = System.currentTimeMillis();
+		for (Path path : list(claimedPath)) {
+			try {
+				if (now - Files.getLastModifiedTime(path).toMillis() > timeout) {
+					Files.move(path, pendingPath.resolve(getTaskFileName(path)), StandardCopyOption.ATOMIC_MOVE);
+					count++;
+				}
+			} catch (NoSuchFileException exception) {
+				//task completed in the meantime
+			}
+		}
+		return count;
+	}
+	
+	public int getNumberOfPendingTasks() throws IOException {
+		return list(pendingPath).size();
+	}
+	
+	public int getNumberOfClaimedTasks() throws IOException {
+		return list(claimedPath).size();
+	}
+	
+	public int getNumberOfDoneTasks() throws IOException {
+		return list(donePath).size();
+	}
+	
+	/**
+	 * Gets path to the journal with results of work units calculated by given worker.
+	 * 
+	 * @param workerId identifier of the worker
+	 * @return path to the journal of given worker
+	 */
+	public String getResultsJournalPath(String workerId) {
+		return resultsPath.resolve(workerId + JOURNAL_EXTENSION).toString();
+	}
+	
+	/**
+	 * Gets paths to journals with results of work units calculated by all workers.
+	 * 
+	 * @return paths to journals of all workers
+	 * @throws IOException if results directory cannot be read
+	 */
+	public List<String> getResultsJournalPaths() throws IOException {
+		List<String> paths = new ArrayList<String>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(resultsPath, "*" + JOURNAL_EXTENSION)) {
+			for (Path path : stream) {
+				paths.add(path.toString());
+			}
+		}
+		Collections.sort(paths);
+		return paths;
+	}
+	
+}
@@ -0,0 +1,133 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.nio.IntBuffer;
+
+import org.rulelearn.core.InvalidValueException;
+
+/**
+ * Partition of objects of a data set into folds of a cross-validation, i.e., indices of training and test objects of subsequent folds,
+ * in the order in which these objects appear in training and test data of each fold.
+ * The partition depends only on objects, their decisions, seed, and number of folds, so it is shared by all data sets of a data group
+ * (see {@link DataGroupArtifactStore}), and fold data can be selected straight from the indices.<br>
+ * <br>
+ * Indices of all folds are kept in one {@link IntBuffer buffer} (training indices of the first fold, test indices of the first fold, training indices of the second fold, etc.),
+ * which is either an array on the heap, or a file memory-mapped by {@link FoldPartitionDiskCache}. Index arrays of a fold are copied from the buffer only when requested.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class FoldPartition {
+	
+	int numberOfObjects;
+	IntBuffer indices; //indices of objects of all folds
+	int[] trainSizes; //trainSizes[i] = number of training objects of i-th fold
+	int[] testSizes; //testSizes[i] = number of test objects of i-th fold
+	int[] foldStarts; //foldStarts[i] = position in the buffer of the first training index of i-th fold
+	
+	/**
+	 * Constructs this partition.
+	 * 
+	 * @param numberOfObjects number of objects of partitioned data
+	 * @param indices indices of objects of all folds (for each fold, first training, then test indices)
+	 * @param trainSizes numbers of training objects of subsequent folds
+	 * @param testSizes numbers of test objects of subsequent folds
+	 * @throws InvalidValueException if numbers of folds given by both arrays differ, or if the buffer does not contain all indices
+	 */
+	public FoldPartition(int numberOfObjects, IntBuffer indices, int[] trainSizes, int[] testSizes) {
+		if (trainSizes.length != testSizes.length) {
+			throw new InvalidValueException("Numbers of training and test folds should be equal.");
+		}
+		this.numberOfObjects = numberOfObjects;
+		this.indices = indices;
+		this.trainSizes = trainSizes;
+		this.testSizes = testSizes;
+		
+		this.foldStarts = new int[trainSizes.length];
+		int position = 0;
+		for (int foldIndex = 0; foldIndex < trainSizes.length; foldIndex++) {
+			foldStarts[foldIndex] = position;
+			position += trainSizes[foldIndex] + testSizes[foldIndex];
+		}
+		if (position != indices.limit()) {
+			throw new InvalidValueException("Number of indices of objects does not match sizes of folds.");
+		}
+	}
+	
+	/**
+	 * Constructs this partition from index arrays.
+	 * 
+	 * @param numberOfObjects number of objects of partitioned data
+	 * @param trainObjectIndices indices of training objects of subsequent folds
+	 * @param testObjectIndices indices of test objects of subsequent folds
+	 * @throws InvalidValueException if numbers of folds given by both arrays differ
+	 */
+	public FoldPartition(int numberOfObjects, int[][] trainObjectIndices, int[][] testObjectIndices) {
+		this(numberOfObjects, concatenate(trainObjectIndices, testObjectIndices), sizes(trainObjectIndices), sizes(testObjectIndices));
+	}
+	
+	private static IntBuffer concatenate(int[][] trainObjectIndices, int[][] testObjectIndices) {
+		int numberOfIndices = 0;
+		for (int foldIndex = 0; foldIndex < Math.min(trainObjectIndices.length, testObjectIndices.length); foldIndex++) {
+			numberOfIndices += trainObjectIndices[foldIndex].length + testObjectIndices[foldIndex].length;
+		}
+		IntBuffer indices = IntBuffer.allocate(numberOfIndices);
+		for (int foldIndex = 0; foldIndex < Math.min(trainObjectIndices.length, testObjectIndices.length); foldIndex++) {
+			indices.put(trainObjectIndices[foldIndex]).put(testObjectIndices[foldIndex]);
+		}
+		indices.flip();
+		return indices;
+	}
+	
+	private static int[] sizes(int[][] objectIndices) {
+		int[] sizes = new int[objectIndices.length];
+		for (int foldIndex = 0; foldIndex < objectIndices.length; foldIndex++) {
+			sizes[foldIndex] = objectIndices[foldIndex].length;
+		}
+		return sizes;
+	}
+	
+	public int getNumberOfObjects() {
+		return numberOfObjects;
+	}
+	
+	public int getNumberOfFolds() {
+		return trainSizes.length;
+	}
+	
+	public int[] getTrainObjectIndices(int foldIndex) {
+		return copy(foldStarts[foldIndex], trainSizes[foldIndex]);
+	}
+	
+	public int[] getTestObjectIndices(int foldIndex) {
+		return copy(foldStarts[foldIndex] + trainSizes[foldIndex], testSizes[foldIndex]);
+	}
+	
+	private int[] copy(int start, int size) {
+		int[] objectIndices = new int[size];
+		IntBuffer view = indices.duplicate(); //position of shared buffer is not changed, so indices can be copied by many threads in parallel
+		view.position(start);
+		view.get(objectIndices);
+		return objectIndices;
+	}
+	
+	/**
+	 * Gets total number of stored indices, over all folds.
+	 * 
+	 * @return total number of stored indices
+	 */
+	public long getNumberOfIndices() {
+		return indices.limit();
+	}
+	
+	/**
+	 * Tells if indices are kept on the heap, rather than in a memory-mapped file.
+	 * 
+	 * @return {@code true} if indices are kept on the heap, {@code false} otherwise
+	 */
+	public boolean isOnHeap() {
+		return !indices.isDirect();
+	}
+	
+}
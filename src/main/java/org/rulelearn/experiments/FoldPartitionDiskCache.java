@@ -0,0 +1,169 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent cache of {@link FoldPartition partitions of objects into cross-validation folds}, stored in a directory, so subsequent runs of a {@link BatchExperiment}
+ * select fold data straight from stored indices, without building decision distributions of full data and splitting it again.
+ * A partition is identified by the name of the data group (or data set), the {@link DataGroupArtifactStore#getDecisionsHash(org.rulelearn.data.InformationTable) hash
+ * of decisions} of partitioned data, the seed of the cross-validation, and the number of folds. Indices of objects are valid only for data with the same decisions
+ * of the same objects in the same order, so data sets relabeled, reordered, or renamed alike get their own partitions.<br>
+ * <br>
+ * Each partition is stored in a single binary file: a header (magic number, format version, number of objects, number of folds, hash of decisions),
+ * numbers of training and test objects of subsequent folds, and then indices of objects of subsequent folds (see {@link FoldPartition}).
+ * Loaded file is memory-mapped, so indices are not copied to the heap until fold data is selected. Partition whose number of objects or hash of decisions differs from
+ * the one of partitioned data (e.g., because the data set has changed) is treated as a miss, and overwritten.
+ * Files are written under a temporary name, and then moved, so a crash cannot leave a half-written partition. A file that cannot be read is treated as a miss.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class FoldPartitionDiskCache {
+	
+	static final String FOLDS_EXTENSION = ".folds";
+	static final int MAGIC_NUMBER = 0x464f4c44; //"FOLD"
+	static final int FORMAT_VERSION = 2;
+	static final int HEADER_INTS_COUNT = 6; //hash of decisions takes two ints
+	
+	Path directoryPath;
+	
+	LongAdder hitsCount = new LongAdder(); //number of partitions loaded from this cache
+	LongAdder missesCount = new LongAdder(); //number of partitions not found in this cache
+	LongAdder failuresCount = new LongAdder(); //number of partitions that could not be read from or written to this cache
+	
+	/**
+	 * Constructs this cache, creating its directory if it does not exist yet.
+	 * 
+	 * @param directoryPath path to the directory with cached partitions
+	 * @throws IOException if the directory cannot be created
+	 */
+	public FoldPartitionDiskCache(String directoryPath) throws IOException {
+		this.directoryPath = Paths.get(directoryPath);
+		Files.createDirectories(this.directoryPath);
+	}
+	
+	Path getPath(String groupName, long decisionsHash, long seed, int k) {
+		return directoryPath.resolve(FileWorkQueue.toFileName(groupName) + "-" + Long.toHexString(decisionsHash) + "-" + seed + "-" + k + FOLDS_EXTENSION);
+	}
+	
+	/**
+	 * Loads partition of objects of given data group into folds of given cross-validation, memory-mapping its file.
+	 * 
+	 * @param groupName name of the data group (or data set)
+	 * @param decisionsHash hash of decisions of partitioned data
+	 * @param seed seed of the cross-validation
+	 * @param k number of folds
+	 * @param numberOfObjects number of objects of partitioned data
+	 * @return loaded partition, or {@code null} if partition is not in this cache, cannot be read, or concerns other number of objects or other decisions
+	 */
+	public FoldPartition load(String groupName, long decisionsHash, long seed, int k, int numberOfObjects) {
+		Path path = getPath(groupName, decisionsHash, seed, k);
+		if (!Files.exists(path)) {
+			missesCount.increment();
+			return null;
+		}
+		
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()); //mapping stays valid after the channel is closed
+			IntBuffer ints = mappedBuffer.order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+			if (ints.limit() < HEADER_INTS_COUNT || ints.get(0) != MAGIC_NUMBER || ints.get(1) != FORMAT_VERSION || ints.get(3) != k || ints.limit() < HEADER_INTS_COUNT + 2 * k) {
+				failuresCount.increment();
+				return null;
+			}
+			if (ints.get(2) != numberOfObjects || (((long)ints.get(4) << 32) | (ints.get(5) & 0xffffffffL)) != decisionsHash) { //data changed since the partition was stored
+				missesCount.increment();
+				return null;
+			}
+			
+			int[] trainSizes = new int[k];
+			int[] testSizes = new int[k];
+			for (int foldIndex = 0; foldIndex < k; foldIndex++) {
+				trainSizes[foldIndex] = ints.get(HEADER_INTS_COUNT + 2 * foldIndex);
+				testSizes[foldIndex] = ints.get(HEADER_INTS_COUNT + 2 * foldIndex + 1);
+			}
+			ints.position(HEADER_INTS_COUNT + 2 * k);
+			FoldPartition foldPartition = new FoldPartition(numberOfObjects, ints.slice(), trainSizes, testSizes); //checks if the file contains all indices
+			
+			hitsCount.increment();
+			return foldPartition;
+		} catch (IOException | RuntimeException exception) { //e.g., truncated file
+			failuresCount.increment();
+			return null;
+		}
+	}
+	
+	/**
+	 * Stores given partition of objects of given data group into folds of given cross-validation.
+	 * If partition cannot be written, this cache stays unchanged.
+	 * 
+	 * @param groupName name of the data group (or data set)
+	 * @param decisionsHash hash of decisions of partitioned data
+	 * @param seed seed of the cross-validation
+	 * @param k number of folds
+	 * @param foldPartition partition to store
+	 */
+	public void store(String groupName, long decisionsHash, long seed, int k, FoldPartition foldPartition) {
+		Path path = getPath(groupName, decisionsHash, seed, k);
+		Path temporaryPath = null;
+		
+		try {
+			temporaryPath = Files.createTempFile(directoryPath, path.getFileName().toString() + ".", ".tmp"); //unique also among processes sharing the directory
+			int numberOfFolds = foldPartition.getNumberOfFolds();
+			ByteBuffer buffer = ByteBuffer.allocate((int)((HEADER_INTS_COUNT + 2L * numberOfFolds + foldPartition.getNumberOfIndices()) * Integer.BYTES)).order(ByteOrder.BIG_ENDIAN);
+			buffer.putInt(MAGIC_NUMBER).putInt(FORMAT_VERSION).putInt(foldPartition.getNumberOfObjects()).putInt(numberOfFolds).putLong(decisionsHash);
+			for (int foldIndex = 0; foldIndex < numberOfFolds; foldIndex++) {
+				buffer.putInt(foldPartition.trainSizes[foldIndex]).putInt(foldPartition.testSizes[foldIndex]);
+			}
+			buffer.asIntBuffer().put(foldPartition.indices.duplicate());
+			buffer.rewind();
+			
+			try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING); //readers see either no file, or the whole file
+		} catch (IOException | RuntimeException exception) {
+			failuresCount.increment();
+			try {
+				if (temporaryPath != null) {
+					Files.deleteIfExists(temporaryPath);
+				}
+			} catch (IOException deleteException) {
+				//nothing more can be done
+			}
+		}
+	}
+	
+	public long getHitsCount() {
+		return hitsCount.sum();
+	}
+	
+	public long getMissesCount() {
+		return missesCount.sum();
+	}
+	
+	public long getFailuresCount() {
+		return failuresCount.sum();
+	}
+	
+	@Override
+	public String toString() {
+		return (new StringBuilder("Fold partitions disk cache ")).append(directoryPath).append(": hits: ").append(getHitsCount()).append(", misses: ").append(getMissesCount())
+				.append(", failures: ").append(getFailuresCount()).toString();
+	}
+	
+}
@@ -44,7 +44,7 @@ public abstract class KEELClassifierLearner extends AbstractLearningAlgorithm {
 		if (numberOfConsistentLearningObjectsObj != null) { //number of objects already in cache
 			numberOfConsistentLearningObjects = numberOfConsistentLearningObjectsObj.intValue();
 		} else { //number of objects not yet in cache
-			numberOfConsistentLearningObjects = ClassificationModel.getNumberOfConsistentObjects(data.getInformationTable(), 0.0);
+			numberOfConsistentLearningObjects = ClassificationModel.getNumberOfConsistentObjects(data, 0.0);
 			NumberOfConsistentObjectsCache.getInstance().putNumberOfConsistentObjects(data.getName(), 0.0, numberOfConsistentLearningObjects); //store calculated number of objects in cache
 		}
 		
@@ -1,6 +1,10 @@
 package org.rulelearn.experiments;
 
-public class MeanAndStandardDeviation {
+import java.io.Serializable;
+
+public class MeanAndStandardDeviation implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
 	double average;
 	double stdDev; //standard deviation
 	
@@ -0,0 +1,213 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.rulelearn.core.InvalidValueException;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import weka.classifiers.functions.MultilayerPerceptron;
+import weka.classifiers.functions.SMO;
+import weka.classifiers.trees.RandomForest;
+
+/**
+ * Controls admission of {@link WorkUnit work units} to run, based on estimated heap footprint of each unit and actual heap usage.
+ * A unit is admitted only if its estimated footprint, together with footprints of already running units, fits in the heap space that is not occupied by live objects.
+ * Amount of live objects is taken from heap usage observed after the most recent garbage collection (reported by GC notifications),
+ * or from current heap usage, if no collection has happened yet. Objects of units admitted before that collection are already counted in observed heap usage,
+ * so only footprints of units admitted after the collection are added to it. The first unit is always admitted, so calculations cannot stall.<br>
+ * <br>
+ * Admission never blocks the calling thread. A unit that is not admitted should be deferred, and tried again when a {@link #release(long, long) unit finishes}
+ * or a {@link #setMemoryFreedListener(Runnable) collection frees memory} (see {@link WorkUnitScheduler}), so the thread can run other units meanwhile.<br>
+ * <br>
+ * Footprints are estimated (see {@link #estimateFootprint(LearningAlgorithm, int, int)}) from the number of training objects, the number of attributes,
+ * and an algorithm-specific factor reflecting how many copies of data and how large models given algorithm builds.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class MemoryAdmissionController {
+	
+	static final long bytesPerValue = 48L; //approximate heap size of a single value in an information table, Instances, and derived structures
+	static final double defaultAlgorithmFactor = 2.0; //train and test copies of data
+	static final Map<String, Double> algorithmName2Factor = new HashMap<String, Double>(); //algorithm-specific factors, for algorithms building large models or multiple copies of data
+	static {
+		algorithmName2Factor.put(VCDomLEMModeRuleClassifierLearner.getAlgorithmName(), 4.0); //decision distributions, unions, rules
+		algorithmName2Factor.put(WEKAClassifierLearner.getAlgorithmName(RandomForest.class), 8.0); //bootstrap samples and forest of trees
+		algorithmName2Factor.put(WEKAClassifierLearner.getAlgorithmName(MultilayerPerceptron.class), 4.0); //nominal to binary filtered copy of data
+		algorithmName2Factor.put(WEKAClassifierLearner.getAlgorithmName(SMO.class), 6.0); //normalized copy of data and kernel cache
+	}
+	
+	double heapUsageLimit; //fraction of maximum heap size that may be used
+	MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+	long maxHeapSize;
+	long liveHeapSize = -1L; //heap usage after most recent GC; < 0 if no GC has been reported yet
+	long sampleNumber = 0L; //number of GCs reported so far
+	long reservedHeapSize = 0L; //sum of estimated footprints of running units admitted after most recent GC
+	int runningUnitsCount = 0;
+	final Object lock = new Object();
+	NotificationListener listener; //listener of GC notifications
+	volatile Runnable memoryFreedListener = null; //notified after each GC, or null
+	
+	/**
+	 * Constructs this controller and registers it as a listener of GC notifications.
+	 * 
+	 * @param heapUsageLimit fraction of maximum heap size that may be used by live objects and running units, from (0.0, 1.0]
+	 * @throws InvalidValueException if given limit is not from (0.0, 1.0]
+	 */
+	public MemoryAdmissionController(double heapUsageLimit) {
+		if (heapUsageLimit <= 0.0 || heapUsageLimit > 1.0) {
+			throw new InvalidValueException("Heap usage limit should be from (0.0, 1.0].");
+		}
+		this.heapUsageLimit = heapUsageLimit;
+		
+		MemoryUsage heapMemoryUsage = memoryMXBean.getHeapMemoryUsage();
+		this.maxHeapSize = heapMemoryUsage.getMax() >= 0 ? heapMemoryUsage.getMax() : Runtime.getRuntime().maxMemory();
+		
+		Set<String> heapPoolNames = new HashSet<String>();
+		for (MemoryPoolMXBean memoryPoolMXBean : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (memoryPoolMXBean.getType() == MemoryType.HEAP) {
+				heapPoolNames.add(memoryPoolMXBean.getName());
+			}
+		}
+		
+		listener = (notification, handback) -> {
+			if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+				GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData)notification.getUserData());
+				long usedAfterGC = 0L;
+				for (Map.Entry<String, MemoryUsage> entry : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+					if (heapPoolNames.contains(entry.getKey())) {
+						usedAfterGC += entry.getValue().getUsed();
+					}
+				}
+				sampled(usedAfterGC);
+			}
+		};
+		for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (garbageCollectorMXBean instanceof NotificationEmitter) {
+				((NotificationEmitter)garbageCollectorMXBean).addNotificationListener(listener, null, null);
+			}
+		}
+	}
+	
+	/**
+	 * Estimates heap footprint of learning and validation of a model by given algorithm.
+	 * 
+	 * @param algorithm learning algorithm
+	 * @param numberOfObjects number of training objects
+	 * @param numberOfAttributes number of attributes
+	 * @return estimated heap footprint [B]
+	 */
+	public static long estimateFootprint(LearningAlgorithm algorithm, int numberOfObjects, int numberOfAttributes) {
+		double algorithmFactor = algorithmName2Factor.getOrDefault(algorithm.getName(), defaultAlgorithmFactor);
+		return (long)(algorithmFactor * numberOfObjects * numberOfAttributes * bytesPerValue);
+	}
+	
+	/**
+	 * Records heap usage observed after a GC, and notifies {@link #setMemoryFreedListener(Runnable) listener}, as deferred units may fit now.
+	 * 
+	 * @param usedAfterGC heap usage after GC [B]
+	 */
+	void sampled(long usedAfterGC) {
+		synchronized (lock) {
+			liveHeapSize = usedAfterGC;
+			sampleNumber++;
+			reservedHeapSize = 0L; //objects of running units are included in heap usage after GC
+		}
+		Runnable memoryFreedListener = this.memoryFreedListener;
+		if (memoryFreedListener != null) {
+			memoryFreedListener.run();
+		}
+	}
+	
+	long getHeadroom() {
+		long usedHeapSize = liveHeapSize >= 0 ? liveHeapSize : memoryMXBean.getHeapMemoryUsage().getUsed();
+		return (long)(heapUsageLimit * maxHeapSize) - usedHeapSize - reservedHeapSize;
+	}
+	
+	/**
+	 * Sets listener notified (by the thread reporting GC) after each garbage collection, when units not admitted so far may fit in the heap.
+	 * 
+	 * @param memoryFreedListener the listener, or {@code null}
+	 */
+	public void setMemoryFreedListener(Runnable memoryFreedListener) {
+		this.memoryFreedListener = memoryFreedListener;
+	}
+	
+	/**
+	 * Admits a unit with given estimated footprint, and reserves that footprint, if the unit fits in the heap. Never blocks the calling thread.
+	 * If no unit is running, the unit is admitted regardless of its footprint.
+	 * 
+	 * @param estimatedFootprint estimated heap footprint of the unit [B]
+	 * @return number of the GC sample at admission, to be passed to {@link #release(long, long)}, or -1 if the unit is not admitted
+	 */
+	public long tryAdmit(long estimatedFootprint) {
+		synchronized (lock) {
+			if (runningUnitsCount > 0 && estimatedFootprint > getHeadroom()) {
+				return -1L;
+			}
+			reservedHeapSize += estimatedFootprint;
+			runningUnitsCount++;
+			return sampleNumber;
+		}
+	}
+	
+	/**
+	 * Gets the number of admitted units that have not been released yet.
+	 * 
+	 * @return the number of running units
+	 */
+	public int getRunningUnitsCount() {
+		synchronized (lock) {
+			return runningUnitsCount;
+		}
+	}
+	
+	/**
+	 * Stops listening to GC notifications.
+	 */
+	public void close() {
+		for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if (garbageCollectorMXBean instanceof NotificationEmitter) {
+				try {
+					((NotificationEmitter)garbageCollectorMXBean).removeNotificationListener(listener);
+				} catch (ListenerNotFoundException exception) {
+					//listener not registered for this collector, nothing to do
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Releases footprint reserved for a finished unit. Footprint of a unit admitted before the most recent GC is not reserved any more,
+	 * as it has been replaced by heap usage observed after that GC.
+	 * 
+	 * @param estimatedFootprint estimated heap footprint of the unit [B], the same as passed to {@link #tryAdmit(long)}
+	 * @param admissionSampleNumber number of the GC sample returned by {@link #tryAdmit(long)}
+	 */
+	public void release(long estimatedFootprint, long admissionSampleNumber) {
+		synchronized (lock) {
+			if (admissionSampleNumber == sampleNumber) {
+				reservedHeapSize -= estimatedFootprint;
+			}
+			runningUnitsCount--;
+		}
+	}
+	
+}
@@ -40,6 +40,8 @@ public class MoNGELClassifier extends KEELClassifier {
 	}
 	
 	public static class ModelDescription extends ClassificationModel.ModelDescription {
+		private static final long serialVersionUID = 1L;
+		
 		long totalRulesCount = 0L;
 		String trainedClassifier = null;
 		int aggregationCount = 0; //tells how many ModelDescription objects have been used to build this object
@@ -195,15 +197,16 @@ public class MoNGELClassifier extends KEELClassifier {
 		
 		if (BatchExperiment.checkConsistencyOfTestDataDecisions) {
 			long start = System.currentTimeMillis();
+			TestDataConsistencyChecker consistencyChecker = new TestDataConsistencyChecker(testData); //dominance cones of test objects calculated once for all checked decisions
 			
 			classificationStatistics.totalNumberOfPreConsistentTestObjects =
-					ClassificationModel.getNumberOfConsistentObjects(testData.getInformationTable(), 0.0);
+					consistencyChecker.getNumberOfConsistentObjects(0.0);
 			classificationStatistics.totalNumberOfPostConsistentTestObjectsIfDecisionsAssignedByMainModelAndDefaultClass = -1L; //not used
 			classificationStatistics.totalNumberOfPostConsistentTestObjectsIfDecisionsAssignedByMainAndDefaultModel =
-					ClassificationModel.getNumberOfConsistentObjects(testData.getInformationTable(), assignedDecisions, 0.0);
+					consistencyChecker.getNumberOfConsistentObjects(assignedDecisions, 0.0);
 			classificationStatistics.totalNumberOfPreAndPostConsistentTestObjectsIfDecisionsAssignedByMainModelAndDefaultClass = -1L; //not used
 			classificationStatistics.totalNumberOfPreAndPostConsistentTestObjectsIfDecisionsAssignedByMainAndDefaultModel =
-					ClassificationModel.getNumberOfPreAndPostConsistentObjects(testData.getInformationTable(), assignedDecisions, 0.0);
+					consistencyChecker.getNumberOfPreAndPostConsistentObjects(assignedDecisions, 0.0);
 			
 			classificationStatistics.avgQualityOfClassification = (double)classificationStatistics.totalNumberOfPreConsistentTestObjects / classificationStatistics.totalNumberOfClassifiedObjects;
 			
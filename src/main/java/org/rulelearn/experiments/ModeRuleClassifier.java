@@ -16,6 +16,9 @@ import org.rulelearn.data.SimpleDecision;
 import org.rulelearn.experiments.ModelValidationResult.DefaultClassificationType;
 import org.rulelearn.experiments.ModelValidationResult.ClassificationStatistics;
 import org.rulelearn.experiments.ModelValidationResult.ClassifierType;
+import org.rulelearn.rules.Rule;
+import org.rulelearn.rules.RuleCharacteristics;
+import org.rulelearn.rules.RuleSetWithCharacteristics;
 import org.rulelearn.rules.RuleSetWithComputableCharacteristics;
 import org.rulelearn.validation.OrdinalMisclassificationMatrix;
 
@@ -47,6 +50,8 @@ public class ModeRuleClassifier implements ClassificationModel {
 	}
 	
 	public static class ModelDescription extends ClassificationModel.ModelDescription {
+		private static final long serialVersionUID = 1L;
+		
 		long totalRulesCount = 0L; //sum of number of rules
 		long sumRuleLength = 0L; //sum of lengths of rules
 		long sumRuleSupport = 0L; //sum of supports of rules
@@ -164,6 +169,7 @@ public class ModeRuleClassifier implements ClassificationModel {
 	RuleSetWithComputableCharacteristics ruleSet;
 	SimpleClassificationResult defaultClassificationResult;
 	SimpleOptimizingCountingRuleClassifier simpleOptimizingCountingRuleClassifier;
+	CompiledRuleSet compiledRuleSet = null; //used to find rules covering all test objects at once, if configured
 	ClassificationModel defaultClassificationModel = null; //classification model (classifier) used when no rule matches classified object (if the model is != null)
 	
 	ModelDescription modelDescription = null;
@@ -175,6 +181,9 @@ public class ModeRuleClassifier implements ClassificationModel {
 		this.ruleSet = ruleSet;
 		this.defaultClassificationResult = defaultClassificationResult;
 		simpleOptimizingCountingRuleClassifier = new SimpleOptimizingCountingRuleClassifier(ruleSet, defaultClassificationResult);
+		if (BatchExperiment.useCompiledRuleSet) {
+			compiledRuleSet = new CompiledRuleSet(ruleSet);
+		}
 		this.modelLearningStatistics = modelLearningStatistics;
 	}
 	
@@ -183,6 +192,9 @@ public class ModeRuleClassifier implements ClassificationModel {
 		this.ruleSet = ruleSet;
 		this.defaultClassificationResult = defaultClassificationResult;
 		simpleOptimizingCountingRuleClassifier = new SimpleOptimizingCountingRuleClassifier(ruleSet, defaultClassificationResult);
+		if (BatchExperiment.useCompiledRuleSet) {
+			compiledRuleSet = new CompiledRuleSet(ruleSet);
+		}
 		this.defaultClassificationModel = defaultClassificationModel;
 		this.modelLearningStatistics = modelLearningStatistics;
 	}
@@ -205,8 +217,27 @@ public class ModeRuleClassifier implements ClassificationModel {
 		return result;
 	}
 	
+	/**
+	 * Gets rule set composed of given rules of this classifier, with their characteristics.
+	 * 
+	 * @param ruleIndices indices of rules, in ascending order
+	 * @return rule set composed of given rules
+	 */
+	RuleSetWithCharacteristics getRuleSubset(int[] ruleIndices) {
+		Rule[] rules = new Rule[ruleIndices.length];
+		RuleCharacteristics[] ruleCharacteristics = new RuleCharacteristics[ruleIndices.length];
+		for (int i = 0; i < ruleIndices.length; i++) {
+			rules[i] = ruleSet.getRule(ruleIndices[i]);
+			ruleCharacteristics[i] = ruleSet.getRuleCharacteristics(ruleIndices[i]);
+		}
+		return new RuleSetWithCharacteristics(rules, ruleCharacteristics);
+	}
+	
 	/**
 	 * Validates this classifier on test data with known decisions.
+	 * If rule set is {@link CompiledRuleSet compiled}, rules covering all test objects are found at once. Then, for the first object covered by each distinct set of rules,
+	 * conflicts between these rules are resolved by a rule classifier composed of these rules only, so rules not covering the object are not evaluated again.
+	 * Decision and resolution strategy of that object are shared by all objects covered by the same rules. Objects covered by no rule get the default decision.
 	 * 
 	 * @throws UnsupportedOperationException if given test data do not contain decisions for subsequent objects
 	 */
@@ -231,13 +262,37 @@ public class ModeRuleClassifier implements ClassificationModel {
 				defaultClassificationModel != null ? DefaultClassificationType.USING_DEFAULT_CLASSIFIER : DefaultClassificationType.USING_DEFAULT_CLASS,
 				ClassifierType.VCDRSA_RULES_CLASSIFIER);
 		long totalCoveringRulesCount = 0;
+		
+		CompiledRuleSet.Coverage coverage = compiledRuleSet != null ? compiledRuleSet.cover(testInformationTable) : null;
+		int[] representatives = coverage != null ? coverage.getRepresentatives() : null; //for each test object, the first test object covered by the same rules
+		SimpleDecision[] ruleAssignedDecisions = coverage != null ? new SimpleDecision[testDataSize] : null; //decisions assigned by rule classifier, before the default model is applied
+		ResolutionStrategy[] resolutionStrategies = coverage != null ? new ResolutionStrategy[testDataSize] : null;
 	
 		for (int testObjectIndex = 0; testObjectIndex < testDataSize; testObjectIndex++) {
-			IntList indicesOfCoveringRules = new IntArrayList();
-			assignedDecisions[testObjectIndex] = simpleOptimizingCountingRuleClassifier.classify(testObjectIndex, testInformationTable, indicesOfCoveringRules).getSuggestedDecision();
-			totalCoveringRulesCount += indicesOfCoveringRules.size();
+			if (coverage != null) {
+				int representativeIndex = representatives[testObjectIndex];
+				if (representativeIndex == testObjectIndex) {
+					if (coverage.getNumberOfCoveringRules(testObjectIndex) == 0) { //no rule matches classified object
+						ruleAssignedDecisions[testObjectIndex] = defaultClassificationResult.getSuggestedDecision();
+						resolutionStrategies[testObjectIndex] = ResolutionStrategy.DEFAULT;
+					} else { //resolution depends only on covering rules, which are already known
+						SimpleOptimizingCountingRuleClassifier coveringRulesClassifier = new SimpleOptimizingCountingRuleClassifier(
+								getRuleSubset(coverage.getCoveringRules(testObjectIndex)), defaultClassificationResult);
+						ruleAssignedDecisions[testObjectIndex] = coveringRulesClassifier.classify(testObjectIndex, testInformationTable).getSuggestedDecision();
+						resolutionStrategies[testObjectIndex] = coveringRulesClassifier.getLatestResolutionStrategy();
+					}
+				}
+				assignedDecisions[testObjectIndex] = ruleAssignedDecisions[representativeIndex];
+				resolutionStrategy = resolutionStrategies[representativeIndex];
+				totalCoveringRulesCount += coverage.getNumberOfCoveringRules(testObjectIndex);
+			} else {
+				IntList indicesOfCoveringRules = new IntArrayList();
+				assignedDecisions[testObjectIndex] = simpleOptimizingCountingRuleClassifier.classify(testObjectIndex, testInformationTable, indicesOfCoveringRules).getSuggestedDecision();
+				totalCoveringRulesCount += indicesOfCoveringRules.size();
+				
+				resolutionStrategy = simpleOptimizingCountingRuleClassifier.getLatestResolutionStrategy();
+			}
 			
-			resolutionStrategy = simpleOptimizingCountingRuleClassifier.getLatestResolutionStrategy();
 			strategySucceeded = assignedDecisions[testObjectIndex].equals(originalDecisions[testObjectIndex]);
 			
 			switch (resolutionStrategy) {
@@ -287,21 +342,22 @@ public class ModeRuleClassifier implements ClassificationModel {
 			
 			//synchronizes defaultClassAssignedDecisions
 			SimpleDecision[] blendedDecisions = blendDecisions(defaultClassAssignedDecisions, assignedDecisions);
+			TestDataConsistencyChecker consistencyChecker = new TestDataConsistencyChecker(testData); //dominance cones of test objects calculated once for all checked decisions
 			
 			classificationStatistics.totalNumberOfPreConsistentTestObjects =
-					ClassificationModel.getNumberOfConsistentObjects(testInformationTable, 0.0);
+					consistencyChecker.getNumberOfConsistentObjects(0.0);
 			
 			classificationStatistics.totalNumberOfPostConsistentTestObjectsIfDecisionsAssignedByMainModelAndDefaultClass =
-					ClassificationModel.getNumberOfConsistentObjects(testInformationTable, blendDecisions(defaultClassAssignedDecisions, assignedDecisions), 0.0);
+					consistencyChecker.getNumberOfConsistentObjects(blendedDecisions, 0.0);
 			
 			classificationStatistics.totalNumberOfPostConsistentTestObjectsIfDecisionsAssignedByMainAndDefaultModel =
-					ClassificationModel.getNumberOfConsistentObjects(testInformationTable, assignedDecisions, 0.0);
+					consistencyChecker.getNumberOfConsistentObjects(assignedDecisions, 0.0);
 			
 			classificationStatistics.totalNumberOfPreAndPostConsistentTestObjectsIfDecisionsAssignedByMainModelAndDefaultClass =
-					ClassificationModel.getNumberOfPreAndPostConsistentObjects(testInformationTable, blendedDecisions, 0.0);
+					consistencyChecker.getNumberOfPreAndPostConsistentObjects(blendedDecisions, 0.0);
 			
 			classificationStatistics.totalNumberOfPreAndPostConsistentTestObjectsIfDecisionsAssignedByMainAndDefaultModel =
-					ClassificationModel.getNumberOfPreAndPostConsistentObjects(testInformationTable, assignedDecisions, 0.0);
+					consistencyChecker.getNumberOfPreAndPostConsistentObjects(assignedDecisions, 0.0);
 			
 			classificationStatistics.avgQualityOfClassification = (double)classificationStatistics.totalNumberOfPreConsistentTestObjects / classificationStatistics.totalNumberOfClassifiedObjects;
 			
@@ -3,6 +3,7 @@
  */
 package org.rulelearn.experiments;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -36,7 +37,9 @@ public class ModelValidationResult {
 		OTHER_CLASSIFIER
 	}
 	
-	public static class MeansAndStandardDeviations {
+	public static class MeansAndStandardDeviations implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
 		MeanAndStandardDeviation overallAverageAccuracy;
 		MeanAndStandardDeviation mainModelAverageAccuracy;
 		MeanAndStandardDeviation defaultModelAverageAccuracy;
@@ -75,7 +78,9 @@ public class ModelValidationResult {
 
 	}
 	
-	public static class ClassificationStatistics {
+	public static class ClassificationStatistics implements Serializable { //serializable to be stored in an experiment journal
+		private static final long serialVersionUID = 1L;
+		
 		/* Main model counters */
 		long preciseCorrectCount = 0L; //concerns precise classification using (VC-)DRSA rules and classification using a WEKA classifier
 		long preciseIncorrectCount = 0L; //concerns precise classification using (VC-)DRSA rules and classification using a WEKA classifier
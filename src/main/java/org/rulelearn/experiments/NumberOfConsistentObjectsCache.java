@@ -3,11 +3,11 @@
  */
 package org.rulelearn.experiments;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Caches classification quality many (data set name, consistency threshold) pairs.
+ * Cached numbers are kept in a {@link BoundedCache bounded cache}, so their estimated heap size does not exceed a configurable budget.
  * 
  * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
  */
@@ -15,47 +15,94 @@ public class NumberOfConsistentObjectsCache {
 	
 	static private NumberOfConsistentObjectsCache instance = null;
 	
-	static NumberOfConsistentObjectsCache getInstance() {
+	static synchronized NumberOfConsistentObjectsCache getInstance() {
 		if (instance == null) {
 			instance = new NumberOfConsistentObjectsCache();
 		}
 		return instance;
 	}
 	
-	Map<String, Map<Double, Integer>> dataSetName2ConsistencyThreshold2QualityOfClassification = new HashMap<String, Map<Double, Integer>>();
-	
-	public Integer getNumberOfConsistentObjects(String dataSetName, double consistencyThreshold) { //can return null
-		Integer result = null;
+	/**
+	 * Key of a cached number of consistent objects.
+	 */
+	static class DataThresholdKey {
+		String dataSetName;
+		double consistencyThreshold;
+		
+		DataThresholdKey(String dataSetName, double consistencyThreshold) {
+			this.dataSetName = dataSetName;
+			this.consistencyThreshold = consistencyThreshold;
+		}
 		
-		if (dataSetName2ConsistencyThreshold2QualityOfClassification.containsKey(dataSetName)) {
-			Double key = Double.valueOf(consistencyThreshold);
-			if (dataSetName2ConsistencyThreshold2QualityOfClassification.get(dataSetName).containsKey(key)) {
-				result = dataSetName2ConsistencyThreshold2QualityOfClassification.get(dataSetName).get(key);
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof DataThresholdKey)) {
+				return false;
 			}
+			DataThresholdKey otherKey = (DataThresholdKey)other;
+			return dataSetName.equals(otherKey.dataSetName) && Double.compare(consistencyThreshold, otherKey.consistencyThreshold) == 0;
 		}
 		
-		return result;
+		@Override
+		public int hashCode() {
+			return 31 * dataSetName.hashCode() + Double.hashCode(consistencyThreshold);
+		}
 	}
 	
-	private HashMap<Double, Integer> put(HashMap<Double, Integer> hashMap, Double key, Integer value) {
-		hashMap.put(key, value);
-		return hashMap;
+	static final long bytesPerEntry = 128L; //approximate heap size of a key, a number, and a map entry
+	static final long defaultMaxWeight = 64L * 1024L * 1024L; //[B], unless configured otherwise
+	
+	BoundedCache<DataThresholdKey, Integer> dataSetNameConsistencyThreshold2NumberOfConsistentObjects = new BoundedCache<DataThresholdKey, Integer>(
+			"Numbers of consistent objects cache", defaultMaxWeight, BoundedCache.EvictionPolicy.LRU, numberOfConsistentObjects -> bytesPerEntry);
+	
+	/**
+	 * Changes memory budget and eviction policy of this cache.
+	 * 
+	 * @param maxWeight maximum estimated heap size of strongly referenced entries [B]
+	 * @param evictionPolicy policy choosing entries to evict
+	 */
+	public void configure(long maxWeight, BoundedCache.EvictionPolicy evictionPolicy) {
+		dataSetNameConsistencyThreshold2NumberOfConsistentObjects.configure(maxWeight, evictionPolicy);
+	}
+	
+	public Integer getNumberOfConsistentObjects(String dataSetName, double consistencyThreshold) { //can return null
+		return dataSetNameConsistencyThreshold2NumberOfConsistentObjects.get(new DataThresholdKey(dataSetName, consistencyThreshold));
 	}
 	
 	public void putNumberOfConsistentObjects(String dataSetName, double consistencyThreshold, int numberOfConsistentObjects) {
-		if (dataSetName2ConsistencyThreshold2QualityOfClassification.containsKey(dataSetName)) {
-			dataSetName2ConsistencyThreshold2QualityOfClassification.get(dataSetName).put(consistencyThreshold, Integer.valueOf(numberOfConsistentObjects));
-		} else {
-			dataSetName2ConsistencyThreshold2QualityOfClassification.put(dataSetName, put(new HashMap<Double, Integer>(), consistencyThreshold, Integer.valueOf(numberOfConsistentObjects)));
-		}
+		dataSetNameConsistencyThreshold2NumberOfConsistentObjects.put(new DataThresholdKey(dataSetName, consistencyThreshold), Integer.valueOf(numberOfConsistentObjects));
 	}
 	
 	public void clear() {
-		dataSetName2ConsistencyThreshold2QualityOfClassification = new HashMap<String, Map<Double, Integer>>(); //clear map to free memory
+		dataSetNameConsistencyThreshold2NumberOfConsistentObjects.clear(); //clear map to free memory
 	}
 	
 	public void clear(String dataSetName) {
-		dataSetName2ConsistencyThreshold2QualityOfClassification.remove(dataSetName); //clears cache for the given data set name (leaving other mappings, e.g., for other fold train data)
+		dataSetNameConsistencyThreshold2NumberOfConsistentObjects.removeIf(key -> key.dataSetName.equals(dataSetName)); //clears cache for the given data set name (leaving other mappings, e.g., for other fold train data)
+	}
+	
+	public void clearIf(Predicate<String> dataSetNameCondition) {
+		dataSetNameConsistencyThreshold2NumberOfConsistentObjects.removeIf(key -> dataSetNameCondition.test(key.dataSetName)); //clears cache for all data set names satisfying the condition
+	}
+	
+	public long getHitsCount() {
+		return dataSetNameConsistencyThreshold2NumberOfConsistentObjects.getHitsCount();
+	}
+	
+	public long getMissesCount() {
+		return dataSetNameConsistencyThreshold2NumberOfConsistentObjects.getMissesCount();
+	}
+	
+	public long getEvictionsCount() {
+		return dataSetNameConsistencyThreshold2NumberOfConsistentObjects.getEvictionsCount();
+	}
+	
+	@Override
+	public String toString() {
+		return dataSetNameConsistencyThreshold2NumberOfConsistentObjects.toString();
 	}
 
 }
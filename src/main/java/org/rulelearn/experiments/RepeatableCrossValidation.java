@@ -8,10 +8,12 @@ import java.util.List;
 import java.util.Random;
 
 import org.rulelearn.core.InvalidValueException;
+import org.rulelearn.data.Index2IdMapper;
 import org.rulelearn.data.InformationTable;
-import org.rulelearn.data.InformationTableWithDecisionDistributions;
 import org.rulelearn.sampling.CrossValidator;
 
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
 /**
  * Cross validation parameterized by a seed and a number of folds, always giving the same folds for the same data.
  * 
@@ -45,6 +47,12 @@ public class RepeatableCrossValidation implements CrossValidation {
 
 	/**
 	 * Gets stratified folds. Does not store any data, so each invocation of this method will cause calculation of folds.
+	 * However, if given data {@link Data#getGroupArtifactsKey() share artifacts} with other data sets of their data group,
+	 * the partition of objects into folds is calculated only once per (data group, seed, number of folds), and stored in {@link DataGroupArtifactStore}.
+	 * Then, folds of other data sets of the group are selected straight from stored indices, without splitting the data again.
+	 * If partitions are persisted (see {@link FoldPartitionDiskCache}), they are calculated only once over subsequent runs of an experiment.<br>
+	 * <br>
+	 * If given data have a {@link Data#getDominanceCounter() shared dominance counter}, each fold gets views of that counter restricted to its training and test objects.
 	 * 
 	 * @param data full data set
 	 * @throws InvalidValueException if seed or number of folds has not been set prior to this call
@@ -52,20 +60,31 @@ public class RepeatableCrossValidation implements CrossValidation {
 	@Override
 	public List<CrossValidationFold> getStratifiedFolds(Data data) {
 		if (seedSet && kSet) {
-			CrossValidator crossValidator = new CrossValidator(new Random());
-			crossValidator.setSeed(seed);
-			
-			InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = (data.getInformationTable() instanceof InformationTableWithDecisionDistributions ?
-					(InformationTableWithDecisionDistributions)data.getInformationTable() : new InformationTableWithDecisionDistributions(data.getInformationTable(), true, true));
-			
-			List<org.rulelearn.sampling.CrossValidator.CrossValidationFold<InformationTable>> folds = crossValidator.splitStratifiedIntoKFolds(informationTableWithDecisionDistributions, true, k); 
 			List<CrossValidationFold> crossValidationFolds = new ArrayList<CrossValidationFold>(k);
 			
-			int foldIndex = 0;
-			for (org.rulelearn.sampling.CrossValidator.CrossValidationFold<InformationTable> fold : folds) {
-				Data trainData = new Data(fold.getTrainingTable(), data.getName()+"_"+seed+"_train_"+foldIndex, data.getGroupName(), data.getSeed()); //no information table transformation done yet
-				Data testData = new Data(fold.getValidationTable(), data.getName()+"_"+seed+"_test_"+foldIndex, data.getGroupName(), data.getSeed());  //no information table transformation done yet
-				crossValidationFolds.add(new RepeatableCrossValidationFold(trainData, testData, foldIndex++));
+			if (data.getGroupArtifactsKey() != null || DataGroupArtifactStore.getInstance().getFoldPartitionDiskCache() != null) {
+				String partitionedDataName = data.getGroupArtifactsKey() != null ? data.getGroupName() : data.getName(); //partition is shared by the whole data group, or only persisted
+				List<org.rulelearn.sampling.CrossValidator.CrossValidationFold<InformationTable>> calculatedFolds = new ArrayList<org.rulelearn.sampling.CrossValidator.CrossValidationFold<InformationTable>>(); //not empty only if folds are calculated by this call
+				FoldPartition foldPartition = DataGroupArtifactStore.getInstance().getFoldPartition(partitionedDataName, seed, k, data.getInformationTable(), () -> {
+					calculatedFolds.addAll(splitStratifiedIntoKFolds(data));
+					return getFoldPartition(data.getInformationTable(), calculatedFolds);
+				});
+				
+				for (int foldIndex = 0; foldIndex < foldPartition.getNumberOfFolds(); foldIndex++) {
+					InformationTable trainTable = calculatedFolds.size() > 0 ? calculatedFolds.get(foldIndex).getTrainingTable() :
+						data.getInformationTable().select(foldPartition.getTrainObjectIndices(foldIndex), true);
+					InformationTable testTable = calculatedFolds.size() > 0 ? calculatedFolds.get(foldIndex).getValidationTable() :
+						data.getInformationTable().select(foldPartition.getTestObjectIndices(foldIndex), true);
+					crossValidationFolds.add(getFold(data, trainTable, testTable, foldIndex,
+							foldPartition.getTrainObjectIndices(foldIndex), foldPartition.getTestObjectIndices(foldIndex)));
+				}
+			} else {
+				List<org.rulelearn.sampling.CrossValidator.CrossValidationFold<InformationTable>> folds = splitStratifiedIntoKFolds(data);
+				FoldPartition foldPartition = data.getDominanceCounter() != null ? getFoldPartition(data.getInformationTable(), folds) : null; //indices of objects are needed only to restrict shared dominance counter
+				for (int foldIndex = 0; foldIndex < folds.size(); foldIndex++) {
+					crossValidationFolds.add(getFold(data, folds.get(foldIndex).getTrainingTable(), folds.get(foldIndex).getValidationTable(), foldIndex,
+							foldPartition != null ? foldPartition.getTrainObjectIndices(foldIndex) : null, foldPartition != null ? foldPartition.getTestObjectIndices(foldIndex) : null));
+				}
 			}
 			
 			return crossValidationFolds;
@@ -73,5 +92,58 @@ public class RepeatableCrossValidation implements CrossValidation {
 			throw new InvalidValueException("Seed or number of folds not set in repeatable cross validation.");
 		}
 	}
+	
+	List<org.rulelearn.sampling.CrossValidator.CrossValidationFold<InformationTable>> splitStratifiedIntoKFolds(Data data) {
+		CrossValidator crossValidator = new CrossValidator(new Random());
+		crossValidator.setSeed(seed);
+		
+		return crossValidator.splitStratifiedIntoKFolds(data.getInformationTableWithDecisionDistributions(), true, k); //extended data are saved, so next cross-validations and learners can use them
+	}
+	
+	/**
+	 * Recovers indices of objects of given folds in given information table, using unique identifiers of objects, which are preserved by selection of objects.
+	 * 
+	 * @param informationTable full information table
+	 * @param folds folds of given information table
+	 * @return partition of objects into given folds
+	 */
+	static FoldPartition getFoldPartition(InformationTable informationTable, List<org.rulelearn.sampling.CrossValidator.CrossValidationFold<InformationTable>> folds) {
+		Int2IntOpenHashMap id2Index = new Int2IntOpenHashMap(informationTable.getNumberOfObjects());
+		Index2IdMapper mapper = informationTable.getIndex2IdMapper();
+		for (int objectIndex = 0; objectIndex < informationTable.getNumberOfObjects(); objectIndex++) {
+			id2Index.put(mapper.getId(objectIndex), objectIndex);
+		}
+		
+		int[][] trainObjectIndices = new int[folds.size()][];
+		int[][] testObjectIndices = new int[folds.size()][];
+		for (int foldIndex = 0; foldIndex < folds.size(); foldIndex++) {
+			trainObjectIndices[foldIndex] = getObjectIndices(folds.get(foldIndex).getTrainingTable(), id2Index);
+			testObjectIndices[foldIndex] = getObjectIndices(folds.get(foldIndex).getValidationTable(), id2Index);
+		}
+		return new FoldPartition(informationTable.getNumberOfObjects(), trainObjectIndices, testObjectIndices);
+	}
+	
+	private static int[] getObjectIndices(InformationTable foldInformationTable, Int2IntOpenHashMap id2Index) {
+		Index2IdMapper mapper = foldInformationTable.getIndex2IdMapper();
+		int[] objectIndices = new int[foldInformationTable.getNumberOfObjects()];
+		for (int i = 0; i < objectIndices.length; i++) {
+			objectIndices[i] = id2Index.get(mapper.getId(i));
+		}
+		return objectIndices;
+	}
+	
+	private CrossValidationFold getFold(Data data, InformationTable trainTable, InformationTable testTable, int foldIndex, int[] trainObjectIndices, int[] testObjectIndices) { //indices of objects can be null
+		Data trainData = new Data(trainTable, data.getName()+"_"+seed+"_train_"+foldIndex, data.getGroupName(), data.getSeed()); //no information table transformation done yet
+		Data testData = new Data(testTable, data.getName()+"_"+seed+"_test_"+foldIndex, data.getGroupName(), data.getSeed());  //no information table transformation done yet
+		if (data.getGroupArtifactsKey() != null) {
+			trainData.groupArtifactsKey = data.getGroupArtifactsKey()+"|"+seed+"|"+k+"|train|"+foldIndex;
+			testData.groupArtifactsKey = data.getGroupArtifactsKey()+"|"+seed+"|"+k+"|test|"+foldIndex;
+		}
+		if (data.getDominanceCounter() != null && trainObjectIndices != null && testObjectIndices != null) { //consistency of fold objects is counted using dominance counter of the full data
+			trainData.dominanceCounter = data.getDominanceCounter().restrictTo(trainObjectIndices);
+			testData.dominanceCounter = data.getDominanceCounter().restrictTo(testObjectIndices);
+		}
+		return new RepeatableCrossValidationFold(trainData, testData, foldIndex);
+	}
 
 }
@@ -0,0 +1,195 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.experiments.VCDomLEMModeRuleClassifierLearnerCache.RuleSetWithComputableCharacteristicsPlusCalculationTime;
+import org.rulelearn.rules.Rule;
+import org.rulelearn.rules.RuleCoverageInformation;
+import org.rulelearn.rules.RuleSet;
+import org.rulelearn.rules.RuleSetWithComputableCharacteristics;
+import org.rulelearn.rules.ruleml.RuleMLBuilder;
+import org.rulelearn.rules.ruleml.RuleParser;
+
+/**
+ * Persistent cache of rules generated by {@link VCDomLEMModeRuleClassifierLearner}, stored in a directory, so rules survive the end of a cross-validation
+ * and subsequent runs of a {@link BatchExperiment} (also with other filters of rules) load rules instead of inducing them again.
+ * Rules are content-addressed, i.e., identified by the hash of the training information table (so renamed or reordered data sets do not get wrong rules),
+ * the consistency threshold, and the condition generalization flag. Moreover, all rules of a cache are identified by its version tag (see {@link #getVersionTag(String)}),
+ * so rules induced by another version of the algorithm or of ruleLearn are not loaded.<br>
+ * <br>
+ * Each rule set is stored in a single file: the first line holds calculation times of rules, and the rest is RuleML. Characteristics of rules are not stored,
+ * as they are computable from the coverage of rules, which is calculated again, on the training information table, when rules are loaded.
+ * Loaded rules are {@link RuleSetWithComputableCharacteristicsPlusCalculationTime#isRestored() marked as restored}, and their calculation time is 0,
+ * as stored times concern another run (possibly on another machine), so they are reported neither as training time nor as time saved by using a cache.
+ * Files are written under a temporary name, and then moved, so a crash cannot leave a half-written rule set. A file that cannot be read is treated as a miss.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class RuleSetDiskCache {
+	
+	static final String RULES_EXTENSION = ".ruleml";
+	static final String TIMES_RECORD = "#times";
+	static final String SEPARATOR = "\t";
+	static final int RULE_SET_INDEX = 1; //index of the only rule set stored in each RuleML file
+	
+	Path directoryPath;
+	String versionTag;
+	
+	LongAdder hitsCount = new LongAdder(); //number of rule sets loaded from this cache
+	LongAdder missesCount = new LongAdder(); //number of rule sets not found in this cache
+	LongAdder failuresCount = new LongAdder(); //number of rule sets that could not be read from or written to this cache
+	
+	/**
+	 * Constructs this cache, creating its directory if it does not exist yet.
+	 * 
+	 * @param directoryPath path to the directory with cached rule sets
+	 * @param versionTag tag of the version of the algorithm inducing rules (see {@link #getVersionTag(String)}), included in names of files with rule sets
+	 * @throws IOException if the directory cannot be created
+	 */
+	public RuleSetDiskCache(String directoryPath, String versionTag) throws IOException {
+		this.directoryPath = Paths.get(directoryPath);
+		this.versionTag = FileWorkQueue.toFileName(versionTag);
+		Files.createDirectories(this.directoryPath);
+	}
+	
+	/**
+	 * Gets tag of the version of VCDomLEM algorithm, composed of the name of the algorithm, the version of ruleLearn library (if known), and given run tag.
+	 * 
+	 * @param runTag tag of the version of the code of experiments, given by the user; {@code null} if there is no such tag
+	 * @return tag of the version of VCDomLEM algorithm
+	 */
+	public static String getVersionTag(String runTag) {
+		Package ruleLearnPackage = RuleSet.class.getPackage();
+		String ruleLearnVersion = ruleLearnPackage != null ? ruleLearnPackage.getImplementationVersion() : null;
+		return VCDomLEMModeRuleClassifierLearner.getAlgorithmName() + "_" + (ruleLearnVersion != null ? ruleLearnVersion : "unknown") + (runTag != null ? "_" + runTag : "");
+	}
+	
+	Path getPath(String informationTableHash, double consistencyThreshold, boolean useConditionGeneralization) {
+		return directoryPath.resolve(versionTag + "-" + informationTableHash + "-" + consistencyThreshold + "-" + useConditionGeneralization + RULES_EXTENSION);
+	}
+	
+	/**
+	 * Loads rules calculated for given training information table, consistency threshold, and condition generalization flag.
+	 * 
+	 * @param informationTable training information table
+	 * @param informationTableHash hash of given information table (see {@link InformationTable#getHash()})
+	 * @param consistencyThreshold consistency threshold used to calculate rules
+	 * @param useConditionGeneralization tells if conditions of rules are generalized
+	 * @return loaded rules, {@link RuleSetWithComputableCharacteristicsPlusCalculationTime#isRestored() marked as restored}, or {@code null} if rules are not in this cache or cannot be read
+	 */
+	public RuleSetWithComputableCharacteristicsPlusCalculationTime load(InformationTable informationTable, String informationTableHash, double consistencyThreshold,
+			boolean useConditionGeneralization) {
+		Path path = getPath(informationTableHash, consistencyThreshold, useConditionGeneralization);
+		if (!Files.exists(path)) {
+			missesCount.increment();
+			return null;
+		}
+		
+		try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path))) {
+			String[] fields = readLine(inputStream).split(SEPARATOR);
+			if (fields.length != 3 || !fields[0].equals(TIMES_RECORD)) {
+				failuresCount.increment();
+				return null;
+			}
+			
+			Map<Integer, RuleSet> index2RuleSet = (new RuleParser(informationTable.getAttributes())).parseRules(inputStream); //parses the rest of the file
+			RuleSet ruleSet = index2RuleSet != null ? index2RuleSet.get(RULE_SET_INDEX) : null;
+			if (ruleSet == null) {
+				failuresCount.increment();
+				return null;
+			}
+			
+			Rule[] rules = new Rule[ruleSet.size()];
+			RuleCoverageInformation[] ruleCoverageInformationArray = new RuleCoverageInformation[ruleSet.size()];
+			for (int i = 0; i < rules.length; i++) {
+				rules[i] = ruleSet.getRule(i);
+				ruleCoverageInformationArray[i] = new RuleCoverageInformation(rules[i], informationTable);
+			}
+			
+			hitsCount.increment();
+			RuleSetWithComputableCharacteristicsPlusCalculationTime loadedRules = new RuleSetWithComputableCharacteristicsPlusCalculationTime(
+					new RuleSetWithComputableCharacteristics(rules, ruleCoverageInformationArray), 0L, 0L, informationTable.getNumberOfObjects()); //stored times concern another run
+			loadedRules.restored = true;
+			return loadedRules;
+		} catch (IOException | RuntimeException exception) { //e.g., malformed file
+			failuresCount.increment();
+			return null;
+		}
+	}
+	
+	private static String readLine(InputStream inputStream) throws IOException { //reads the first line without buffering beyond it, so the rest of the stream can be parsed
+		ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+		int value;
+		while ((value = inputStream.read()) >= 0 && value != '\n') {
+			line.write(value);
+		}
+		return new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+	}
+	
+	/**
+	 * Stores given rules, calculated for given training information table, consistency threshold, and condition generalization flag.
+	 * If rules cannot be written, this cache stays unchanged.
+	 * 
+	 * @param informationTableHash hash of the training information table (see {@link InformationTable#getHash()})
+	 * @param consistencyThreshold consistency threshold used to calculate rules
+	 * @param useConditionGeneralization tells if conditions of rules are generalized
+	 * @param rules rules to store, together with their calculation time
+	 */
+	public void store(String informationTableHash, double consistencyThreshold, boolean useConditionGeneralization, RuleSetWithComputableCharacteristicsPlusCalculationTime rules) {
+		Path path = getPath(informationTableHash, consistencyThreshold, useConditionGeneralization);
+		Path temporaryPath = null;
+		
+		try {
+			temporaryPath = Files.createTempFile(directoryPath, path.getFileName().toString() + ".", ".tmp"); //unique also among processes sharing the directory
+			try (BufferedWriter writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+				writer.write(TIMES_RECORD + SEPARATOR + rules.getCalculationTime() + SEPARATOR + rules.getInformationTableTransformationTime());
+				writer.write('\n');
+				writer.write((new RuleMLBuilder()).toRuleMLString(rules.getRuleSet(), RULE_SET_INDEX));
+			}
+			Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING); //readers see either no file, or the whole file
+		} catch (IOException | RuntimeException exception) {
+			failuresCount.increment();
+			try {
+				if (temporaryPath != null) {
+					Files.deleteIfExists(temporaryPath);
+				}
+			} catch (IOException deleteException) {
+				//nothing more can be done
+			}
+		}
+	}
+	
+	public long getHitsCount() {
+		return hitsCount.sum();
+	}
+	
+	public long getMissesCount() {
+		return missesCount.sum();
+	}
+	
+	public long getFailuresCount() {
+		return failuresCount.sum();
+	}
+	
+	@Override
+	public String toString() {
+		return (new StringBuilder("Rules disk cache ")).append(directoryPath).append(": hits: ").append(getHitsCount()).append(", misses: ").append(getMissesCount())
+				.append(", failures: ").append(getFailuresCount()).append(", version: ").append(versionTag).toString();
+	}
+	
+}
@@ -0,0 +1,107 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import org.rulelearn.core.InvalidValueException;
+import org.rulelearn.data.Decision;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.data.InformationTableWithDecisionDistributions;
+import org.rulelearn.dominance.DominanceCones;
+
+/**
+ * Checks consistency of test data in \epsilon-VC-DRSA, for original decisions of test objects, and for any number of vectors of decisions assigned to test objects
+ * by a classification model (e.g., decisions assigned by the main model, or blended with decisions assigned by the default model).
+ * Dominance cones of test objects depend only on condition attributes, so they are calculated once (or a {@link DominanceCounter dominance counter} is constructed once),
+ * and then shared by all checked vectors of decisions.
+ * Maximum epsilon consistencies of test objects with original decisions are also calculated once (see {@link EpsilonConsistencyProfile}).
+ * Then, checking a vector of assigned decisions takes a single pass over dominance cones, without building unions and approximations.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class TestDataConsistencyChecker {
+	
+	InformationTable informationTable;
+	DominanceCounter dominanceCounter; //null if dominance cones of ruleLearn are used
+	DominanceCones dominanceCones = null; //null if dominance counter is used
+	double[] preMaxEpsilonConsistencies; //for each object, maximum epsilon consistency with respect to unions of original decisions comprising that object
+	
+	/**
+	 * Constructs this checker. Uses a {@link DominanceCounter dominance counter}, if it is {@link Data#getDominanceCounter() shared} by given data
+	 * (e.g., a view of the counter of the full data set), or if it can be {@link DominanceCounter#of(InformationTable) constructed} for given data.
+	 * Otherwise, uses {@link Data#getInformationTableWithDecisionDistributions() extension of the test information table} saved in given data,
+	 * so dominance cones of test objects are calculated once for all models validated on these data.
+	 * 
+	 * @param testData test data
+	 */
+	public TestDataConsistencyChecker(Data testData) {
+		this.dominanceCounter = DominanceCounter.of(testData);
+		
+		if (dominanceCounter != null) {
+			this.informationTable = testData.getInformationTable();
+			this.preMaxEpsilonConsistencies = EpsilonConsistencyProfile.calculateMaxEpsilonConsistencies(informationTable, dominanceCounter);
+		} else {
+			InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = testData.getInformationTableWithDecisionDistributions();
+			this.informationTable = informationTableWithDecisionDistributions;
+			this.dominanceCones = informationTableWithDecisionDistributions.getDominanceCones();
+			this.preMaxEpsilonConsistencies = EpsilonConsistencyProfile.calculateMaxEpsilonConsistencies(informationTableWithDecisionDistributions, dominanceCones);
+		}
+	}
+	
+	/**
+	 * Gets number of test objects consistent for given threshold, for original decisions of test objects.
+	 * 
+	 * @param consistencyThreshold consistency threshold for the calculation of approximations
+	 * @return number of pre-consistent test objects
+	 */
+	public int getNumberOfConsistentObjects(double consistencyThreshold) {
+		return countConsistentObjects(preMaxEpsilonConsistencies, null, consistencyThreshold);
+	}
+	
+	/**
+	 * Gets number of test objects consistent for given threshold, assuming test objects have given decisions.
+	 * 
+	 * @param decisions new decisions for subsequent test objects
+	 * @param consistencyThreshold consistency threshold for the calculation of approximations
+	 * @return number of post-consistent test objects
+	 * @throws InvalidValueException if the number of given decisions is different than the number of test objects
+	 */
+	public int getNumberOfConsistentObjects(Decision[] decisions, double consistencyThreshold) {
+		return countConsistentObjects(calculatePostMaxEpsilonConsistencies(decisions), null, consistencyThreshold);
+	}
+	
+	/**
+	 * Gets number of pre- and post-consistent test objects (i.e., objects that are originally consistent and remain consistent for assigned decisions),
+	 * for given threshold, assuming test objects have given decisions.
+	 * 
+	 * @param decisions new decisions for subsequent test objects
+	 * @param consistencyThreshold consistency threshold for the calculation of approximations
+	 * @return number of pre- and post-consistent test objects
+	 * @throws InvalidValueException if the number of given decisions is different than the number of test objects
+	 */
+	public int getNumberOfPreAndPostConsistentObjects(Decision[] decisions, double consistencyThreshold) {
+		return countConsistentObjects(preMaxEpsilonConsistencies, calculatePostMaxEpsilonConsistencies(decisions), consistencyThreshold);
+	}
+	
+	private double[] calculatePostMaxEpsilonConsistencies(Decision[] decisions) {
+		if (decisions.length != informationTable.getNumberOfObjects()) {
+			throw new InvalidValueException("Number of assigned decisions is different than the number of test objects.");
+		}
+		InformationTable informationTableWithAssignedDecisions = new InformationTable(informationTable, decisions, true); //only provides decisions - dominance is shared
+		return dominanceCounter != null ?
+				EpsilonConsistencyProfile.calculateMaxEpsilonConsistencies(informationTableWithAssignedDecisions, dominanceCounter) :
+				EpsilonConsistencyProfile.calculateMaxEpsilonConsistencies(informationTableWithAssignedDecisions, dominanceCones);
+	}
+	
+	private static int countConsistentObjects(double[] maxEpsilonConsistencies, double[] otherMaxEpsilonConsistencies, double consistencyThreshold) { //otherMaxEpsilonConsistencies can be null
+		int count = 0;
+		for (int objectIndex = 0; objectIndex < maxEpsilonConsistencies.length; objectIndex++) {
+			if (maxEpsilonConsistencies[objectIndex] <= consistencyThreshold &&
+					(otherMaxEpsilonConsistencies == null || otherMaxEpsilonConsistencies[objectIndex] <= consistencyThreshold)) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+}
@@ -0,0 +1,126 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.util.function.Predicate;
+
+import org.rulelearn.approximations.Unions;
+import org.rulelearn.approximations.UnionsWithSingleLimitingDecision;
+import org.rulelearn.approximations.VCDominanceBasedRoughSetCalculator;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.data.InformationTableWithDecisionDistributions;
+import org.rulelearn.experiments.NumberOfConsistentObjectsCache.DataThresholdKey;
+import org.rulelearn.measures.dominance.EpsilonConsistencyMeasure;
+
+/**
+ * Caches unions of decision classes, with their VC-DRSA approximations, calculated for many (data set name, consistency threshold) pairs.
+ * Calculation of unions, which involves calculation of dominance cones of all objects, is the most expensive part of calculating
+ * quality of approximation (see {@link BatchExperiment#calculateQualityOfApproximation(Data, double)}),
+ * numbers of consistent objects (see {@link ClassificationModel#getNumberOfConsistentObjects(Data, double)}),
+ * and rules (see {@link VCDomLEMModeRuleClassifierLearner#learnRules}).
+ * Hence, all of them take unions from this cache, and unions for given data and threshold are calculated only once (also if requested concurrently).<br>
+ * <br>
+ * Unions are kept in a {@link BoundedCache bounded cache}, so their estimated heap size does not exceed a configurable budget.<br>
+ * <br>
+ * Numbers of consistent objects and quality of approximation do not need approximations of unions for each threshold, so they are answered by
+ * an {@link EpsilonConsistencyProfile epsilon consistency profile} of given data, also cached here, calculated once for all thresholds.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class UnionsCache {
+	
+	static private UnionsCache instance = null;
+	
+	static synchronized UnionsCache getInstance() {
+		if (instance == null) {
+			instance = new UnionsCache();
+		}
+		return instance;
+	}
+	
+	static final long bytesPerUnionObject = 32L; //approximate heap size of an object in a union, in its approximations, and in its boundary
+	static final double defaultHeapFraction = 0.1; //fraction of maximum heap size that may be occupied by cached unions, unless configured otherwise
+	
+	/**
+	 * Estimates heap size of given unions, assuming that each union and its approximations concern all objects.
+	 * 
+	 * @param unions unions of decision classes
+	 * @return estimated heap size of given unions [B]
+	 */
+	static long estimateWeight(Unions unions) {
+		long numberOfUnions = unions.getUpwardUnions().length + unions.getDownwardUnions().length;
+		return numberOfUnions * unions.getInformationTable().getNumberOfObjects() * bytesPerUnionObject;
+	}
+	
+	static final long bytesPerProfileObject = 8L; //heap size of epsilon consistency of an object, in a consistency profile
+	static final long consistencyProfilesMaxWeight = 64L * 1024L * 1024L; //maximum estimated heap size of strongly referenced consistency profiles [B]
+	
+	BoundedCache<DataThresholdKey, Unions> dataSetNameConsistencyThreshold2Unions = new BoundedCache<DataThresholdKey, Unions>(
+			"Unions cache", (long)(defaultHeapFraction * Runtime.getRuntime().maxMemory()), BoundedCache.EvictionPolicy.LRU, UnionsCache::estimateWeight);
+	BoundedCache<String, EpsilonConsistencyProfile> dataSetName2ConsistencyProfile = new BoundedCache<String, EpsilonConsistencyProfile>(
+			"Consistency profiles cache", consistencyProfilesMaxWeight, BoundedCache.EvictionPolicy.LRU, profile -> profile.getNumberOfObjects() * bytesPerProfileObject);
+	
+	/**
+	 * Changes memory budget and eviction policy of this cache. Consistency profiles, which are small, keep their own budget.
+	 * 
+	 * @param maxWeight maximum estimated heap size of strongly referenced unions [B]
+	 * @param evictionPolicy policy choosing unions and consistency profiles to evict
+	 */
+	public void configure(long maxWeight, BoundedCache.EvictionPolicy evictionPolicy) {
+		dataSetNameConsistencyThreshold2Unions.configure(maxWeight, evictionPolicy);
+		dataSetName2ConsistencyProfile.configure(consistencyProfilesMaxWeight, evictionPolicy);
+	}
+	
+	/**
+	 * Gets unions of decision classes for given data and consistency threshold, calculating them if they are not in this cache.
+	 * 
+	 * @param dataSetName name of the data set, identifying given information table
+	 * @param informationTable information table of the data set; if it is not an {@link InformationTableWithDecisionDistributions}, it is transformed to one before calculating unions
+	 * @param consistencyThreshold consistency threshold used to calculate approximations of unions
+	 * @return unions of decision classes for given data and consistency threshold
+	 */
+	public Unions getUnions(String dataSetName, InformationTable informationTable, double consistencyThreshold) {
+		return dataSetNameConsistencyThreshold2Unions.get(new DataThresholdKey(dataSetName, consistencyThreshold), () -> {
+			InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = (informationTable instanceof InformationTableWithDecisionDistributions ?
+					(InformationTableWithDecisionDistributions)informationTable : new InformationTableWithDecisionDistributions(informationTable, true, true));
+			return new UnionsWithSingleLimitingDecision(informationTableWithDecisionDistributions,
+					new VCDominanceBasedRoughSetCalculator(EpsilonConsistencyMeasure.getInstance(), consistencyThreshold));
+		});
+	}
+	
+	/**
+	 * Gets epsilon consistency profile of given data, calculating it if it is not in this cache. The profile answers questions about
+	 * numbers of consistent objects and quality of approximation for any consistency threshold, without calculating unions for each threshold.
+	 * 
+	 * If the profile is calculated, it uses a {@link DominanceCounter dominance counter}, if possible, or the {@link Data#getInformationTableWithDecisionDistributions() extension
+	 * of the information table with decision distributions} saved in given data, so the extension is calculated at most once for given data (see {@link EpsilonConsistencyProfile#of(Data)}).
+	 * 
+	 * @param data the data set
+	 * @return epsilon consistency profile of given data
+	 */
+	public EpsilonConsistencyProfile getConsistencyProfile(Data data) {
+		return dataSetName2ConsistencyProfile.get(data.getName(), () -> EpsilonConsistencyProfile.of(data));
+	}
+	
+	public void clear() {
+		dataSetNameConsistencyThreshold2Unions.clear(); //clear map to free memory
+		dataSetName2ConsistencyProfile.clear();
+	}
+	
+	public void clear(String dataSetName) {
+		dataSetNameConsistencyThreshold2Unions.removeIf(key -> key.dataSetName.equals(dataSetName)); //clears cache for the given data set name (leaving other mappings, e.g., for other fold train data)
+		dataSetName2ConsistencyProfile.remove(dataSetName);
+	}
+	
+	public void clearIf(Predicate<String> dataSetNameCondition) {
+		dataSetNameConsistencyThreshold2Unions.removeIf(key -> dataSetNameCondition.test(key.dataSetName)); //clears cache for all data set names satisfying the condition
+		dataSetName2ConsistencyProfile.removeIf(dataSetNameCondition);
+	}
+	
+	@Override
+	public String toString() {
+		return dataSetNameConsistencyThreshold2Unions.toString()+"; "+dataSetName2ConsistencyProfile.toString();
+	}
+	
+}
@@ -10,14 +10,11 @@ import java.util.stream.Collectors;
 
 import org.rulelearn.approximations.Union;
 import org.rulelearn.approximations.Unions;
-import org.rulelearn.approximations.UnionsWithSingleLimitingDecision;
-import org.rulelearn.approximations.VCDominanceBasedRoughSetCalculator;
 import org.rulelearn.classification.SimpleClassificationResult;
 import org.rulelearn.core.InvalidValueException;
 import org.rulelearn.core.ValueNotFoundException;
 import org.rulelearn.data.Decision;
 import org.rulelearn.data.EvaluationAttribute;
-import org.rulelearn.data.InformationTable;
 import org.rulelearn.data.InformationTableWithDecisionDistributions;
 import org.rulelearn.data.SimpleDecision;
 import org.rulelearn.experiments.ClassificationModel.ModelLearningStatistics;
@@ -132,29 +129,46 @@ public class VCDomLEMModeRuleClassifierLearner extends AbstractLearningAlgorithm
 
 		DataTransformationTime dataTransformationTime = new DataTransformationTime();
 		
-		//first try to get rules from cache
+		//first try to get rules from cache; if rules are being calculated by another thread (e.g., for the same fold and other parameters), wait for them
 		boolean useConditionGeneralization = Boolean.valueOf(parameters.getParameter(VCDomLEMModeRuleClassifierLearnerDataParameters.useConditionGeneralizationParameterName));
+		RuleSetWithComputableCharacteristicsPlusCalculationTime[] calculatedRules = new RuleSetWithComputableCharacteristicsPlusCalculationTime[1]; //set only if rules are calculated by this thread
 		RuleSetWithComputableCharacteristicsPlusCalculationTime ruleSetWithCharacteristicsPlusCalculationTime = VCDomLEMModeRuleClassifierLearnerCache.getInstance().getRules(
-				trainData.getName(), consistencyThreshold, useConditionGeneralization);
-		RuleSetWithComputableCharacteristics ruleSetWithCharacteristics;
+				trainData.getName(), consistencyThreshold, useConditionGeneralization, () -> {
+					//then try to load rules calculated for the same training data in a previous run
+					RuleSetDiskCache diskCache = VCDomLEMModeRuleClassifierLearnerCache.getInstance().getDiskCache();
+					String informationTableHash = null;
+					if (diskCache != null) {
+						informationTableHash = trainData.getInformationTable().getHash();
+						RuleSetWithComputableCharacteristicsPlusCalculationTime loadedRules = diskCache.load(
+								trainData.getInformationTable(), informationTableHash, consistencyThreshold, useConditionGeneralization);
+						if (loadedRules != null) {
+							return loadedRules; //loaded rules are a hit of the disk cache, with unknown (zero) calculation time, reported neither as training time nor as saved time
+						}
+					}
+					
+					//***********************************
+					long start = System.currentTimeMillis();
+					RuleSetWithComputableCharacteristics rules = learnRules(trainData, consistencyThreshold, useConditionGeneralization, dataTransformationTime);
+					long ruleSetCalculationTime = System.currentTimeMillis() - start;
+					//***********************************
+					
+					//rules.setLearningInformationTableHash(trainData.getInformationTable().getHash()); //save data hash along with rules - skipped to speed up computations
+					calculatedRules[0] = new RuleSetWithComputableCharacteristicsPlusCalculationTime(rules, ruleSetCalculationTime, dataTransformationTime.duration,
+							trainData.getInformationTable().getNumberOfObjects()); //stored in cache for later use!
+					if (diskCache != null) {
+						diskCache.store(informationTableHash, consistencyThreshold, useConditionGeneralization, calculatedRules[0]);
+					}
+					return calculatedRules[0];
+				});
+		RuleSetWithComputableCharacteristics ruleSetWithCharacteristics = ruleSetWithCharacteristicsPlusCalculationTime.getRuleSet();
 		long timeSavedByRetreivingRulesFromCache;
 		
-		if (ruleSetWithCharacteristicsPlusCalculationTime == null) {
+		if (ruleSetWithCharacteristicsPlusCalculationTime == calculatedRules[0]) {
 			timeSavedByRetreivingRulesFromCache = 0L;
-			
-			//***********************************
-			long start = System.currentTimeMillis();
-			ruleSetWithCharacteristics = learnRules(trainData.getInformationTable(), consistencyThreshold, useConditionGeneralization, dataTransformationTime);
-			long ruleSetCalculationTime = System.currentTimeMillis() - start;
-			//***********************************
-			
-			//ruleSetWithCharacteristics.setLearningInformationTableHash(trainData.getInformationTable().getHash()); //save data hash along with rules - skipped to speed up computations
-			VCDomLEMModeRuleClassifierLearnerCache.getInstance().putRules(trainData.getName(), consistencyThreshold, useConditionGeneralization, ruleSetWithCharacteristics, ruleSetCalculationTime, dataTransformationTime.duration); //store rules in cache for later use!
 		} else {
 			//remember saved time used earlier to calculate rules
 			dataTransformationTime.duration = ruleSetWithCharacteristicsPlusCalculationTime.getInformationTableTransformationTime();
 			timeSavedByRetreivingRulesFromCache = ruleSetWithCharacteristicsPlusCalculationTime.getCalculationTime();
-			ruleSetWithCharacteristics = ruleSetWithCharacteristicsPlusCalculationTime.getRuleSet();
 		}
 		
 //		boolean useFilter = Boolean.valueOf(parameters.getParameter(VCDomLEMModeRuleClassifierLearnerDataParameters.useFilterParameterName));
@@ -178,7 +192,7 @@ public class VCDomLEMModeRuleClassifierLearner extends AbstractLearningAlgorithm
 		if (numberOfConsistentLearningObjectsObj != null) { //number of objects already in cache
 			numberOfConsistentLearningObjects = numberOfConsistentLearningObjectsObj.intValue();
 		} else { //number of objects not yet in cache
-			numberOfConsistentLearningObjects = ClassificationModel.getNumberOfConsistentObjects(trainData.getInformationTable(), 0.0);
+			numberOfConsistentLearningObjects = ClassificationModel.getNumberOfConsistentObjects(trainData, 0.0);
 			NumberOfConsistentObjectsCache.getInstance().putNumberOfConsistentObjects(trainData.getName(), 0.0, numberOfConsistentLearningObjects); //store calculated number of objects in cache
 		}
 		
@@ -189,7 +203,7 @@ public class VCDomLEMModeRuleClassifierLearner extends AbstractLearningAlgorithm
 		if (numberOfConsistentLearningObjectsForConsistencyThresholdObj != null) { //number of objects already in cache
 			numberOfConsistentLearningObjectsForConsistencyThreshold = numberOfConsistentLearningObjectsForConsistencyThresholdObj.intValue();
 		} else {
-			numberOfConsistentLearningObjectsForConsistencyThreshold = ClassificationModel.getNumberOfConsistentObjects(trainData.getInformationTable(), consistencyThreshold);
+			numberOfConsistentLearningObjectsForConsistencyThreshold = ClassificationModel.getNumberOfConsistentObjects(trainData, consistencyThreshold);
 			NumberOfConsistentObjectsCache.getInstance().putNumberOfConsistentObjects(trainData.getName(), consistencyThreshold, numberOfConsistentLearningObjectsForConsistencyThreshold); //store calculated number of objects in cache
 		}
 		
@@ -206,10 +220,7 @@ public class VCDomLEMModeRuleClassifierLearner extends AbstractLearningAlgorithm
 		
 		switch (defaultDecisionClassChoiceMethod) {
 		case MODE:
-			if (!(trainData.getInformationTable() instanceof InformationTableWithDecisionDistributions)) {
-				trainData.extendInformationTableWithDecisionDistributions(); //save extended data in fold, so next algorithms can use it
-			}
-			informationTableWithDecisionDistributions = (InformationTableWithDecisionDistributions)trainData.getInformationTable();
+			informationTableWithDecisionDistributions = trainData.getInformationTableWithDecisionDistributions(); //extended data are saved in fold, so next algorithms can use them
 			
 			List<Decision> modes = informationTableWithDecisionDistributions.getDecisionDistribution().getMode();
 			if (modes.size() > 1) { //if modes.size() > 1, then choose mode randomly, using a seed
@@ -223,10 +234,7 @@ public class VCDomLEMModeRuleClassifierLearner extends AbstractLearningAlgorithm
 			
 			return new ModeRuleClassifier(ruleSetWithCharacteristics, defaultClassificationResult, modelLearningStatistics);
 		case MEDIAN:
-			if (!(trainData.getInformationTable() instanceof InformationTableWithDecisionDistributions)) {
-				trainData.extendInformationTableWithDecisionDistributions(); //save extended data in fold, so next algorithms can use it
-			}
-			informationTableWithDecisionDistributions = (InformationTableWithDecisionDistributions)trainData.getInformationTable();
+			informationTableWithDecisionDistributions = trainData.getInformationTableWithDecisionDistributions(); //extended data are saved in fold, so next algorithms can use them
 			
 			Decision median = informationTableWithDecisionDistributions.getDecisionDistribution().getMedian(trainData.getInformationTable().getOrderedUniqueFullyDeterminedDecisions());
 			defaultClassificationResult = new SimpleClassificationResult((SimpleDecision)median);
@@ -291,7 +299,7 @@ public class VCDomLEMModeRuleClassifierLearner extends AbstractLearningAlgorithm
 		return VCDomLEMModeRuleClassifierLearner.class.getSimpleName();
 	}
 	
-	RuleSetWithComputableCharacteristics learnRules(InformationTable informationTable, double consistencyThreshold, boolean useConditionGeneralization,
+	RuleSetWithComputableCharacteristics learnRules(Data trainData, double consistencyThreshold, boolean useConditionGeneralization,
 			DataTransformationTime dataTransformationTime) { //dataProcessingTime just 1 element - data processing time in ms
 		//the code below is copied from method VCDomLEMWrapper.induceRulesWithCharacteristics(InformationTable informationTable, double consistencyThreshold,
 		//with adjusted rule conditions generalizer and skipped calculation of all rule characteristics
@@ -305,18 +313,11 @@ public class VCDomLEMModeRuleClassifierLearner extends AbstractLearningAlgorithm
 				ruleConditionsGeneralizer(useConditionGeneralization ? new OptimizingRuleConditionsGeneralizer(stoppingConditionChecker) : new DummyRuleConditionsGeneralizer()). //THE CHANGE HERE!
 				build();
 		
-		InformationTableWithDecisionDistributions informationTableWithDecisionDistributions;
-		if (informationTable instanceof InformationTableWithDecisionDistributions) {
-			informationTableWithDecisionDistributions = (InformationTableWithDecisionDistributions)informationTable;
-			dataTransformationTime.duration = 0L;
-		} else {
-			long start = System.currentTimeMillis();
-			informationTableWithDecisionDistributions = new InformationTableWithDecisionDistributions(informationTable, true, true);
-			dataTransformationTime.duration = System.currentTimeMillis() - start; //record time of getting from InformationTable to InformationTableWithDecisionDistributions
-		}
+		boolean transformationNeeded = !(trainData.getInformationTable() instanceof InformationTableWithDecisionDistributions);
+		InformationTableWithDecisionDistributions informationTableWithDecisionDistributions = trainData.getInformationTableWithDecisionDistributions(); //save extended data in fold, so next algorithms can use it
+		dataTransformationTime.duration = transformationNeeded ? trainData.getInformationTableTransformationTime() : 0L; //record time of getting from InformationTable to InformationTableWithDecisionDistributions
 		
-		Unions unions = new UnionsWithSingleLimitingDecision(informationTableWithDecisionDistributions, 
-				new VCDominanceBasedRoughSetCalculator(EpsilonConsistencyMeasure.getInstance(), consistencyThreshold));
+		Unions unions = UnionsCache.getInstance().getUnions(trainData.getName(), informationTableWithDecisionDistributions, consistencyThreshold); //reused by statistics of learned model
 		ApproximatedSetProvider unionAtLeastProvider = new UnionProvider(Union.UnionType.AT_LEAST, unions);
 		ApproximatedSetProvider unionAtMostProvider = new UnionProvider(Union.UnionType.AT_MOST, unions);
 		ApproximatedSetRuleDecisionsProvider unionRuleDecisionsProvider = new UnionWithSingleLimitingDecisionRuleDecisionsProvider();
@@ -3,13 +3,17 @@
  */
 package org.rulelearn.experiments;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.rulelearn.rules.RuleSetWithComputableCharacteristics;
 
 /**
  * Caches rules generated by {@link VCDomLEMModeRuleClassifierLearner} for many data sets and single consistency threshold for each of these data sets (so they can be used several times).
+ * Cache is thread-safe, and rules for given key are calculated only once, even if requested concurrently by several threads (see {@link #getRules(String, double, boolean, Supplier)}).
+ * Cache counts hits and misses, and cumulates time saved by taking rules from the cache. Calculated rules are kept in a {@link BoundedCache bounded cache},
+ * so their estimated heap size does not exceed a configurable budget.
  * 
  * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
  */
@@ -24,12 +28,20 @@ public class VCDomLEMModeRuleClassifierLearnerCache {
 		RuleSetWithComputableCharacteristics ruleSet;
 		long calculationTime; //total time, including information table transformation time and calculation of rules on transformed information table [ms]
 		long informationTableTransformationTime; //sole information table transformation time [ms]
+		int numberOfLearningObjects = 0; //number of objects rules have been calculated from, used to estimate heap size of rules; 0 if not known
+		boolean restored = false; //true = rules have been restored from a persistent cache (see RuleSetDiskCache), so their calculation time is not known, and equals 0
 		
 		public RuleSetWithComputableCharacteristicsPlusCalculationTime(RuleSetWithComputableCharacteristics ruleSet, long calculationTime, long informationTableTransformationTime) {
 			this.ruleSet = ruleSet;
 			this.calculationTime = calculationTime;
 			this.informationTableTransformationTime = informationTableTransformationTime;
 		}
+		
+		public RuleSetWithComputableCharacteristicsPlusCalculationTime(RuleSetWithComputableCharacteristics ruleSet, long calculationTime, long informationTableTransformationTime,
+				int numberOfLearningObjects) {
+			this(ruleSet, calculationTime, informationTableTransformationTime);
+			this.numberOfLearningObjects = numberOfLearningObjects;
+		}
 
 		public RuleSetWithComputableCharacteristics getRuleSet() {
 			return ruleSet;
@@ -43,6 +55,14 @@ public class VCDomLEMModeRuleClassifierLearnerCache {
 			return informationTableTransformationTime;
 		}
 		
+		public int getNumberOfLearningObjects() {
+			return numberOfLearningObjects;
+		}
+		
+		public boolean isRestored() {
+			return restored;
+		}
+		
 	}
 	
 	/**
@@ -55,55 +75,169 @@ public class VCDomLEMModeRuleClassifierLearnerCache {
 	 * 
 	 * @return the only instance of this class (singleton)
 	 */
-	static VCDomLEMModeRuleClassifierLearnerCache getInstance() {
+	static synchronized VCDomLEMModeRuleClassifierLearnerCache getInstance() {
 		if (instance == null) {
 			instance = new VCDomLEMModeRuleClassifierLearnerCache();
 		}
 		return instance;
 	}
 	
-	Map<String, Map<Double, Map<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime>>> dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap = new HashMap<String, Map<Double, Map<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime>>>();
-	
-	public RuleSetWithComputableCharacteristicsPlusCalculationTime getRules(String dataSetName, double consistencyThreshold, boolean useConditionGeneralization) { //can return null
-		RuleSetWithComputableCharacteristicsPlusCalculationTime result = null;
+	/**
+	 * Key of rules.
+	 */
+	static class RulesKey {
+		String dataSetName;
+		double consistencyThreshold;
+		boolean useConditionGeneralization;
+		
+		RulesKey(String dataSetName, double consistencyThreshold, boolean useConditionGeneralization) {
+			this.dataSetName = dataSetName;
+			this.consistencyThreshold = consistencyThreshold;
+			this.useConditionGeneralization = useConditionGeneralization;
+		}
 		
-		if (dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.containsKey(dataSetName)) {
-			if (dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.get(dataSetName).containsKey(consistencyThreshold)) {
-				if (dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.get(dataSetName).get(consistencyThreshold).containsKey(useConditionGeneralization)) {
-					result = dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.get(dataSetName).get(consistencyThreshold).get(useConditionGeneralization);
-				}
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof RulesKey)) {
+				return false;
 			}
+			RulesKey otherKey = (RulesKey)other;
+			return dataSetName.equals(otherKey.dataSetName) && Double.compare(consistencyThreshold, otherKey.consistencyThreshold) == 0
+					&& useConditionGeneralization == otherKey.useConditionGeneralization;
 		}
 		
-		return result;
+		@Override
+		public int hashCode() {
+			return 31 * (31 * dataSetName.hashCode() + Double.hashCode(consistencyThreshold)) + Boolean.hashCode(useConditionGeneralization);
+		}
+	}
+	
+	static final long bytesPerRule = 1024L; //approximate heap size of conditions, decisions, and characteristics of a single rule
+	static final long bytesPerCoveredObject = 12L; //approximate heap size of references to an object covered by a rule (index of the object, and its positive/neutral status)
+	static final double defaultHeapFraction = 0.2; //fraction of maximum heap size that may be occupied by cached rules, unless configured otherwise
+	
+	/**
+	 * Estimates heap size of given rules, assuming that each rule covers all learning objects.
+	 * 
+	 * @param rules rules together with their calculation time
+	 * @return estimated heap size of given rules [B]
+	 */
+	static long estimateWeight(RuleSetWithComputableCharacteristicsPlusCalculationTime rules) {
+		return rules.getRuleSet().size() * (bytesPerRule + bytesPerCoveredObject * rules.getNumberOfLearningObjects());
+	}
+	
+	//calculated rules, evicted when their estimated heap size exceeds the budget; rules being calculated are waited for instead of being calculated again
+	BoundedCache<RulesKey, RuleSetWithComputableCharacteristicsPlusCalculationTime> key2Rules = new BoundedCache<RulesKey, RuleSetWithComputableCharacteristicsPlusCalculationTime>(
+			"Rules memory cache", (long)(defaultHeapFraction * Runtime.getRuntime().maxMemory()), BoundedCache.EvictionPolicy.LRU, VCDomLEMModeRuleClassifierLearnerCache::estimateWeight);
+	
+	volatile RuleSetDiskCache diskCache = null; //persistent cache of rules consulted before rules are calculated; null = rules are not persisted
+	
+	LongAdder timeSaved = new LongAdder(); //total calculation time of rules taken from this cache instead of being calculated [ms]
+	
+	/**
+	 * Changes memory budget and eviction policy of this cache.
+	 * 
+	 * @param maxWeight maximum estimated heap size of strongly referenced rules [B]
+	 * @param evictionPolicy policy choosing rules to evict
+	 */
+	public void configure(long maxWeight, BoundedCache.EvictionPolicy evictionPolicy) {
+		key2Rules.configure(maxWeight, evictionPolicy);
+	}
+	
+	/**
+	 * Gets rules for given data set, consistency threshold, and condition generalization flag, calculating them only if they are neither stored in this cache,
+	 * nor being calculated by another thread (single-flight). If rules are being calculated by another thread, the calling thread waits for them.
+	 * If calculation fails, the exception is rethrown to the calculating thread and to all waiting threads, and nothing is stored in this cache,
+	 * so the next request calculates rules again.
+	 * 
+	 * @param dataSetName name of the data set
+	 * @param consistencyThreshold consistency threshold used to calculate rules
+	 * @param useConditionGeneralization tells if conditions of rules are generalized
+	 * @param rulesCalculator calculates rules, together with their calculation time, if they are not in this cache
+	 * @return rules taken from this cache, or calculated by given calculator
+	 */
+	public RuleSetWithComputableCharacteristicsPlusCalculationTime getRules(String dataSetName, double consistencyThreshold, boolean useConditionGeneralization,
+			Supplier<RuleSetWithComputableCharacteristicsPlusCalculationTime> rulesCalculator) {
+		RuleSetWithComputableCharacteristicsPlusCalculationTime[] calculatedRules = new RuleSetWithComputableCharacteristicsPlusCalculationTime[1]; //set only if rules are calculated by this thread
+		RuleSetWithComputableCharacteristicsPlusCalculationTime rules = key2Rules.get(new RulesKey(dataSetName, consistencyThreshold, useConditionGeneralization),
+				() -> calculatedRules[0] = rulesCalculator.get());
+		if (rules != calculatedRules[0]) {
+			timeSaved.add(rules.getCalculationTime());
+		}
+		return rules;
+	}
+	
+	public RuleSetWithComputableCharacteristicsPlusCalculationTime getRules(String dataSetName, double consistencyThreshold, boolean useConditionGeneralization) { //can return null
+		return key2Rules.get(new RulesKey(dataSetName, consistencyThreshold, useConditionGeneralization)); //rules being calculated are not returned
 	}
 	
 	public void putRules(String dataSetName, double consistencyThreshold, boolean useConditionGeneralization, RuleSetWithComputableCharacteristics rules,
 			long calculationTime, long informationTableTransformationTime) {
-		if (dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.containsKey(dataSetName)) {
-			if (dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.get(dataSetName).containsKey(consistencyThreshold)) {
-				dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.get(dataSetName).get(consistencyThreshold).put(useConditionGeneralization,
-						new RuleSetWithComputableCharacteristicsPlusCalculationTime(rules, calculationTime, informationTableTransformationTime));
-			} else { //no mapping for given consistency threshold
-				Map<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime> useConditionGeneralizationVSRulesMap = new HashMap<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime>();
-				useConditionGeneralizationVSRulesMap.put(useConditionGeneralization, new RuleSetWithComputableCharacteristicsPlusCalculationTime(rules, calculationTime, informationTableTransformationTime));
-				dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.get(dataSetName).put(consistencyThreshold, useConditionGeneralizationVSRulesMap);
-			}
-		} else { //no mapping for given data set name
-			Map<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime> useConditionGeneralizationVSRulesMap = new HashMap<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime>();
-			useConditionGeneralizationVSRulesMap.put(useConditionGeneralization, new RuleSetWithComputableCharacteristicsPlusCalculationTime(rules, calculationTime, informationTableTransformationTime));
-			Map<Double, Map<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime>> consistencyThreshold2UseConditionGeneralizationVSRulesMap = new HashMap<Double, Map<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime>>();
-			consistencyThreshold2UseConditionGeneralizationVSRulesMap.put(consistencyThreshold, useConditionGeneralizationVSRulesMap);
-			dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.put(dataSetName, consistencyThreshold2UseConditionGeneralizationVSRulesMap);
-		}
+		key2Rules.put(new RulesKey(dataSetName, consistencyThreshold, useConditionGeneralization),
+				new RuleSetWithComputableCharacteristicsPlusCalculationTime(rules, calculationTime, informationTableTransformationTime));
 	}
 	
 	public void clear() {
-		dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap = new HashMap<String, Map<Double, Map<Boolean, RuleSetWithComputableCharacteristicsPlusCalculationTime>>>(); //clear map to free memory
+		key2Rules.clear(); //clear map to free memory; threads waiting for rules being calculated still get them
 	}
 	
 	public void clear(String dataSetName) {
-		dataSetName2ConsistencyThreshold2UseConditionGeneralizationVSRulesMap.remove(dataSetName); //clears cache for the given data set name (leaving other mappings, i.e., for other fold train data)
+		key2Rules.removeIf(rulesKey -> rulesKey.dataSetName.equals(dataSetName)); //clears cache for the given data set name (leaving other mappings, i.e., for other fold train data)
 	}
-
+	
+	public void clearIf(Predicate<String> dataSetNameCondition) {
+		key2Rules.removeIf(rulesKey -> dataSetNameCondition.test(rulesKey.dataSetName)); //clears cache for all data set names satisfying the condition
+	}
+	
+	/**
+	 * Sets persistent cache of rules, consulted by {@link VCDomLEMModeRuleClassifierLearner} before rules are calculated.
+	 * 
+	 * @param diskCache persistent cache of rules, or {@code null} if rules should not be persisted
+	 */
+	public void setDiskCache(RuleSetDiskCache diskCache) {
+		this.diskCache = diskCache;
+	}
+	
+	public RuleSetDiskCache getDiskCache() {
+		return diskCache;
+	}
+	
+	public long getHitsCount() {
+		return key2Rules.getHitsCount();
+	}
+	
+	public long getMissesCount() {
+		return key2Rules.getMissesCount();
+	}
+	
+	public long getWaitsCount() {
+		return key2Rules.getWaitsCount();
+	}
+	
+	public long getEvictionsCount() {
+		return key2Rules.getEvictionsCount();
+	}
+	
+	/**
+	 * Gets total calculation time of rules taken from this cache instead of being calculated.
+	 * 
+	 * @return total time saved by using this cache [ms]
+	 */
+	public long getTimeSaved() {
+		return timeSaved.sum();
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder sb = (new StringBuilder("Rules cache: total time saved by using cache: ")).append(getTimeSaved()).append(" [ms]; ").append(key2Rules);
+		RuleSetDiskCache diskCache = this.diskCache;
+		if (diskCache != null) {
+			sb.append("; ").append(diskCache);
+		}
+		return sb.toString();
+	}
+	
 }
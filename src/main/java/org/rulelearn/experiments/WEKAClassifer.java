@@ -52,7 +52,7 @@ public class WEKAClassifer implements ClassificationModel {
 		}
 	}
 	
-	private class J48ModelDescriptionBuilder extends ModelDescriptionBuilder {
+	private static class J48ModelDescriptionBuilder extends ModelDescriptionBuilder {
 		/**
 		 * @throws ClassCastException if given array does not contain only {@link J48ModelDescription} objects.
 		 */
@@ -67,7 +67,7 @@ public class WEKAClassifer implements ClassificationModel {
 		}
 	}
 	
-	private class JRipModelDescriptionBuilder extends ModelDescriptionBuilder {
+	private static class JRipModelDescriptionBuilder extends ModelDescriptionBuilder {
 		/**
 		 * @throws ClassCastException if given array does not contain only {@link JRipModelDescription} objects.
 		 */
@@ -82,7 +82,7 @@ public class WEKAClassifer implements ClassificationModel {
 		}
 	}
 	
-	private class OLMModelDescriptionBuilder extends ModelDescriptionBuilder {
+	private static class OLMModelDescriptionBuilder extends ModelDescriptionBuilder {
 		/**
 		 * @throws ClassCastException if given array does not contain only {@link OLMModelDescription} objects.
 		 */
@@ -102,7 +102,9 @@ public class WEKAClassifer implements ClassificationModel {
 	 * 
 	 * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
 	 */
-	private class J48ModelDescription extends ModelDescription {
+	private static class J48ModelDescription extends ModelDescription {
+		private static final long serialVersionUID = 1L;
+		
 		long totalSize = 0L;
 		long totalNumLeaves = 0L;
 		
@@ -163,7 +165,9 @@ public class WEKAClassifer implements ClassificationModel {
 	 * 
 	 * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
 	 */
-	private class JRipModelDescription extends ModelDescription {
+	private static class JRipModelDescription extends ModelDescription {
+		private static final long serialVersionUID = 1L;
+		
 		long totalNumRules = 0L;
 		
 		public JRipModelDescription(String options, String trainedClassifier, long numRules) {
@@ -221,7 +225,9 @@ public class WEKAClassifer implements ClassificationModel {
 	 * 
 	 * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
 	 */
-	private class OLMModelDescription extends ModelDescription {
+	private static class OLMModelDescription extends ModelDescription {
+		private static final long serialVersionUID = 1L;
+		
 		long totalNumRules = 0L;
 		
 		public OLMModelDescription(String options, String trainedClassifier, long numRules) {
@@ -275,6 +281,8 @@ public class WEKAClassifer implements ClassificationModel {
 	}
 	
 	public static class ModelDescription extends ClassificationModel.ModelDescription {
+		private static final long serialVersionUID = 1L;
+		
 		String options;
 		String trainedClassifier = null;
 		boolean aggregated = false;
@@ -411,15 +419,16 @@ public class WEKAClassifer implements ClassificationModel {
 		
 		if (BatchExperiment.checkConsistencyOfTestDataDecisions) {
 			long start = System.currentTimeMillis();
+			TestDataConsistencyChecker consistencyChecker = new TestDataConsistencyChecker(testData); //dominance cones of test objects calculated once for all checked decisions
 			
 			classificationStatistics.totalNumberOfPreConsistentTestObjects =
-					ClassificationModel.getNumberOfConsistentObjects(testData.getInformationTable(), 0.0);
+					consistencyChecker.getNumberOfConsistentObjects(0.0);
 			classificationStatistics.totalNumberOfPostConsistentTestObjectsIfDecisionsAssignedByMainModelAndDefaultClass = -1L; //not used
 			classificationStatistics.totalNumberOfPostConsistentTestObjectsIfDecisionsAssignedByMainAndDefaultModel =
-					ClassificationModel.getNumberOfConsistentObjects(testData.getInformationTable(), assignedDecisions, 0.0);
+					consistencyChecker.getNumberOfConsistentObjects(assignedDecisions, 0.0);
 			classificationStatistics.totalNumberOfPreAndPostConsistentTestObjectsIfDecisionsAssignedByMainModelAndDefaultClass = -1L; //not used
 			classificationStatistics.totalNumberOfPreAndPostConsistentTestObjectsIfDecisionsAssignedByMainAndDefaultModel =
-					ClassificationModel.getNumberOfPreAndPostConsistentObjects(testData.getInformationTable(), assignedDecisions, 0.0);
+					consistencyChecker.getNumberOfPreAndPostConsistentObjects(assignedDecisions, 0.0);
 			
 			classificationStatistics.avgQualityOfClassification = (double)classificationStatistics.totalNumberOfPreConsistentTestObjects / classificationStatistics.totalNumberOfClassifiedObjects;
 			
@@ -6,6 +6,7 @@ package org.rulelearn.experiments;
 import java.util.function.Supplier;
 
 import org.rulelearn.experiments.ClassificationModel.ModelLearningStatistics;
+import org.rulelearn.experiments.Data.FilteredInstances;
 
 import weka.classifiers.AbstractClassifier;
 import weka.core.Instances;
@@ -27,7 +28,7 @@ public class WEKAClassifierLearner extends AbstractLearningAlgorithm {
 
 	@Override
 	public WEKAClassifer learn(Data data, LearningAlgorithmDataParameters parameters) { //parameters can be null, if not used (i.e., WEKA algorithm is used with default options)
-		Instances train = InformationTable2Instances.convert(data.getInformationTable(), data.getName());
+		Instances train = null;
 		AbstractClassifier wekaClassifier = wekaClassifierProvider.get();
 		
 		Filter[] filters = null;
@@ -43,15 +44,18 @@ public class WEKAClassifierLearner extends AbstractLearningAlgorithm {
 				
 				if (filtersProvider != null) {
 					filters = filtersProvider.get();
-					if (filters != null) { //there may be some filters
-						for (Filter filter : filters) { //use subsequent filters, if there are any filters meant to be used (array is not empty)
-							filter.setInputFormat(train);
-							train = Filter.useFilter(train, filter);
-						}
+					if (filters != null && filters.length > 0) { //there may be some filters
+						FilteredInstances filteredInstances = data.getFilteredInstances(filters); //filtered train data shared by all learners using the same chain of filters
+						train = filteredInstances.getInstancesCopy();
+						filters = filteredInstances.getFiltersCopy(); //each model applies its own copy of trained filters
 					}
 				}
 			}
 			
+			if (train == null) { //no filters used
+				train = data.getInstancesCopy(); //converted train data shared by all learners, copied as the classifier may modify it
+			}
+			
 			wekaClassifier.buildClassifier(train); //train the classifier
 		} catch (Exception exception) {
 			exception.printStackTrace();
@@ -68,7 +72,7 @@ public class WEKAClassifierLearner extends AbstractLearningAlgorithm {
 		if (numberOfConsistentLearningObjectsObj != null) { //number of objects already in cache
 			numberOfConsistentLearningObjects = numberOfConsistentLearningObjectsObj.intValue();
 		} else { //number of objects not yet in cache
-			numberOfConsistentLearningObjects = ClassificationModel.getNumberOfConsistentObjects(data.getInformationTable(), 0.0);
+			numberOfConsistentLearningObjects = ClassificationModel.getNumberOfConsistentObjects(data, 0.0);
 			NumberOfConsistentObjectsCache.getInstance().putNumberOfConsistentObjects(data.getName(), 0.0, numberOfConsistentLearningObjects); //store calculated number of objects in cache
 		}
 		
@@ -0,0 +1,84 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import org.rulelearn.experiments.BatchExperimentResults.CVSelector;
+import org.rulelearn.experiments.BatchExperimentResults.DataAlgorithmParametersSelector;
+
+/**
+ * Single unit of work of a {@link BatchExperiment}, i.e., learning and validation of one parameterized algorithm on one cross-validation fold of one data set,
+ * or on full data set (then, both cross-validation number and fold index are equal to -1).
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class WorkUnit {
+	
+	int dataSetNumber;
+	int crossValidationNumber;
+	int foldIndex;
+	int learningAlgorithmNumber;
+	int parametersNumber;
+	
+	LearningAlgorithm algorithm;
+	LearningAlgorithmDataParameters parameters; //can be null (default parameters)
+	
+	public WorkUnit(int dataSetNumber, int crossValidationNumber, int foldIndex, int learningAlgorithmNumber, int parametersNumber,
+			LearningAlgorithm algorithm, LearningAlgorithmDataParameters parameters) {
+		this.dataSetNumber = dataSetNumber;
+		this.crossValidationNumber = crossValidationNumber;
+		this.foldIndex = foldIndex;
+		this.learningAlgorithmNumber = learningAlgorithmNumber;
+		this.parametersNumber = parametersNumber;
+		this.algorithm = algorithm;
+		this.parameters = parameters;
+	}
+	
+	public int getDataSetNumber() {
+		return dataSetNumber;
+	}
+	
+	public int getCrossValidationNumber() {
+		return crossValidationNumber;
+	}
+	
+	public int getFoldIndex() {
+		return foldIndex;
+	}
+	
+	public int getLearningAlgorithmNumber() {
+		return learningAlgorithmNumber;
+	}
+	
+	public int getParametersNumber() {
+		return parametersNumber;
+	}
+	
+	public boolean isFullDataUnit() {
+		return crossValidationNumber < 0;
+	}
+	
+	public LearningAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+	
+	public LearningAlgorithmDataParameters getParameters() {
+		return parameters;
+	}
+	
+	public DataAlgorithmParametersSelector getSelector() {
+		return (new DataAlgorithmParametersSelector())
+				.dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber);
+	}
+	
+	public CVSelector getCVSelector() {
+		return (new CVSelector())
+				.dataSetNumber(dataSetNumber).learningAlgorithmNumber(learningAlgorithmNumber).parametersNumber(parametersNumber).crossValidationNumber(crossValidationNumber);
+	}
+	
+	@Override
+	public String toString() {
+		return "data #"+dataSetNumber+", CV #"+crossValidationNumber+", fold #"+foldIndex+", "+algorithm.getName()+"("+parameters+")";
+	}
+	
+}
@@ -0,0 +1,171 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Learned model of costs (calculation times) of {@link WorkUnit work units}. For each (data set, algorithm with parameters) pair, stores total training and validation time
+ * together with total number of training objects, and estimates cost of a work unit assuming that cost grows linearly with the number of training objects.
+ * If there is no record for a given data set, estimation is based on costs recorded for the same algorithm with parameters and any data set.<br>
+ * <br>
+ * Costs can be saved to and loaded from a text file, so they are available in subsequent runs of a {@link BatchExperiment}.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class WorkUnitCostModel {
+	
+	static final String SEPARATOR = "\t";
+	static final String DATA_SIZE_RECORD = "#data-size";
+	
+	/**
+	 * Cumulated costs of work units.
+	 */
+	static class Cost {
+		long totalTrainingTime = 0L; //[ms]
+		long totalValidationTime = 0L; //[ms]
+		long totalNumberOfObjects = 0L; //total number of training objects
+		int count = 0; //number of recorded work units
+		
+		void add(long trainingTime, long validationTime, long numberOfObjects, int count) {
+			this.totalTrainingTime += trainingTime;
+			this.totalValidationTime += validationTime;
+			this.totalNumberOfObjects += numberOfObjects;
+			this.count += count;
+		}
+		
+		double getCostPerObject() {
+			return totalNumberOfObjects > 0 ? (double)(totalTrainingTime + totalValidationTime) / totalNumberOfObjects : (double)(totalTrainingTime + totalValidationTime) / count;
+		}
+	}
+	
+	Map<String, Cost> dataAlgorithm2Cost = new HashMap<String, Cost>(); //maps "data-name|algorithm-name(parameters)" to cost
+	Map<String, Cost> algorithm2Cost = new HashMap<String, Cost>(); //maps "algorithm-name(parameters)" to cost summed over all data sets
+	Map<String, Integer> dataName2NumberOfObjects = new HashMap<String, Integer>(); //remembers size of full data sets, used to estimate costs before data are loaded
+	Set<String> loadedFilePaths = new HashSet<String>(); //files already loaded, so a model shared by several experiments does not count loaded costs twice
+	
+	static String getAlgorithmKey(WorkUnit workUnit) {
+		return workUnit.getAlgorithm().getName()+"("+workUnit.getParameters()+")";
+	}
+	
+	static String getDataAlgorithmKey(String dataName, String algorithmKey) {
+		return dataName+"|"+algorithmKey;
+	}
+	
+	/**
+	 * Records calculation times of a finished work unit.
+	 * 
+	 * @param dataName name of the data set (data provider) the work unit concerns
+	 * @param workUnit finished work unit
+	 * @param numberOfTrainingObjects number of objects the model has been learned from
+	 * @param trainingTime training time [ms]
+	 * @param validationTime validation time [ms]
+	 */
+	public synchronized void record(String dataName, WorkUnit workUnit, int numberOfTrainingObjects, long trainingTime, long validationTime) {
+		String algorithmKey = getAlgorithmKey(workUnit);
+		add(getDataAlgorithmKey(dataName, algorithmKey), algorithmKey, trainingTime, validationTime, numberOfTrainingObjects, 1);
+	}
+	
+	private void add(String dataAlgorithmKey, String algorithmKey, long trainingTime, long validationTime, long numberOfObjects, int count) {
+		dataAlgorithm2Cost.computeIfAbsent(dataAlgorithmKey, key -> new Cost()).add(trainingTime, validationTime, numberOfObjects, count);
+		algorithm2Cost.computeIfAbsent(algorithmKey, key -> new Cost()).add(trainingTime, validationTime, numberOfObjects, count);
+	}
+	
+	public synchronized void recordDataSize(String dataName, int numberOfObjects) {
+		dataName2NumberOfObjects.put(dataName, numberOfObjects);
+	}
+	
+	/**
+	 * Gets remembered number of objects in given full data set.
+	 * 
+	 * @param dataName name of the data set
+	 * @return remembered number of objects, or -1 if the size of given data set is not known
+	 */
+	public synchronized int getDataSize(String dataName) {
+		Integer numberOfObjects = dataName2NumberOfObjects.get(dataName);
+		return numberOfObjects != null ? numberOfObjects.intValue() : -1;
+	}
+	
+	/**
+	 * Estimates cost of given work unit.
+	 * 
+	 * @param dataName name of the data set (data provider) the work unit concerns
+	 * @param workUnit the work unit
+	 * @param numberOfTrainingObjects number of objects the model is going to be learned from
+	 * @return estimated cost [ms], or -1 if there is no record concerning the algorithm with parameters of given work unit
+	 */
+	public synchronized long estimate(String dataName, WorkUnit workUnit, int numberOfTrainingObjects) {
+		String algorithmKey = getAlgorithmKey(workUnit);
+		Cost cost = dataAlgorithm2Cost.get(getDataAlgorithmKey(dataName, algorithmKey));
+		if (cost == null) {
+			cost = algorithm2Cost.get(algorithmKey);
+		}
+		return cost != null ? Math.round(cost.getCostPerObject() * numberOfTrainingObjects) : -1L;
+	}
+	
+	/**
+	 * Loads costs recorded in given file, if it exists. Loaded costs are added to costs already stored in this model.
+	 * Loading the same file again has no effect.
+	 * 
+	 * @param filePath path to file with costs
+	 * @throws IOException if file exists but cannot be read
+	 */
+	public synchronized void load(String filePath) throws IOException {
+		Path path = Paths.get(filePath);
+		if (!Files.exists(path) || !loadedFilePaths.add(filePath)) {
+			return;
+		}
+		
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split(SEPARATOR);
+				if (fields.length == 3 && fields[0].equals(DATA_SIZE_RECORD)) {
+					dataName2NumberOfObjects.put(fields[1], Integer.valueOf(fields[2]));
+				} else if (fields.length == 6) { //data name, algorithm key, training time, validation time, number of objects, count
+					add(getDataAlgorithmKey(fields[0], fields[1]), fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]), Integer.parseInt(fields[5]));
+				} //skip other (e.g., malformed) lines
+			}
+		}
+	}
+	
+	/**
+	 * Saves costs stored in this model to given file. The file is first written under a temporary name, and then moved, so a crash cannot leave it half-written.
+	 * 
+	 * @param filePath path to file with costs
+	 * @throws IOException if file cannot be written
+	 */
+	public synchronized void save(String filePath) throws IOException {
+		Path path = Paths.get(filePath);
+		Path temporaryPath = Paths.get(filePath+".tmp");
+		
+		try (BufferedWriter writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, Integer> entry : dataName2NumberOfObjects.entrySet()) {
+				writer.write(DATA_SIZE_RECORD + SEPARATOR + entry.getKey() + SEPARATOR + entry.getValue());
+				writer.newLine();
+			}
+			for (Map.Entry<String, Cost> entry : dataAlgorithm2Cost.entrySet()) {
+				int separatorIndex = entry.getKey().indexOf('|');
+				Cost cost = entry.getValue();
+				writer.write(entry.getKey().substring(0, separatorIndex) + SEPARATOR + entry.getKey().substring(separatorIndex + 1) + SEPARATOR
+						+ cost.totalTrainingTime + SEPARATOR + cost.totalValidationTime + SEPARATOR + cost.totalNumberOfObjects + SEPARATOR + cost.count);
+				writer.newLine();
+			}
+		}
+		
+		Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+}
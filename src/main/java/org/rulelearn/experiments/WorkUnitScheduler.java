@@ -0,0 +1,306 @@
+/**
+ * 
+ */
+package org.rulelearn.experiments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.rulelearn.core.InvalidValueException;
+
+/**
+ * Runs units of work of a {@link BatchExperiment} (fold data preparation, learning and validation of parameterized algorithms, aggregation of results)
+ * on a dedicated pool of threads of fixed size. Dependencies between units are expressed by {@link CompletableFuture completable futures},
+ * so a unit is queued for execution only when all the units it depends on are finished.<br>
+ * <br>
+ * The scheduler counts units that have been scheduled but not started yet. This allows a feeding thread to {@link #awaitFreeCapacity() wait}
+ * until the already scheduled work is almost entirely taken by the worker threads, and only then to schedule more work
+ * (e.g., the next cross-validation), so all threads are kept busy while memory occupied by prepared data stays bounded.<br>
+ * <br>
+ * Units ready to run are taken from the queue in the order of decreasing estimated cost (longest processing time first), so expensive units
+ * do not start last and stretch the total calculation time. Units submitted without estimated cost (e.g., preparation of fold data,
+ * on which other units depend) are run before all other units. Units with equal estimated costs are run in the order of submission.<br>
+ * <br>
+ * If a {@link MemoryAdmissionController memory admission controller} is used, a unit with estimated heap footprint is started only if the controller admits it,
+ * so the number of units running in parallel adapts to available heap memory. A unit that is not admitted is deferred, and the worker thread takes another unit
+ * (e.g., a unit without footprint, on which other units depend). Deferred units are queued again, with their priorities, when a unit finishes or GC frees memory.
+ * 
+ * @author Marcin Szeląg (<a href="mailto:marcin.szelag@cs.put.poznan.pl">marcin.szelag@cs.put.poznan.pl</a>)
+ */
+public class WorkUnitScheduler {
+	
+	/**
+	 * Estimated cost of units submitted without estimated cost, making them run before all other units.
+	 */
+	public static final long PREREQUISITE_UNIT_COST = Long.MAX_VALUE;
+	/**
+	 * Estimated cost of units whose cost cannot be estimated (e.g., because there are no records from previous runs).
+	 * Such units are run before units with known cost, as they may turn out to be the most expensive ones.
+	 */
+	public static final long UNKNOWN_COST = Long.MAX_VALUE - 1;
+	
+	/**
+	 * Unit queued for execution, ordered by decreasing estimated cost, and then by increasing sequence number.
+	 * Unit is run with the {@link ExperimentReporter#current() reporter} of the thread that queued it, so reports of experiments sharing this scheduler do not mix.
+	 * Unit with estimated heap footprint is run only if admitted by memory admission controller, and deferred otherwise.
+	 */
+	class PrioritizedUnit implements Runnable, Comparable<PrioritizedUnit> {
+		Runnable runnable;
+		long estimatedCost;
+		long estimatedFootprint; //zero if the unit is started without asking memory admission controller
+		long sequenceNumber;
+		ExperimentReporter reporter;
+		
+		PrioritizedUnit(Runnable runnable, long estimatedCost, long estimatedFootprint, long sequenceNumber) {
+			this.runnable = runnable;
+			this.estimatedCost = estimatedCost;
+			this.estimatedFootprint = estimatedFootprint;
+			this.sequenceNumber = sequenceNumber;
+			this.reporter = ExperimentReporter.current.get();
+		}
+		
+		@Override
+		public void run() {
+			long admissionSampleNumber = -1L;
+			if (memoryAdmissionController != null && estimatedFootprint > 0L) {
+				admissionSampleNumber = memoryAdmissionController.tryAdmit(estimatedFootprint);
+				if (admissionSampleNumber < 0L) {
+					defer(this); //unit is not counted as started until admitted, so no more work is scheduled meanwhile
+					return;
+				}
+			}
+			
+			ExperimentReporter previousReporter = ExperimentReporter.current.get();
+			ExperimentReporter.setCurrent(reporter);
+			try {
+				runnable.run();
+			} finally {
+				ExperimentReporter.setCurrent(previousReporter);
+				if (admissionSampleNumber >= 0L) {
+					memoryAdmissionController.release(estimatedFootprint, admissionSampleNumber);
+					requeueDeferredUnits();
+				}
+			}
+		}
+		
+		@Override
+		public int compareTo(PrioritizedUnit other) {
+			int result = Long.compare(other.estimatedCost, estimatedCost); //more expensive first
+			return result != 0 ? result : Long.compare(sequenceNumber, other.sequenceNumber);
+		}
+	}
+	
+	int numberOfThreads;
+	ThreadPoolExecutor executor;
+	MemoryAdmissionController memoryAdmissionController = null; //null if units are admitted regardless of heap usage
+	AtomicInteger pendingUnitsCount = new AtomicInteger(0); //number of scheduled units that have not been started yet
+	final Object pendingUnitsLock = new Object();
+	AtomicLong sequenceNumber = new AtomicLong(0L); //number of units queued so far, used to keep submission order among units with equal costs
+	List<PrioritizedUnit> deferredUnits = new ArrayList<PrioritizedUnit>(); //units not admitted by memory admission controller, waiting until memory may be freed
+	
+	/**
+	 * Constructs this scheduler.
+	 * 
+	 * @param numberOfThreads number of worker threads
+	 * @throws InvalidValueException if given number of threads is not positive
+	 */
+	public WorkUnitScheduler(int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new InvalidValueException("Number of worker threads should be positive.");
+		}
+		this.numberOfThreads = numberOfThreads;
+		
+		AtomicInteger threadNumber = new AtomicInteger(0);
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "work-unit-"+threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+		this.executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), threadFactory);
+	}
+	
+	/**
+	 * Constructs this scheduler, which starts units only when admitted by given memory admission controller.
+	 * 
+	 * @param numberOfThreads number of worker threads
+	 * @param memoryAdmissionController controller admitting units depending on heap usage
+	 * @throws InvalidValueException if given number of threads is not positive
+	 */
+	public WorkUnitScheduler(int numberOfThreads, MemoryAdmissionController memoryAdmissionController) {
+		this(numberOfThreads);
+		this.memoryAdmissionController = memoryAdmissionController;
+		memoryAdmissionController.setMemoryFreedListener(this::requeueDeferredUnits);
+	}
+	
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+	
+	/**
+	 * Schedules a unit that does not depend on any other unit, with the highest priority.
+	 * 
+	 * @param unit the unit to run
+	 * @return future completed with the result of the unit
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> unit) {
+		return submit(unit, PREREQUISITE_UNIT_COST);
+	}
+	
+	/**
+	 * Schedules a unit that does not depend on any other unit.
+	 * 
+	 * @param unit the unit to run
+	 * @param estimatedCost estimated cost of the unit (e.g., calculation time in [ms]); negative value means that the cost is unknown
+	 * @return future completed with the result of the unit
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> unit, long estimatedCost) {
+		return submit(unit, estimatedCost, 0L);
+	}
+	
+	/**
+	 * Schedules a unit that does not depend on any other unit.
+	 * 
+	 * @param unit the unit to run
+	 * @param estimatedCost estimated cost of the unit (e.g., calculation time in [ms]); negative value means that the cost is unknown
+	 * @param estimatedFootprint estimated heap footprint of the unit [B]; zero means that the unit is started without asking memory admission controller
+	 * @return future completed with the result of the unit
+	 */
+	public <T> CompletableFuture<T> submit(Supplier<T> unit, long estimatedCost, long estimatedFootprint) {
+		pendingUnitsCount.incrementAndGet();
+		return CompletableFuture.supplyAsync(() -> {
+			return run(unit);
+		}, prioritizedExecutor(estimatedCost, estimatedFootprint));
+	}
+	
+	/**
+	 * Schedules a unit that is run once given dependency is completed, with the highest priority. If the dependency completes exceptionally, the unit is not run,
+	 * and the returned future completes exceptionally too.
+	 * 
+	 * @param dependency future whose result is passed to the unit
+	 * @param unit the unit to run
+	 * @return future completed with the result of the unit
+	 */
+	public <S, T> CompletableFuture<T> submitAfter(CompletableFuture<S> dependency, Function<S, T> unit) {
+		return submitAfter(dependency, unit, PREREQUISITE_UNIT_COST);
+	}
+	
+	/**
+	 * Schedules a unit that is run once given dependency is completed. If the dependency completes exceptionally, the unit is not run,
+	 * and the returned future completes exceptionally too.
+	 * 
+	 * @param dependency future whose result is passed to the unit
+	 * @param unit the unit to run
+	 * @param estimatedCost estimated cost of the unit (e.g., calculation time in [ms]); negative value means that the cost is unknown
+	 * @return future completed with the result of the unit
+	 */
+	public <S, T> CompletableFuture<T> submitAfter(CompletableFuture<S> dependency, Function<S, T> unit, long estimatedCost) {
+		return submitAfter(dependency, unit, estimatedCost, 0L);
+	}
+	
+	/**
+	 * Schedules a unit that is run once given dependency is completed. If the dependency completes exceptionally, the unit is not run,
+	 * and the returned future completes exceptionally too.
+	 * 
+	 * @param dependency future whose result is passed to the unit
+	 * @param unit the unit to run
+	 * @param estimatedCost estimated cost of the unit (e.g., calculation time in [ms]); negative value means that the cost is unknown
+	 * @param estimatedFootprint estimated heap footprint of the unit [B]; zero means that the unit is started without asking memory admission controller
+	 * @return future completed with the result of the unit
+	 */
+	public <S, T> CompletableFuture<T> submitAfter(CompletableFuture<S> dependency, Function<S, T> unit, long estimatedCost, long estimatedFootprint) {
+		pendingUnitsCount.incrementAndGet();
+		return dependency.handleAsync((value, throwable) -> {
+			if (throwable != null) {
+				unitStarted();
+				throw (throwable instanceof CompletionException) ? (CompletionException)throwable : new CompletionException(throwable);
+			}
+			return run(() -> unit.apply(value));
+		}, prioritizedExecutor(estimatedCost, estimatedFootprint));
+	}
+	
+	private <T> T run(Supplier<T> unit) {
+		unitStarted();
+		return unit.get();
+	}
+	
+	private Executor prioritizedExecutor(long estimatedCost, long estimatedFootprint) {
+		long priority = estimatedCost >= 0 ? estimatedCost : UNKNOWN_COST;
+		return runnable -> executor.execute(new PrioritizedUnit(runnable, priority, estimatedFootprint, sequenceNumber.getAndIncrement()));
+	}
+	
+	/**
+	 * Defers given unit, not admitted by memory admission controller. If all admitted units have finished in the meantime, the unit is queued again at once,
+	 * as no finishing unit would do it.
+	 * 
+	 * @param unit the deferred unit
+	 */
+	private void defer(PrioritizedUnit unit) {
+		synchronized (deferredUnits) {
+			deferredUnits.add(unit);
+		}
+		if (memoryAdmissionController.getRunningUnitsCount() == 0) {
+			requeueDeferredUnits();
+		}
+	}
+	
+	/**
+	 * Queues all deferred units again, as memory may have been freed. Units keep their priorities, so the most expensive ones are tried first.
+	 */
+	private void requeueDeferredUnits() {
+		List<PrioritizedUnit> requeuedUnits;
+		synchronized (deferredUnits) {
+			if (deferredUnits.isEmpty()) {
+				return;
+			}
+			requeuedUnits = new ArrayList<PrioritizedUnit>(deferredUnits);
+			deferredUnits.clear();
+		}
+		for (PrioritizedUnit unit : requeuedUnits) {
+			executor.execute(unit);
+		}
+	}
+	
+	private void unitStarted() {
+		if (pendingUnitsCount.decrementAndGet() <= numberOfThreads) {
+			synchronized (pendingUnitsLock) {
+				pendingUnitsLock.notifyAll();
+			}
+		}
+	}
+	
+	/**
+	 * Blocks the calling thread until the number of scheduled but not started units drops to the number of worker threads.
+	 * Then, scheduling more work will not leave any worker idle.
+	 */
+	public void awaitFreeCapacity() {
+		synchronized (pendingUnitsLock) {
+			while (pendingUnitsCount.get() > numberOfThreads) {
+				try {
+					pendingUnitsLock.wait();
+				} catch (InterruptedException exception) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stops worker threads once all already queued units are finished.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+}
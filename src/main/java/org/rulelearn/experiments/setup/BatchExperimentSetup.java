@@ -50,6 +50,15 @@ public abstract class BatchExperimentSetup {
 		return dataProcessorProvider;
 	}
 	
+	/**
+	 * Gets name of this setup, distinguishing results of this setup from results of other setups (e.g., in an experiment journal).
+	 * 
+	 * @return name of this setup
+	 */
+	public String getName() {
+		return getClass().getSimpleName()+"("+dataProcessorProvider+")";
+	}
+	
 	public List<LearningAlgorithm> getLearningAlgorithmsForOriginalData() {
 		List<LearningAlgorithm> learningAlgorithms = new ArrayList<LearningAlgorithm>();
 		learningAlgorithms.add(new VCDomLEMModeRuleClassifierLearner());
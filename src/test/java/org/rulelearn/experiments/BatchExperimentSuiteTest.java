@@ -0,0 +1,80 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.rulelearn.experiments.setup.BatchExperimentSetup;
+
+class BatchExperimentSuiteTest {
+	
+	BatchExperimentSetup getSetup(String... dataNames) {
+		List<DataProvider> dataProviders = new ArrayList<DataProvider>();
+		for (String dataName : dataNames) {
+			DataProvider dataProvider = Mockito.mock(DataProvider.class);
+			Mockito.when(dataProvider.getDataName()).thenReturn(dataName);
+			dataProviders.add(dataProvider);
+		}
+		BatchExperimentSetup batchExperimentSetup = Mockito.mock(BatchExperimentSetup.class);
+		Mockito.when(batchExperimentSetup.getDataProviders()).thenReturn(dataProviders);
+		return batchExperimentSetup;
+	}
+	
+	@Test
+	void testGetLanes01() { //setups with disjoint names of data sets are run in separate lanes
+		BatchExperimentSetup setup0 = getSetup("monuments");
+		BatchExperimentSetup setup1 = getSetup("churn", "bank");
+		BatchExperimentSetup setup2 = getSetup("credit");
+		
+		List<List<BatchExperimentSetup>> lanes = BatchExperimentSuite.getLanes(new BatchExperimentSetup[] {setup0, setup1, setup2});
+		
+		assertEquals(Arrays.asList(Arrays.asList(setup0), Arrays.asList(setup1), Arrays.asList(setup2)), lanes);
+	}
+	
+	@Test
+	void testGetLanes02() { //setups sharing names of data sets, also indirectly, are run in one lane, in the given order
+		BatchExperimentSetup setup0 = getSetup("monuments", "churn");
+		BatchExperimentSetup setup1 = getSetup("credit");
+		BatchExperimentSetup setup2 = getSetup("bank", "monuments");
+		BatchExperimentSetup setup3 = getSetup("credit2");
+		BatchExperimentSetup setup4 = getSetup("churn");
+		BatchExperimentSetup setup5 = getSetup("bank", "credit");
+		
+		List<List<BatchExperimentSetup>> lanes = BatchExperimentSuite.getLanes(new BatchExperimentSetup[] {setup0, setup1, setup2, setup3, setup4, setup5});
+		
+		assertEquals(2, lanes.size());
+		assertEquals(Arrays.asList(setup3), lanes.get(0));
+		assertEquals(Arrays.asList(setup0, setup1, setup2, setup4, setup5), lanes.get(1));
+	}
+	
+	@Test
+	void testGetLanes03() { //setups using names of data sets derived from each other are run in one lane
+		BatchExperimentSetup setup0 = getSetup("monuments");
+		BatchExperimentSetup setup1 = getSetup("monuments_balanced");
+		BatchExperimentSetup setup2 = getSetup("monuments2");
+		
+		List<List<BatchExperimentSetup>> lanes = BatchExperimentSuite.getLanes(new BatchExperimentSetup[] {setup0, setup1, setup2});
+		
+		assertEquals(Arrays.asList(Arrays.asList(setup0, setup1), Arrays.asList(setup2)), lanes);
+	}
+	
+	@Test
+	void testGetLanes04() {
+		assertTrue(BatchExperimentSuite.getLanes(new BatchExperimentSetup[0]).isEmpty());
+	}
+	
+	@Test
+	void testSharesDataName() {
+		assertTrue(BatchExperimentSuite.sharesDataName(new HashSet<String>(Arrays.asList("a", "b")), new HashSet<String>(Arrays.asList("c", "b"))));
+		assertTrue(BatchExperimentSuite.sharesDataName(new HashSet<String>(Arrays.asList("a")), new HashSet<String>(Arrays.asList("a_0_train_1"))));
+		assertFalse(BatchExperimentSuite.sharesDataName(new HashSet<String>(Arrays.asList("a")), new HashSet<String>(Arrays.asList("ab", "b_a"))));
+	}
+	
+}
@@ -0,0 +1,163 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.rulelearn.data.Decision;
+import org.rulelearn.experiments.BatchExperimentResults.CVSelector;
+import org.rulelearn.experiments.BatchExperimentResults.DataAlgorithmParametersSelector;
+import org.rulelearn.experiments.ModelValidationResult.ClassificationStatistics;
+import org.rulelearn.experiments.ModelValidationResult.ClassifierType;
+import org.rulelearn.experiments.ModelValidationResult.DefaultClassificationType;
+import org.rulelearn.validation.OrdinalMisclassificationMatrix;
+
+class BatchExperimentTest {
+	
+	static final int numberOfFolds = 10;
+	static final int crossValidationsCount = 4;
+	
+	ModelValidationResult getModelValidationResult(int correctCount) { //correctCount of 100 test objects classified correctly
+		ClassificationStatistics classificationStatistics = new ClassificationStatistics(DefaultClassificationType.USING_DEFAULT_CLASS, ClassifierType.VCDRSA_RULES_CLASSIFIER);
+		classificationStatistics.preciseCorrectCount = correctCount;
+		classificationStatistics.preciseIncorrectCount = 100 - correctCount;
+		return new ModelValidationResult(Mockito.mock(OrdinalMisclassificationMatrix.class), classificationStatistics, null, null);
+	}
+	
+	DataAlgorithmParametersSelector getSelector(int parametersNumber) {
+		return (new DataAlgorithmParametersSelector()).dataSetNumber(0).learningAlgorithmNumber(0).parametersNumber(parametersNumber);
+	}
+	
+	CVSelector getCVSelector(int parametersNumber, int crossValidationNumber) {
+		return (new CVSelector()).dataSetNumber(0).learningAlgorithmNumber(0).parametersNumber(parametersNumber).crossValidationNumber(crossValidationNumber);
+	}
+	
+	IntUnaryOperator[] foldNumber2CorrectCount = new IntUnaryOperator[] {
+			foldNumber -> 90 + foldNumber % 3, //close to the best parameters
+			foldNumber -> 90 + (foldNumber + 1) % 3, //the best parameters
+			foldNumber -> 60 + foldNumber % 3}; //significantly worse than the best parameters
+	
+	DataProvider getDataProvider() {
+		DataProvider dataProvider = Mockito.mock(DataProvider.class);
+		Mockito.when(dataProvider.getDataName()).thenReturn("data");
+		Mockito.when(dataProvider.getNumberOfFolds()).thenReturn(numberOfFolds);
+		Mockito.when(dataProvider.getSeeds()).thenReturn(new long[crossValidationsCount]);
+		return dataProvider;
+	}
+	
+	BatchExperiment getBatchExperiment(DataProvider dataProvider) {
+		LearningAlgorithm algorithm = Mockito.mock(LearningAlgorithm.class);
+		Mockito.when(algorithm.getName()).thenReturn("algorithm");
+		List<LearningAlgorithmDataParameters> parametersList = new ArrayList<LearningAlgorithmDataParameters>();
+		for (int parametersNumber = 0; parametersNumber < 3; parametersNumber++) {
+			parametersList.add(Mockito.mock(LearningAlgorithmDataParameters.class));
+		}
+		return new BatchExperiment(Arrays.asList(dataProvider), new RepeatableCrossValidationProvider(), new AcceptingDataProcessorProvider(),
+				Arrays.asList(algorithm), (new LearningAlgorithmDataParametersContainer()).putParameters("algorithm", "data", parametersList));
+	}
+	
+	Decision[] orderOfDecisions = new Decision[] {Mockito.mock(Decision.class), Mockito.mock(Decision.class)};
+	
+	void storeCrossValidation(BatchExperimentResults results, int parametersNumber, int crossValidationNumber, int missingFoldIndex) { //missingFoldIndex = -1 => all folds are stored
+		results.initializeFoldResults(getCVSelector(parametersNumber, crossValidationNumber), orderOfDecisions, numberOfFolds);
+		for (int foldIndex = 0; foldIndex < numberOfFolds; foldIndex++) {
+			if (foldIndex != missingFoldIndex) {
+				results.storeFoldModelValidationResult(getCVSelector(parametersNumber, crossValidationNumber), foldIndex,
+						getModelValidationResult(foldNumber2CorrectCount[parametersNumber].applyAsInt(crossValidationNumber * numberOfFolds + foldIndex)));
+			}
+		}
+	}
+	
+	BatchExperimentResults getResults() { //first two cross-validations are done
+		BatchExperimentResults results = (new BatchExperimentResults.Builder())
+				.dataSetsCount(1).learningAlgorithmsCount(1).maxParametersCount(3).maxCrossValidationsCount(crossValidationsCount).build();
+		
+		for (int parametersNumber = 0; parametersNumber < 3; parametersNumber++) {
+			for (int crossValidationNumber = 0; crossValidationNumber < crossValidationsCount; crossValidationNumber++) {
+				results.initializeFoldResults(getCVSelector(parametersNumber, crossValidationNumber), orderOfDecisions, numberOfFolds);
+			}
+			for (int crossValidationNumber = 0; crossValidationNumber < 2; crossValidationNumber++) { //first two cross-validations are done
+				storeCrossValidation(results, parametersNumber, crossValidationNumber, -1);
+			}
+		}
+		return results;
+	}
+	
+	@Test
+	void testRaceParameters01() { //parameters significantly worse than the best ones are dropped after given number of cross-validations
+		DataProvider dataProvider = getDataProvider();
+		BatchExperiment batchExperiment = getBatchExperiment(dataProvider);
+		BatchExperimentResults results = getResults();
+		
+		batchExperiment.raceParameters(dataProvider, 0, 2, results);
+		
+		assertFalse(results.isDropped(getSelector(0)));
+		assertFalse(results.isDropped(getSelector(1)));
+		assertTrue(results.isDropped(getSelector(2)));
+		assertEquals(2, results.getCrossValidationsCountBeforeDrop(getSelector(2)));
+		assertEquals(-1, results.getCrossValidationsCountBeforeDrop(getSelector(0)));
+		
+		assertNotNull(results.foldsResults[0][0][2][1]); //results of done cross-validations are kept
+		assertNull(results.foldsResults[0][0][2][2]); //results of remaining cross-validations are removed
+		assertNull(results.foldsResults[0][0][2][3]);
+		assertNotNull(results.foldsResults[0][0][0][2]);
+		
+		batchExperiment.raceParameters(dataProvider, 0, 2, results); //dropped parameters do not take part in the next round
+		
+		assertFalse(results.isDropped(getSelector(0)));
+		assertEquals(2, results.getCrossValidationsCountBeforeDrop(getSelector(2)));
+	}
+	
+	@Test
+	void testRaceParameters02() { //cross-validation lacking result of a fold (e.g., because a work unit has failed) is not used to pair fold accuracies
+		DataProvider dataProvider = getDataProvider();
+		BatchExperiment batchExperiment = getBatchExperiment(dataProvider);
+		BatchExperimentResults results = getResults();
+		storeCrossValidation(results, 0, 1, 3); //result of a fold of the second cross-validation is missing
+		
+		assertFalse(results.isCrossValidationComplete(getCVSelector(0, 1)));
+		assertTrue(results.isCrossValidationComplete(getCVSelector(1, 1)));
+		
+		batchExperiment.raceParameters(dataProvider, 0, 2, results);
+		
+		assertFalse(results.isDropped(getSelector(0)));
+		assertFalse(results.isDropped(getSelector(1)));
+		assertTrue(results.isDropped(getSelector(2)));
+	}
+	
+	@Test
+	void testRaceParameters03() { //racing is skipped if no cross-validation is complete for all surviving parameters
+		DataProvider dataProvider = getDataProvider();
+		BatchExperiment batchExperiment = getBatchExperiment(dataProvider);
+		BatchExperimentResults results = getResults();
+		storeCrossValidation(results, 2, 0, 0);
+		storeCrossValidation(results, 2, 1, 0);
+		
+		batchExperiment.raceParameters(dataProvider, 0, 2, results);
+		
+		assertFalse(results.isDropped(getSelector(2)));
+	}
+	
+	@Test
+	void testGetIncompleteCrossValidations() { //incomplete cross-validations are not aggregated
+		BatchExperimentResults results = getResults();
+		storeCrossValidation(results, 0, 1, 3);
+		
+		assertNull(results.getAggregatedCVModelValidationResult(getCVSelector(0, 1)));
+		assertNull(results.getAggregatedCVModelValidationResult(getCVSelector(0, 2)));
+		assertEquals(Arrays.asList(1, 2, 3), results.getIncompleteCrossValidations(getSelector(0)));
+		assertEquals(Arrays.asList(2, 3), results.getIncompleteCrossValidations(getSelector(1)));
+		assertEquals(numberOfFolds, results.getFoldAccuracies(getSelector(0), Arrays.asList(0, 1), false).length); //only complete cross-validations are used
+		assertEquals(2 * numberOfFolds, results.getFoldAccuracies(getSelector(1), Arrays.asList(0, 1), false).length);
+	}
+	
+}
@@ -0,0 +1,221 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.rulelearn.core.InvalidValueException;
+import org.rulelearn.experiments.BoundedCache.EvictionPolicy;
+
+class BoundedCacheTest {
+	
+	BoundedCache<String, String> getCache(long maxWeight, EvictionPolicy evictionPolicy) {
+		return new BoundedCache<String, String>("test", maxWeight, evictionPolicy, value -> value.length());
+	}
+	
+	List<String> getStronglyReferencedKeys(BoundedCache<String, String> cache) { //from least recently used
+		return new ArrayList<String>(cache.key2Entry.keySet());
+	}
+	
+	@Test
+	void testGetSingleFlight() throws InterruptedException, ExecutionException {
+		int numberOfThreads = 8;
+		BoundedCache<String, String> cache = getCache(100L, EvictionPolicy.LRU);
+		AtomicInteger calculationsCount = new AtomicInteger(0);
+		ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+		
+		try {
+			List<Future<String>> futures = new ArrayList<Future<String>>();
+			for (int i = 0; i < numberOfThreads; i++) {
+				futures.add(executorService.submit(() -> cache.get("a", () -> {
+					calculationsCount.incrementAndGet();
+					long deadline = System.currentTimeMillis() + 10000L;
+					while (cache.getWaitsCount() < numberOfThreads - 1 && System.currentTimeMillis() < deadline) { //calculation lasts until all other threads wait for it
+						try {
+							Thread.sleep(1L);
+						} catch (InterruptedException exception) {
+							throw new IllegalStateException(exception);
+						}
+					}
+					return new String("value");
+				})));
+			}
+			
+			String value = futures.get(0).get();
+			for (Future<String> future : futures) {
+				assertSame(value, future.get());
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+		
+		assertEquals(1, calculationsCount.get());
+		assertEquals(numberOfThreads - 1, cache.getWaitsCount());
+		assertEquals(numberOfThreads, cache.getMissesCount());
+		assertSame(cache.peek("a"), cache.get("a", () -> "other value"));
+		assertEquals(1, cache.getHitsCount());
+	}
+	
+	@Test
+	void testGetFailedCalculation() {
+		BoundedCache<String, String> cache = getCache(100L, EvictionPolicy.LRU);
+		
+		assertThrows(IllegalStateException.class, () -> cache.get("a", () -> {
+			throw new IllegalStateException();
+		}));
+		assertNull(cache.peek("a"));
+		assertTrue(cache.key2CalculatedValue.isEmpty());
+		assertEquals("value", cache.get("a", () -> "value")); //calculated again
+	}
+	
+	@Test
+	void testEvictLRU() {
+		BoundedCache<String, String> cache = getCache(3L, EvictionPolicy.LRU);
+		cache.put("a", "a");
+		cache.put("b", "b");
+		cache.put("c", "c");
+		cache.get("a");
+		cache.put("d", "d");
+		
+		assertEquals(Arrays.asList("c", "a", "d"), getStronglyReferencedKeys(cache));
+		assertEquals(1, cache.getEvictionsCount());
+		assertEquals(3L, cache.getWeight());
+		
+		cache.get("c");
+		cache.put("e", "ee");
+		
+		assertEquals(Arrays.asList("c", "e"), getStronglyReferencedKeys(cache));
+		assertEquals(3, cache.getEvictionsCount());
+	}
+	
+	@Test
+	void testEvictLFU() {
+		BoundedCache<String, String> cache = getCache(3L, EvictionPolicy.LFU);
+		cache.put("a", "a");
+		cache.put("b", "b");
+		cache.put("c", "c");
+		cache.get("a");
+		cache.get("a");
+		cache.get("c");
+		cache.put("d", "d"); //uses: a - 3, b - 1, c - 2
+		
+		assertEquals(Arrays.asList("a", "c", "d"), getStronglyReferencedKeys(cache));
+		
+		cache.put("e", "e"); //uses: a - 3, c - 2, d - 1
+		
+		assertEquals(Arrays.asList("a", "c", "e"), getStronglyReferencedKeys(cache));
+		
+		cache.get("e");
+		cache.put("f", "f"); //uses: a - 3, c - 2, e - 2; c is less recently used than e
+		
+		assertEquals(Arrays.asList("a", "e", "f"), getStronglyReferencedKeys(cache));
+		assertEquals(3, cache.getEvictionsCount());
+	}
+	
+	@Test
+	void testEvictLFUManyEntries() { //order of entries by uses follows strongly referenced entries
+		BoundedCache<String, String> cache = getCache(50L, EvictionPolicy.LFU);
+		for (int i = 0; i < 100; i++) {
+			cache.put("k" + i, "v");
+			for (int j = 0; j < i % 5; j++) {
+				cache.get("k" + i);
+			}
+		}
+		
+		assertEquals(50, getStronglyReferencedKeys(cache).size());
+		assertEquals(50, cache.entriesByUses.size());
+		assertTrue(getStronglyReferencedKeys(cache).contains("k99")); //used 5 times
+		assertTrue(getStronglyReferencedKeys(cache).contains("k98")); //used 4 times
+		
+		cache.removeIf(key -> key.endsWith("9"));
+		
+		assertEquals(getStronglyReferencedKeys(cache).size(), cache.entriesByUses.size());
+		
+		cache.clear();
+		
+		assertEquals(0, cache.entriesByUses.size());
+	}
+	
+	@Test
+	void testGetEvicted01() { //evicted value not reclaimed by GC is returned, and strongly referenced again
+		BoundedCache<String, String> cache = getCache(1L, EvictionPolicy.LRU);
+		String value = new String("a");
+		cache.put("a", value);
+		cache.put("b", "b");
+		
+		assertEquals(Arrays.asList("b"), getStronglyReferencedKeys(cache));
+		assertSame(value, cache.peek("a"));
+		assertSame(value, cache.get("a"));
+		assertEquals(1, cache.getSoftHitsCount());
+		assertEquals(1, cache.getHitsCount());
+		assertEquals(Arrays.asList("a"), getStronglyReferencedKeys(cache));
+	}
+	
+	@Test
+	void testGetEvicted02() { //evicted value reclaimed by GC is a miss
+		BoundedCache<String, String> cache = getCache(1L, EvictionPolicy.LRU);
+		cache.put("a", "a");
+		cache.put("b", "b");
+		cache.key2EvictedValue.put("a", new SoftReference<String>(null)); //as cleared by GC
+		
+		assertNull(cache.get("a"));
+		assertEquals(1, cache.getMissesCount());
+		assertEquals("a", cache.get("a", () -> "a")); //calculated again
+	}
+	
+	@Test
+	void testPutHeavierThanBudget() {
+		BoundedCache<String, String> cache = getCache(2L, EvictionPolicy.LRU);
+		cache.put("a", "a");
+		cache.put("b", "bbb");
+		
+		assertEquals(Arrays.asList("a"), getStronglyReferencedKeys(cache)); //other entries are not evicted
+		assertEquals("bbb", cache.peek("b"));
+		assertEquals(1L, cache.getWeight());
+	}
+	
+	@Test
+	void testConfigure() {
+		BoundedCache<String, String> cache = getCache(3L, EvictionPolicy.LRU);
+		cache.put("a", "a");
+		cache.put("b", "b");
+		cache.put("c", "c");
+		cache.configure(1L, EvictionPolicy.LFU);
+		
+		assertEquals(Arrays.asList("c"), getStronglyReferencedKeys(cache));
+		assertEquals(1L, cache.getWeight());
+		assertThrows(InvalidValueException.class, () -> cache.configure(-1L, EvictionPolicy.LRU));
+	}
+	
+	@Test
+	void testRemoveIf() {
+		BoundedCache<String, String> cache = getCache(2L, EvictionPolicy.LRU);
+		cache.put("a1", "a");
+		cache.put("b1", "b");
+		cache.put("a2", "a"); //evicts a1
+		cache.removeIf(key -> key.startsWith("a"));
+		
+		assertEquals(Arrays.asList("b1"), getStronglyReferencedKeys(cache));
+		assertNull(cache.peek("a1"));
+		assertEquals(1L, cache.getWeight());
+		
+		cache.clear();
+		
+		assertNull(cache.peek("b1"));
+		assertEquals(0L, cache.getWeight());
+	}
+	
+}
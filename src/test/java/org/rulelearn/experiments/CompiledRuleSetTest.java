@@ -0,0 +1,85 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.rules.RuleSet;
+import org.rulelearn.rules.ruleml.RuleParser;
+
+class CompiledRuleSetTest {
+	
+	static final String rulesPath = "src/test/resources/data/ruleml/rules6.xml";
+	
+	static InformationTable informationTable;
+	static RuleSet ruleSet;
+	
+	@BeforeAll
+	static void loadInformationTableAndRules() throws IOException {
+		informationTable = DominanceCounterTest.loadLearningSet();
+		ruleSet = loadRules(informationTable);
+	}
+	
+	static RuleSet loadRules(InformationTable informationTable) throws IOException {
+		try (InputStream inputStream = new FileInputStream(rulesPath)) {
+			Map<Integer, RuleSet> index2RuleSet = (new RuleParser(informationTable.getAttributes())).parseRules(inputStream);
+			assertNotNull(index2RuleSet);
+			return index2RuleSet.get(1);
+		}
+	}
+	
+	void assertSameAsRuleCovers(CompiledRuleSet.Coverage coverage, InformationTable informationTable) {
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		assertEquals(numberOfObjects, coverage.getNumberOfObjects());
+		
+		long totalNumberOfCoveringRules = 0L;
+		for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+			final int testObjectIndex = objectIndex;
+			int[] expectedCoveringRules = IntStream.range(0, ruleSet.size()).filter(ruleIndex -> ruleSet.getRule(ruleIndex).covers(testObjectIndex, informationTable)).toArray();
+			
+			assertArrayEquals(expectedCoveringRules, coverage.getCoveringRules(objectIndex), "Rules covering object " + objectIndex + ".");
+			assertEquals(expectedCoveringRules.length, coverage.getNumberOfCoveringRules(objectIndex));
+			totalNumberOfCoveringRules += expectedCoveringRules.length;
+		}
+		assertEquals(totalNumberOfCoveringRules, coverage.getTotalNumberOfCoveringRules());
+	}
+	
+	@Test
+	void testCover01() {
+		assertNotNull(ruleSet);
+		assertSameAsRuleCovers(new CompiledRuleSet(ruleSet).cover(informationTable), informationTable);
+	}
+	
+	@Test
+	void testCover02() { //conditions compiled for another table, with other distinct values
+		CompiledRuleSet compiledRuleSet = new CompiledRuleSet(ruleSet);
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, 65);
+		
+		assertSameAsRuleCovers(compiledRuleSet.cover(selectedInformationTable), selectedInformationTable);
+		assertSameAsRuleCovers(compiledRuleSet.cover(informationTable), informationTable); //compiled rule set does not keep conditions of previous table
+	}
+	
+	@Test
+	void testGetRepresentatives() { //representative of an object is the first object covered by the same rules
+		CompiledRuleSet.Coverage coverage = new CompiledRuleSet(ruleSet).cover(informationTable);
+		int[] representatives = coverage.getRepresentatives();
+		Map<String, Integer> coveringRules2FirstObjectIndex = new HashMap<String, Integer>();
+		
+		for (int objectIndex = 0; objectIndex < informationTable.getNumberOfObjects(); objectIndex++) {
+			Integer firstObjectIndex = coveringRules2FirstObjectIndex.putIfAbsent(Arrays.toString(coverage.getCoveringRules(objectIndex)), objectIndex);
+			assertEquals(firstObjectIndex != null ? firstObjectIndex.intValue() : objectIndex, representatives[objectIndex], "Representative of object " + objectIndex + ".");
+		}
+	}
+	
+}
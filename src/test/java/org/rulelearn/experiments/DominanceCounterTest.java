@@ -0,0 +1,136 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.data.InformationTableBuilder;
+import org.rulelearn.data.InformationTableWithDecisionDistributions;
+import org.rulelearn.dominance.DominanceCones;
+import org.rulelearn.experiments.DominanceCounter.ConeClassCounter;
+import org.rulelearn.experiments.EpsilonConsistencyProfile.DecisionRanks;
+
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+
+class DominanceCounterTest {
+	
+	static final String metadataPath = "src/test/resources/data/json-metadata/prioritisation-no-rank.json";
+	static final String objectsPath = "src/test/resources/data/json-objects/LearningSet_2604v1.json";
+	
+	static InformationTable informationTable;
+	
+	@BeforeAll
+	static void loadInformationTable() throws IOException {
+		informationTable = loadLearningSet();
+	}
+	
+	static InformationTable loadLearningSet() throws IOException {
+		return InformationTableBuilder.safelyBuildFromJSONFile(metadataPath, objectsPath);
+	}
+	
+	static InformationTable selectFirstObjects(InformationTable informationTable, int numberOfObjects) {
+		return informationTable.select(IntStream.range(0, numberOfObjects).toArray());
+	}
+	
+	static DominanceCones getDominanceCones(InformationTable informationTable) {
+		return new InformationTableWithDecisionDistributions(informationTable, true, true).getDominanceCones();
+	}
+	
+	/**
+	 * Checks that given counter gives the same dominance cones as ruleLearn. Each object forms its own class, so counted classes show members of the cones.
+	 */
+	static void assertSameCones(DominanceCounter dominanceCounter, InformationTable informationTable) {
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		assertEquals(numberOfObjects, dominanceCounter.getNumberOfObjects());
+		
+		DominanceCones dominanceCones = getDominanceCones(informationTable);
+		ConeClassCounter coneClassCounter = dominanceCounter.getConeClassCounter(IntStream.range(0, numberOfObjects).toArray(), numberOfObjects);
+		int[] coneClassSizes = new int[numberOfObjects];
+		
+		for (int objectIndex = 0; objectIndex < numberOfObjects; objectIndex++) {
+			for (boolean positive : new boolean[] {true, false}) {
+				coneClassCounter.countClasses(objectIndex, positive, coneClassSizes);
+				IntSortedSet dominanceCone = positive ? dominanceCones.getPositiveDCone(objectIndex) : dominanceCones.getNegativeDCone(objectIndex);
+				for (int otherObjectIndex = 0; otherObjectIndex < numberOfObjects; otherObjectIndex++) {
+					assertEquals(dominanceCone.contains(otherObjectIndex) ? 1 : 0, coneClassSizes[otherObjectIndex],
+							"Object " + otherObjectIndex + " in " + (positive ? "positive" : "negative") + " cone of object " + objectIndex + ".");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks that given counter gives the same numbers of objects of subsequent decision classes in dominance cones as counted in dominance cones of ruleLearn.
+	 */
+	static void assertSameConeClassSizes(DominanceCounter dominanceCounter, InformationTable informationTable) {
+		DecisionRanks decisionRanks = new DecisionRanks(informationTable);
+		int numberOfClasses = decisionRanks.classSizes.length;
+		
+		DominanceCones dominanceCones = getDominanceCones(informationTable);
+		ConeClassCounter coneClassCounter = dominanceCounter.getConeClassCounter(decisionRanks.ranks, numberOfClasses);
+		int[] coneClassSizes = new int[numberOfClasses];
+		int[] expectedConeClassSizes = new int[numberOfClasses];
+		
+		for (int objectIndex = 0; objectIndex < informationTable.getNumberOfObjects(); objectIndex++) {
+			for (boolean positive : new boolean[] {true, false}) {
+				coneClassCounter.countClasses(objectIndex, positive, coneClassSizes);
+				Arrays.fill(expectedConeClassSizes, 0);
+				for (int otherObjectIndex : positive ? dominanceCones.getPositiveDCone(objectIndex) : dominanceCones.getNegativeDCone(objectIndex)) {
+					if (decisionRanks.ranks[otherObjectIndex] >= 0) {
+						expectedConeClassSizes[decisionRanks.ranks[otherObjectIndex]]++;
+					}
+				}
+				assertArrayEquals(expectedConeClassSizes, coneClassSizes, (positive ? "Positive" : "Negative") + " cone of object " + objectIndex + ".");
+			}
+		}
+	}
+	
+	@Test
+	void testOf() {
+		DominanceCounter dominanceCounter = DominanceCounter.of(informationTable);
+		
+		assertTrue(dominanceCounter instanceof DominanceKernel); //all condition attributes are gain/cost ones, without missing values, and there are less objects than for a dominance index
+		assertEquals(informationTable.getNumberOfObjects(), dominanceCounter.getNumberOfObjects());
+	}
+	
+	@Test
+	void testRestrictTo01() { //subset spanning all blocks of the kernel
+		int[] objectIndices = IntStream.range(0, informationTable.getNumberOfObjects()).filter(objectIndex -> objectIndex % 10 == 3).toArray();
+		DominanceCounter restrictedCounter = DominanceCounter.of(informationTable).restrictTo(objectIndices);
+		InformationTable selectedInformationTable = informationTable.select(objectIndices);
+		
+		assertSameCones(restrictedCounter, selectedInformationTable);
+		assertSameConeClassSizes(restrictedCounter, selectedInformationTable);
+	}
+	
+	@Test
+	void testRestrictTo02() { //restriction of a restriction
+		int[] objectIndices = IntStream.range(0, informationTable.getNumberOfObjects()).filter(objectIndex -> objectIndex % 5 != 0).toArray();
+		int[] subsetObjectIndices = IntStream.range(0, objectIndices.length).filter(subsetObjectIndex -> subsetObjectIndex % 7 == 2).toArray();
+		int[] fullObjectIndices = Arrays.stream(subsetObjectIndices).map(subsetObjectIndex -> objectIndices[subsetObjectIndex]).toArray();
+		
+		DominanceCounter restrictedCounter = DominanceCounter.of(informationTable).restrictTo(objectIndices).restrictTo(subsetObjectIndices);
+		InformationTable selectedInformationTable = informationTable.select(fullObjectIndices);
+		
+		assertSameCones(restrictedCounter, selectedInformationTable);
+		assertSameConeClassSizes(restrictedCounter, selectedInformationTable);
+	}
+	
+	@Test
+	void testRestrictTo03() { //restricted view gives the same epsilon consistencies as a counter constructed for the subset
+		int[] objectIndices = IntStream.range(0, informationTable.getNumberOfObjects()).filter(objectIndex -> objectIndex % 3 == 1).toArray();
+		InformationTable selectedInformationTable = informationTable.select(objectIndices);
+		
+		assertArrayEquals(
+				EpsilonConsistencyProfile.calculateMaxEpsilonConsistencies(selectedInformationTable, DominanceCounter.of(selectedInformationTable)),
+				EpsilonConsistencyProfile.calculateMaxEpsilonConsistencies(selectedInformationTable, DominanceCounter.of(informationTable).restrictTo(objectIndices)));
+	}
+	
+}
@@ -0,0 +1,58 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.data.InformationTable;
+
+class DominanceIndexTest {
+	
+	static InformationTable informationTable;
+	
+	@BeforeAll
+	static void loadInformationTable() throws IOException {
+		informationTable = DominanceCounterTest.loadLearningSet();
+	}
+	
+	DominanceIndex getIndex(InformationTable informationTable) {
+		return new DominanceIndex(DominanceKernel.getConditionRanks(informationTable), informationTable.getNumberOfObjects());
+	}
+	
+	@Test
+	void testCones01() { //one leaf
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, DominanceIndex.LEAF_SIZE);
+		DominanceCounterTest.assertSameCones(getIndex(selectedInformationTable), selectedInformationTable);
+	}
+	
+	@Test
+	void testCones02() { //root split into leaves
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, DominanceIndex.LEAF_SIZE + 1);
+		DominanceCounterTest.assertSameCones(getIndex(selectedInformationTable), selectedInformationTable);
+	}
+	
+	@Test
+	void testCones03() { //deeper tree
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, 1000);
+		DominanceCounterTest.assertSameCones(getIndex(selectedInformationTable), selectedInformationTable);
+	}
+	
+	@Test
+	void testConeClassSizes() {
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, 2000);
+		DominanceCounterTest.assertSameConeClassSizes(getIndex(selectedInformationTable), selectedInformationTable);
+	}
+	
+	@Test
+	void testCalculateMaxEpsilonConsistencies() { //same as bitset kernel, for the whole data set
+		int[][] ranks = DominanceKernel.getConditionRanks(informationTable);
+		int numberOfObjects = informationTable.getNumberOfObjects();
+		
+		assertArrayEquals(
+				EpsilonConsistencyProfile.calculateMaxEpsilonConsistencies(informationTable, new DominanceKernel(ranks, numberOfObjects)),
+				EpsilonConsistencyProfile.calculateMaxEpsilonConsistencies(informationTable, new DominanceIndex(ranks, numberOfObjects)));
+	}
+	
+}
@@ -0,0 +1,68 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.data.InformationTable;
+
+class DominanceKernelTest {
+	
+	static InformationTable informationTable;
+	
+	@BeforeAll
+	static void loadInformationTable() throws IOException {
+		informationTable = DominanceCounterTest.loadLearningSet();
+	}
+	
+	DominanceKernel getKernel(InformationTable informationTable) {
+		int[][] ranks = DominanceKernel.getConditionRanks(informationTable);
+		assertNotNull(ranks);
+		return new DominanceKernel(ranks, informationTable.getNumberOfObjects());
+	}
+	
+	@Test
+	void testGetConditionRanks() {
+		int[][] ranks = DominanceKernel.getConditionRanks(informationTable);
+		
+		assertNotNull(ranks);
+		assertEquals(8, ranks.length); //identification and decision attributes are skipped
+		for (int[] attributeRanks : ranks) {
+			assertEquals(informationTable.getNumberOfObjects(), attributeRanks.length);
+		}
+	}
+	
+	@Test
+	void testToRanks() {
+		assertArrayEquals(new int[] {1, 0, 2, 1, 0}, DominanceKernel.toRanks(new double[] {2.5, -1.0, 7.0, 2.5, -1.0}));
+	}
+	
+	@Test
+	void testCones01() { //one full block
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, DominanceKernel.BLOCK_SIZE);
+		DominanceCounterTest.assertSameCones(getKernel(selectedInformationTable), selectedInformationTable);
+	}
+	
+	@Test
+	void testCones02() { //one full block and one object in the next block
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, DominanceKernel.BLOCK_SIZE + 1);
+		DominanceCounterTest.assertSameCones(getKernel(selectedInformationTable), selectedInformationTable);
+	}
+	
+	@Test
+	void testCones03() { //many blocks, last one incomplete
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, 1000);
+		DominanceCounterTest.assertSameCones(getKernel(selectedInformationTable), selectedInformationTable);
+	}
+	
+	@Test
+	void testConeClassSizes() {
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, 2000);
+		DominanceCounterTest.assertSameConeClassSizes(getKernel(selectedInformationTable), selectedInformationTable);
+	}
+	
+}
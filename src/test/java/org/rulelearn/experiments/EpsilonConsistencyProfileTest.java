@@ -0,0 +1,70 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.approximations.Unions;
+import org.rulelearn.approximations.UnionsWithSingleLimitingDecision;
+import org.rulelearn.approximations.VCDominanceBasedRoughSetCalculator;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.data.InformationTableWithDecisionDistributions;
+import org.rulelearn.measures.dominance.EpsilonConsistencyMeasure;
+
+class EpsilonConsistencyProfileTest {
+	
+	static final double[] consistencyThresholds = {0.0, 0.001, 0.005, 0.01, 0.02, 0.05, 0.1, 0.15, 0.25, 0.5, 1.0};
+	
+	static InformationTable informationTable;
+	
+	@BeforeAll
+	static void loadInformationTable() throws IOException {
+		informationTable = DominanceCounterTest.loadLearningSet();
+	}
+	
+	static Unions getUnions(InformationTableWithDecisionDistributions informationTable, double consistencyThreshold) {
+		return new UnionsWithSingleLimitingDecision(informationTable, new VCDominanceBasedRoughSetCalculator(EpsilonConsistencyMeasure.getInstance(), consistencyThreshold));
+	}
+	
+	void assertSameAsUnions(EpsilonConsistencyProfile epsilonConsistencyProfile, InformationTableWithDecisionDistributions informationTable) {
+		assertEquals(informationTable.getNumberOfObjects(), epsilonConsistencyProfile.getNumberOfObjects());
+		
+		for (double consistencyThreshold : consistencyThresholds) {
+			Unions unions = getUnions(informationTable, consistencyThreshold);
+			assertEquals(unions.getNumberOfConsistentObjects(), epsilonConsistencyProfile.getNumberOfConsistentObjects(consistencyThreshold),
+					"Number of consistent objects for threshold " + consistencyThreshold + ".");
+			assertEquals(unions.getQualityOfApproximation(), epsilonConsistencyProfile.getQualityOfApproximation(consistencyThreshold), 1e-12,
+					"Quality of approximation for threshold " + consistencyThreshold + ".");
+		}
+	}
+	
+	@Test
+	void testDominanceCones() {
+		InformationTableWithDecisionDistributions selectedInformationTable = new InformationTableWithDecisionDistributions(
+				DominanceCounterTest.selectFirstObjects(informationTable, 2000), true, true);
+		
+		assertSameAsUnions(new EpsilonConsistencyProfile(selectedInformationTable), selectedInformationTable);
+	}
+	
+	@Test
+	void testDominanceCounter() {
+		InformationTable selectedInformationTable = DominanceCounterTest.selectFirstObjects(informationTable, 2000);
+		
+		assertSameAsUnions(new EpsilonConsistencyProfile(selectedInformationTable, DominanceCounter.of(selectedInformationTable)),
+				new InformationTableWithDecisionDistributions(selectedInformationTable, true, true));
+	}
+	
+	@Test
+	void testOf() { //data sharing a restricted view of the counter of the full data set, as a cross-validation fold
+		int[] objectIndices = IntStream.range(0, informationTable.getNumberOfObjects()).filter(objectIndex -> objectIndex % 4 == 1).toArray();
+		InformationTable selectedInformationTable = informationTable.select(objectIndices);
+		Data data = new Data(selectedInformationTable, "fold", "group");
+		data.dominanceCounter = DominanceCounter.of(informationTable).restrictTo(objectIndices);
+		
+		assertSameAsUnions(EpsilonConsistencyProfile.of(data), new InformationTableWithDecisionDistributions(selectedInformationTable, true, true));
+	}
+	
+}
@@ -0,0 +1,229 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.rulelearn.data.Decision;
+import org.rulelearn.experiments.ModelValidationResult.ClassificationStatistics;
+import org.rulelearn.experiments.ModelValidationResult.ClassifierType;
+import org.rulelearn.experiments.ModelValidationResult.DefaultClassificationType;
+import org.rulelearn.validation.OrdinalMisclassificationMatrix;
+
+class ExperimentJournalTest {
+	
+	Path directoryPath;
+	String journalPath;
+	Decision[] referenceOrderOfDecisions;
+	
+	@BeforeEach
+	void createDirectory() throws IOException {
+		directoryPath = Files.createTempDirectory("journal");
+		journalPath = directoryPath.resolve("experiment.journal").toString();
+		referenceOrderOfDecisions = new Decision[] {Mockito.mock(Decision.class), Mockito.mock(Decision.class)};
+	}
+	
+	@AfterEach
+	void deleteDirectory() throws IOException {
+		try (Stream<Path> paths = Files.walk(directoryPath)) {
+			for (Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+	
+	ModelValidationResult getModelValidationResult(long correctCount) { //correctCount objects of each class classified correctly, one object of each class misclassified
+		OrdinalMisclassificationMatrix misclassificationMatrixMock = Mockito.mock(OrdinalMisclassificationMatrix.class);
+		Mockito.when(misclassificationMatrixMock.getOrderOfDecisions()).thenReturn(referenceOrderOfDecisions);
+		Mockito.when(misclassificationMatrixMock.getValue(Mockito.any(), Mockito.any())).thenAnswer(invocation ->
+				invocation.getArgument(0) == invocation.getArgument(1) ? (double)correctCount : 1.0);
+		
+		ClassificationStatistics classificationStatistics = new ClassificationStatistics(DefaultClassificationType.USING_DEFAULT_CLASS, ClassifierType.VCDRSA_RULES_CLASSIFIER);
+		classificationStatistics.preciseCorrectCount = 2 * correctCount;
+		classificationStatistics.preciseIncorrectCount = 2;
+		
+		return new ModelValidationResult(misclassificationMatrixMock, classificationStatistics, null, null);
+	}
+	
+	void assertRecord(ExperimentJournal journal, String key, long correctCount) {
+		ExperimentJournal.Record record = journal.get(key);
+		
+		assertNotNull(record, "Record " + key + ".");
+		assertArrayEquals(new int[] {0, 1}, record.orderOfDecisions);
+		assertArrayEquals(new long[][] {{correctCount, 1L}, {1L, correctCount}}, record.misclassificationCounts);
+		assertEquals(2 * correctCount, record.classificationStatistics.getPreciseCorrectCount());
+		assertEquals(10 * correctCount, record.getTrainingTime());
+		assertEquals(correctCount, record.getValidationTime());
+	}
+	
+	void append(ExperimentJournal journal, String key, long correctCount) throws IOException {
+		journal.append(key, getModelValidationResult(correctCount), referenceOrderOfDecisions, 10 * correctCount, correctCount, null);
+	}
+	
+	@Test
+	void testAppend() throws IOException {
+		ExperimentJournal journal = new ExperimentJournal(journalPath);
+		append(journal, "a", 3L);
+		append(journal, "b", 5L);
+		
+		assertRecord(journal, "a", 3L);
+		journal.close();
+		
+		journal = new ExperimentJournal(journalPath);
+		
+		assertEquals(2, journal.size());
+		assertRecord(journal, "a", 3L);
+		assertRecord(journal, "b", 5L);
+		assertNull(journal.get("c"));
+		journal.close();
+	}
+	
+	void appendRawRecord(byte[] bytes) throws IOException { //as written by append(...), with a valid checksum
+		ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + bytes.length + Long.BYTES);
+		buffer.putInt(bytes.length).put(bytes).putLong(ExperimentJournal.checksum(bytes));
+		Files.write(directoryPath.resolve("experiment.journal"), buffer.array(), StandardOpenOption.APPEND);
+	}
+	
+	@Test
+	void testTruncatedTailRecord() throws IOException {
+		ExperimentJournal journal = new ExperimentJournal(journalPath);
+		append(journal, "a", 3L);
+		long validLength = Files.size(directoryPath.resolve("experiment.journal"));
+		append(journal, "b", 5L);
+		journal.close();
+		
+		try (FileChannel channel = FileChannel.open(directoryPath.resolve("experiment.journal"), StandardOpenOption.WRITE)) {
+			channel.truncate(Files.size(directoryPath.resolve("experiment.journal")) - 5L); //as if the process crashed while writing the record
+		}
+		journal = new ExperimentJournal(journalPath);
+		
+		assertEquals(1, journal.size());
+		assertRecord(journal, "a", 3L);
+		assertEquals(validLength, Files.size(directoryPath.resolve("experiment.journal"))); //incomplete record dropped
+		
+		append(journal, "c", 7L);
+		journal.close();
+		journal = new ExperimentJournal(journalPath);
+		
+		assertEquals(2, journal.size());
+		assertRecord(journal, "a", 3L);
+		assertRecord(journal, "c", 7L);
+		journal.close();
+	}
+	
+	@Test
+	void testTruncatedTailRecordLength() throws IOException {
+		ExperimentJournal journal = new ExperimentJournal(journalPath);
+		append(journal, "a", 3L);
+		journal.close();
+		long validLength = Files.size(directoryPath.resolve("experiment.journal"));
+		
+		Files.write(directoryPath.resolve("experiment.journal"), new byte[] {0, 0}, StandardOpenOption.APPEND); //only a part of the length of the next record
+		journal = new ExperimentJournal(journalPath);
+		
+		assertEquals(1, journal.size());
+		assertEquals(validLength, Files.size(directoryPath.resolve("experiment.journal")));
+		journal.close();
+	}
+	
+	@Test
+	void testTruncatedTailRecordHugeLength() throws IOException {
+		ExperimentJournal journal = new ExperimentJournal(journalPath);
+		append(journal, "a", 3L);
+		journal.close();
+		long validLength = Files.size(directoryPath.resolve("experiment.journal"));
+		
+		Files.write(directoryPath.resolve("experiment.journal"), new byte[] {0x7F, -1, -1, -1, 1, 2, 3, 4, 5, 6, 7, 8, 9}, StandardOpenOption.APPEND); //length exceeding the rest of the file
+		journal = new ExperimentJournal(journalPath);
+		
+		assertEquals(1, journal.size());
+		assertEquals(validLength, Files.size(directoryPath.resolve("experiment.journal")));
+		journal.close();
+	}
+	
+	@Test
+	void testUnreadableRecord() throws IOException { //complete records that cannot be deserialized are skipped, and records following them are kept
+		ExperimentJournal journal = new ExperimentJournal(journalPath);
+		append(journal, "a", 3L);
+		journal.close();
+		
+		appendRawRecord(new byte[] {1, 2, 3, 4, 5}); //not a serialized object
+		ByteArrayOutputStream bytesOutput = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytesOutput)) {
+			objectOutput.writeObject("not a record");
+		}
+		appendRawRecord(bytesOutput.toByteArray());
+		journal = new ExperimentJournal(journalPath);
+		append(journal, "b", 5L);
+		journal.close();
+		long length = Files.size(directoryPath.resolve("experiment.journal"));
+		journal = new ExperimentJournal(journalPath);
+		
+		assertEquals(2, journal.size());
+		assertRecord(journal, "a", 3L);
+		assertRecord(journal, "b", 5L);
+		assertEquals(length, Files.size(directoryPath.resolve("experiment.journal"))); //nothing dropped
+		journal.close();
+	}
+	
+	@Test
+	void testCorruptedTailRecord() throws IOException {
+		ExperimentJournal journal = new ExperimentJournal(journalPath);
+		append(journal, "a", 3L);
+		long validLength = Files.size(directoryPath.resolve("experiment.journal"));
+		append(journal, "b", 5L);
+		journal.close();
+		
+		byte[] bytes = Files.readAllBytes(directoryPath.resolve("experiment.journal"));
+		bytes[bytes.length - Long.BYTES - 1] ^= 0x5A; //last byte of serialized record, before its checksum
+		Files.write(directoryPath.resolve("experiment.journal"), bytes);
+		journal = new ExperimentJournal(journalPath);
+		
+		assertEquals(1, journal.size());
+		assertRecord(journal, "a", 3L);
+		assertNull(journal.get("b"));
+		assertEquals(validLength, Files.size(directoryPath.resolve("experiment.journal")));
+		journal.close();
+	}
+	
+	@Test
+	void testImportRecords() throws IOException {
+		String otherJournalPath = directoryPath.resolve("worker.journal").toString();
+		ExperimentJournal otherJournal = new ExperimentJournal(otherJournalPath);
+		append(otherJournal, "b", 5L);
+		append(otherJournal, "c", 7L);
+		otherJournal.close();
+		Files.write(directoryPath.resolve("worker.journal"), new byte[] {0, 0, 0, 100, 1, 2}, StandardOpenOption.APPEND); //record being written right now
+		
+		ExperimentJournal journal = new ExperimentJournal(journalPath);
+		append(journal, "a", 3L);
+		
+		assertEquals(2, journal.importRecords(otherJournalPath));
+		assertEquals(3, journal.size());
+		assertRecord(journal, "b", 5L);
+		assertRecord(journal, "c", 7L);
+		journal.close();
+		
+		journal = new ExperimentJournal(journalPath);
+		
+		assertEquals(1, journal.size()); //imported records are not copied
+		journal.close();
+	}
+	
+}
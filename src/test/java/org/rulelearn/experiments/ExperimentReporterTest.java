@@ -0,0 +1,127 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.rulelearn.experiments.ExperimentReporter.Template;
+
+class ExperimentReporterTest {
+	
+	static class StringSink implements ExperimentReporter.Sink {
+		StringBuilder builder = new StringBuilder();
+		
+		@Override
+		public synchronized void write(String text) {
+			builder.append(text);
+		}
+		
+		@Override
+		public void flush() {
+		}
+		
+		@Override
+		public void close() {
+		}
+		
+		synchronized String getText() {
+			return builder.toString();
+		}
+	}
+	
+	@Test
+	void testFormat01() {
+		assertEquals("This is a test 23, abc.", Template.compile("This is a test %1, %2.").format(23, "abc"));
+		assertEquals("abc 23", Template.compile("%2 %1").format(23, "abc"));
+		assertEquals("23-23", Template.compile("%1-%1").format(23));
+		assertEquals("no placeholders", Template.compile("no placeholders").format(23));
+		assertEquals("", Template.compile("").format());
+	}
+	
+	@Test
+	void testFormat02() { //multi-digit placeholders
+		Object[] params = new Object[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+		assertEquals("10 1 11 1x", Template.compile("%10 %1 %11 %1x").format(params));
+	}
+	
+	@Test
+	void testFormat03() { //placeholders without parameters, null parameters, and percent signs not followed by digits
+		assertEquals("a %2 %0", Template.compile("%1 %2 %0").format("a"));
+		assertEquals("null", Template.compile("%1").format((Object)null));
+		assertEquals("%% [Learning]: 5%", Template.compile("%% [Learning]: %1%").format(5));
+	}
+	
+	@Test
+	void testFormat04() { //text of a parameter is not searched for placeholders
+		assertEquals("%2 b", Template.compile("%1 %2").format("%2", "b"));
+	}
+	
+	@Test
+	void testOf() {
+		Template template = Template.of("Reused template %1.");
+		
+		assertSame(template, Template.of("Reused template %1."));
+		assertEquals("Reused template 1.", template.format(1));
+	}
+	
+	@Test
+	void testReport() {
+		ExperimentReporter reporter = new ExperimentReporter();
+		StringSink sink = new StringSink();
+		reporter.addSink(sink);
+		
+		reporter.report("a");
+		reporter.report(() -> "b");
+		reporter.report(Template.of("%1%2"), "c", "d");
+		reporter.report(() -> {
+			throw new IllegalStateException();
+		});
+		reporter.report("e");
+		reporter.flush();
+		
+		assertTrue(sink.getText().startsWith("abcdCould not format report: "));
+		assertTrue(sink.getText().endsWith("e"));
+		reporter.close();
+	}
+	
+	@Test
+	void testAtomically() throws InterruptedException { //reports of other threads are not written in between reports published atomically
+		ExperimentReporter reporter = new ExperimentReporter();
+		StringSink sink = new StringSink();
+		reporter.addSink(sink);
+		CountDownLatch firstPartPublished = new CountDownLatch(1);
+		CountDownLatch otherReportPublished = new CountDownLatch(1);
+		
+		Thread thread = new Thread(() -> {
+			reporter.atomically(() -> {
+				reporter.report("[1");
+				firstPartPublished.countDown();
+				try {
+					assertTrue(otherReportPublished.await(10L, TimeUnit.SECONDS));
+				} catch (InterruptedException exception) {
+					throw new IllegalStateException(exception);
+				}
+				reporter.atomically(() -> reporter.report("2")); //nested
+				reporter.report("3]");
+			});
+		});
+		thread.start();
+		assertTrue(firstPartPublished.await(10L, TimeUnit.SECONDS));
+		reporter.report("x");
+		reporter.flush();
+		
+		assertEquals("x", sink.getText()); //atomic group is not written before it is finished
+		
+		otherReportPublished.countDown();
+		thread.join();
+		reporter.flush();
+		
+		assertEquals("x[123]", sink.getText());
+		reporter.close();
+	}
+	
+}
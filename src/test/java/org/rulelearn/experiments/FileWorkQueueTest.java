@@ -0,0 +1,187 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.experiments.FileWorkQueue.Task;
+
+class FileWorkQueueTest {
+	
+	Path directoryPath;
+	FileWorkQueue queue;
+	
+	@BeforeEach
+	void createQueue() throws IOException {
+		directoryPath = Files.createTempDirectory("queue");
+		queue = new FileWorkQueue(directoryPath.toString());
+	}
+	
+	@AfterEach
+	void deleteQueue() throws IOException {
+		try (Stream<Path> paths = Files.walk(directoryPath)) {
+			for (Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+	
+	void makeStale(Task task) throws IOException {
+		Files.setLastModifiedTime(task.claimedPath, FileTime.fromMillis(System.currentTimeMillis() - 60000L));
+	}
+	
+	@Test
+	void testEnqueue() throws IOException {
+		assertTrue(queue.enqueue(new Task("setup 1", 0, 0)));
+		assertTrue(queue.enqueue(new Task("setup 1", 0, 1)));
+		assertFalse(queue.enqueue(new Task("setup 1", 0, 0))); //already pending
+		
+		Task task = queue.claim("worker1");
+		
+		assertFalse(queue.enqueue(new Task("setup 1", 0, 0))); //already claimed
+		assertTrue(queue.complete(task));
+		assertFalse(queue.enqueue(new Task("setup 1", 0, 0))); //already done
+		assertEquals(1, queue.getNumberOfPendingTasks());
+	}
+	
+	@Test
+	void testClaim() throws IOException {
+		queue.enqueue(new Task("setup 1", 0, 1));
+		queue.enqueue(new Task("setup 1", 0, 0));
+		
+		Task task = queue.claim("worker1");
+		
+		assertNotNull(task);
+		assertEquals("setup 1", task.getSetupName()); //name is restored from the file, not from the file name
+		assertEquals(0, task.getDataSetNumber());
+		assertEquals(0, task.getCrossValidationNumber()); //tasks claimed in order
+		assertEquals(1, queue.getNumberOfPendingTasks());
+		assertEquals(1, queue.getNumberOfClaimedTasks());
+		
+		assertNotNull(queue.claim("worker2"));
+		assertNull(queue.claim("worker3"));
+		assertEquals(2, queue.getNumberOfClaimedTasks());
+	}
+	
+	@Test
+	void testClaimConcurrently() throws IOException, InterruptedException, ExecutionException {
+		int numberOfTasks = 50;
+		int numberOfWorkers = 4;
+		for (int crossValidationNumber = 0; crossValidationNumber < numberOfTasks; crossValidationNumber++) {
+			queue.enqueue(new Task("setup", 0, crossValidationNumber));
+		}
+		
+		ExecutorService executorService = Executors.newFixedThreadPool(numberOfWorkers);
+		List<Future<List<Integer>>> futures = new ArrayList<Future<List<Integer>>>();
+		try {
+			for (int worker = 0; worker < numberOfWorkers; worker++) {
+				String workerId = "worker" + worker;
+				futures.add(executorService.submit((Callable<List<Integer>>)() -> {
+					List<Integer> crossValidationNumbers = new ArrayList<Integer>();
+					Task task;
+					while ((task = queue.claim(workerId)) != null) {
+						crossValidationNumbers.add(task.getCrossValidationNumber());
+						assertTrue(queue.complete(task));
+					}
+					return crossValidationNumbers;
+				}));
+			}
+			
+			Set<Integer> claimedCrossValidationNumbers = new HashSet<Integer>();
+			int claimsCount = 0;
+			for (Future<List<Integer>> future : futures) {
+				claimedCrossValidationNumbers.addAll(future.get());
+				claimsCount += future.get().size();
+			}
+			
+			assertEquals(numberOfTasks, claimsCount); //each task claimed exactly once
+			assertEquals(numberOfTasks, claimedCrossValidationNumbers.size());
+		} finally {
+			executorService.shutdownNow();
+		}
+		assertEquals(0, queue.getNumberOfPendingTasks());
+		assertEquals(0, queue.getNumberOfClaimedTasks());
+		assertEquals(numberOfTasks, queue.getNumberOfDoneTasks());
+	}
+	
+	@Test
+	void testComplete() throws IOException {
+		queue.enqueue(new Task("setup", 0, 0));
+		Task task = queue.claim("worker1");
+		
+		assertTrue(queue.complete(task));
+		assertEquals(0, queue.getNumberOfClaimedTasks());
+		assertEquals(1, queue.getNumberOfDoneTasks());
+	}
+	
+	@Test
+	void testCompleteLostClaim() throws IOException { //claim lost to requeueing as stale, and task claimed by another worker
+		queue.enqueue(new Task("setup", 0, 0));
+		Task task = queue.claim("worker1");
+		makeStale(task);
+		
+		assertEquals(1, queue.requeueStale(30000L));
+		
+		Task otherTask = queue.claim("worker2");
+		
+		assertNotNull(otherTask);
+		assertFalse(queue.complete(task));
+		assertEquals(1, queue.getNumberOfClaimedTasks()); //still claimed by the other worker
+		assertEquals(0, queue.getNumberOfDoneTasks());
+		assertTrue(queue.complete(otherTask));
+		assertEquals(1, queue.getNumberOfDoneTasks());
+	}
+	
+	@Test
+	void testRequeueStale() throws IOException {
+		queue.enqueue(new Task("setup", 0, 0));
+		queue.enqueue(new Task("setup", 0, 1));
+		Task staleTask = queue.claim("worker1");
+		Task activeTask = queue.claim("worker2");
+		makeStale(staleTask);
+		makeStale(activeTask);
+		queue.heartbeat(activeTask);
+		
+		assertEquals(1, queue.requeueStale(30000L));
+		assertEquals(1, queue.getNumberOfPendingTasks());
+		assertEquals(1, queue.getNumberOfClaimedTasks());
+		
+		Task requeuedTask = queue.claim("worker3");
+		
+		assertEquals(staleTask.getCrossValidationNumber(), requeuedTask.getCrossValidationNumber());
+		assertEquals(0, queue.requeueStale(30000L));
+	}
+	
+	@Test
+	void testUnclaim() throws IOException {
+		queue.enqueue(new Task("setup", 0, 0));
+		Task task = queue.claim("worker1");
+		queue.unclaim(task);
+		
+		assertEquals(1, queue.getNumberOfPendingTasks());
+		assertEquals(0, queue.getNumberOfClaimedTasks());
+		assertNotNull(queue.claim("worker2"));
+	}
+	
+}
@@ -0,0 +1,119 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FoldPartitionDiskCacheTest {
+	
+	static final long decisionsHash = 0x0123456789abcdefL;
+	static final long seed = 5L;
+	static final int k = 3;
+	
+	Path directoryPath;
+	FoldPartitionDiskCache cache;
+	
+	@BeforeEach
+	void createCache() throws IOException {
+		directoryPath = Files.createTempDirectory("folds");
+		cache = new FoldPartitionDiskCache(directoryPath.toString());
+	}
+	
+	@AfterEach
+	void deleteCache() throws IOException {
+		try (Stream<Path> paths = Files.walk(directoryPath)) {
+			for (Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+	
+	long countFiles() throws IOException {
+		try (Stream<Path> paths = Files.list(directoryPath)) {
+			return paths.count();
+		}
+	}
+	
+	FoldPartition getFoldPartition() {
+		int[][] trainObjectIndices = new int[][] {{2, 3, 4, 5}, {0, 1, 4, 5, 6}, {0, 1, 2, 3, 6}};
+		int[][] testObjectIndices = new int[][] {{0, 1, 6}, {2, 3}, {4, 5}};
+		return new FoldPartition(7, trainObjectIndices, testObjectIndices);
+	}
+	
+	@Test
+	void testStoreAndLoad() throws IOException {
+		FoldPartition foldPartition = getFoldPartition();
+		cache.store("group", decisionsHash, seed, k, foldPartition);
+		
+		assertEquals(1L, countFiles()); //no temporary file left
+		
+		FoldPartition loadedFoldPartition = cache.load("group", decisionsHash, seed, k, 7);
+		
+		assertNotNull(loadedFoldPartition);
+		assertFalse(loadedFoldPartition.isOnHeap());
+		assertEquals(7, loadedFoldPartition.getNumberOfObjects());
+		assertEquals(k, loadedFoldPartition.getNumberOfFolds());
+		for (int foldIndex = 0; foldIndex < k; foldIndex++) {
+			assertArrayEquals(foldPartition.getTrainObjectIndices(foldIndex), loadedFoldPartition.getTrainObjectIndices(foldIndex));
+			assertArrayEquals(foldPartition.getTestObjectIndices(foldIndex), loadedFoldPartition.getTestObjectIndices(foldIndex));
+		}
+		assertEquals(1L, cache.getHitsCount());
+		assertEquals(0L, cache.getFailuresCount());
+	}
+	
+	@Test
+	void testStoreTwice() throws IOException { //stored file is replaced
+		cache.store("group", decisionsHash, seed, k, getFoldPartition());
+		cache.store("group", decisionsHash, seed, k, getFoldPartition());
+		
+		assertEquals(1L, countFiles());
+		assertNotNull(cache.load("group", decisionsHash, seed, k, 7));
+	}
+	
+	@Test
+	void testLoadMissing() {
+		cache.store("group", decisionsHash, seed, k, getFoldPartition());
+		
+		assertNull(cache.load("other group", decisionsHash, seed, k, 7));
+		assertNull(cache.load("group", decisionsHash, seed + 1L, k, 7));
+		assertNull(cache.load("group", decisionsHash, seed, k, 8)); //data changed since the partition was stored
+		assertEquals(3L, cache.getMissesCount());
+		assertEquals(0L, cache.getFailuresCount());
+	}
+	
+	@Test
+	void testLoadTruncated() throws IOException {
+		cache.store("group", decisionsHash, seed, k, getFoldPartition());
+		Path path = cache.getPath("group", decisionsHash, seed, k);
+		byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - Integer.BYTES));
+		
+		assertNull(cache.load("group", decisionsHash, seed, k, 7));
+		assertEquals(1L, cache.getFailuresCount());
+	}
+	
+	@Test
+	void testStoreFailure() throws IOException { //failure to write is counted, and leaves no file
+		Files.delete(directoryPath);
+		
+		cache.store("group", decisionsHash, seed, k, getFoldPartition());
+		
+		assertEquals(1L, cache.getFailuresCount());
+		assertFalse(Files.exists(directoryPath));
+		Files.createDirectories(directoryPath); //deleted after the test
+	}
+	
+}
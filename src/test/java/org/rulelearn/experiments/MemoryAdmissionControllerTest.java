@@ -0,0 +1,140 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MemoryAdmissionControllerTest {
+	
+	MemoryAdmissionController controller;
+	long footprint; //more than half of the heap, so two such units do not fit together
+	
+	@BeforeEach
+	void createController() {
+		controller = new MemoryAdmissionController(1.0);
+		controller.close(); //heap usage is sampled only by tests
+		controller.sampled(0L);
+		footprint = (long)(0.6 * controller.maxHeapSize);
+	}
+	
+	@AfterEach
+	void closeController() {
+		controller.close();
+	}
+	
+	void await(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(10L, TimeUnit.SECONDS));
+		} catch (InterruptedException exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+	
+	@Test
+	void testTryAdmit() {
+		long admissionSampleNumber = controller.tryAdmit(2 * controller.maxHeapSize); //first unit is always admitted
+		
+		assertTrue(admissionSampleNumber >= 0L);
+		assertEquals(-1L, controller.tryAdmit(footprint));
+		assertEquals(1, controller.getRunningUnitsCount());
+		
+		controller.release(2 * controller.maxHeapSize, admissionSampleNumber);
+		
+		assertTrue(controller.tryAdmit(footprint) >= 0L);
+		assertEquals(-1L, controller.tryAdmit(footprint));
+	}
+	
+	@Test
+	void testTryAdmitAfterGC() { //footprints of units admitted before GC are replaced by heap usage after GC
+		long firstAdmissionSampleNumber = controller.tryAdmit(footprint);
+		
+		assertEquals(-1L, controller.tryAdmit(footprint));
+		
+		controller.sampled((long)(0.1 * controller.maxHeapSize));
+		long secondAdmissionSampleNumber = controller.tryAdmit(footprint);
+		
+		assertTrue(secondAdmissionSampleNumber > firstAdmissionSampleNumber);
+		assertEquals(footprint, controller.reservedHeapSize);
+		
+		controller.release(footprint, firstAdmissionSampleNumber);
+		
+		assertEquals(footprint, controller.reservedHeapSize); //not reserved for the first unit any more
+		assertEquals(1, controller.getRunningUnitsCount());
+		
+		controller.release(footprint, secondAdmissionSampleNumber);
+		
+		assertEquals(0L, controller.reservedHeapSize);
+		assertEquals(0, controller.getRunningUnitsCount());
+	}
+	
+	@Test
+	void testDeferredUnit() throws InterruptedException, ExecutionException, TimeoutException { //worker thread runs other units while a unit waits for admission
+		WorkUnitScheduler scheduler = new WorkUnitScheduler(2, controller);
+		CountDownLatch firstUnitRunning = new CountDownLatch(1);
+		CountDownLatch firstUnitMayFinish = new CountDownLatch(1);
+		
+		try {
+			CompletableFuture<Integer> firstUnitDone = scheduler.submit(() -> {
+				firstUnitRunning.countDown();
+				await(firstUnitMayFinish);
+				return 1;
+			}, 10L, footprint);
+			await(firstUnitRunning);
+			CompletableFuture<Integer> secondUnitDone = scheduler.submit(() -> 2, 10L, footprint);
+			CompletableFuture<Integer> thirdUnitDone = scheduler.submit(() -> 3, 5L, 0L);
+			
+			assertEquals(3, thirdUnitDone.get(10L, TimeUnit.SECONDS).intValue());
+			assertFalse(secondUnitDone.isDone());
+			
+			firstUnitMayFinish.countDown();
+			
+			assertEquals(2, secondUnitDone.get(10L, TimeUnit.SECONDS).intValue());
+			assertEquals(1, firstUnitDone.get(10L, TimeUnit.SECONDS).intValue());
+		} finally {
+			firstUnitMayFinish.countDown();
+			scheduler.shutdown();
+		}
+	}
+	
+	@Test
+	void testDeferredUnitAfterGC() throws InterruptedException, ExecutionException, TimeoutException { //deferred unit is tried again when GC frees memory
+		WorkUnitScheduler scheduler = new WorkUnitScheduler(2, controller);
+		CountDownLatch firstUnitRunning = new CountDownLatch(1);
+		CountDownLatch firstUnitMayFinish = new CountDownLatch(1);
+		
+		try {
+			CompletableFuture<Integer> firstUnitDone = scheduler.submit(() -> {
+				firstUnitRunning.countDown();
+				await(firstUnitMayFinish);
+				return 1;
+			}, 10L, footprint);
+			await(firstUnitRunning);
+			CompletableFuture<Integer> secondUnitDone = scheduler.submit(() -> 2, 10L, footprint);
+			long deadline = System.currentTimeMillis() + 10000L;
+			while (scheduler.deferredUnits.isEmpty() && System.currentTimeMillis() < deadline) { //second unit taken by a worker thread and deferred
+				Thread.sleep(1L);
+			}
+			
+			assertFalse(secondUnitDone.isDone());
+			
+			controller.sampled((long)(0.1 * controller.maxHeapSize));
+			
+			assertEquals(2, secondUnitDone.get(10L, TimeUnit.SECONDS).intValue());
+			assertFalse(firstUnitDone.isDone());
+		} finally {
+			firstUnitMayFinish.countDown();
+			scheduler.shutdown();
+		}
+	}
+	
+}
@@ -0,0 +1,138 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.classification.SimpleClassificationResult;
+import org.rulelearn.classification.SimpleOptimizingCountingRuleClassifier;
+import org.rulelearn.classification.SimpleOptimizingCountingRuleClassifier.ResolutionStrategy;
+import org.rulelearn.data.Decision;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.data.SimpleDecision;
+import org.rulelearn.experiments.ModelValidationResult.ClassificationStatistics;
+import org.rulelearn.rules.Rule;
+import org.rulelearn.rules.RuleCoverageInformation;
+import org.rulelearn.rules.RuleSet;
+import org.rulelearn.rules.RuleSetWithComputableCharacteristics;
+import org.rulelearn.validation.OrdinalMisclassificationMatrix;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+
+class ModeRuleClassifierTest {
+	
+	static InformationTable informationTable;
+	static RuleSetWithComputableCharacteristics ruleSet;
+	static SimpleClassificationResult defaultClassificationResult;
+	static InformationTable testInformationTable;
+	
+	@BeforeAll
+	static void loadInformationTableAndRules() throws IOException {
+		informationTable = DominanceCounterTest.loadLearningSet();
+		
+		RuleSet parsedRuleSet = CompiledRuleSetTest.loadRules(informationTable);
+		Rule[] rules = new Rule[parsedRuleSet.size()];
+		RuleCoverageInformation[] ruleCoverageInformationArray = new RuleCoverageInformation[parsedRuleSet.size()];
+		for (int i = 0; i < rules.length; i++) {
+			rules[i] = parsedRuleSet.getRule(i);
+			ruleCoverageInformationArray[i] = new RuleCoverageInformation(rules[i], informationTable);
+		}
+		ruleSet = new RuleSetWithComputableCharacteristics(rules, ruleCoverageInformationArray);
+		
+		defaultClassificationResult = new SimpleClassificationResult((SimpleDecision)informationTable.getOrderedUniqueFullyDeterminedDecisions()[2]);
+		testInformationTable = informationTable.select(IntStream.range(0, informationTable.getNumberOfObjects()).filter(objectIndex -> objectIndex % 3 == 0).toArray());
+	}
+	
+	@Test
+	void testGetRuleSubset() { //covering rules resolve conflicts the same way as the whole rule set
+		ModeRuleClassifier modeRuleClassifier = new ModeRuleClassifier(ruleSet, defaultClassificationResult, null);
+		SimpleOptimizingCountingRuleClassifier classifier = new SimpleOptimizingCountingRuleClassifier(ruleSet, defaultClassificationResult);
+		CompiledRuleSet.Coverage coverage = new CompiledRuleSet(ruleSet).cover(testInformationTable);
+		
+		for (int objectIndex = 0; objectIndex < testInformationTable.getNumberOfObjects(); objectIndex++) {
+			SimpleDecision expectedDecision = classifier.classify(objectIndex, testInformationTable).getSuggestedDecision();
+			ResolutionStrategy expectedResolutionStrategy = classifier.getLatestResolutionStrategy();
+			
+			if (coverage.getNumberOfCoveringRules(objectIndex) == 0) {
+				assertEquals(ResolutionStrategy.DEFAULT, expectedResolutionStrategy, "Resolution strategy of object " + objectIndex + ".");
+				assertEquals(defaultClassificationResult.getSuggestedDecision(), expectedDecision, "Decision of object " + objectIndex + ".");
+			} else {
+				SimpleOptimizingCountingRuleClassifier coveringRulesClassifier = new SimpleOptimizingCountingRuleClassifier(
+						modeRuleClassifier.getRuleSubset(coverage.getCoveringRules(objectIndex)), defaultClassificationResult);
+				assertEquals(expectedDecision, coveringRulesClassifier.classify(objectIndex, testInformationTable).getSuggestedDecision(), "Decision of object " + objectIndex + ".");
+				assertEquals(expectedResolutionStrategy, coveringRulesClassifier.getLatestResolutionStrategy(), "Resolution strategy of object " + objectIndex + ".");
+			}
+		}
+	}
+	
+	@Test
+	void testValidate() { //same result as classification of each test object by the whole rule set
+		ModelValidationResult modelValidationResult = new ModeRuleClassifier(ruleSet, defaultClassificationResult, null).validate(new Data(testInformationTable, "test", "group"));
+		
+		SimpleOptimizingCountingRuleClassifier classifier = new SimpleOptimizingCountingRuleClassifier(ruleSet, defaultClassificationResult);
+		int testDataSize = testInformationTable.getNumberOfObjects();
+		Decision[] originalDecisions = testInformationTable.getDecisions(true);
+		SimpleDecision[] assignedDecisions = new SimpleDecision[testDataSize];
+		long preciseCorrectCount = 0L;
+		long preciseIncorrectCount = 0L;
+		long resolvingConflictCorrectCount = 0L;
+		long resolvingConflictIncorrectCount = 0L;
+		long defaultClassCorrectCount = 0L;
+		long defaultClassIncorrectCount = 0L;
+		long totalNumberOfCoveringRules = 0L;
+		
+		for (int objectIndex = 0; objectIndex < testDataSize; objectIndex++) {
+			IntList indicesOfCoveringRules = new IntArrayList();
+			assignedDecisions[objectIndex] = classifier.classify(objectIndex, testInformationTable, indicesOfCoveringRules).getSuggestedDecision();
+			totalNumberOfCoveringRules += indicesOfCoveringRules.size();
+			boolean correct = assignedDecisions[objectIndex].equals(originalDecisions[objectIndex]);
+			
+			switch (classifier.getLatestResolutionStrategy()) {
+			case MODE:
+				if (correct) {
+					resolvingConflictCorrectCount++;
+				} else {
+					resolvingConflictIncorrectCount++;
+				}
+				break;
+			case DEFAULT:
+				if (correct) {
+					defaultClassCorrectCount++;
+				} else {
+					defaultClassIncorrectCount++;
+				}
+				break;
+			default:
+				if (correct) {
+					preciseCorrectCount++;
+				} else {
+					preciseIncorrectCount++;
+				}
+				break;
+			}
+		}
+		
+		ClassificationStatistics classificationStatistics = modelValidationResult.getClassificationStatistics();
+		assertEquals(preciseCorrectCount, classificationStatistics.getPreciseCorrectCount());
+		assertEquals(preciseIncorrectCount, classificationStatistics.getPreciseIncorrectCount());
+		assertEquals(resolvingConflictCorrectCount, classificationStatistics.getResolvingConflictCorrectCount());
+		assertEquals(resolvingConflictIncorrectCount, classificationStatistics.getResolvingConflictIncorrectCount());
+		assertEquals(defaultClassCorrectCount, classificationStatistics.getDefaultClassCorrectCount());
+		assertEquals(defaultClassIncorrectCount, classificationStatistics.getDefaultClassIncorrectCount());
+		assertEquals(totalNumberOfCoveringRules, classificationStatistics.totalNumberOfCoveringRules);
+		
+		OrdinalMisclassificationMatrix expectedMisclassificationMatrix = new OrdinalMisclassificationMatrix(
+				testInformationTable.getOrderedUniqueFullyDeterminedDecisions(), originalDecisions, assignedDecisions);
+		OrdinalMisclassificationMatrix misclassificationMatrix = modelValidationResult.getOrdinalMisclassificationMatrix();
+		assertEquals(expectedMisclassificationMatrix.getAccuracy(), misclassificationMatrix.getAccuracy(), 1e-12);
+		assertEquals(expectedMisclassificationMatrix.getGmean(), misclassificationMatrix.getGmean(), 1e-12);
+		for (Decision decision : testInformationTable.getOrderedUniqueFullyDeterminedDecisions()) {
+			assertEquals(expectedMisclassificationMatrix.getTruePositiveRate(decision), misclassificationMatrix.getTruePositiveRate(decision), 1e-12);
+		}
+	}
+	
+}
@@ -0,0 +1,143 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.data.InformationTableBuilder;
+import org.rulelearn.experiments.VCDomLEMModeRuleClassifierLearnerCache.RuleSetWithComputableCharacteristicsPlusCalculationTime;
+import org.rulelearn.rules.Rule;
+import org.rulelearn.rules.RuleCoverageInformation;
+import org.rulelearn.rules.RuleSet;
+import org.rulelearn.rules.RuleSetWithComputableCharacteristics;
+import org.rulelearn.rules.ruleml.RuleParser;
+
+class RuleSetDiskCacheTest {
+	
+	static final String metadataPath = "src/test/resources/data/json-metadata/prioritisation-no-rank.json";
+	static final String objectsPath = "src/test/resources/data/json-objects/LearningSet_2604v1.json";
+	static final String rulesPath = "src/test/resources/data/ruleml/rules6.xml";
+	static final String hash = "0123abcd";
+	
+	static InformationTable informationTable;
+	static RuleSetWithComputableCharacteristicsPlusCalculationTime rules;
+	
+	Path directoryPath;
+	RuleSetDiskCache cache;
+	
+	@BeforeAll
+	static void loadInformationTableAndRules() throws IOException {
+		informationTable = InformationTableBuilder.safelyBuildFromJSONFile(metadataPath, objectsPath);
+		try (InputStream inputStream = new FileInputStream(rulesPath)) {
+			Map<Integer, RuleSet> index2RuleSet = (new RuleParser(informationTable.getAttributes())).parseRules(inputStream);
+			assertNotNull(index2RuleSet);
+			RuleSet ruleSet = index2RuleSet.get(1);
+			Rule[] ruleArray = new Rule[ruleSet.size()];
+			RuleCoverageInformation[] ruleCoverageInformationArray = new RuleCoverageInformation[ruleSet.size()];
+			for (int i = 0; i < ruleArray.length; i++) {
+				ruleArray[i] = ruleSet.getRule(i);
+				ruleCoverageInformationArray[i] = new RuleCoverageInformation(ruleArray[i], informationTable);
+			}
+			rules = new RuleSetWithComputableCharacteristicsPlusCalculationTime(new RuleSetWithComputableCharacteristics(ruleArray, ruleCoverageInformationArray), 100L, 10L);
+		}
+	}
+	
+	@BeforeEach
+	void createCache() throws IOException {
+		directoryPath = Files.createTempDirectory("rules");
+		cache = new RuleSetDiskCache(directoryPath.toString(), "VCDomLEM_test");
+	}
+	
+	@AfterEach
+	void deleteCache() throws IOException {
+		try (Stream<Path> paths = Files.walk(directoryPath)) {
+			for (Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+	
+	long countFiles() throws IOException {
+		try (Stream<Path> paths = Files.list(directoryPath)) {
+			return paths.count();
+		}
+	}
+	
+	@Test
+	void testStoreAndLoad() throws IOException {
+		cache.store(hash, 0.0, true, rules);
+		
+		assertEquals(1L, countFiles()); //no temporary file left
+		
+		RuleSetWithComputableCharacteristicsPlusCalculationTime loadedRules = cache.load(informationTable, hash, 0.0, true);
+		
+		assertNotNull(loadedRules);
+		assertTrue(loadedRules.isRestored());
+		assertEquals(0L, loadedRules.getCalculationTime()); //stored time concerns another run
+		assertEquals(rules.getRuleSet().size(), loadedRules.getRuleSet().size());
+		for (int i = 0; i < rules.getRuleSet().size(); i++) {
+			assertEquals(rules.getRuleSet().getRule(i).toString(), loadedRules.getRuleSet().getRule(i).toString());
+		}
+		assertEquals(1L, cache.getHitsCount());
+		assertEquals(0L, cache.getFailuresCount());
+	}
+	
+	@Test
+	void testStoreTwice() throws IOException { //stored file is replaced
+		cache.store(hash, 0.0, true, rules);
+		cache.store(hash, 0.0, true, rules);
+		
+		assertEquals(1L, countFiles());
+		assertNotNull(cache.load(informationTable, hash, 0.0, true));
+		assertEquals(0L, cache.getFailuresCount());
+	}
+	
+	@Test
+	void testLoadMissing() throws IOException {
+		cache.store(hash, 0.0, true, rules);
+		
+		assertNull(cache.load(informationTable, hash, 0.01, true));
+		assertNull(cache.load(informationTable, hash, 0.0, false));
+		assertNull(cache.load(informationTable, "abcd0123", 0.0, true));
+		assertNull((new RuleSetDiskCache(directoryPath.toString(), "VCDomLEM_other")).load(informationTable, hash, 0.0, true)); //rules of other version of the algorithm
+		assertEquals(3L, cache.getMissesCount());
+		assertEquals(0L, cache.getHitsCount());
+	}
+	
+	@Test
+	void testLoadMalformed() throws IOException {
+		Files.write(cache.getPath(hash, 0.0, true), "not rules".getBytes(StandardCharsets.UTF_8));
+		
+		assertNull(cache.load(informationTable, hash, 0.0, true));
+		assertEquals(1L, cache.getFailuresCount());
+	}
+	
+	@Test
+	void testStoreFailure() throws IOException { //failure to write is counted, and leaves no file
+		Files.delete(directoryPath);
+		
+		cache.store(hash, 0.0, true, rules);
+		
+		assertEquals(1L, cache.getFailuresCount());
+		assertFalse(Files.exists(directoryPath));
+		Files.createDirectories(directoryPath); //deleted after the test
+	}
+	
+}
@@ -0,0 +1,81 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.core.InvalidValueException;
+import org.rulelearn.data.Decision;
+import org.rulelearn.data.InformationTable;
+import org.rulelearn.data.InformationTableWithDecisionDistributions;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+class TestDataConsistencyCheckerTest {
+	
+	static final double[] consistencyThresholds = {0.0, 0.01, 0.1};
+	
+	static InformationTable informationTable;
+	static int[] testObjectIndices;
+	static InformationTable testInformationTable;
+	static Decision[] assignedDecisions; //decisions taken from other test objects, so some test objects become inconsistent
+	
+	@BeforeAll
+	static void loadInformationTable() throws IOException {
+		informationTable = DominanceCounterTest.loadLearningSet();
+		testObjectIndices = IntStream.range(0, informationTable.getNumberOfObjects()).filter(objectIndex -> objectIndex % 5 == 2).toArray();
+		testInformationTable = informationTable.select(testObjectIndices);
+		
+		int numberOfTestObjects = testInformationTable.getNumberOfObjects();
+		assignedDecisions = new Decision[numberOfTestObjects];
+		for (int objectIndex = 0; objectIndex < numberOfTestObjects; objectIndex++) {
+			assignedDecisions[objectIndex] = testInformationTable.getDecision(objectIndex % 3 == 0 ? (objectIndex * 7) % numberOfTestObjects : objectIndex);
+		}
+	}
+	
+	static int[] getConsistentObjects(InformationTable informationTable, double consistencyThreshold) {
+		return EpsilonConsistencyProfileTest.getUnions(new InformationTableWithDecisionDistributions(informationTable, true, true), consistencyThreshold).getNumbersOfConsistentObjects();
+	}
+	
+	void assertSameAsUnions(TestDataConsistencyChecker consistencyChecker) {
+		InformationTable informationTableWithAssignedDecisions = new InformationTable(testInformationTable, assignedDecisions, true);
+		
+		for (double consistencyThreshold : consistencyThresholds) {
+			int[] preConsistentObjects = getConsistentObjects(testInformationTable, consistencyThreshold);
+			int[] postConsistentObjects = getConsistentObjects(informationTableWithAssignedDecisions, consistencyThreshold);
+			IntSet postConsistentObjectsSet = new IntOpenHashSet(postConsistentObjects);
+			int numberOfPreAndPostConsistentObjects = (int)IntStream.of(preConsistentObjects).filter(postConsistentObjectsSet::contains).count();
+			
+			assertEquals(preConsistentObjects.length, consistencyChecker.getNumberOfConsistentObjects(consistencyThreshold));
+			assertEquals(preConsistentObjects.length, consistencyChecker.getNumberOfConsistentObjects(testInformationTable.getDecisions(true), consistencyThreshold));
+			assertEquals(postConsistentObjects.length, consistencyChecker.getNumberOfConsistentObjects(assignedDecisions, consistencyThreshold));
+			assertEquals(numberOfPreAndPostConsistentObjects, consistencyChecker.getNumberOfPreAndPostConsistentObjects(assignedDecisions, consistencyThreshold));
+		}
+	}
+	
+	@Test
+	void testGetNumberOfConsistentObjects01() { //counter constructed for test data
+		assertSameAsUnions(new TestDataConsistencyChecker(new Data(testInformationTable, "test", "group")));
+	}
+	
+	@Test
+	void testGetNumberOfConsistentObjects02() { //restricted view of the counter of the full data set, as for a cross-validation fold
+		Data testData = new Data(testInformationTable, "test", "group");
+		testData.dominanceCounter = DominanceCounter.of(informationTable).restrictTo(testObjectIndices);
+		
+		assertSameAsUnions(new TestDataConsistencyChecker(testData));
+	}
+	
+	@Test
+	void testGetNumberOfConsistentObjects03() {
+		TestDataConsistencyChecker consistencyChecker = new TestDataConsistencyChecker(new Data(testInformationTable, "test", "group"));
+		
+		assertThrows(InvalidValueException.class, () -> consistencyChecker.getNumberOfConsistentObjects(new Decision[] {assignedDecisions[0]}, 0.0));
+	}
+	
+}
@@ -0,0 +1,154 @@
+package org.rulelearn.experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rulelearn.core.InvalidValueException;
+
+class WorkUnitSchedulerTest {
+	
+	WorkUnitScheduler scheduler;
+	CountDownLatch blockerStarted;
+	CountDownLatch blockerReleased;
+	
+	@BeforeEach
+	void createScheduler() {
+		scheduler = new WorkUnitScheduler(1);
+		blockerStarted = new CountDownLatch(1);
+		blockerReleased = new CountDownLatch(1);
+	}
+	
+	@AfterEach
+	void shutdownScheduler() {
+		blockerReleased.countDown();
+		scheduler.shutdown();
+	}
+	
+	CompletableFuture<Void> submitBlocker() throws InterruptedException { //occupies the only worker thread, so subsequently submitted units are queued
+		CompletableFuture<Void> blockerDone = scheduler.submit(() -> {
+			blockerStarted.countDown();
+			try {
+				blockerReleased.await(10L, TimeUnit.SECONDS);
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		});
+		assertTrue(blockerStarted.await(10L, TimeUnit.SECONDS));
+		return blockerDone;
+	}
+	
+	@Test
+	void testWorkUnitScheduler() {
+		assertThrows(InvalidValueException.class, () -> new WorkUnitScheduler(0));
+	}
+	
+	@Test
+	void testSubmit01() throws InterruptedException { //queued units are run by decreasing estimated cost, units with unknown cost and prerequisite units first
+		List<String> runUnits = Collections.synchronizedList(new ArrayList<String>());
+		List<CompletableFuture<String>> unitsDone = new ArrayList<CompletableFuture<String>>();
+		
+		submitBlocker();
+		for (String name : Arrays.asList("10", "30", "-1", "20", "prerequisite")) {
+			if (name.equals("prerequisite")) {
+				unitsDone.add(scheduler.submit(() -> {
+					runUnits.add(name);
+					return name;
+				}));
+			} else {
+				unitsDone.add(scheduler.submit(() -> {
+					runUnits.add(name);
+					return name;
+				}, Long.parseLong(name)));
+			}
+		}
+		blockerReleased.countDown();
+		CompletableFuture.allOf(unitsDone.toArray(new CompletableFuture<?>[0])).join();
+		
+		assertEquals(Arrays.asList("prerequisite", "-1", "30", "20", "10"), runUnits);
+		assertEquals("30", unitsDone.get(1).join());
+	}
+	
+	@Test
+	void testSubmit02() throws InterruptedException { //units with equal estimated costs are run in the order of submission
+		List<Integer> runUnits = Collections.synchronizedList(new ArrayList<Integer>());
+		List<CompletableFuture<Integer>> unitsDone = new ArrayList<CompletableFuture<Integer>>();
+		
+		submitBlocker();
+		for (int i = 0; i < 5; i++) {
+			int unitNumber = i;
+			unitsDone.add(scheduler.submit(() -> {
+				runUnits.add(unitNumber);
+				return unitNumber;
+			}, 100L));
+		}
+		blockerReleased.countDown();
+		CompletableFuture.allOf(unitsDone.toArray(new CompletableFuture<?>[0])).join();
+		
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4), runUnits);
+	}
+	
+	@Test
+	void testSubmitAfter01() { //unit gets result of its dependency
+		CompletableFuture<Integer> dependency = scheduler.submit(() -> 20);
+		
+		assertEquals(Integer.valueOf(21), scheduler.submitAfter(dependency, value -> value + 1, 5L).join());
+	}
+	
+	@Test
+	void testSubmitAfter02() { //unit is not run if its dependency fails, and is not counted as pending any more
+		List<String> runUnits = Collections.synchronizedList(new ArrayList<String>());
+		CompletableFuture<String> dependency = new CompletableFuture<String>();
+		dependency.completeExceptionally(new IllegalStateException("preprocessing failed"));
+		
+		CompletableFuture<String> unitDone = scheduler.submitAfter(dependency, value -> {
+			runUnits.add(value);
+			return value;
+		}, 5L);
+		
+		CompletionException exception = assertThrows(CompletionException.class, () -> unitDone.join());
+		assertTrue(exception.getCause() instanceof IllegalStateException);
+		assertTrue(runUnits.isEmpty());
+		assertEquals(0, scheduler.pendingUnitsCount.get());
+	}
+	
+	@Test
+	void testAwaitFreeCapacity() throws InterruptedException { //feeding thread waits until the number of not started units drops to the number of threads
+		CountDownLatch capacityFreed = new CountDownLatch(1);
+		
+		CompletableFuture<Void> blockerDone = submitBlocker();
+		CompletableFuture<Integer> unit1Done = scheduler.submit(() -> 1, 10L);
+		CompletableFuture<Integer> unit2Done = scheduler.submit(() -> 2, 10L);
+		assertEquals(2, scheduler.pendingUnitsCount.get());
+		
+		Thread feedingThread = new Thread(() -> {
+			scheduler.awaitFreeCapacity();
+			capacityFreed.countDown();
+		});
+		feedingThread.start();
+		
+		assertFalse(capacityFreed.await(200L, TimeUnit.MILLISECONDS)); //both units wait for the only worker thread
+		
+		blockerReleased.countDown();
+		
+		assertTrue(capacityFreed.await(10L, TimeUnit.SECONDS));
+		feedingThread.join();
+		CompletableFuture.allOf(blockerDone, unit1Done, unit2Done).join();
+		assertEquals(0, scheduler.pendingUnitsCount.get());
+	}
+	
+}